@@ -0,0 +1,113 @@
+package com.damaya.kalah.benchmarks;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.interfaces.GameRules;
+import com.damaya.kalah.core.usecases.bot.AlphaBetaBot;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches per second of {@link AlphaBetaBot} with 1 to 8 threads, and searched nodes per second in the
+ * {@code nodes} secondary result. Every operation searches the same kalah positions to a fixed depth with an empty
+ * transposition table and no time limit, so the speedup of N threads is the score of N threads divided by the score
+ * of 1 thread.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar BotSearchBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BotSearchBenchmark {
+
+    private static final int POSITIONS = 4;
+    private static final int LEVEL = 5;
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    private AlphaBetaBot bot;
+    private final List<Game> positions = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bot = new AlphaBetaBot(1 << 20, TimeUnit.HOURS.toMillis(1), threads);
+        //positions after some random opening moves, the same for every thread count
+        SplittableRandom random = new SplittableRandom(29012020);
+        GameRules rules = GameVariants.rules(GameVariant.KALAH);
+        while(positions.size() < POSITIONS){
+            Game game = Game.builder()
+                    .id("benchmark")
+                    .startedAt(new Date())
+                    .turn(GameTurn.PLAYER_ONE)
+                    .board(Board.builder().pits(rules.deal()).build())
+                    .variant(GameVariant.KALAH)
+                    .build();
+            for(int move = 0; move < 4 * (positions.size() + 1) && game.getFinishedAt() == null; move++){
+                int first = game.getTurn() == GameTurn.PLAYER_ONE ? 0 : 7;
+                int pit = first + random.nextInt(6);
+                if(game.getBoard().getPits()[pit] > 0){
+                    rules.playMove(game, pit + 1, new Date());
+                }
+            }
+            if(game.getFinishedAt() == null){
+                positions.add(game);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bot.close();
+    }
+
+    /**
+     * Nodes searched by the measured operations
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        bot.clearTable();
+    }
+
+    @Benchmark
+    public int search(Nodes counter) {
+        long before = bot.getSearchedNodes();
+        int moves = 0;
+        for(Game game : positions){
+            moves += bot.chooseMove(game, LEVEL);
+        }
+        counter.nodes += bot.getSearchedNodes() - before;
+        return moves;
+    }
+}
@@ -0,0 +1,90 @@
+package com.damaya.kalah.benchmarks;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.interfaces.BoardEngine;
+import com.damaya.kalah.core.interfaces.GameBot;
+import com.damaya.kalah.core.interfaces.GameEngine;
+import com.damaya.kalah.core.interfaces.GameService;
+import com.damaya.kalah.core.interfaces.GameStorage;
+import com.damaya.kalah.core.usecases.ArrayBoardEngine;
+import com.damaya.kalah.core.usecases.DirectGameEngine;
+import com.damaya.kalah.core.usecases.GameServiceImpl;
+import com.damaya.kalah.core.usecases.TimeOrderedGameIdGenerator;
+import com.damaya.kalah.core.usecases.bot.AlphaBetaBot;
+import com.damaya.kalah.core.usecases.sharded.ShardedGameEngine;
+import com.damaya.kalah.datastore.memory.InMemoryGameStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves per second of {@link ShardedGameEngine} with 1 to 8 shards, compared with {@link DirectGameEngine}
+ * (shards 0). Every benchmark thread plays its own games; run it with {@code -t} set to the available cores to see
+ * how each engine scales.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar GameEngineBenchmark -t 8
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class GameEngineBenchmark {
+
+    @Param({"0", "1", "2", "4", "8"})
+    private int shards;
+
+    private AnnotationConfigApplicationContext context;
+    private GameEngine engine;
+
+    @State(Scope.Thread)
+    public static class PlayerState {
+        private Game game;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(InMemoryGameStorage.class, TimeOrderedGameIdGenerator.class,
+                ArrayBoardEngine.class, AlphaBetaBot.class, GameServiceImpl.class);
+        GameService service = context.getBean(GameService.class);
+        engine = shards == 0
+                ? new DirectGameEngine(service)
+                : new ShardedGameEngine(service, context.getBean(GameStorage.class),
+                        context.getBean(BoardEngine.class), context.getBean(GameBot.class), shards, 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        if(engine instanceof ShardedGameEngine){
+            ((ShardedGameEngine) engine).close();
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public Game move(PlayerState player) {
+        if(player.game == null || player.game.getFinishedAt() != null){
+            player.game = engine.create().join();
+        }
+        player.game = engine.makeMove(player.game.getId(), JournalGameStorageBenchmark.randomNonEmptyPit(player.game))
+                .join();
+        return player.game;
+    }
+}
@@ -0,0 +1,90 @@
+package com.damaya.kalah.benchmarks;
+
+import com.damaya.kalah.converters.GameJsonWriter;
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.dtos.GameResponse;
+import com.damaya.kalah.mappers.GameResponseMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move responses rendered per microsecond: with Jackson over a {@link HashMap} status, as the responses were
+ * rendered before {@link GameJsonWriter}, with Jackson over the status view of the mapper, and with the writer.
+ * Run it with the GC profiler to compare the bytes allocated per response ({@code gc.alloc.rate.norm}).
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar GameResponseBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameResponseBenchmark {
+
+    private static final String GAMES_URL = "http://localhost:8080/games";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final GameJsonWriter writer = new GameJsonWriter(512);
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+    private final Game game = Game.builder()
+            .id("AXvK1Yg2t0e6vQ9bZx3qWA")
+            .startedAt(new Date())
+            .turn(GameTurn.PLAYER_TWO)
+            .board(Board.builder().pits(new int[]{4, 0, 8, 8, 1, 7, 3, 7, 0, 7, 7, 7, 6, 1}).build())
+            .build();
+
+    @Benchmark
+    public int jacksonHashMap() throws IOException {
+        out.reset();
+        mapper.writeValue(out, GameResponse.builder()
+                .id(game.getId())
+                .status(hashMapStatus(game.getBoard().getPits()))
+                .url(GAMES_URL + "/" + game.getId())
+                .build());
+        return out.size();
+    }
+
+    @Benchmark
+    public int jacksonPitStatus() throws IOException {
+        out.reset();
+        mapper.writeValue(out, GameResponseMapper.map(game, GAMES_URL));
+        return out.size();
+    }
+
+    @Benchmark
+    public int direct() throws IOException {
+        out.reset();
+        writer.encode(GameResponseMapper.map(game, GAMES_URL)).writeTo(out);
+        return out.size();
+    }
+
+    /**
+     * Status map as the mapper built it before the pit status view
+     */
+    private static Map<String, String> hashMapStatus(int[] pits) {
+        Map<String, String> status = new HashMap<>();
+        for(int i = 1; i <= pits.length; i++){
+            status.put(String.valueOf(i), String.valueOf(pits[i - 1]));
+        }
+        return status;
+    }
+}
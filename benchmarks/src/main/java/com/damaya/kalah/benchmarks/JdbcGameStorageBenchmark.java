@@ -0,0 +1,89 @@
+package com.damaya.kalah.benchmarks;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.interfaces.GameStorage;
+import com.damaya.kalah.core.usecases.GameUtils;
+import com.damaya.kalah.datastore.jdbc.JdbcGameStorage;
+import com.damaya.kalah.datastore.memory.InMemoryGameStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Moves per second and move latency percentiles of {@link JdbcGameStorage}, writing behind to an embedded H2
+ * database, compared with {@link InMemoryGameStorage}. Each move is played the way the game service does it:
+ * under the game lock, find, play and save.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar JdbcGameStorageBenchmark
+ * </pre>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class JdbcGameStorageBenchmark {
+
+    @Param({"memory", "jdbc"})
+    private String storageType;
+
+    private GameStorage storage;
+
+    @State(Scope.Thread)
+    public static class PlayerState {
+        private String gameId;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storage = "jdbc".equals(storageType)
+                ? new JdbcGameStorage("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "", 4, 500,
+                        50, 100_000, "BLOB")
+                : new InMemoryGameStorage();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if(storage instanceof JdbcGameStorage){
+            ((JdbcGameStorage) storage).close();
+        }
+    }
+
+    @Benchmark
+    public Game move(PlayerState player) {
+        if(player.gameId == null){
+            player.gameId = storage.save(JournalGameStorageBenchmark.newGame()).getId();
+        }
+        Lock lock = storage.getLock(player.gameId);
+        lock.lock();
+        try{
+            Game game = storage.findById(player.gameId).orElseThrow(IllegalStateException::new);
+            int pitId = JournalGameStorageBenchmark.randomNonEmptyPit(game);
+            GameUtils.playMove(game, pitId, new Date());
+            if(game.getFinishedAt() != null){
+                player.gameId = null;
+            }
+            return storage.saveMove(game, pitId);
+        }finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.damaya.kalah.benchmarks;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.usecases.GameUtils;
+import com.damaya.kalah.datastore.journal.FsyncPolicy;
+import com.damaya.kalah.datastore.journal.JournalGameStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Moves per second stored by {@link JournalGameStorage} with each {@link FsyncPolicy}. Several threads move
+ * concurrently, so with {@link FsyncPolicy#ALWAYS} the group commit shares each fsync among them.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar JournalGameStorageBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class JournalGameStorageBenchmark {
+
+    @Param({"ALWAYS", "INTERVAL", "NEVER"})
+    private FsyncPolicy fsync;
+
+    private Path directory;
+    private JournalGameStorage storage;
+
+    @State(Scope.Thread)
+    public static class PlayerState {
+        private Game game;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("kalah-journal-benchmark");
+        storage = new JournalGameStorage(directory.toString(), fsync, 10, 64L * 1024 * 1024, 1_000_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        storage.close();
+        try(Stream<Path> files = Files.walk(directory)){
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Game move(PlayerState player) {
+        if(player.game == null || player.game.getFinishedAt() != null){
+            player.game = storage.save(newGame());
+        }
+        Game game = player.game;
+        int pitId = randomNonEmptyPit(game);
+        GameUtils.playMove(game, pitId, new Date());
+        return storage.saveMove(game, pitId);
+    }
+
+    static Game newGame() {
+        return Game.builder()
+                .id(UUID.randomUUID().toString())
+                .startedAt(new Date())
+                .turn(GameTurn.PLAYER_ONE)
+                .board(Board.builder().pits(GameUtils.dealGame(6)).build())
+                .build();
+    }
+
+    static int randomNonEmptyPit(Game game) {
+        int[] pits = game.getBoard().getPits();
+        int first = game.getTurn().equals(GameTurn.PLAYER_ONE) ? 0 : 7;
+        int start = ThreadLocalRandom.current().nextInt(6);
+        for(int i = 0; i < 6; i++){
+            int index = first + (start + i) % 6;
+            if(pits[index] > 0){
+                return index + 1;
+            }
+        }
+        throw new IllegalStateException("Player has no stones but the game is not finished");
+    }
+}
@@ -0,0 +1,82 @@
+package com.damaya.kalah.benchmarks;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.entities.enums.MoveCheck;
+import com.damaya.kalah.core.interfaces.GameRules;
+import com.damaya.kalah.core.usecases.GameUtils;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nanoseconds to reject a move from the adversary pit: {@link GameUtils#validateMove(Game, int)} builds a new
+ * exception with its stack trace, {@link GameRules#validateMove(Game, int)} throws a preallocated one without stack
+ * trace and {@link GameRules#checkMove(Game, int)} only returns a code. {@code validMove} checks an allowed move as
+ * the reference. The stack of a request thread is deeper than the benchmark one, so filling the stack trace costs
+ * even more in the server.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar MoveValidationBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveValidationBenchmark {
+
+    private static final int ADVERSARY_PIT = 9;
+
+    private final GameRules rules = GameVariants.rules(GameVariant.KALAH);
+    private final Game game = Game.builder()
+            .id("game")
+            .startedAt(new Date())
+            .turn(GameTurn.PLAYER_ONE)
+            .board(Board.builder().pits(GameUtils.dealGame(6)).build())
+            .variant(GameVariant.KALAH)
+            .build();
+
+    @Benchmark
+    public Object gameUtilsException() {
+        try{
+            GameUtils.validateMove(game, ADVERSARY_PIT);
+            return null;
+        }catch (Exception e){
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object preallocatedException() {
+        try{
+            rules.validateMove(game, ADVERSARY_PIT);
+            return null;
+        }catch (Exception e){
+            return e;
+        }
+    }
+
+    @Benchmark
+    public MoveCheck checkMove() {
+        return rules.checkMove(game, ADVERSARY_PIT);
+    }
+
+    @Benchmark
+    public MoveCheck validMove() {
+        return rules.checkMove(game, 1);
+    }
+}
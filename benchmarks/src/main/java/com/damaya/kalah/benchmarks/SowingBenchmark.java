@@ -0,0 +1,60 @@
+package com.damaya.kalah.benchmarks;
+
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.usecases.GameUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nanoseconds to sow a pit holding from 1 to 500 stones, with the closed-form
+ * {@link GameUtils#distributeStones(int[], int, GameTurn)} and the stone by stone
+ * {@link GameUtils#distributeStonesOneByOne(int[], int, GameTurn)}. Both copy the board first, so the copy cost is
+ * the same in every result.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar SowingBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SowingBenchmark {
+
+    @Param({"1", "6", "13", "25", "50", "100", "250", "500"})
+    private int stones;
+
+    private final int[] board = new int[14];
+    private final int[] pits = new int[14];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.arraycopy(GameUtils.dealGame(6), 0, board, 0, board.length);
+        board[2] = stones;
+    }
+
+    @Benchmark
+    public int byLaps() {
+        System.arraycopy(board, 0, pits, 0, pits.length);
+        return GameUtils.distributeStones(pits, 2, GameTurn.PLAYER_ONE);
+    }
+
+    @Benchmark
+    public int oneByOne() {
+        System.arraycopy(board, 0, pits, 0, pits.length);
+        return GameUtils.distributeStonesOneByOne(pits, 2, GameTurn.PLAYER_ONE);
+    }
+}
@@ -0,0 +1,119 @@
+package com.damaya.kalah.benchmarks;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.interfaces.GameRules;
+import com.damaya.kalah.core.usecases.GameUtils;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sowings per microsecond of every {@link GameVariant} with its table-driven rules. Both sides play random moves
+ * until one of them is empty and then the board is dealt again. {@code gameUtils} plays kalah with
+ * {@link GameUtils} as the reference for the tables.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar VariantBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariantBenchmark {
+
+    @State(Scope.Thread)
+    public static class VariantState extends Player {
+        @Param({"KALAH", "KALAH_6_4", "KALAH_4_3", "KALAH_NO_CAPTURE", "OWARE"})
+        private GameVariant variant;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            start(variant);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class KalahState extends Player {
+        @Setup(Level.Trial)
+        public void setUp() {
+            start(GameVariant.KALAH);
+        }
+    }
+
+    @Benchmark
+    public int tableRules(VariantState player) {
+        return player.playWithRules();
+    }
+
+    @Benchmark
+    public int gameUtils(KalahState player) {
+        return player.playWithGameUtils();
+    }
+
+    /**
+     * Random player of both sides, it deals again when the game finishes
+     */
+    public abstract static class Player {
+        private final SplittableRandom random = new SplittableRandom(29012020);
+        private GameRules rules;
+        private int[] pits;
+        private GameTurn turn;
+
+        void start(GameVariant variant) {
+            rules = GameVariants.rules(variant);
+            deal();
+        }
+
+        int playWithRules() {
+            int last = rules.sow(pits, randomNonEmptyPit(), turn);
+            nextTurn(Objects.isNull(rules.getWinner(pits)));
+            return last;
+        }
+
+        int playWithGameUtils() {
+            int last = GameUtils.distributeStones(pits, randomNonEmptyPit(), turn);
+            nextTurn(Objects.isNull(GameUtils.getWinner(Board.builder().pits(pits).build())));
+            return last;
+        }
+
+        private void nextTurn(boolean playing) {
+            if(playing){
+                turn = turn == GameTurn.PLAYER_ONE ? GameTurn.PLAYER_TWO : GameTurn.PLAYER_ONE;
+            }else{
+                deal();
+            }
+        }
+
+        private void deal() {
+            pits = rules.deal();
+            turn = GameTurn.PLAYER_ONE;
+        }
+
+        private int randomNonEmptyPit() {
+            int pitsPerSide = rules.getVariant().getPitsPerSide();
+            int first = turn == GameTurn.PLAYER_ONE ? 0 : pitsPerSide + 1;
+            int pit = first + random.nextInt(pitsPerSide);
+            while(pits[pit] == 0){
+                pit = pit == first + pitsPerSide - 1 ? first : pit + 1;
+            }
+            return pit;
+        }
+    }
+}
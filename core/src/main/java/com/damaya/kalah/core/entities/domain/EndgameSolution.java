@@ -0,0 +1,23 @@
+package com.damaya.kalah.core.entities.domain;
+
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Result of a position when both players play perfectly
+ */
+@Data
+@Builder
+public class EndgameSolution {
+    private GameTurn winner;
+    /**
+     * Best move of the player in turn, from 1
+     */
+    private int bestPitId;
+    /**
+     * Stones of each side when the game finishes
+     */
+    private int stonesPlayerOne;
+    private int stonesPlayerTwo;
+}
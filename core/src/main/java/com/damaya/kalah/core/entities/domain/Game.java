@@ -1,12 +1,17 @@
 package com.damaya.kalah.core.entities.domain;
 
 import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
 import lombok.Builder;
 import lombok.Data;
 import lombok.With;
 
 import java.util.Date;
 
+/**
+ * State of a game. Stored games are snapshots: moves are played on a copy that a save publishes in place of the
+ * previous snapshot, so a game read from the storage is never modified afterwards
+ */
 @With
 @Data
 @Builder
@@ -19,4 +24,20 @@ public class Game {
     private Date startedAt;
     private Date finishedAt;
     private GameTurn winner;
+    /**
+     * Rules of the game, null for games created as plain kalah before variants existed
+     */
+    private GameVariant variant;
+    /**
+     * Level of the bot playing as player two, null when both players are humans
+     */
+    private Integer botLevel;
+    /**
+     * Moves played, null when the storage does not keep the history of the game
+     */
+    private MoveLog moves;
+    /**
+     * Number of saved changes of the game, every move publishes the next version
+     */
+    private long version;
 }
@@ -0,0 +1,231 @@
+package com.damaya.kalah.core.entities.domain;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moves played in a game, packed two per byte with 4 bits per pit index. Every {@link #CHECKPOINT_INTERVAL} moves
+ * the board is copied with a byte per pit, so any ply is rebuilt by replaying at most that many moves and the
+ * history costs about a byte per move.
+ * <p>
+ * The moves are kept in an append-only buffer that copies share: a log only reads the moves before its size, and
+ * the first log to claim the next move of the buffer appends in place. Another log appending at the same size
+ * copies the buffer first, so copying a log costs nothing and a game that is copied on every move still costs a
+ * few bytes per move.
+ */
+public final class MoveLog {
+
+    /**
+     * Moves between two copies of the board
+     */
+    public static final int CHECKPOINT_INTERVAL = 32;
+    /**
+     * Pits of the largest board whose indexes fit in 4 bits
+     */
+    public static final int MAX_PITS = 16;
+    private static final int MAX_STONES = 0xFF;
+
+    private final int totalPits;
+    private Buffer buffer;
+    private int size;
+
+    private MoveLog(int totalPits, Buffer buffer, int size) {
+        this.totalPits = totalPits;
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    /**
+     * @param pits board before the first move
+     * @return empty log of a game starting with the board
+     */
+    public static MoveLog startingAt(int[] pits) {
+        if(pits.length > MAX_PITS){
+            throw new IllegalArgumentException("Move logs support boards of up to " + MAX_PITS + " pits");
+        }
+        checkStones(pits);
+        Buffer buffer = new Buffer(new byte[CHECKPOINT_INTERVAL / 2], new byte[pits.length], 0);
+        writeCheckpoint(buffer, 0, pits);
+        return new MoveLog(pits.length, buffer, 0);
+    }
+
+    /**
+     * Record a played move
+     * @param index pit index of the move, from 0
+     * @param pitsAfter board after the move
+     */
+    public void append(int index, int[] pitsAfter) {
+        if(index < 0 || index >= totalPits){
+            throw new IllegalArgumentException("Pit index should be between 0 and " + (totalPits - 1));
+        }
+        int next = size + 1;
+        boolean checkpoint = next % CHECKPOINT_INTERVAL == 0;
+        if(checkpoint){
+            checkStones(pitsAfter);
+        }
+        if(!fits(buffer, next) || !buffer.claimed.compareAndSet(size, next)){
+            //full, or another log already appended to this buffer at this size
+            buffer = copyOf(next);
+        }
+        buffer.moves[size / 2] |= (byte) (size % 2 == 0 ? index : index << 4);
+        if(checkpoint){
+            writeCheckpoint(buffer, next / CHECKPOINT_INTERVAL * totalPits, pitsAfter);
+        }
+        size = next;
+    }
+
+    /**
+     * @return moves played
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param ply move number, from 0
+     * @return pit index of the move, from 0
+     */
+    public int move(int ply) {
+        if(ply < 0 || ply >= size){
+            throw new IllegalArgumentException("Ply should be between 0 and " + (size - 1));
+        }
+        return (buffer.moves[ply / 2] >> (ply % 2 == 0 ? 0 : 4)) & 0xF;
+    }
+
+    /**
+     * @param ply move number, from 0
+     * @return board of the nearest checkpoint at or before the ply, taken at ply
+     * {@code ply / CHECKPOINT_INTERVAL * CHECKPOINT_INTERVAL}
+     */
+    public int[] checkpointBefore(int ply) {
+        if(ply < 0 || ply > size){
+            throw new IllegalArgumentException("Ply should be between 0 and " + size);
+        }
+        int offset = ply / CHECKPOINT_INTERVAL * totalPits;
+        int[] pits = new int[totalPits];
+        for(int pit = 0; pit < totalPits; pit++){
+            pits[pit] = buffer.checkpoints[offset + pit] & MAX_STONES;
+        }
+        return pits;
+    }
+
+    /**
+     * @return copy that records its own moves, sharing the moves recorded so far
+     */
+    public MoveLog copy() {
+        return new MoveLog(totalPits, buffer, size);
+    }
+
+    /**
+     * @return moves and checkpoints as bytes: move count, board pits, packed moves and checkpoints
+     */
+    public byte[] toBytes() {
+        int moveBytes = (size + 1) / 2;
+        int checkpointBytes = (size / CHECKPOINT_INTERVAL + 1) * totalPits;
+        ByteBuffer bytes = ByteBuffer.allocate(Integer.BYTES + 1 + moveBytes + checkpointBytes)
+                .putInt(size)
+                .put((byte) totalPits)
+                .put(buffer.moves, 0, moveBytes);
+        if(size % 2 != 0){
+            //the high half may hold the next move of a longer log sharing the buffer
+            bytes.put(bytes.position() - 1, (byte) (buffer.moves[size / 2] & 0xF));
+        }
+        return bytes.put(buffer.checkpoints, 0, checkpointBytes).array();
+    }
+
+    /**
+     * @param bytes bytes written by {@link #toBytes()}
+     * @return log of the bytes
+     */
+    public static MoveLog fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int size = buffer.getInt();
+        int totalPits = buffer.get();
+        int moveBytes = (size + 1) / 2;
+        int checkpointBytes = (size / CHECKPOINT_INTERVAL + 1) * totalPits;
+        if(size < 0 || totalPits <= 0 || totalPits > MAX_PITS || buffer.remaining() != moveBytes + checkpointBytes){
+            throw new IllegalArgumentException("Bytes are not a move log");
+        }
+        byte[] moves = new byte[Math.max(CHECKPOINT_INTERVAL / 2, moveBytes)];
+        byte[] checkpoints = new byte[checkpointBytes];
+        buffer.get(moves, 0, moveBytes);
+        buffer.get(checkpoints);
+        return new MoveLog(totalPits, new Buffer(moves, checkpoints, size), size);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof MoveLog && Arrays.equals(toBytes(), ((MoveLog) other).toBytes());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toBytes());
+    }
+
+    @Override
+    public String toString() {
+        return "MoveLog(size=" + size + ")";
+    }
+
+    /**
+     * @return whether the buffer has room for the moves and their checkpoints
+     */
+    private boolean fits(Buffer target, int moves) {
+        return (moves + 1) / 2 <= target.moves.length
+                && (moves / CHECKPOINT_INTERVAL + 1) * totalPits <= target.checkpoints.length;
+    }
+
+    /**
+     * @param moves moves the new buffer is claimed for
+     * @return buffer of its own with the moves of this log, growing when the current one is full
+     */
+    private Buffer copyOf(int moves) {
+        int moveBytes = (size + 1) / 2;
+        int checkpointBytes = (size / CHECKPOINT_INTERVAL + 1) * totalPits;
+        int capacity = fits(buffer, moves) ? buffer.moves.length : buffer.moves.length * 2;
+        byte[] copiedMoves = new byte[capacity];
+        byte[] copiedCheckpoints = new byte[(capacity * 2 / CHECKPOINT_INTERVAL + 1) * totalPits];
+        System.arraycopy(buffer.moves, 0, copiedMoves, 0, moveBytes);
+        System.arraycopy(buffer.checkpoints, 0, copiedCheckpoints, 0, checkpointBytes);
+        if(size % 2 != 0){
+            copiedMoves[size / 2] &= 0xF;
+        }
+        return new Buffer(copiedMoves, copiedCheckpoints, moves);
+    }
+
+    private static void checkStones(int[] pits) {
+        for(int stones : pits){
+            if(stones < 0 || stones > MAX_STONES){
+                throw new IllegalArgumentException("Pits of a move log should have between 0 and " + MAX_STONES
+                        + " stones");
+            }
+        }
+    }
+
+    private static void writeCheckpoint(Buffer target, int offset, int[] pits) {
+        for(int pit = 0; pit < pits.length; pit++){
+            target.checkpoints[offset + pit] = (byte) pits[pit];
+        }
+    }
+
+    /**
+     * Moves and checkpoints shared by the copies of a log. Each move is written once, by the log that claimed it
+     */
+    private static final class Buffer {
+
+        private final byte[] moves;
+        private final byte[] checkpoints;
+        /**
+         * Moves claimed by the logs sharing the buffer
+         */
+        private final AtomicInteger claimed;
+
+        private Buffer(byte[] moves, byte[] checkpoints, int claimed) {
+            this.moves = moves;
+            this.checkpoints = checkpoints;
+            this.claimed = new AtomicInteger(claimed);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.damaya.kalah.core.entities.enums;
+
+/**
+ * How the last sown stone captures stones
+ */
+public enum CaptureRule {
+    /**
+     * No captures
+     */
+    NONE,
+    /**
+     * Landing in an empty pit of the player captures it and the opposite pit into the player house
+     */
+    EMPTY_PIT,
+    /**
+     * Making 2 or 3 stones in an adversary pit captures it and the previous adversary pits with 2 or 3 stones,
+     * unless that takes every adversary stone. Houses are not sown, so there are no extra turns
+     */
+    TWO_OR_THREE
+}
@@ -0,0 +1,71 @@
+package com.damaya.kalah.core.entities.enums;
+
+import java.util.Optional;
+
+/**
+ * Mancala variants that can be played. Storages persist the ordinal, so new variants must be added last
+ */
+public enum GameVariant {
+    KALAH("kalah", 6, 6, CaptureRule.EMPTY_PIT),
+    KALAH_6_4("kalah-6-4", 6, 4, CaptureRule.EMPTY_PIT),
+    KALAH_4_3("kalah-4-3", 4, 3, CaptureRule.EMPTY_PIT),
+    KALAH_NO_CAPTURE("kalah-no-capture", 6, 6, CaptureRule.NONE),
+    OWARE("oware", 6, 4, CaptureRule.TWO_OR_THREE);
+
+    private final String variantName;
+    private final int pitsPerSide;
+    private final int stonesPerPit;
+    private final CaptureRule captureRule;
+
+    GameVariant(String variantName, int pitsPerSide, int stonesPerPit, CaptureRule captureRule) {
+        this.variantName = variantName;
+        this.pitsPerSide = pitsPerSide;
+        this.stonesPerPit = stonesPerPit;
+        this.captureRule = captureRule;
+    }
+
+    /**
+     * @return name used in the API
+     */
+    public String getVariantName() {
+        return variantName;
+    }
+
+    /**
+     * @return pits of each player, without the house
+     */
+    public int getPitsPerSide() {
+        return pitsPerSide;
+    }
+
+    /**
+     * @return stones dealt in each pit
+     */
+    public int getStonesPerPit() {
+        return stonesPerPit;
+    }
+
+    public CaptureRule getCaptureRule() {
+        return captureRule;
+    }
+
+    /**
+     * @return pits of the board, houses included
+     */
+    public int getTotalPits() {
+        return 2 * (pitsPerSide + 1);
+    }
+
+    /**
+     * @param variantName name used in the API
+     * @return variant with that name
+     */
+    public static Optional<GameVariant> fromName(String variantName) {
+        for(GameVariant variant : values()){
+            if(variant.variantName.equals(variantName)){
+                return Optional.of(variant);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,27 @@
+package com.damaya.kalah.core.entities.enums;
+
+/**
+ * Result of checking a move, so rejected moves can be reported without exceptions
+ */
+public enum MoveCheck {
+    VALID(null),
+    GAME_FINISHED("Game is already finished"),
+    PIT_OUT_OF_RANGE("PitId should be between 1 and %d"),
+    ADVERSARY_PIT("Player is trying to move stone from adversary pit"),
+    HOUSE_PIT("Stones from the house cannot be moved"),
+    EMPTY_PIT("There are no stones in the pit");
+
+    private final String message;
+
+    MoveCheck(String message) {
+        this.message = message;
+    }
+
+    /**
+     * @param totalPits pits of the board, houses included
+     * @return reason why the move is rejected, null when it is valid
+     */
+    public String getMessage(int totalPits) {
+        return this == PIT_OUT_OF_RANGE ? String.format(message, totalPits) : message;
+    }
+}
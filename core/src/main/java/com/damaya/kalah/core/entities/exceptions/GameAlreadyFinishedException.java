@@ -4,4 +4,13 @@ public class GameAlreadyFinishedException extends Exception {
     public GameAlreadyFinishedException(String message) {
         super(message);
     }
+
+    /**
+     * @param message detail message
+     * @param writableStackTrace false for exceptions allocated once and thrown many times, which skip filling the
+     * stack trace
+     */
+    public GameAlreadyFinishedException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
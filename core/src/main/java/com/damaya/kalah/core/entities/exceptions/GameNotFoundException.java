@@ -4,4 +4,13 @@ public class GameNotFoundException extends Exception {
     public GameNotFoundException(String message) {
         super(message);
     }
+
+    /**
+     * @param message detail message
+     * @param writableStackTrace false for exceptions allocated once and thrown many times, which skip filling the
+     * stack trace
+     */
+    public GameNotFoundException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
@@ -0,0 +1,19 @@
+package com.damaya.kalah.core.entities.exceptions;
+
+/**
+ * The game is not at the version the move was requested for, another move changed it
+ */
+public class GameVersionMismatchException extends Exception {
+    public GameVersionMismatchException(String message) {
+        super(message);
+    }
+
+    /**
+     * @param message detail message
+     * @param writableStackTrace false for exceptions allocated once and thrown many times, which skip filling the
+     * stack trace
+     */
+    public GameVersionMismatchException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+}
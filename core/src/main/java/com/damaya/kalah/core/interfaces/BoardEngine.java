@@ -0,0 +1,21 @@
+package com.damaya.kalah.core.interfaces;
+
+import com.damaya.kalah.core.entities.domain.Game;
+
+import java.util.Date;
+
+/**
+ * Applies the rules of kalah to the board of a game
+ */
+public interface BoardEngine {
+
+    /**
+     * Play an already validated move: distributes the stones and updates the turn, or the winner when the move
+     * finishes the game
+     * @param game game to update
+     * @param pitId pit index
+     * @param playedAt when the move was played, used as finish date
+     * @return index of last modified pit
+     */
+    int playMove(Game game, int pitId, Date playedAt);
+}
@@ -0,0 +1,19 @@
+package com.damaya.kalah.core.interfaces;
+
+import com.damaya.kalah.core.entities.domain.EndgameSolution;
+import com.damaya.kalah.core.entities.domain.Game;
+
+import java.util.Optional;
+
+/**
+ * Exact results of the positions with few stones left in the pits
+ */
+public interface EndgameTablebase {
+
+    /**
+     * Solve the position of a game without searching
+     * @param game game
+     * @return solution, empty when the game is finished or its position is not in the tablebase
+     */
+    Optional<EndgameSolution> solve(Game game);
+}
@@ -0,0 +1,20 @@
+package com.damaya.kalah.core.interfaces;
+
+import com.damaya.kalah.core.entities.domain.Game;
+
+/**
+ * Computer opponent that chooses the moves of a player
+ */
+public interface GameBot {
+
+    int MIN_LEVEL = 1;
+    int MAX_LEVEL = 10;
+
+    /**
+     * Choose the move of the player in turn
+     * @param game game that is not finished
+     * @param level strength, from {@link #MIN_LEVEL} to {@link #MAX_LEVEL}
+     * @return pit id of the move, from 1
+     */
+    int chooseMove(Game game, int level);
+}
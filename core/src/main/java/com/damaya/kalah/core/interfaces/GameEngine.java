@@ -0,0 +1,76 @@
+package com.damaya.kalah.core.interfaces;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.entities.exceptions.GameAlreadyFinishedException;
+import com.damaya.kalah.core.entities.exceptions.GameNotFoundException;
+import com.damaya.kalah.core.entities.exceptions.GameVersionMismatchException;
+import com.damaya.kalah.core.entities.exceptions.InvalidMoveException;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Plays kalah games asynchronously. Failures complete the futures exceptionally with the same exceptions
+ * {@link GameService} throws
+ */
+@Validated
+public interface GameEngine {
+
+    /**
+     * Creates a new Kalah game
+     * @return future game details
+     */
+    default CompletableFuture<Game> create() {
+        return create(GameVariant.KALAH);
+    }
+
+    /**
+     * Creates a new game of a variant
+     * @param variant rules of the game
+     * @return future game details
+     */
+    default CompletableFuture<Game> create(@NotNull GameVariant variant) {
+        return create(variant, 0);
+    }
+
+    /**
+     * Creates a new game of a variant, against a bot playing as player two when the level is not 0
+     * @param variant rules of the game
+     * @param botLevel level of the bot, 0 for a game between two humans
+     * @return future game details
+     */
+    CompletableFuture<Game> create(@NotNull GameVariant variant, @Min(0) @Max(GameBot.MAX_LEVEL) int botLevel);
+
+    /**
+     * Read a game
+     * @param gameId id of the game
+     * @return future snapshot of the game, failed with {@link GameNotFoundException}
+     */
+    CompletableFuture<Game> find(@NotNull String gameId);
+
+    /**
+     * Make a move in the board
+     * @param gameId id of the game
+     * @param pitId pit index
+     * @return future updated game, failed with {@link GameNotFoundException}, {@link GameAlreadyFinishedException}
+     * or {@link InvalidMoveException}
+     */
+    default CompletableFuture<Game> makeMove(@NotNull String gameId, @Min(1) @Max(14) int pitId) {
+        return makeMove(gameId, pitId, GameService.ANY_VERSION);
+    }
+
+    /**
+     * Make a move in the board of a version of the game
+     * @param gameId id of the game
+     * @param pitId pit index
+     * @param expectedVersion version of the game the move is meant for, {@link GameService#ANY_VERSION} for the
+     * current one
+     * @return future updated game, failed with {@link GameNotFoundException}, {@link GameAlreadyFinishedException},
+     * {@link InvalidMoveException} or {@link GameVersionMismatchException}
+     */
+    CompletableFuture<Game> makeMove(@NotNull String gameId, @Min(1) @Max(14) int pitId, long expectedVersion);
+}
@@ -0,0 +1,13 @@
+package com.damaya.kalah.core.interfaces;
+
+/**
+ * Generates the ids of new games
+ */
+public interface GameIdGenerator {
+
+    /**
+     * Generate a new game id, it must be unique and safe to use in a URL
+     * @return game id
+     */
+    String nextId();
+}
@@ -0,0 +1,80 @@
+package com.damaya.kalah.core.interfaces;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.entities.enums.MoveCheck;
+import com.damaya.kalah.core.entities.exceptions.GameAlreadyFinishedException;
+import com.damaya.kalah.core.entities.exceptions.InvalidMoveException;
+
+import java.util.Date;
+
+/**
+ * Rules of a mancala variant. The board has the pits of player one, its house, the pits of player two and its
+ * house, in sowing order
+ */
+public interface GameRules {
+
+    /**
+     * @return variant played with these rules
+     */
+    GameVariant getVariant();
+
+    /**
+     * Create a new pits board
+     * @return pits array
+     */
+    int[] deal();
+
+    /**
+     * Check if the movement is allowed, without allocating
+     * @param game game
+     * @param pitId pit index, from 1
+     * @return {@link MoveCheck#VALID} or the reason why the move is rejected
+     */
+    MoveCheck checkMove(Game game, int pitId);
+
+    /**
+     * Validate if the movement is allowed. The exceptions are preallocated and have no stack trace, so rejecting a
+     * move is as cheap as checking it
+     * @param game game
+     * @param pitId pit index, from 1
+     * @throws GameAlreadyFinishedException when the game is already finished
+     * @throws InvalidMoveException when the move is invalid
+     */
+    void validateMove(Game game, int pitId) throws GameAlreadyFinishedException, InvalidMoveException;
+
+    /**
+     * Play an already validated move: sows the stones and updates the turn, or the winner when the move finishes
+     * the game
+     * @param game game to update
+     * @param pitId pit index, from 1
+     * @param playedAt when the move was played, used as finish date
+     * @return index of last modified pit
+     */
+    int playMove(Game game, int pitId, Date playedAt);
+
+    /**
+     * Sow the stones of a non-empty pit and apply the captures
+     * @param pits pits array
+     * @param index starting index
+     * @param turn player moving
+     * @return index of last modified pit
+     */
+    int sow(int[] pits, int index, GameTurn turn);
+
+    /**
+     * Check, without sowing, if the last stone of a pit ends in the house of the player, which plays again
+     * @param pits pits array
+     * @param index starting index of a non-empty pit
+     * @param turn player moving
+     * @return true when the move gives an extra turn
+     */
+    boolean givesExtraTurn(int[] pits, int index, GameTurn turn);
+
+    /**
+     * @param pits pits array
+     * @return null if the game is not finished or the player who won
+     */
+    GameTurn getWinner(int[] pits);
+}
@@ -1,8 +1,10 @@
 package com.damaya.kalah.core.interfaces;
 
 import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameVariant;
 import com.damaya.kalah.core.entities.exceptions.GameAlreadyFinishedException;
 import com.damaya.kalah.core.entities.exceptions.GameNotFoundException;
+import com.damaya.kalah.core.entities.exceptions.GameVersionMismatchException;
 import com.damaya.kalah.core.entities.exceptions.InvalidMoveException;
 import org.springframework.validation.annotation.Validated;
 
@@ -13,11 +15,43 @@ import javax.validation.constraints.NotNull;
 @Validated
 public interface GameService {
 
+    /**
+     * Expected version of the moves that apply to any version of the game
+     */
+    long ANY_VERSION = -1;
+
     /**
      * Creates a new Halah game
      * @return game details
      */
-    Game create();
+    default Game create() {
+        return create(GameVariant.KALAH);
+    }
+
+    /**
+     * Creates a new game of a variant
+     * @param variant rules of the game
+     * @return game details
+     */
+    default Game create(@NotNull GameVariant variant) {
+        return create(variant, 0);
+    }
+
+    /**
+     * Creates a new game of a variant, against a bot playing as player two when the level is not 0
+     * @param variant rules of the game
+     * @param botLevel level of the bot, 0 for a game between two humans
+     * @return game details
+     */
+    Game create(@NotNull GameVariant variant, @Min(0) @Max(GameBot.MAX_LEVEL) int botLevel);
+
+    /**
+     * Read a game
+     * @param gameId id of the game
+     * @return snapshot of the game, never changed by later moves, read without waiting for them
+     * @throws GameNotFoundException gameId does not match any game
+     */
+    Game find(@NotNull String gameId) throws GameNotFoundException;
 
     /**
      * Make a move in the board
@@ -28,5 +62,26 @@ public interface GameService {
      * @throws GameAlreadyFinishedException game is already
      * @throws InvalidMoveException when the move is forbidden
      */
-    Game makeMove(@NotNull String gameId, @Min(1) @Max(14) int pitId) throws GameNotFoundException, GameAlreadyFinishedException, InvalidMoveException;
+    default Game makeMove(@NotNull String gameId, @Min(1) @Max(14) int pitId) throws GameNotFoundException,
+            GameAlreadyFinishedException, InvalidMoveException {
+        try{
+            return makeMove(gameId, pitId, ANY_VERSION);
+        }catch (GameVersionMismatchException e){
+            throw new IllegalStateException("Moves on any version cannot mismatch", e);
+        }
+    }
+
+    /**
+     * Make a move in the board of a version of the game
+     * @param gameId id of the game
+     * @param pitId pit index
+     * @param expectedVersion version of the game the move is meant for, {@link #ANY_VERSION} for the current one
+     * @return updated game
+     * @throws GameNotFoundException gameId does not match any game
+     * @throws GameAlreadyFinishedException game is already
+     * @throws InvalidMoveException when the move is forbidden
+     * @throws GameVersionMismatchException the game is not at the expected version
+     */
+    Game makeMove(@NotNull String gameId, @Min(1) @Max(14) int pitId, long expectedVersion) throws GameNotFoundException,
+            GameAlreadyFinishedException, InvalidMoveException, GameVersionMismatchException;
 }
@@ -3,6 +3,7 @@ package com.damaya.kalah.core.interfaces;
 import com.damaya.kalah.core.entities.domain.Game;
 
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Store all the information related to kalah games
@@ -16,5 +17,47 @@ public interface GameStorage {
      */
     Game save(Game game);
 
+    /**
+     * Save a game right after a move was played on it. Storages that keep the history of the moves record
+     * the move, the rest just save the game
+     * @param game game with the move already played
+     * @param pitId pit index of the move
+     * @return saved game
+     */
+    default Game saveMove(Game game, int pitId) {
+        return save(game);
+    }
+
+    /**
+     * Save a game right after a move was played on it, only if the stored game is still at the version the move
+     * was played on. Storages that cannot replace a game atomically check the version holding the lock of the game
+     * @param game game with the move already played, at its new version
+     * @param pitId pit index of the move
+     * @param expectedVersion version of the stored game the move was played on
+     * @return true when the game was saved, false when another save changed it first
+     */
+    default boolean saveIfVersion(Game game, int pitId, long expectedVersion) {
+        Lock lock = getLock(game.getId());
+        lock.lock();
+        try{
+            Optional<Game> stored = findById(game.getId());
+            if(stored.isPresent() && stored.get().getVersion() == expectedVersion){
+                saveMove(game, pitId);
+                return true;
+            }
+            return false;
+        }finally {
+            lock.unlock();
+        }
+    }
+
     Optional<Game> findById(String gameId);
+
+    /**
+     * Get the lock that serializes the moves of a game. Games sharing a lock are serialized as well, so
+     * implementations should spread the games over several locks
+     * @param gameId id of the game
+     * @return lock guarding the game
+     */
+    Lock getLock(String gameId);
 }
@@ -0,0 +1,18 @@
+package com.damaya.kalah.core.interfaces;
+
+import com.damaya.kalah.core.entities.domain.Game;
+
+import java.util.OptionalInt;
+
+/**
+ * Best moves of the positions of the first plies, searched before the games are played
+ */
+public interface OpeningBook {
+
+    /**
+     * Read the best move of the position of a game
+     * @param game game
+     * @return best move of the player in turn, from 1, empty when the position is not in the book
+     */
+    OptionalInt bestMove(Game game);
+}
@@ -0,0 +1,22 @@
+package com.damaya.kalah.core.interfaces;
+
+import com.damaya.kalah.core.entities.enums.GameTurn;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses the moves of a player in simulated games. Strategies are called by several simulation threads at once, so
+ * they keep no state between calls, other than thread-confined scratch buffers
+ */
+@FunctionalInterface
+public interface PlayStrategy {
+
+    /**
+     * @param rules rules of the game
+     * @param pits pits array, not to be changed
+     * @param turn player in turn
+     * @param random random numbers of the simulating thread
+     * @return index of a non-empty pit of the player in turn, from 0
+     */
+    int choosePit(GameRules rules, int[] pits, GameTurn turn, SplittableRandom random);
+}
@@ -0,0 +1,25 @@
+package com.damaya.kalah.core.interfaces;
+
+import java.util.List;
+
+/**
+ * Index of the positions reached by the games, keyed by their Zobrist hash
+ */
+public interface PositionIndex {
+
+    /**
+     * Record that a game reached a position
+     * @param hash Zobrist hash of the position
+     * @param gameId id of the game
+     */
+    void add(long hash, String gameId);
+
+    /**
+     * Page of the games that reached a position, in id order
+     * @param hash Zobrist hash of the position
+     * @param after id of the last game of the previous page, null for the first page
+     * @param limit maximum number of ids
+     * @return ids of the games that reached the position after the given one, empty when none did
+     */
+    List<String> find(long hash, String after, int limit);
+}
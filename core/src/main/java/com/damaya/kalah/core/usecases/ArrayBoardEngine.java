@@ -0,0 +1,22 @@
+package com.damaya.kalah.core.usecases;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.interfaces.BoardEngine;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * Plays the moves on the pits array with the table-driven rules of the game variant
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.board.engine", havingValue = "array", matchIfMissing = true)
+public class ArrayBoardEngine implements BoardEngine {
+
+    @Override
+    public int playMove(Game game, int pitId, Date playedAt) {
+        return GameVariants.rules(game.getVariant()).playMove(game, pitId, playedAt);
+    }
+}
@@ -0,0 +1,113 @@
+package com.damaya.kalah.core.usecases;
+
+import java.util.Arrays;
+
+/**
+ * Compact text form of 128-bit game ids: 22 URL-safe characters, 6 bits each, most significant first. The alphabet
+ * is in ASCII order, so ids sort as text the same way their values do.
+ * <p>
+ * Compact ids always have both variant bits (the two most significant bits of the low half) set. Random UUIDs
+ * never do, so a 128-bit value knows by itself which text form it comes from.
+ */
+public final class CompactGameIds {
+
+    public static final int ID_LENGTH = 22;
+
+    private static final char[] ALPHABET =
+            "-0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz".toCharArray();
+    private static final int[] VALUES = new int[128];
+    private static final long VARIANT_MASK = 0xC000000000000000L;
+
+    static {
+        Arrays.fill(VALUES, -1);
+        for(int i = 0; i < ALPHABET.length; i++){
+            VALUES[ALPHABET[i]] = i;
+        }
+    }
+
+    private CompactGameIds(){
+
+    }
+
+    /**
+     * @param low least significant bits of an id
+     * @return the low bits with the compact id variant
+     */
+    public static long withVariant(long low) {
+        return low | VARIANT_MASK;
+    }
+
+    /**
+     * @param low least significant bits of an id
+     * @return true if the value has the compact id variant
+     */
+    public static boolean hasVariant(long low) {
+        return (low & VARIANT_MASK) == VARIANT_MASK;
+    }
+
+    /**
+     * Encode the id value
+     * @param high most significant bits
+     * @param low least significant bits, with the compact id variant
+     * @return compact id
+     */
+    public static String encode(long high, long low) {
+        char[] id = new char[ID_LENGTH];
+        //10 characters of the high bits, 1 shared character, 11 characters of the low bits
+        for(int i = 0; i < 10; i++){
+            id[i] = ALPHABET[(int) (high >>> (58 - 6 * i)) & 0x3F];
+        }
+        id[10] = ALPHABET[(int) ((high & 0xF) << 2 | low >>> 62)];
+        for(int i = 0; i < 11; i++){
+            int shift = 56 - 6 * i;
+            id[11 + i] = ALPHABET[(int) (shift >= 0 ? low >>> shift : low << -shift) & 0x3F];
+        }
+        return new String(id);
+    }
+
+    /**
+     * Check if the text is a compact id
+     * @param gameId game id
+     * @return true if it has 22 characters of the alphabet, the unused trailing bits clear and the compact id variant
+     */
+    public static boolean isValid(String gameId) {
+        if(gameId == null || gameId.length() != ID_LENGTH){
+            return false;
+        }
+        for(int i = 0; i < ID_LENGTH; i++){
+            if(valueAt(gameId, i) < 0){
+                return false;
+            }
+        }
+        return (valueAt(gameId, ID_LENGTH - 1) & 0xF) == 0 && hasVariant(low(gameId));
+    }
+
+    /**
+     * @param gameId valid compact id
+     * @return most significant 64 bits of the id
+     */
+    public static long high(String gameId) {
+        long value = 0;
+        for(int i = 0; i < 10; i++){
+            value = value << 6 | valueAt(gameId, i);
+        }
+        return value << 4 | valueAt(gameId, 10) >>> 2;
+    }
+
+    /**
+     * @param gameId valid compact id
+     * @return least significant 64 bits of the id
+     */
+    public static long low(String gameId) {
+        long value = valueAt(gameId, 10) & 0x3;
+        for(int i = 11; i < ID_LENGTH - 1; i++){
+            value = value << 6 | valueAt(gameId, i);
+        }
+        return value << 2 | valueAt(gameId, ID_LENGTH - 1) >>> 4;
+    }
+
+    private static int valueAt(String gameId, int index) {
+        char c = gameId.charAt(index);
+        return c < VALUES.length ? VALUES[c] : -1;
+    }
+}
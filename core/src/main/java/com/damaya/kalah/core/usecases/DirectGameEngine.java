@@ -0,0 +1,61 @@
+package com.damaya.kalah.core.usecases;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.entities.exceptions.GameAlreadyFinishedException;
+import com.damaya.kalah.core.entities.exceptions.GameNotFoundException;
+import com.damaya.kalah.core.entities.exceptions.GameVersionMismatchException;
+import com.damaya.kalah.core.entities.exceptions.InvalidMoveException;
+import com.damaya.kalah.core.interfaces.GameEngine;
+import com.damaya.kalah.core.interfaces.GameService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Plays the games in the calling thread with {@link GameService}, which takes no lock and saves each move only if
+ * the game was not saved since it was read. The returned futures are already completed. It is the default engine,
+ * {@code kalah.engine.type=direct}, and {@code locking} is still accepted for configurations written before it was
+ * renamed
+ */
+@Component
+@ConditionalOnExpression("'${kalah.engine.type:direct}' matches 'direct|locking'")
+public class DirectGameEngine implements GameEngine {
+
+    private final GameService service;
+
+    @Autowired
+    public DirectGameEngine(GameService service) {
+        this.service = service;
+    }
+
+    @Override
+    public CompletableFuture<Game> create(GameVariant variant, int botLevel) {
+        return CompletableFuture.completedFuture(service.create(variant, botLevel));
+    }
+
+    @Override
+    public CompletableFuture<Game> find(String gameId) {
+        CompletableFuture<Game> result = new CompletableFuture<>();
+        try{
+            result.complete(service.find(gameId));
+        }catch (GameNotFoundException e){
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Game> makeMove(String gameId, int pitId, long expectedVersion) {
+        CompletableFuture<Game> result = new CompletableFuture<>();
+        try{
+            result.complete(service.makeMove(gameId, pitId, expectedVersion));
+        }catch (GameNotFoundException | GameAlreadyFinishedException | InvalidMoveException
+                | GameVersionMismatchException e){
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+}
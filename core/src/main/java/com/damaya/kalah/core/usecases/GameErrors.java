@@ -0,0 +1,21 @@
+package com.damaya.kalah.core.usecases;
+
+import com.damaya.kalah.core.entities.exceptions.GameNotFoundException;
+import com.damaya.kalah.core.entities.exceptions.GameVersionMismatchException;
+import com.damaya.kalah.core.entities.exceptions.InvalidMoveException;
+
+/**
+ * Errors thrown on every request that hits them, allocated once without a stack trace and shared by the service
+ * and the game engines
+ */
+public final class GameErrors {
+
+    public static final GameNotFoundException GAME_NOT_FOUND = new GameNotFoundException("Game not found", false);
+    public static final GameVersionMismatchException VERSION_MISMATCH =
+            new GameVersionMismatchException("Game version does not match", false);
+    public static final InvalidMoveException BOT_TURN = new InvalidMoveException("Bot is playing its turn", false);
+
+    private GameErrors(){
+
+    }
+}
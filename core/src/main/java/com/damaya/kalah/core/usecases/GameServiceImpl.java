@@ -2,71 +2,135 @@ package com.damaya.kalah.core.usecases;
 
 import com.damaya.kalah.core.entities.domain.Board;
 import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.domain.MoveLog;
 import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
 import com.damaya.kalah.core.entities.exceptions.GameAlreadyFinishedException;
 import com.damaya.kalah.core.entities.exceptions.GameNotFoundException;
+import com.damaya.kalah.core.entities.exceptions.GameVersionMismatchException;
 import com.damaya.kalah.core.entities.exceptions.InvalidMoveException;
+import com.damaya.kalah.core.interfaces.BoardEngine;
+import com.damaya.kalah.core.interfaces.GameBot;
+import com.damaya.kalah.core.interfaces.GameIdGenerator;
+import com.damaya.kalah.core.interfaces.GameRules;
 import com.damaya.kalah.core.interfaces.GameService;
 import com.damaya.kalah.core.interfaces.GameStorage;
+import com.damaya.kalah.core.interfaces.PositionIndex;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
-import java.util.Objects;
-import java.util.UUID;
 
-import static com.damaya.kalah.core.usecases.GameUtils.*;
+import static com.damaya.kalah.core.usecases.GameErrors.BOT_TURN;
+import static com.damaya.kalah.core.usecases.GameErrors.GAME_NOT_FOUND;
+import static com.damaya.kalah.core.usecases.GameErrors.VERSION_MISMATCH;
 
 @Service
 public class GameServiceImpl implements GameService {
 
-    private static final int NUMBER_OF_STONES = 6;
+    private static final Logger LOCAL_LOGGER = LoggerFactory.getLogger(GameServiceImpl.class);
 
     @Autowired
     private GameStorage storage;
 
+    @Autowired
+    private GameIdGenerator idGenerator;
+
+    @Autowired
+    private BoardEngine boardEngine;
+
+    @Autowired
+    private GameBot bot;
+
+    private PositionIndex positions;
+
+    /**
+     * @param positions index of the positions reached by the games, every move adds its position
+     */
+    @Autowired(required = false)
+    public void setPositionIndex(PositionIndex positions) {
+        this.positions = positions;
+    }
+
     @Override
-    public Game create() {
+    public Game create(GameVariant variant, int botLevel) {
+        GameRules rules = GameVariants.rules(variant);
+        int[] pits = rules.deal();
         return storage.save(Game.builder()
-                .id(UUID.randomUUID().toString())
+                .id(idGenerator.nextId())
                 .startedAt(new Date())
                 .turn(GameTurn.PLAYER_ONE)
                 .board(Board.builder()
-                        .pits(dealGame(NUMBER_OF_STONES))
+                        .pits(pits)
                         .build())
+                .variant(rules.getVariant())
+                .botLevel(botLevel == 0 ? null : botLevel)
+                .moves(MoveLog.startingAt(pits))
                 .build());
     }
 
     @Override
-    public Game makeMove(String gameId, int pitId) throws GameNotFoundException, GameAlreadyFinishedException
-            , InvalidMoveException {
-        Game game = storage.findById(gameId).orElseThrow(() -> new GameNotFoundException("Game not found"));
-        validateMove(game, pitId);
-        return processMove(game, pitId);
+    public Game find(String gameId) throws GameNotFoundException {
+        //moves never modify a stored snapshot, so reads take no lock
+        return storage.findById(gameId).orElseThrow(() -> GAME_NOT_FOUND);
     }
 
-    private Game processMove(final Game game, final int pitId) {
-        int[] pits = game.getBoard().getPits();
-        int index = pitId - 1;
-        GameTurn turn = game.getTurn();
-
-        //Distribute stones
-        int lastMoveIndex = distributeStones(pits, index, turn);
-
-        //Update status
-        GameTurn winner = getWinner(game.getBoard());
-        if(Objects.nonNull(winner)){
-            game.setFinishedAt(new Date());
-            game.setWinner(winner);
-        }else{
-            // last move was home? -> player has a new turn
-            if(!isLastMoveHome(lastMoveIndex, turn)){
-                //change player turn
-                game.setTurn(turn.equals(GameTurn.PLAYER_TWO)
-                        ? GameTurn.PLAYER_ONE : GameTurn.PLAYER_TWO);
+    @Override
+    public Game makeMove(String gameId, int pitId, long expectedVersion) throws GameNotFoundException,
+            GameAlreadyFinishedException, InvalidMoveException, GameVersionMismatchException {
+        //Moves are played optimistically on the snapshot that was read and saved only if nobody saved the game in
+        //between, a move that loses the race is played again on the new snapshot unless a version was expected
+        boolean resumed = false;
+        while(true){
+            Game game = storage.findById(gameId).orElseThrow(() -> GAME_NOT_FOUND);
+            if(GameUtils.isBotTurn(game)){
+                //the answer of the bot to the previous move was not saved, it is played once before this move
+                if(resumed || GameUtils.isBotTurn(answerBot(game))){
+                    //the bot failed again or another request is answering
+                    throw BOT_TURN;
+                }
+                resumed = true;
+                continue;
+            }
+            if(expectedVersion != ANY_VERSION && game.getVersion() != expectedVersion){
+                throw VERSION_MISMATCH;
+            }
+            GameVariants.rules(game.getVariant()).validateMove(game, pitId);
+            Game moved = GameUtils.playOnCopy(game, pitId, boardEngine);
+            if(storage.saveIfVersion(moved, pitId, game.getVersion())){
+                GameUtils.indexPosition(positions, moved);
+                return answerBot(moved);
+            }
+            if(expectedVersion != ANY_VERSION){
+                throw VERSION_MISMATCH;
             }
         }
+    }
 
-        return storage.save(game);
+    /**
+     * Play the moves of the bot after a human move. A failed save means another request resumed the bot or the
+     * game is gone, and a failed search leaves the game in the turn of the bot for the next move to resume it: in
+     * both cases the last saved game is returned
+     */
+    private Game answerBot(Game game) {
+        while(GameUtils.isBotTurn(game)){
+            int botPitId;
+            try{
+                botPitId = bot.chooseMove(game, game.getBotLevel());
+            }catch (RuntimeException e){
+                LOCAL_LOGGER.warn("Bot move of game {} failed, the next move resumes it", game.getId(), e);
+                return game;
+            }
+            Game moved = GameUtils.playOnCopy(game, botPitId, boardEngine);
+            if(!storage.saveIfVersion(moved, botPitId, game.getVersion())){
+                return game;
+            }
+            GameUtils.indexPosition(positions, moved);
+            game = moved;
+        }
+        return game;
     }
 }
@@ -5,12 +5,18 @@ import com.damaya.kalah.core.entities.domain.Game;
 import com.damaya.kalah.core.entities.enums.GameTurn;
 import com.damaya.kalah.core.entities.exceptions.GameAlreadyFinishedException;
 import com.damaya.kalah.core.entities.exceptions.InvalidMoveException;
+import com.damaya.kalah.core.interfaces.BoardEngine;
+import com.damaya.kalah.core.interfaces.PositionIndex;
+import com.damaya.kalah.core.usecases.bot.ZobristKeys;
 
+import java.util.Date;
 import java.util.Objects;
 
 public class GameUtils {
 
     private static final int TOTAL_PITS = 14;
+    //pits receiving a stone on each lap, all but the adversary home
+    private static final int SOWN_PITS = TOTAL_PITS - 1;
 
     private GameUtils(){
 
@@ -63,42 +69,165 @@ public class GameUtils {
     }
 
     /**
-     * Distributes stones
+     * Distributes stones. Full laps around the board are added to every pit at once, so the cost does not grow with
+     * the number of stones
      * @param pits pits array
      * @param index starting index
      * @param turn current turn
      * @return index of last modified pit
      */
     public static int distributeStones(int[] pits, int index, GameTurn turn) {
-        boolean isIndexOk = index >= 0 && index <= TOTAL_PITS - 1;
-        if(Objects.nonNull(pits) && Objects.nonNull(turn)
-                && pits.length == TOTAL_PITS && isIndexOk){
-            int stones = pits[index];
-            int stonesToDistribute = stones;
-            int lastPitIndex = 0;
-            pits[index] = 0;
-            for(int i = 0; i < stonesToDistribute; i++){
-                lastPitIndex = (index + i + 1) % TOTAL_PITS;
-                //Does not put stone if it is adversary home
-                if(isAdversaryHome(lastPitIndex, turn)){
-                    stonesToDistribute++;
-                }else {
-                    pits[lastPitIndex] += 1;
+        validateDistribution(pits, index, turn);
+        int stones = pits[index];
+        int lastPitIndex = 0;
+        pits[index] = 0;
+        if(stones > 0){
+            //every pit but the adversary home gets a stone on each lap
+            int laps = stones / SOWN_PITS;
+            int remainder = stones % SOWN_PITS;
+            if(laps > 0){
+                for(int i = 0; i < TOTAL_PITS; i++){
+                    if(!isAdversaryHome(i, turn)){
+                        pits[i] += laps;
+                    }
+                }
+                //a whole number of laps ends where it started, or right before it on the adversary home
+                lastPitIndex = isAdversaryHome(index, turn) ? (index + TOTAL_PITS - 1) % TOTAL_PITS : index;
+            }
+            int pit = index;
+            while(remainder > 0){
+                pit = (pit + 1) % TOTAL_PITS;
+                if(!isAdversaryHome(pit, turn)){
+                    pits[pit] += 1;
+                    lastPitIndex = pit;
+                    remainder--;
                 }
             }
+        }
+        captureStones(pits, lastPitIndex, turn);
+        return lastPitIndex;
+    }
 
-            // last pit had 0 stones
-            if(isLastMoveEmpty(pits, lastPitIndex)
-                    && isPlayerPit(lastPitIndex + 1, turn)
-                    && !isLastMoveHome(lastPitIndex, turn)){
-                stealStones(pits, lastPitIndex, turn);
+    /**
+     * Distributes stones one by one, the reference for {@link #distributeStones(int[], int, GameTurn)}
+     * @param pits pits array
+     * @param index starting index
+     * @param turn current turn
+     * @return index of last modified pit
+     */
+    public static int distributeStonesOneByOne(int[] pits, int index, GameTurn turn) {
+        validateDistribution(pits, index, turn);
+        int stones = pits[index];
+        int stonesToDistribute = stones;
+        int lastPitIndex = 0;
+        pits[index] = 0;
+        for(int i = 0; i < stonesToDistribute; i++){
+            lastPitIndex = (index + i + 1) % TOTAL_PITS;
+            //Does not put stone if it is adversary home
+            if(isAdversaryHome(lastPitIndex, turn)){
+                stonesToDistribute++;
+            }else {
+                pits[lastPitIndex] += 1;
             }
+        }
+        captureStones(pits, lastPitIndex, turn);
+        return lastPitIndex;
+    }
+
+    /**
+     * Play an already validated move: distributes the stones and updates the turn, or the winner when the move
+     * finishes the game
+     * @param game game to update
+     * @param pitId pit index
+     * @param playedAt when the move was played, used as finish date
+     * @return index of last modified pit
+     */
+    public static int playMove(Game game, int pitId, Date playedAt) {
+        GameTurn turn = game.getTurn();
 
-            return lastPitIndex;
+        //Distribute stones
+        int lastMoveIndex = distributeStones(game.getBoard().getPits(), pitId - 1, turn);
+
+        //Update status
+        GameTurn winner = getWinner(game.getBoard());
+        if(Objects.nonNull(winner)){
+            game.setFinishedAt(playedAt);
+            game.setWinner(winner);
         }else{
-            throw new IllegalArgumentException("Pits and turn must not be null, and should have 14 pits");
+            // last move was home? -> player has a new turn
+            if(!isLastMoveHome(lastMoveIndex, turn)){
+                //change player turn
+                game.setTurn(turn.equals(GameTurn.PLAYER_TWO)
+                        ? GameTurn.PLAYER_ONE : GameTurn.PLAYER_TWO);
+            }
+        }
+        return lastMoveIndex;
+    }
+
+    /**
+     * Copy a game with its own board and move log, so moves played on the copy do not change the original
+     * @param game game to copy
+     * @return game copy
+     */
+    public static Game copyOf(Game game) {
+        Board board = game.getBoard();
+        return game.withBoard(Objects.isNull(board) || Objects.isNull(board.getPits())
+                ? board : Board.builder().pits(board.getPits().clone()).build())
+                .withMoves(Objects.isNull(game.getMoves()) ? null : game.getMoves().copy());
+    }
+
+    /**
+     * Record a played move in the move log of the game, if it keeps one
+     * @param game game with the move already played
+     * @param pitId pit index, from 1
+     */
+    public static void recordMove(Game game, int pitId) {
+        if(Objects.nonNull(game.getMoves())){
+            game.getMoves().append(pitId - 1, game.getBoard().getPits());
+        }
+    }
+
+    /**
+     * Play a move on a copy of the game, so the snapshot that readers may hold is never modified
+     * @param snapshot stored game
+     * @param pitId pit index, from 1
+     * @param boardEngine rules engine that plays the move
+     * @return new snapshot with the next version, to be published with a save
+     */
+    public static Game playOnCopy(Game snapshot, int pitId, BoardEngine boardEngine) {
+        Game game = copyOf(snapshot);
+        game.setVersion(snapshot.getVersion() + 1);
+        boardEngine.playMove(game, pitId, new Date());
+        recordMove(game, pitId);
+        return game;
+    }
+
+    /**
+     * Add the position of a saved game to the index, a move whose save failed must never reach it
+     * @param positions index of the positions, null when positions are not indexed
+     * @param game saved game
+     */
+    public static void indexPosition(PositionIndex positions, Game game) {
+        if(Objects.nonNull(positions)){
+            positions.add(positionHash(game), game.getId());
         }
+    }
+
+    /**
+     * @param game game
+     * @return Zobrist hash of the board of the game and the player in turn
+     */
+    public static long positionHash(Game game) {
+        return ZobristKeys.of(game.getVariant()).hash(game.getBoard().getPits(), game.getTurn());
+    }
 
+    /**
+     * @param game game
+     * @return true when the game is played against a bot and it is the turn of the bot
+     */
+    public static boolean isBotTurn(Game game) {
+        return Objects.nonNull(game.getBotLevel()) && Objects.isNull(game.getFinishedAt())
+                && game.getTurn() == GameTurn.PLAYER_TWO;
     }
 
     /**
@@ -171,6 +300,22 @@ public class GameUtils {
                 || (turn.equals(GameTurn.PLAYER_ONE) && indexToPutStone == 13);
     }
 
+    private static void validateDistribution(int[] pits, int index, GameTurn turn) {
+        boolean isIndexOk = index >= 0 && index <= TOTAL_PITS - 1;
+        if(Objects.isNull(pits) || Objects.isNull(turn) || pits.length != TOTAL_PITS || !isIndexOk){
+            throw new IllegalArgumentException("Pits and turn must not be null, and should have 14 pits");
+        }
+    }
+
+    private static void captureStones(int[] pits, int lastPitIndex, GameTurn turn) {
+        // last pit had 0 stones
+        if(isLastMoveEmpty(pits, lastPitIndex)
+                && isPlayerPit(lastPitIndex + 1, turn)
+                && !isLastMoveHome(lastPitIndex, turn)){
+            stealStones(pits, lastPitIndex, turn);
+        }
+    }
+
     private static int[] stealStones(int[] pits, int lastMoveIndex, GameTurn status) {
         //add stolen stones to home
         int homeIndex = status.equals(GameTurn.PLAYER_ONE) ? 6 : (TOTAL_PITS - 1);
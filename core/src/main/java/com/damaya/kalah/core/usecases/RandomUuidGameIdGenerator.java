@@ -0,0 +1,20 @@
+package com.damaya.kalah.core.usecases;
+
+import com.damaya.kalah.core.interfaces.GameIdGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Random UUID game ids. They cannot be guessed, but every id goes through a shared {@link java.security.SecureRandom}
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.ids.type", havingValue = "uuid")
+public class RandomUuidGameIdGenerator implements GameIdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
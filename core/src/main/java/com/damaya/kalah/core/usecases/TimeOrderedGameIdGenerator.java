@@ -0,0 +1,75 @@
+package com.damaya.kalah.core.usecases;
+
+import com.damaya.kalah.core.interfaces.GameIdGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * Time-ordered 128-bit game ids in their {@link CompactGameIds} form. Each thread generates its ids on its own,
+ * without any shared lock:
+ * <pre>
+ * high: milliseconds(44) sequence(20)
+ * low:  variant(2) random(62)
+ * </pre>
+ * The sequence counts the ids of the thread in the same millisecond, and when it overflows the thread borrows the
+ * next millisecond, so the ids of a thread always grow. The random bits come from a {@code SHA1PRNG} generator of
+ * each thread, seeded from the shared {@link SecureRandom}, so ids cannot be guessed from the ids seen before
+ * although they show when the game was created. {@link RandomUuidGameIdGenerator} ids have 122 random bits and
+ * tell nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.ids.type", havingValue = "time", matchIfMissing = true)
+public class TimeOrderedGameIdGenerator implements GameIdGenerator {
+
+    private static final int SEQUENCE_BITS = 20;
+    private static final int MAX_SEQUENCE = (1 << SEQUENCE_BITS) - 1;
+
+    private static final int SEED_BYTES = 32;
+    private static final SecureRandom SEEDS = new SecureRandom();
+
+    private final ThreadLocal<ThreadState> threadState = ThreadLocal.withInitial(ThreadState::new);
+
+    @Override
+    public String nextId() {
+        ThreadState state = threadState.get();
+        long millis = System.currentTimeMillis();
+        if(millis > state.millis){
+            state.millis = millis;
+            state.sequence = 0;
+        }else if(state.sequence < MAX_SEQUENCE){
+            //same millisecond or the clock went back
+            state.sequence++;
+        }else{
+            state.millis++;
+            state.sequence = 0;
+        }
+        long high = state.millis << SEQUENCE_BITS | state.sequence;
+        long low = CompactGameIds.withVariant(state.random.nextLong());
+        return CompactGameIds.encode(high, low);
+    }
+
+    /**
+     * Last id of a thread and its own random generator, so generating ids takes no shared lock
+     */
+    private static final class ThreadState {
+
+        private final SecureRandom random;
+        private long millis;
+        private int sequence;
+
+        private ThreadState() {
+            try{
+                byte[] seed = new byte[SEED_BYTES];
+                SEEDS.nextBytes(seed);
+                //seeded before its first use, so the generator does not gather a seed of its own
+                this.random = SecureRandom.getInstance("SHA1PRNG");
+                random.setSeed(seed);
+            }catch (NoSuchAlgorithmException e){
+                throw new IllegalStateException("SHA1PRNG secure random is not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.damaya.kalah.core.usecases.book;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.interfaces.OpeningBook;
+import com.damaya.kalah.core.usecases.bot.ZobristKeys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.OptionalInt;
+
+/**
+ * Opening book read from a file mapped in memory. Every entry holds the Zobrist key of a position, its best move and
+ * its score, and the entries are sorted by key, so a lookup hashes the board and binary searches the keys without
+ * deserializing anything. The file is written by the opening book generator of the tools module.
+ * <pre>
+ * offset  size  field
+ *  0      4     magic, "KOB1"
+ *  4      4     variant ordinal
+ *  8      4     plies from the start of the game
+ * 12      4     searched bot level
+ * 16      8     number of entries
+ * 24      16n   entries: key(8) score(4) pit id(2) depth(2), by key
+ * </pre>
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.book.file")
+public class MappedOpeningBook implements OpeningBook {
+
+    public static final int MAGIC = 0x4B4F4231;
+    public static final int HEADER_SIZE = 24;
+    public static final int ENTRY_SIZE = 16;
+
+    private static final int SCORE_OFFSET = 8;
+    private static final int PIT_OFFSET = 12;
+
+    private final GameVariant variant;
+    private final int plies;
+    private final int level;
+    private final int size;
+    private final ZobristKeys keys;
+    private final MappedByteBuffer entries;
+
+    /**
+     * @param file opening book file
+     */
+    @Autowired
+    public MappedOpeningBook(@Value("${kalah.book.file}") String file) {
+        this(Paths.get(file));
+    }
+
+    /**
+     * @param file opening book file
+     */
+    public MappedOpeningBook(Path file) {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while(header.hasRemaining() && channel.read(header) >= 0){
+                //read the whole header
+            }
+            header.flip();
+            if(header.remaining() < HEADER_SIZE || header.getInt(0) != MAGIC){
+                throw new IllegalArgumentException("File " + file + " is not an opening book");
+            }
+            this.variant = GameVariant.values()[header.getInt(4)];
+            this.plies = header.getInt(8);
+            this.level = header.getInt(12);
+            long count = header.getLong(16);
+            if(count > Integer.MAX_VALUE / ENTRY_SIZE || channel.size() != HEADER_SIZE + count * ENTRY_SIZE){
+                throw new IllegalArgumentException("Opening book " + file + " is truncated");
+            }
+            this.size = (int) count;
+            this.keys = ZobristKeys.of(variant);
+            //the mapping stays valid after the channel is closed
+            this.entries = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, count * ENTRY_SIZE);
+        }catch (IOException e){
+            throw new UncheckedIOException("Opening book could not be mapped", e);
+        }
+    }
+
+    /**
+     * @param variant variant of the positions
+     * @param plies plies from the start of the game
+     * @param level searched bot level
+     * @param entries number of entries
+     * @return header of an opening book file
+     */
+    public static ByteBuffer header(GameVariant variant, int plies, int level, long entries) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(variant.ordinal()).putInt(plies).putInt(level).putLong(entries);
+        header.flip();
+        return header;
+    }
+
+    public GameVariant getVariant() {
+        return variant;
+    }
+
+    public int getPlies() {
+        return plies;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public OptionalInt bestMove(Game game) {
+        int entry = find(game);
+        return entry < 0 ? OptionalInt.empty() : OptionalInt.of(entries.getShort(entry * ENTRY_SIZE + PIT_OFFSET));
+    }
+
+    /**
+     * @param game game
+     * @return score of the position for the player in turn, empty when the position is not in the book
+     */
+    public OptionalInt score(Game game) {
+        int entry = find(game);
+        return entry < 0 ? OptionalInt.empty() : OptionalInt.of(entries.getInt(entry * ENTRY_SIZE + SCORE_OFFSET));
+    }
+
+    /**
+     * @return entry of the position of the game, -1 when it is not in the book
+     */
+    private int find(Game game) {
+        GameVariant gameVariant = Objects.isNull(game.getVariant()) ? GameVariant.KALAH : game.getVariant();
+        if(gameVariant != variant || Objects.nonNull(game.getFinishedAt())){
+            return -1;
+        }
+        long key = keys.hash(game.getBoard().getPits(), Objects.isNull(game.getTurn()) ? GameTurn.PLAYER_ONE
+                : game.getTurn());
+        int low = 0;
+        int high = size - 1;
+        while(low <= high){
+            int middle = (low + high) >>> 1;
+            long middleKey = entries.getLong(middle * ENTRY_SIZE);
+            if(middleKey < key){
+                low = middle + 1;
+            }else if(middleKey > key){
+                high = middle - 1;
+            }else{
+                return middle;
+            }
+        }
+        return -1;
+    }
+}
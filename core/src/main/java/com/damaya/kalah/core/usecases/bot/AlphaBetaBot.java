@@ -0,0 +1,538 @@
+package com.damaya.kalah.core.usecases.bot;
+
+import com.damaya.kalah.core.entities.domain.EndgameSolution;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.interfaces.EndgameTablebase;
+import com.damaya.kalah.core.interfaces.GameBot;
+import com.damaya.kalah.core.interfaces.GameRules;
+import com.damaya.kalah.core.interfaces.OpeningBook;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bot that searches the game tree with iterative-deepening negamax and alpha-beta pruning, up to two plies per
+ * level or until the time budget of the move runs out. A move that ends in the own house is searched as a child of
+ * the same player, without negating its score. Moves are tried best first: the move of the transposition table, then
+ * the moves that give an extra turn, then the rest. The transposition table is shared by every search thread and
+ * each thread searches on its own preallocated boards.
+ * <p>
+ * With more than one thread the search is split with young brothers wait: at every node with enough depth left the
+ * eldest move is searched first, and then its brothers are searched in parallel in a {@link ForkJoinPool} with the
+ * bound it left. A brother that fails high cancels the rest.
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.bot.type", havingValue = "alphabeta", matchIfMissing = true)
+public class AlphaBetaBot implements GameBot {
+
+    static final int WIN = 1_000_000;
+
+    private static final int MAX_PLY = 64;
+    private static final int INFINITY = Integer.MAX_VALUE;
+    /**
+     * Nodes searched between two checks of the clock and of the cancellations
+     */
+    private static final int CHECK_MASK = 1023;
+    /**
+     * Remaining depth below which subtrees are searched by a single thread
+     */
+    private static final int SPLIT_DEPTH = 4;
+
+    private final TranspositionTable table;
+    private final long moveNanos;
+    private final ForkJoinPool pool;
+    private final LongAdder searchedNodes = new LongAdder();
+    private final ThreadLocal<Searcher> searchers = ThreadLocal.withInitial(Searcher::new);
+    private EndgameTablebase tablebase;
+    private OpeningBook openingBook;
+
+    /**
+     * Single-threaded bot
+     * @param tableEntries entries of the transposition table, a power of two
+     * @param moveMillis time budget of a move
+     */
+    public AlphaBetaBot(int tableEntries, long moveMillis) {
+        this(tableEntries, moveMillis, 1);
+    }
+
+    /**
+     * @param tableEntries entries of the transposition table, a power of two
+     * @param moveMillis time budget of a move, the first ply is always searched completely
+     * @param threads search threads, zero for one per available processor
+     */
+    @Autowired
+    public AlphaBetaBot(@Value("${kalah.bot.table-entries:1048576}") int tableEntries,
+                        @Value("${kalah.bot.move-millis:50}") long moveMillis,
+                        @Value("${kalah.bot.threads:1}") int threads) {
+        if(moveMillis > 0 && threads >= 0){
+            int parallelism = threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+            this.table = new TranspositionTable(tableEntries);
+            this.moveNanos = TimeUnit.MILLISECONDS.toNanos(moveMillis);
+            this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        }else{
+            throw new IllegalArgumentException("Bot move time should be greater than 0 and threads should not be "
+                    + "negative");
+        }
+    }
+
+    /**
+     * @param tablebase endgame tablebase, its positions are played without searching
+     */
+    @Autowired(required = false)
+    public void setTablebase(EndgameTablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * @param openingBook opening book, its positions are played without searching
+     */
+    @Autowired(required = false)
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    @Override
+    public int chooseMove(Game game, int level) {
+        checkLevel(level);
+        if(Objects.nonNull(openingBook)){
+            OptionalInt bookMove = openingBook.bestMove(game);
+            if(bookMove.isPresent()){
+                return bookMove.getAsInt();
+            }
+        }
+        if(Objects.nonNull(tablebase)){
+            Optional<EndgameSolution> solution = tablebase.solve(game);
+            if(solution.isPresent()){
+                return solution.get().getBestPitId();
+            }
+        }
+        long analysis = analyse(game, level);
+        int first = game.getTurn() == GameTurn.PLAYER_ONE ? 0 : game.getBoard().getPits().length / 2;
+        return first + TranspositionTable.move(analysis) + 1;
+    }
+
+    /**
+     * Search the position of a game, without looking it up in the opening book or the tablebase
+     * @param game game in progress
+     * @param level bot level, up to two plies per level
+     * @return entry of {@link TranspositionTable} with the best move, counted from the first pit of the player in
+     * turn, its score and the depth of the last complete iteration
+     */
+    public long analyse(Game game, int level) {
+        checkLevel(level);
+        Search search = new Search(game, System.nanoTime() + moveNanos);
+        int bestMove = TranspositionTable.NO_MOVE;
+        int score = 0;
+        int searchedDepth = 0;
+        for(int depth = 1; depth <= 2 * level && depth < MAX_PLY; depth++){
+            SearchTask root = new SearchTask(search, null, search.rootBoard, game.getTurn(), 0, depth,
+                    -INFINITY, INFINITY, TranspositionTable.NO_MOVE, false);
+            if(pool == null){
+                root.compute();
+            }else{
+                pool.invoke(root);
+            }
+            if(root.stopped){
+                break;
+            }
+            bestMove = root.bestMove;
+            score = root.score;
+            searchedDepth = depth;
+            //the deadline only cuts the deeper iterations, so there is always a complete one
+            search.timed = true;
+            if(Math.abs(root.score) > WIN - MAX_PLY){
+                break;
+            }
+        }
+        return TranspositionTable.entry(score, searchedDepth, TranspositionTable.EXACT,
+                bestMove - search.firstPit(game.getTurn()));
+    }
+
+    /**
+     * @return nodes searched since the bot was created, by all its threads
+     */
+    public long getSearchedNodes() {
+        return searchedNodes.sum();
+    }
+
+    /**
+     * @return threads searching every move
+     */
+    public int getThreads() {
+        return pool == null ? 1 : pool.getParallelism();
+    }
+
+    /**
+     * Forget every searched position, so the next moves are searched from scratch
+     */
+    public void clearTable() {
+        table.clear();
+    }
+
+    /**
+     * Stop the search threads
+     */
+    @PreDestroy
+    public void close() {
+        if(pool != null){
+            pool.shutdown();
+        }
+    }
+
+    private static void checkLevel(int level) {
+        if(level < MIN_LEVEL || level > MAX_LEVEL){
+            throw new IllegalArgumentException("Bot level should be between " + MIN_LEVEL + " and " + MAX_LEVEL);
+        }
+    }
+
+    /**
+     * Rules and limits of the search of one move, shared by all the threads searching it
+     */
+    private static final class Search {
+        private final GameRules rules;
+        private final ZobristKeys keys;
+        private final int pitsPerSide;
+        private final int[] rootBoard;
+        private final long deadline;
+        private volatile boolean timed;
+        private volatile boolean aborted;
+
+        private Search(Game game, long deadline) {
+            this.rules = GameVariants.rules(game.getVariant());
+            this.keys = ZobristKeys.of(rules.getVariant());
+            this.pitsPerSide = rules.getVariant().getPitsPerSide();
+            this.rootBoard = game.getBoard().getPits().clone();
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return number of moves written in the array, the move of the table first and then the extra turns
+         */
+        private int orderMoves(int[] board, GameTurn turn, int tableMove, int[] ordered) {
+            int first = firstPit(turn);
+            int count = 0;
+            int tablePit = tableMove == TranspositionTable.NO_MOVE ? -1 : first + tableMove;
+            if(tablePit >= 0 && board[tablePit] > 0){
+                ordered[count++] = tablePit;
+            }
+            for(int pit = first + pitsPerSide - 1; pit >= first; pit--){
+                if(pit != tablePit && board[pit] > 0 && rules.givesExtraTurn(board, pit, turn)){
+                    ordered[count++] = pit;
+                }
+            }
+            for(int pit = first + pitsPerSide - 1; pit >= first; pit--){
+                if(pit != tablePit && board[pit] > 0 && !rules.givesExtraTurn(board, pit, turn)){
+                    ordered[count++] = pit;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Stones in the own house count twice the stones still in the own row
+         */
+        private int evaluate(int[] board, GameTurn turn) {
+            int rows = 0;
+            for(int pit = 0; pit < pitsPerSide; pit++){
+                rows += board[pit] - board[pitsPerSide + 1 + pit];
+            }
+            int score = 2 * (board[pitsPerSide] - board[board.length - 1]) + rows;
+            return turn == GameTurn.PLAYER_ONE ? score : -score;
+        }
+
+        private int terminalScore(GameTurn winner, GameTurn turn, int ply) {
+            return winner == turn ? WIN - ply : ply - WIN;
+        }
+
+        private int firstPit(GameTurn turn) {
+            return turn == GameTurn.PLAYER_ONE ? 0 : pitsPerSide + 1;
+        }
+
+        private int bound(int score, int alpha, int beta) {
+            return score <= alpha ? TranspositionTable.UPPER_BOUND
+                    : score >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+        }
+    }
+
+    /**
+     * Search of the subtree of a move. Deep enough subtrees are split across the pool, the rest are searched by the
+     * thread running the task
+     */
+    private final class SearchTask extends RecursiveAction {
+        private final Search search;
+        private final SearchTask parent;
+        private final int[] board;
+        private final GameTurn turn;
+        private final int ply;
+        private final int depth;
+        private final int alpha;
+        private final int beta;
+        //move of the parent that led here and if the parent player moves again
+        private final int move;
+        private final boolean extraTurn;
+        //the children of this node should stop, a brother already failed high
+        private volatile boolean cutoff;
+        private int score;
+        private int bestMove = TranspositionTable.NO_MOVE;
+        private boolean stopped;
+
+        private SearchTask(Search search, SearchTask parent, int[] board, GameTurn turn, int ply, int depth,
+                           int alpha, int beta, int move, boolean extraTurn) {
+            this.search = search;
+            this.parent = parent;
+            this.board = board;
+            this.turn = turn;
+            this.ply = ply;
+            this.depth = depth;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.move = move;
+            this.extraTurn = extraTurn;
+        }
+
+        @Override
+        protected void compute() {
+            if(pool == null || depth < SPLIT_DEPTH){
+                score = searchers.get().search(this);
+            }else{
+                split();
+            }
+            if(Objects.nonNull(parent) && !stopped && scoreForParent() >= parent.beta){
+                parent.cutoff = true;
+            }
+        }
+
+        private void split() {
+            searchedNodes.increment();
+            GameTurn winner = search.rules.getWinner(board);
+            if(winner != null){
+                score = search.terminalScore(winner, turn, ply);
+                return;
+            }
+            long key = search.keys.hash(board, turn);
+            long entry = table.probe(key);
+            int tableMove = TranspositionTable.NO_MOVE;
+            if(entry != 0L){
+                tableMove = TranspositionTable.move(entry);
+                int tableScore = fromTableScore(TranspositionTable.score(entry), ply);
+                if(ply > 0 && cutsOff(entry, tableScore, depth, alpha, beta)){
+                    score = tableScore;
+                    return;
+                }
+            }
+            int[] moves = new int[search.pitsPerSide];
+            int count = search.orderMoves(board, turn, tableMove, moves);
+
+            SearchTask eldest = child(moves[0], alpha);
+            eldest.compute();
+            if(eldest.stopped){
+                stopped = true;
+                return;
+            }
+            int best = eldest.scoreForParent();
+            int bestPit = moves[0];
+            if(best < beta && count > 1){
+                int brotherAlpha = Math.max(alpha, best);
+                SearchTask[] brothers = new SearchTask[count - 1];
+                for(int i = 1; i < count; i++){
+                    brothers[i - 1] = child(moves[i], brotherAlpha);
+                }
+                invokeAll(brothers);
+                for(SearchTask brother : brothers){
+                    if(!brother.stopped && brother.scoreForParent() > best){
+                        best = brother.scoreForParent();
+                        bestPit = brother.move;
+                    }
+                }
+                //brothers cancelled by a fail high are not needed, any other stop leaves the search incomplete
+                if(!cutoff && shouldStop()){
+                    stopped = true;
+                    return;
+                }
+            }
+            score = best;
+            bestMove = bestPit;
+            table.store(key, toTableScore(best, ply), depth, search.bound(best, alpha, beta),
+                    bestPit - search.firstPit(turn));
+        }
+
+        private SearchTask child(int pit, int childAlpha) {
+            int[] child = board.clone();
+            boolean childExtraTurn = search.rules.givesExtraTurn(board, pit, turn);
+            search.rules.sow(child, pit, turn);
+            return childExtraTurn
+                    ? new SearchTask(search, this, child, turn, ply + 1, depth - 1, childAlpha, beta, pit, true)
+                    : new SearchTask(search, this, child, opposite(turn), ply + 1, depth - 1, -beta, -childAlpha,
+                            pit, false);
+        }
+
+        private int scoreForParent() {
+            return extraTurn ? score : -score;
+        }
+
+        /**
+         * @return true when the search ran out of time or a brother of this node or of an ancestor failed high
+         */
+        private boolean shouldStop() {
+            if(search.timed && !search.aborted && System.nanoTime() > search.deadline){
+                search.aborted = true;
+            }
+            if(search.aborted){
+                return true;
+            }
+            for(SearchTask node = parent; node != null; node = node.parent){
+                if(node.cutoff){
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Single-threaded search of a subtree on preallocated boards, one per thread
+     */
+    private final class Searcher {
+        private final int[][] boards = new int[MAX_PLY + 1][];
+        private final int[][] moves = new int[MAX_PLY][];
+        private Search search;
+        private SearchTask task;
+        private long nodes;
+        private boolean stopped;
+
+        private int search(SearchTask root) {
+            int totalPits = root.board.length;
+            if(boards[0] == null || boards[0].length != totalPits){
+                for(int ply = 0; ply <= MAX_PLY; ply++){
+                    boards[ply] = new int[totalPits];
+                }
+                for(int ply = 0; ply < MAX_PLY; ply++){
+                    moves[ply] = new int[root.search.pitsPerSide];
+                }
+            }
+            this.search = root.search;
+            this.task = root;
+            this.nodes = 0;
+            this.stopped = false;
+            System.arraycopy(root.board, 0, boards[root.ply], 0, totalPits);
+            int score = negamax(root.ply, root.depth, root.alpha, root.beta, root.turn);
+            searchedNodes.add(nodes);
+            root.stopped = stopped;
+            return score;
+        }
+
+        private int negamax(int ply, int depth, int alpha, int beta, GameTurn turn) {
+            int[] board = boards[ply];
+            nodes++;
+            GameTurn winner = search.rules.getWinner(board);
+            if(winner != null){
+                return search.terminalScore(winner, turn, ply);
+            }else if(depth == 0 || ply == MAX_PLY){
+                return search.evaluate(board, turn);
+            }
+            if((nodes & CHECK_MASK) == 0 && task.shouldStop()){
+                stopped = true;
+            }
+            if(stopped){
+                return 0;
+            }
+
+            long key = search.keys.hash(board, turn);
+            long entry = table.probe(key);
+            int tableMove = TranspositionTable.NO_MOVE;
+            if(entry != 0L){
+                tableMove = TranspositionTable.move(entry);
+                int tableScore = fromTableScore(TranspositionTable.score(entry), ply);
+                if(ply > 0 && cutsOff(entry, tableScore, depth, alpha, beta)){
+                    return tableScore;
+                }
+            }
+
+            int[] plyMoves = moves[ply];
+            int count = search.orderMoves(board, turn, tableMove, plyMoves);
+            int[] child = boards[ply + 1];
+            int originalAlpha = alpha;
+            int best = -INFINITY;
+            int bestMove = TranspositionTable.NO_MOVE;
+            for(int i = 0; i < count && alpha < beta; i++){
+                int pit = plyMoves[i];
+                boolean extraTurn = search.rules.givesExtraTurn(board, pit, turn);
+                System.arraycopy(board, 0, child, 0, board.length);
+                search.rules.sow(child, pit, turn);
+                int score = extraTurn
+                        ? negamax(ply + 1, depth - 1, alpha, beta, turn)
+                        : -negamax(ply + 1, depth - 1, -beta, -alpha, opposite(turn));
+                if(stopped){
+                    return 0;
+                }
+                if(score > best){
+                    best = score;
+                    bestMove = pit;
+                    alpha = Math.max(alpha, score);
+                }
+            }
+            if(ply == task.ply){
+                task.bestMove = bestMove;
+            }
+            table.store(key, toTableScore(best, ply), depth, search.bound(best, originalAlpha, beta),
+                    bestMove - search.firstPit(turn));
+            return best;
+        }
+    }
+
+    /**
+     * Win scores count the plies from the root, so the table keeps them counted from the position instead: a
+     * position reached again at another ply then reads its own distance to the end
+     * @param score score of the position searched at the ply
+     * @param ply plies from the root
+     * @return score to store
+     */
+    static int toTableScore(int score, int ply) {
+        if(isWinScore(score)){
+            return score > 0 ? score + ply : score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * @param score score read from the table
+     * @param ply plies from the root of the position
+     * @return score counting the win distance from the root
+     */
+    static int fromTableScore(int score, int ply) {
+        if(isWinScore(score)){
+            return score > 0 ? score - ply : score + ply;
+        }
+        return score;
+    }
+
+    private static boolean isWinScore(int score) {
+        return score >= WIN - MAX_PLY && score <= WIN || score <= MAX_PLY - WIN && score >= -WIN;
+    }
+
+    private static boolean cutsOff(long entry, int score, int depth, int alpha, int beta) {
+        if(TranspositionTable.depth(entry) < depth){
+            return false;
+        }
+        int bound = TranspositionTable.bound(entry);
+        return bound == TranspositionTable.EXACT
+                || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                || (bound == TranspositionTable.UPPER_BOUND && score <= alpha);
+    }
+
+    private static GameTurn opposite(GameTurn turn) {
+        return turn == GameTurn.PLAYER_ONE ? GameTurn.PLAYER_TWO : GameTurn.PLAYER_ONE;
+    }
+}
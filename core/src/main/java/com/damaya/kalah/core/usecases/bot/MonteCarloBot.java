@@ -0,0 +1,370 @@
+package com.damaya.kalah.core.usecases.bot;
+
+import com.damaya.kalah.core.entities.domain.EndgameSolution;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.interfaces.EndgameTablebase;
+import com.damaya.kalah.core.interfaces.GameBot;
+import com.damaya.kalah.core.interfaces.GameRules;
+import com.damaya.kalah.core.interfaces.OpeningBook;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bot that chooses its moves with Monte Carlo tree search: it grows a tree of the moves with UCT, adds one node per
+ * iteration and scores it with a random playout to the end of the game. Every move is searched for a wall-clock
+ * budget proportional to the level of the game and the most visited move is played, so the latency does not depend
+ * on the position. Playouts sow on a scratch board of the searching thread and allocate nothing.
+ * <p>
+ * With more than one thread all of them grow the same tree. A thread going down a node counts the visit before the
+ * playout ends, as a virtual loss, so the other threads explore other moves meanwhile.
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.bot.type", havingValue = "mcts")
+public class MonteCarloBot implements GameBot, MeterBinder {
+
+    private static final double EXPLORATION = Math.sqrt(2);
+    /**
+     * Moves after which a playout is scored by the stones of each side, oware positions can repeat forever
+     */
+    private static final int MAX_PLAYOUT_MOVES = 512;
+    private static final int MAX_TREE_DEPTH = 256;
+
+    private final long levelNanos;
+    private final int threads;
+    private final ExecutorService workers;
+    private final LongAdder playouts = new LongAdder();
+    private final ThreadLocal<Scratch> scratches = ThreadLocal.withInitial(Scratch::new);
+    private volatile double playoutsPerSecond;
+    private EndgameTablebase tablebase;
+    private OpeningBook openingBook;
+
+    /**
+     * @param levelMillis search time of a move per bot level
+     * @param threads search threads, zero for one per available processor
+     */
+    @Autowired
+    public MonteCarloBot(@Value("${kalah.bot.mcts.level-millis:20}") long levelMillis,
+                         @Value("${kalah.bot.threads:1}") int threads) {
+        if(levelMillis > 0 && threads >= 0){
+            this.levelNanos = TimeUnit.MILLISECONDS.toNanos(levelMillis);
+            this.threads = threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+            AtomicInteger workerCount = new AtomicInteger();
+            this.workers = this.threads > 1 ? Executors.newFixedThreadPool(this.threads - 1, runnable -> {
+                Thread thread = new Thread(runnable, "kalah-mcts-" + workerCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }) : null;
+        }else{
+            throw new IllegalArgumentException("Level time should be greater than 0 and threads should not be "
+                    + "negative");
+        }
+    }
+
+    /**
+     * @param tablebase endgame tablebase, its positions are played without searching
+     */
+    @Autowired(required = false)
+    public void setTablebase(EndgameTablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * @param openingBook opening book, its positions are played without searching
+     */
+    @Autowired(required = false)
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    @Override
+    public int chooseMove(Game game, int level) {
+        if(level < MIN_LEVEL || level > MAX_LEVEL){
+            throw new IllegalArgumentException("Bot level should be between " + MIN_LEVEL + " and " + MAX_LEVEL);
+        }
+        if(Objects.nonNull(openingBook)){
+            OptionalInt bookMove = openingBook.bestMove(game);
+            if(bookMove.isPresent()){
+                return bookMove.getAsInt();
+            }
+        }
+        if(Objects.nonNull(tablebase)){
+            Optional<EndgameSolution> solution = tablebase.solve(game);
+            if(solution.isPresent()){
+                return solution.get().getBestPitId();
+            }
+        }
+        long start = System.nanoTime();
+        Tree tree = new Tree(game, start + level * levelNanos);
+        List<Future<?>> helpers = new ArrayList<>();
+        for(int i = 1; i < threads; i++){
+            helpers.add(workers.submit(tree::grow));
+        }
+        //the calling thread always adds one node, so there is a move to play however short the budget is
+        tree.iterate();
+        tree.grow();
+        for(Future<?> helper : helpers){
+            await(helper);
+        }
+        long elapsed = System.nanoTime() - start;
+        playouts.add(tree.playouts.sum());
+        playoutsPerSecond = tree.playouts.sum() * 1e9 / Math.max(1L, elapsed);
+        return tree.mostVisitedMove() + 1;
+    }
+
+    /**
+     * @return playouts run since the bot was created
+     */
+    public long getPlayouts() {
+        return playouts.sum();
+    }
+
+    /**
+     * @return playouts per second of the last searched move
+     */
+    public double getPlayoutsPerSecond() {
+        return playoutsPerSecond;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("kalah.bot.playouts", playouts, LongAdder::sum)
+                .description("Random playouts run by the Monte Carlo bot")
+                .register(registry);
+        Gauge.builder("kalah.bot.playouts.rate", this, MonteCarloBot::getPlayoutsPerSecond)
+                .description("Playouts per second of the last move of the Monte Carlo bot")
+                .register(registry);
+    }
+
+    /**
+     * Stop the search threads
+     */
+    @PreDestroy
+    public void close() {
+        if(workers != null){
+            workers.shutdownNow();
+        }
+    }
+
+    private static void await(Future<?> helper) {
+        try{
+            helper.get();
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bot search was interrupted", e);
+        }catch (ExecutionException e){
+            throw new IllegalStateException("Bot search failed", e.getCause());
+        }
+    }
+
+    /**
+     * Search tree of one move, grown by every search thread
+     */
+    private final class Tree {
+        private final GameRules rules;
+        private final int[] rootBoard;
+        private final GameTurn rootTurn;
+        private final int pitsPerSide;
+        private final int[] houses;
+        private final long deadline;
+        private final Node root;
+        private final LongAdder playouts = new LongAdder();
+
+        private Tree(Game game, long deadline) {
+            this.rules = GameVariants.rules(game.getVariant());
+            this.rootBoard = game.getBoard().getPits().clone();
+            this.rootTurn = game.getTurn();
+            this.pitsPerSide = rules.getVariant().getPitsPerSide();
+            this.houses = new int[]{pitsPerSide, rules.getVariant().getTotalPits() - 1};
+            this.deadline = deadline;
+            this.root = new Node(TranspositionTable.NO_MOVE, opposite(rootTurn));
+        }
+
+        private void grow() {
+            while(System.nanoTime() < deadline){
+                iterate();
+            }
+        }
+
+        /**
+         * Select a path with UCT, expand its leaf, play it out and update the path
+         */
+        private void iterate() {
+            Scratch scratch = scratches.get();
+            int[] board = scratch.board(rootBoard.length);
+            System.arraycopy(rootBoard, 0, board, 0, board.length);
+            Node[] path = scratch.path;
+            GameTurn turn = rootTurn;
+            Node node = root;
+            node.visits.incrementAndGet();
+            path[0] = node;
+            int length = 1;
+            boolean expanded = false;
+            while(!expanded && length < MAX_TREE_DEPTH && rules.getWinner(board) == null){
+                Node child = select(node, node.children(this, board, turn));
+                expanded = child.visits.getAndIncrement() == 0;
+                turn = sow(board, child.move, turn);
+                path[length++] = child;
+                node = child;
+            }
+            GameTurn winner = playout(board, turn);
+            for(int i = 0; i < length; i++){
+                if(path[i].mover == winner){
+                    path[i].wins.incrementAndGet();
+                }
+                path[i] = null;
+            }
+            playouts.increment();
+        }
+
+        private Node select(Node parent, Node[] children) {
+            double logVisits = Math.log(parent.visits.get());
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for(Node child : children){
+                int visits = child.visits.get();
+                if(visits == 0){
+                    return child;
+                }
+                double value = (double) child.wins.get() / visits + EXPLORATION * Math.sqrt(logVisits / visits);
+                if(value > bestValue){
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        private GameTurn playout(int[] board, GameTurn turn) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            GameTurn player = turn;
+            for(int moves = 0; moves < MAX_PLAYOUT_MOVES; moves++){
+                GameTurn winner = rules.getWinner(board);
+                if(winner != null){
+                    return winner;
+                }
+                int first = player == GameTurn.PLAYER_ONE ? 0 : pitsPerSide + 1;
+                int pit = first + random.nextInt(pitsPerSide);
+                while(board[pit] == 0){
+                    pit = pit == first + pitsPerSide - 1 ? first : pit + 1;
+                }
+                player = sow(board, pit, player);
+            }
+            return leader(board);
+        }
+
+        /**
+         * @return player in turn after the move
+         */
+        private GameTurn sow(int[] board, int pit, GameTurn turn) {
+            int last = rules.sow(board, pit, turn);
+            return last == houses[turn.ordinal()] ? turn : opposite(turn);
+        }
+
+        /**
+         * @return side with more stones, player two on a draw like the end of the game
+         */
+        private GameTurn leader(int[] board) {
+            int difference = 0;
+            for(int pit = 0; pit <= pitsPerSide; pit++){
+                difference += board[pit] - board[pitsPerSide + 1 + pit];
+            }
+            return difference > 0 ? GameTurn.PLAYER_ONE : GameTurn.PLAYER_TWO;
+        }
+
+        private int mostVisitedMove() {
+            Node best = null;
+            for(Node child : root.children(this, rootBoard, rootTurn)){
+                if(best == null || child.visits.get() > best.visits.get()){
+                    best = child;
+                }
+            }
+            return best.move;
+        }
+    }
+
+    /**
+     * Move of the tree with its statistics, wins are counted for the player who made the move
+     */
+    private static final class Node {
+        private final int move;
+        private final GameTurn mover;
+        private final AtomicInteger visits = new AtomicInteger();
+        private final AtomicInteger wins = new AtomicInteger();
+        private volatile Node[] children;
+
+        private Node(int move, GameTurn mover) {
+            this.move = move;
+            this.mover = mover;
+        }
+
+        /**
+         * @return moves of the player in turn, created by the first thread reaching the node
+         */
+        private Node[] children(Tree tree, int[] board, GameTurn turn) {
+            Node[] result = children;
+            if(result == null){
+                synchronized(this){
+                    result = children;
+                    if(result == null){
+                        int first = turn == GameTurn.PLAYER_ONE ? 0 : tree.pitsPerSide + 1;
+                        int count = 0;
+                        for(int pit = first; pit < first + tree.pitsPerSide; pit++){
+                            count += board[pit] > 0 ? 1 : 0;
+                        }
+                        result = new Node[count];
+                        count = 0;
+                        for(int pit = first; pit < first + tree.pitsPerSide; pit++){
+                            if(board[pit] > 0){
+                                result[count++] = new Node(pit, turn);
+                            }
+                        }
+                        children = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Board and path reused by all the iterations of a thread
+     */
+    private static final class Scratch {
+        private final Node[] path = new Node[MAX_TREE_DEPTH];
+        private int[] board = new int[0];
+
+        private int[] board(int totalPits) {
+            if(board.length != totalPits){
+                board = new int[totalPits];
+            }
+            return board;
+        }
+    }
+
+    private static GameTurn opposite(GameTurn turn) {
+        return turn == GameTurn.PLAYER_ONE ? GameTurn.PLAYER_TWO : GameTurn.PLAYER_ONE;
+    }
+}
@@ -0,0 +1,108 @@
+package com.damaya.kalah.core.usecases.bot;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of searched positions shared by all the search threads without locks. Each slot keeps the
+ * packed entry and the position key xored with it: a slot torn by concurrent writers does not verify and is read
+ * as a miss, so no entry of a different position is ever returned.
+ * <pre>
+ * entry: move(4) bound(2) depth(8) unused(18) score(32)
+ * </pre>
+ */
+public final class TranspositionTable {
+
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+    public static final int NO_MOVE = 0xF;
+
+    private static final int BOUND_SHIFT = 4;
+    private static final int DEPTH_SHIFT = 6;
+    private static final int SCORE_SHIFT = 32;
+    private static final int MAX_DEPTH = 0xFF;
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int mask;
+
+    /**
+     * @param size number of slots, a power of two
+     */
+    public TranspositionTable(int size) {
+        if(size > 0 && Integer.bitCount(size) == 1){
+            this.keys = new long[size];
+            this.entries = new long[size];
+            this.mask = size - 1;
+        }else{
+            throw new IllegalArgumentException("Transposition table size should be a power of two");
+        }
+    }
+
+    /**
+     * @param key position key
+     * @return entry of the position, 0 when it is not in the table
+     */
+    public long probe(long key) {
+        int slot = (int) key & mask;
+        long entry = entries[slot];
+        return (keys[slot] ^ entry) == key ? entry : 0L;
+    }
+
+    /**
+     * Store a searched position, unless the slot already holds a deeper search of it
+     * @param key position key
+     * @param score score for the player in turn
+     * @param depth searched depth
+     * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+     * @param move best move index or {@link #NO_MOVE}
+     */
+    public void store(long key, int score, int depth, int bound, int move) {
+        int slot = (int) key & mask;
+        long current = entries[slot];
+        if((keys[slot] ^ current) == key && depth(current) > depth){
+            return;
+        }
+        long entry = entry(score, depth, bound, move);
+        entries[slot] = entry;
+        keys[slot] = key ^ entry;
+    }
+
+    /**
+     * Remove every entry
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(entries, 0L);
+    }
+
+    /**
+     * @param score score for the player in turn
+     * @param depth searched depth
+     * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+     * @param move best move index or {@link #NO_MOVE}
+     * @return packed entry
+     */
+    public static long entry(int score, int depth, int bound, int move) {
+        return (long) score << SCORE_SHIFT
+                | (long) Math.min(depth, MAX_DEPTH) << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | move;
+    }
+
+    public static int score(long entry) {
+        return (int) (entry >> SCORE_SHIFT);
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & MAX_DEPTH;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 0b11;
+    }
+
+    public static int move(long entry) {
+        return (int) entry & NO_MOVE;
+    }
+}
@@ -0,0 +1,65 @@
+package com.damaya.kalah.core.usecases.bot;
+
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist hashing of boards: a random key for every pit and number of stones, xored together with the key of the
+ * player in turn. The keys of each variant are generated once from a fixed seed, so hashes are stable across runs
+ */
+public final class ZobristKeys {
+
+    public static final int MAX_STONES_PER_PIT = 255;
+
+    private static final Map<GameVariant, ZobristKeys> VARIANT_KEYS = new EnumMap<>(GameVariant.class);
+
+    static {
+        for(GameVariant variant : GameVariant.values()){
+            VARIANT_KEYS.put(variant, new ZobristKeys(variant.getTotalPits(), 0x5DEECE66DL + variant.ordinal()));
+        }
+    }
+
+    private final long[][] pitKeys;
+    private final long playerTwoKey;
+
+    /**
+     * @param totalPits pits of the board, houses included
+     * @param seed seed of the keys
+     */
+    public ZobristKeys(int totalPits, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        this.pitKeys = new long[totalPits][MAX_STONES_PER_PIT + 1];
+        for(long[] keys : pitKeys){
+            for(int stones = 0; stones < keys.length; stones++){
+                keys[stones] = random.nextLong();
+            }
+        }
+        this.playerTwoKey = random.nextLong();
+    }
+
+    /**
+     * @param variant game variant, null for kalah
+     * @return keys of the variant
+     */
+    public static ZobristKeys of(GameVariant variant) {
+        return VARIANT_KEYS.get(Objects.isNull(variant) ? GameVariant.KALAH : variant);
+    }
+
+    /**
+     * @param pits pits array, with up to {@link #MAX_STONES_PER_PIT} stones per pit
+     * @param turn player in turn
+     * @return hash of the position
+     */
+    public long hash(int[] pits, GameTurn turn) {
+        long hash = turn == GameTurn.PLAYER_TWO ? playerTwoKey : 0L;
+        for(int pit = 0; pit < pits.length; pit++){
+            hash ^= pitKeys[pit][pits[pit]];
+        }
+        return hash;
+    }
+}
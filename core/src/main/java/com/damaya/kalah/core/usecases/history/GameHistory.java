@@ -0,0 +1,71 @@
+package com.damaya.kalah.core.usecases.history;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.domain.MoveLog;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.interfaces.GameRules;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+
+import java.util.Objects;
+
+/**
+ * Rebuilds past positions of a game from its {@link MoveLog}
+ */
+public final class GameHistory {
+
+    private GameHistory() {}
+
+    /**
+     * @param game game keeping its moves
+     * @return pit ids of the moves played, from 1
+     */
+    public static int[] moves(Game game) {
+        MoveLog log = log(game);
+        int[] pitIds = new int[log.size()];
+        for(int ply = 0; ply < pitIds.length; ply++){
+            pitIds[ply] = log.move(ply) + 1;
+        }
+        return pitIds;
+    }
+
+    /**
+     * Replay the moves from the nearest checkpoint, at most {@link MoveLog#CHECKPOINT_INTERVAL} of them. The player
+     * of each move is the owner of its pit, so the turn needs no checkpoint
+     * @param game game keeping its moves
+     * @param ply moves played, between 0 and the size of the log
+     * @return game as it was after the moves, the turn being the player of the next move
+     */
+    public static Game gameAt(Game game, int ply) {
+        MoveLog log = log(game);
+        if(ply < 0 || ply > log.size()){
+            throw new IllegalArgumentException("Ply should be between 0 and " + log.size());
+        }
+        if(ply == log.size()){
+            return game.withBoard(Board.builder().pits(game.getBoard().getPits().clone()).build())
+                    .withMoves(null);
+        }
+        GameRules rules = GameVariants.rules(game.getVariant());
+        int[] pits = log.checkpointBefore(ply);
+        for(int move = ply / MoveLog.CHECKPOINT_INTERVAL * MoveLog.CHECKPOINT_INTERVAL; move < ply; move++){
+            int index = log.move(move);
+            rules.sow(pits, index, playerOf(rules, index));
+        }
+        return game.withBoard(Board.builder().pits(pits).build())
+                .withTurn(playerOf(rules, log.move(ply)))
+                .withFinishedAt(null)
+                .withWinner(null)
+                .withMoves(null);
+    }
+
+    private static MoveLog log(Game game) {
+        if(Objects.isNull(game.getMoves())){
+            throw new IllegalStateException("Game " + game.getId() + " does not keep its moves");
+        }
+        return game.getMoves();
+    }
+
+    private static GameTurn playerOf(GameRules rules, int index) {
+        return index < rules.getVariant().getPitsPerSide() + 1 ? GameTurn.PLAYER_ONE : GameTurn.PLAYER_TWO;
+    }
+}
@@ -0,0 +1,171 @@
+package com.damaya.kalah.core.usecases.packed;
+
+import com.damaya.kalah.core.entities.enums.GameTurn;
+
+/**
+ * Kalah board packed in two longs, one per side, following the same rules as
+ * {@link com.damaya.kalah.core.usecases.GameUtils}. Each side also keeps the running sum of its six pits and its
+ * total with the house, so detecting the end of the game and the winner does not rescan the pits. Moves do not
+ * allocate, a board is meant to be reused by a single thread.
+ * <pre>
+ * side: pits(7 * 7 bits, house last) pitsSum(7) total(7)
+ * </pre>
+ */
+public final class PackedBoard {
+
+    public static final int TOTAL_PITS = 14;
+    public static final int MAX_STONES = 0x7F;
+
+    private static final int PIT_BITS = 7;
+    private static final long PIT_MASK = 0x7F;
+    private static final int PITS_PER_SIDE = 7;
+    private static final int HOUSE_SLOT = 6;
+    private static final int PITS_SUM_SHIFT = PITS_PER_SIDE * PIT_BITS;
+    private static final int TOTAL_SHIFT = PITS_SUM_SHIFT + PIT_BITS;
+    private static final long PIT_UNIT = 1L;
+    private static final long SUM_UNIT = 1L << PITS_SUM_SHIFT;
+    private static final long TOTAL_UNIT = 1L << TOTAL_SHIFT;
+    private static final int SOWN_PITS = TOTAL_PITS - 1;
+    private static final long HOUSE_LAP = delta(HOUSE_SLOT, 1);
+    private static final long SIDE_LAP = sideLap();
+
+    private long sideOne;
+    private long sideTwo;
+
+    /**
+     * Pack the pits
+     * @param pits 14 pits, the houses at index 6 and 13
+     * @throws IllegalArgumentException when there are more than {@link #MAX_STONES} stones in the board
+     */
+    public void load(int[] pits) {
+        if(pits == null || pits.length != TOTAL_PITS){
+            throw new IllegalArgumentException("Pits must not be null, and should have 14 pits");
+        }
+        sideOne = 0;
+        sideTwo = 0;
+        int total = 0;
+        for(int i = 0; i < TOTAL_PITS; i++){
+            if(pits[i] < 0){
+                throw new IllegalArgumentException("Pits should not have negative stones");
+            }
+            total += pits[i];
+            if(total > MAX_STONES){
+                throw new IllegalArgumentException("Packed boards hold up to " + MAX_STONES + " stones");
+            }
+            add(i, pits[i]);
+        }
+    }
+
+    /**
+     * Unpack the pits
+     * @param pits 14 pits array to fill
+     */
+    public void store(int[] pits) {
+        for(int i = 0; i < TOTAL_PITS; i++){
+            pits[i] = get(i);
+        }
+    }
+
+    /**
+     * @param index pit index, from 0 to 13
+     * @return stones in the pit
+     */
+    public int get(int index) {
+        return index < PITS_PER_SIDE
+                ? (int) (sideOne >>> (index * PIT_BITS) & PIT_MASK)
+                : (int) (sideTwo >>> ((index - PITS_PER_SIDE) * PIT_BITS) & PIT_MASK);
+    }
+
+    /**
+     * Distribute the stones of a pit, skipping the adversary house, and capture when the last stone lands in an
+     * empty pit of the player
+     * @param index starting index
+     * @param turn player moving
+     * @return index of last modified pit
+     */
+    public int sow(int index, GameTurn turn) {
+        int adversaryHouse = turn == GameTurn.PLAYER_ONE ? TOTAL_PITS - 1 : HOUSE_SLOT;
+        int stones = get(index);
+        add(index, -stones);
+        //like GameUtils, an empty pit reports the first pit as the last one
+        int last = 0;
+        int laps = stones / SOWN_PITS;
+        if(laps > 0){
+            //one lap is a stone in every pit but the adversary house, added to both sides at once
+            sideOne += laps * (turn == GameTurn.PLAYER_ONE ? SIDE_LAP : SIDE_LAP - HOUSE_LAP);
+            sideTwo += laps * (turn == GameTurn.PLAYER_TWO ? SIDE_LAP : SIDE_LAP - HOUSE_LAP);
+            last = index == adversaryHouse ? index - 1 : index;
+        }
+        int pit = index;
+        int remainder = stones % SOWN_PITS;
+        while(remainder > 0){
+            pit = pit == TOTAL_PITS - 1 ? 0 : pit + 1;
+            if(pit != adversaryHouse){
+                add(pit, 1);
+                last = pit;
+                remainder--;
+            }
+        }
+        boolean ownSide = turn == GameTurn.PLAYER_ONE ? last < PITS_PER_SIDE : last >= PITS_PER_SIDE;
+        if(ownSide && last % PITS_PER_SIDE != HOUSE_SLOT && get(last) == 1){
+            int opposite = TOTAL_PITS - last - 2;
+            int captured = get(opposite) + 1;
+            add(last, -1);
+            add(opposite, -get(opposite));
+            add(turn == GameTurn.PLAYER_ONE ? HOUSE_SLOT : TOTAL_PITS - 1, captured);
+        }
+        return last;
+    }
+
+    /**
+     * @return true if a player has no stones left in the six pits
+     */
+    public boolean isFinished() {
+        return (sideOne >>> PITS_SUM_SHIFT & PIT_MASK) == 0 || (sideTwo >>> PITS_SUM_SHIFT & PIT_MASK) == 0;
+    }
+
+    /**
+     * @return null if the game is not finished or the player with more stones, player two on a draw
+     */
+    public GameTurn getWinner() {
+        if(!isFinished()){
+            return null;
+        }
+        return (sideOne >>> TOTAL_SHIFT) > (sideTwo >>> TOTAL_SHIFT) ? GameTurn.PLAYER_ONE : GameTurn.PLAYER_TWO;
+    }
+
+    /**
+     * @return packed side of player one
+     */
+    public long getSideOne() {
+        return sideOne;
+    }
+
+    /**
+     * @return packed side of player two
+     */
+    public long getSideTwo() {
+        return sideTwo;
+    }
+
+    private void add(int index, int stones) {
+        if(index < PITS_PER_SIDE){
+            sideOne += delta(index, stones);
+        }else{
+            sideTwo += delta(index - PITS_PER_SIDE, stones);
+        }
+    }
+
+    private static long sideLap() {
+        long lap = 0;
+        for(int slot = 0; slot < PITS_PER_SIDE; slot++){
+            lap += delta(slot, 1);
+        }
+        return lap;
+    }
+
+    private static long delta(int slot, int stones) {
+        long pitAndTotal = (PIT_UNIT << (slot * PIT_BITS)) + TOTAL_UNIT;
+        return stones * (slot == HOUSE_SLOT ? pitAndTotal : pitAndTotal + SUM_UNIT);
+    }
+}
@@ -0,0 +1,46 @@
+package com.damaya.kalah.core.usecases.packed;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.interfaces.BoardEngine;
+import com.damaya.kalah.core.usecases.GameUtils;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * Plays the moves on a {@link PackedBoard}: the pits of the game are packed, the move is played without
+ * allocating and the pits are written back. The other variants are played with their table-driven rules
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.board.engine", havingValue = "packed")
+public class PackedBoardEngine implements BoardEngine {
+
+    private final ThreadLocal<PackedBoard> boards = ThreadLocal.withInitial(PackedBoard::new);
+
+    @Override
+    public int playMove(Game game, int pitId, Date playedAt) {
+        if(game.getVariant() != null && game.getVariant() != GameVariant.KALAH){
+            return GameVariants.rules(game.getVariant()).playMove(game, pitId, playedAt);
+        }
+        int[] pits = game.getBoard().getPits();
+        GameTurn turn = game.getTurn();
+        PackedBoard board = boards.get();
+        board.load(pits);
+
+        int lastMoveIndex = board.sow(pitId - 1, turn);
+        board.store(pits);
+
+        GameTurn winner = board.getWinner();
+        if(winner != null){
+            game.setFinishedAt(playedAt);
+            game.setWinner(winner);
+        }else if(!GameUtils.isLastMoveHome(lastMoveIndex, turn)){
+            game.setTurn(turn == GameTurn.PLAYER_TWO ? GameTurn.PLAYER_ONE : GameTurn.PLAYER_TWO);
+        }
+        return lastMoveIndex;
+    }
+}
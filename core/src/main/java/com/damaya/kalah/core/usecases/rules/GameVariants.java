@@ -0,0 +1,34 @@
+package com.damaya.kalah.core.usecases.rules;
+
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.interfaces.GameRules;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Rules of every {@link GameVariant}, built once
+ */
+public class GameVariants {
+
+    private static final Map<GameVariant, GameRules> RULES = new EnumMap<>(GameVariant.class);
+
+    static {
+        for(GameVariant variant : GameVariant.values()){
+            RULES.put(variant, new TableGameRules(variant));
+        }
+    }
+
+    private GameVariants(){
+
+    }
+
+    /**
+     * @param variant game variant, null for games created before variants existed
+     * @return rules of the variant, kalah when it is null
+     */
+    public static GameRules rules(GameVariant variant) {
+        return RULES.get(Objects.isNull(variant) ? GameVariant.KALAH : variant);
+    }
+}
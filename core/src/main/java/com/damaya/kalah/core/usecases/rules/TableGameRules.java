@@ -0,0 +1,232 @@
+package com.damaya.kalah.core.usecases.rules;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.CaptureRule;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.entities.enums.MoveCheck;
+import com.damaya.kalah.core.entities.exceptions.GameAlreadyFinishedException;
+import com.damaya.kalah.core.entities.exceptions.InvalidMoveException;
+import com.damaya.kalah.core.interfaces.GameRules;
+
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Rules of a {@link GameVariant} driven by lookup tables computed once: the pits sown in one lap from every pit,
+ * the opposite and previous pits, and the owner of every pit. Sowing adds whole laps at once and then walks the
+ * lap table, so it has no modulo nor skip branches. Like {@link com.damaya.kalah.core.usecases.GameUtils} the game
+ * finishes when a player has no stones left in its pits, and the side with more stones wins, player two on a draw.
+ * Instances are immutable and thread-safe.
+ */
+public final class TableGameRules implements GameRules {
+
+    private static final int NO_PIT = -1;
+
+    private final GameVariant variant;
+    private final int pitsPerSide;
+    private final int totalPits;
+    private final int[] houses;
+    private final int[] owners;
+    //pits sown in one lap, by turn and starting pit
+    private final int[][][] laps;
+    private final int[] opposites;
+    //previous pit of the same row, used by captures going backwards
+    private final int[] previous;
+    private final GameAlreadyFinishedException alreadyFinished;
+    //by move check ordinal
+    private final InvalidMoveException[] invalidMoves;
+
+    /**
+     * @param variant variant to play
+     */
+    public TableGameRules(GameVariant variant) {
+        this.variant = Objects.requireNonNull(variant);
+        this.pitsPerSide = variant.getPitsPerSide();
+        this.totalPits = variant.getTotalPits();
+        this.houses = new int[]{pitsPerSide, totalPits - 1};
+        this.owners = new int[totalPits];
+        this.opposites = new int[totalPits];
+        this.previous = new int[totalPits];
+        for(int pit = 0; pit < totalPits; pit++){
+            owners[pit] = pit <= pitsPerSide ? GameTurn.PLAYER_ONE.ordinal() : GameTurn.PLAYER_TWO.ordinal();
+            boolean isHouse = isHouse(pit);
+            opposites[pit] = isHouse ? NO_PIT : 2 * pitsPerSide - pit;
+            previous[pit] = isHouse || pit == 0 || pit == pitsPerSide + 1 ? NO_PIT : pit - 1;
+        }
+        this.alreadyFinished = new GameAlreadyFinishedException(MoveCheck.GAME_FINISHED.getMessage(totalPits), false);
+        this.invalidMoves = new InvalidMoveException[MoveCheck.values().length];
+        for(MoveCheck check : MoveCheck.values()){
+            if(check != MoveCheck.VALID && check != MoveCheck.GAME_FINISHED){
+                invalidMoves[check.ordinal()] = new InvalidMoveException(check.getMessage(totalPits), false);
+            }
+        }
+        this.laps = new int[GameTurn.values().length][totalPits][];
+        for(GameTurn turn : GameTurn.values()){
+            for(int pit = 0; pit < totalPits; pit++){
+                laps[turn.ordinal()][pit] = lapFrom(pit, turn.ordinal());
+            }
+        }
+    }
+
+    @Override
+    public GameVariant getVariant() {
+        return variant;
+    }
+
+    @Override
+    public int[] deal() {
+        int[] pits = new int[totalPits];
+        for(int pit = 0; pit < totalPits; pit++){
+            pits[pit] = isHouse(pit) ? 0 : variant.getStonesPerPit();
+        }
+        return pits;
+    }
+
+    @Override
+    public MoveCheck checkMove(Game game, int pitId) {
+        if(Objects.nonNull(game.getFinishedAt())){
+            return MoveCheck.GAME_FINISHED;
+        }else if(pitId < 1 || pitId > totalPits){
+            return MoveCheck.PIT_OUT_OF_RANGE;
+        }else if(owners[pitId - 1] != game.getTurn().ordinal()){
+            return MoveCheck.ADVERSARY_PIT;
+        }else if(isHouse(pitId - 1)){
+            return MoveCheck.HOUSE_PIT;
+        }else if(game.getBoard().getPits()[pitId - 1] == 0){
+            return MoveCheck.EMPTY_PIT;
+        }
+        return MoveCheck.VALID;
+    }
+
+    @Override
+    public void validateMove(Game game, int pitId) throws GameAlreadyFinishedException, InvalidMoveException {
+        MoveCheck check = checkMove(game, pitId);
+        if(check == MoveCheck.GAME_FINISHED){
+            throw alreadyFinished;
+        }else if(check != MoveCheck.VALID){
+            throw invalidMoves[check.ordinal()];
+        }
+    }
+
+    @Override
+    public int playMove(Game game, int pitId, Date playedAt) {
+        GameTurn turn = game.getTurn();
+        int[] pits = game.getBoard().getPits();
+        int lastMoveIndex = sow(pits, pitId - 1, turn);
+
+        GameTurn winner = getWinner(pits);
+        if(Objects.nonNull(winner)){
+            game.setFinishedAt(playedAt);
+            game.setWinner(winner);
+        }else if(lastMoveIndex != houses[turn.ordinal()]){
+            game.setTurn(turn == GameTurn.PLAYER_TWO ? GameTurn.PLAYER_ONE : GameTurn.PLAYER_TWO);
+        }
+        return lastMoveIndex;
+    }
+
+    @Override
+    public int sow(int[] pits, int index, GameTurn turn) {
+        int player = turn.ordinal();
+        int[] lap = laps[player][index];
+        int stones = pits[index];
+        pits[index] = 0;
+        int fullLaps = stones / lap.length;
+        int remainder = stones % lap.length;
+        if(fullLaps > 0){
+            for(int pit : lap){
+                pits[pit] += fullLaps;
+            }
+        }
+        for(int i = 0; i < remainder; i++){
+            pits[lap[i]]++;
+        }
+        int last = lap[remainder == 0 ? lap.length - 1 : remainder - 1];
+        if(variant.getCaptureRule() == CaptureRule.EMPTY_PIT){
+            captureEmptyPit(pits, last, player);
+        }else if(variant.getCaptureRule() == CaptureRule.TWO_OR_THREE){
+            captureTwoOrThree(pits, last, player);
+        }
+        return last;
+    }
+
+    @Override
+    public boolean givesExtraTurn(int[] pits, int index, GameTurn turn) {
+        int[] lap = laps[turn.ordinal()][index];
+        int remainder = pits[index] % lap.length;
+        return lap[remainder == 0 ? lap.length - 1 : remainder - 1] == houses[turn.ordinal()];
+    }
+
+    @Override
+    public GameTurn getWinner(int[] pits) {
+        int rowOne = 0;
+        int rowTwo = 0;
+        for(int pit = 0; pit < pitsPerSide; pit++){
+            rowOne += pits[pit];
+            rowTwo += pits[pitsPerSide + 1 + pit];
+        }
+        if(rowOne != 0 && rowTwo != 0){
+            return null;
+        }
+        return rowOne + pits[houses[0]] > rowTwo + pits[houses[1]] ? GameTurn.PLAYER_ONE : GameTurn.PLAYER_TWO;
+    }
+
+    private void captureEmptyPit(int[] pits, int last, int player) {
+        if(owners[last] == player && !isHouse(last) && pits[last] == 1){
+            int opposite = opposites[last];
+            pits[houses[player]] += pits[opposite] + 1;
+            pits[last] = 0;
+            pits[opposite] = 0;
+        }
+    }
+
+    private void captureTwoOrThree(int[] pits, int last, int player) {
+        if(owners[last] != player && !isHouse(last)){
+            int captured = 0;
+            int first = last;
+            for(int pit = last; pit != NO_PIT && (pits[pit] == 2 || pits[pit] == 3); pit = previous[pit]){
+                captured += pits[pit];
+                first = pit;
+            }
+            //taking every adversary stone is not allowed, the move is played without capturing
+            if(captured > 0 && captured < rowStones(pits, owners[last])){
+                for(int pit = last; pit != previous[first]; pit = previous[pit]){
+                    pits[pit] = 0;
+                }
+                pits[houses[player]] += captured;
+            }
+        }
+    }
+
+    private int rowStones(int[] pits, int owner) {
+        int first = owner == GameTurn.PLAYER_ONE.ordinal() ? 0 : pitsPerSide + 1;
+        int stones = 0;
+        for(int pit = first; pit < first + pitsPerSide; pit++){
+            stones += pits[pit];
+        }
+        return stones;
+    }
+
+    private int[] lapFrom(int origin, int player) {
+        //kalah sows the player house and back into the starting pit, oware skips both houses and the starting pit
+        boolean sowsHouses = variant.getCaptureRule() != CaptureRule.TWO_OR_THREE;
+        int[] lap = new int[totalPits];
+        int length = 0;
+        for(int step = 1; step <= totalPits; step++){
+            int pit = (origin + step) % totalPits;
+            boolean skipped = isHouse(pit)
+                    ? !sowsHouses || pit != houses[player]
+                    : !sowsHouses && pit == origin;
+            if(!skipped){
+                lap[length++] = pit;
+            }
+        }
+        int[] result = new int[length];
+        System.arraycopy(lap, 0, result, 0, length);
+        return result;
+    }
+
+    private boolean isHouse(int pit) {
+        return pit == pitsPerSide || pit == totalPits - 1;
+    }
+}
@@ -0,0 +1,283 @@
+package com.damaya.kalah.core.usecases.sharded;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.exceptions.GameAlreadyFinishedException;
+import com.damaya.kalah.core.entities.exceptions.GameNotFoundException;
+import com.damaya.kalah.core.entities.exceptions.GameVersionMismatchException;
+import com.damaya.kalah.core.entities.exceptions.InvalidMoveException;
+import com.damaya.kalah.core.interfaces.BoardEngine;
+import com.damaya.kalah.core.interfaces.GameBot;
+import com.damaya.kalah.core.interfaces.GameService;
+import com.damaya.kalah.core.interfaces.GameStorage;
+import com.damaya.kalah.core.interfaces.PositionIndex;
+import com.damaya.kalah.core.usecases.GameUtils;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.damaya.kalah.core.usecases.GameErrors.BOT_TURN;
+import static com.damaya.kalah.core.usecases.GameErrors.GAME_NOT_FOUND;
+import static com.damaya.kalah.core.usecases.GameErrors.VERSION_MISMATCH;
+
+/**
+ * Single thread that owns a slice of the games: it is the only one that moves them, so it reads, validates and
+ * saves each game without taking its storage lock. Moves are queued by any thread and played in order.
+ * <p>
+ * The bot searches its moves on another executor, so a search never holds the other games of the shard: its move is
+ * queued back and saved by the shard thread, and moves of the game are rejected while the search runs. A game left
+ * in the turn of the bot, by a failed search or a stop between two saves, is answered before the next move.
+ */
+class GameShard implements Runnable {
+
+    private static final Logger LOCAL_LOGGER = LoggerFactory.getLogger(GameShard.class);
+
+    /**
+     * Empty polls before the shard thread parks
+     */
+    private static final int SPINS = 64;
+
+    private final GameStorage storage;
+    private final BoardEngine boardEngine;
+    private final GameBot bot;
+    private final Executor botExecutor;
+    private volatile PositionIndex positions;
+    private final MpscArrayQueue<MoveCommand> queue;
+    private final Queue<BotMove> botMoves = new ConcurrentLinkedQueue<>();
+    /**
+     * Moves waiting for the bot to answer, by game id, only used by the shard thread
+     */
+    private final Map<String, MoveCommand> answering = new HashMap<>();
+    private final Thread thread;
+    private volatile boolean running;
+    private volatile boolean parked;
+
+    GameShard(int index, GameStorage storage, BoardEngine boardEngine, GameBot bot, Executor botExecutor,
+              int queueCapacity) {
+        this.storage = storage;
+        this.boardEngine = boardEngine;
+        this.bot = bot;
+        this.botExecutor = botExecutor;
+        this.queue = new MpscArrayQueue<>(queueCapacity);
+        this.thread = new Thread(this, "kalah-shard-" + index);
+        this.thread.setDaemon(true);
+        this.running = true;
+        this.thread.start();
+    }
+
+    /**
+     * @param positions index of the positions reached by the games, every move adds its position
+     */
+    void setPositionIndex(PositionIndex positions) {
+        this.positions = positions;
+    }
+
+    /**
+     * Queue a move of a game owned by this shard
+     * @param gameId id of the game
+     * @param pitId pit index
+     * @param expectedVersion version of the game the move is meant for, {@link GameService#ANY_VERSION} for the
+     * current one
+     * @return future updated game, failed with {@link RejectedExecutionException} when the queue is full
+     */
+    CompletableFuture<Game> submit(String gameId, int pitId, long expectedVersion) {
+        CompletableFuture<Game> result = new CompletableFuture<>();
+        if(!running || !queue.offer(new MoveCommand(gameId, pitId, expectedVersion, result))){
+            result.completeExceptionally(new RejectedExecutionException(running
+                    ? "Too many moves waiting to be played" : "Game engine is stopped"));
+        }else if(parked){
+            LockSupport.unpark(thread);
+        }
+        return result;
+    }
+
+    /**
+     * Stop taking moves, play the queued ones and the answers of the bot being searched, and wait for the thread to
+     * finish
+     */
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join();
+        //moves queued by producers that did not see the shard stopping
+        for(MoveCommand command = queue.poll(); command != null; command = queue.poll()){
+            command.result.completeExceptionally(new RejectedExecutionException("Game engine is stopped"));
+        }
+    }
+
+    @Override
+    public void run() {
+        int idle = 0;
+        while(running || !queue.isEmpty() || !answering.isEmpty()){
+            BotMove botMove = botMoves.poll();
+            MoveCommand command = botMove == null ? queue.poll() : null;
+            if(botMove != null){
+                answer(botMove);
+                idle = 0;
+            }else if(command != null){
+                play(command);
+                idle = 0;
+            }else if(++idle < SPINS){
+                Thread.yield();
+            }else{
+                //a producer reads the flag after queueing, so either it unparks the thread or the queue is not empty
+                parked = true;
+                if((running || !answering.isEmpty()) && queue.isEmpty() && botMoves.isEmpty()){
+                    LockSupport.park(this);
+                }
+                parked = false;
+                idle = 0;
+            }
+        }
+    }
+
+    private void play(MoveCommand command) {
+        try{
+            if(answering.containsKey(command.gameId)){
+                throw BOT_TURN;
+            }
+            Game game = storage.findById(command.gameId)
+                    .orElseThrow(() -> GAME_NOT_FOUND);
+            if(GameUtils.isBotTurn(game)){
+                if(command.resumed){
+                    throw BOT_TURN;
+                }
+                //the answer of the bot to the previous move was not saved, the move is played after it
+                command.resumed = true;
+                command.pending = true;
+                search(game, command);
+                return;
+            }
+            //the shard is the only writer of the game, so the version checked here is the one it saves over
+            if(command.expectedVersion != GameService.ANY_VERSION && game.getVersion() != command.expectedVersion){
+                throw VERSION_MISMATCH;
+            }
+            GameVariants.rules(game.getVariant()).validateMove(game, command.pitId);
+            game = GameUtils.playOnCopy(game, command.pitId, boardEngine);
+            Game saved = storage.saveMove(game, command.pitId);
+            GameUtils.indexPosition(positions, game);
+            if(GameUtils.isBotTurn(game)){
+                search(saved, command);
+            }else{
+                //the next move of the game is played on another copy, so the caller reads the result safely
+                command.result.complete(saved);
+            }
+        }catch (GameNotFoundException | GameAlreadyFinishedException | InvalidMoveException
+                | GameVersionMismatchException e){
+            command.result.completeExceptionally(e);
+        }catch (RuntimeException e){
+            fail(command, e);
+        }
+    }
+
+    /**
+     * Search the move of the bot on the bot executor, the move is queued back to the shard thread
+     * @param game saved game in the turn of the bot
+     * @param command move answered by the bot
+     */
+    private void search(Game game, MoveCommand command) {
+        answering.put(game.getId(), command);
+        try{
+            botExecutor.execute(() -> {
+                BotMove botMove;
+                try{
+                    botMove = new BotMove(game, bot.chooseMove(game, game.getBotLevel()), null);
+                }catch (RuntimeException e){
+                    botMove = new BotMove(game, 0, e);
+                }
+                botMoves.offer(botMove);
+                if(parked){
+                    LockSupport.unpark(thread);
+                }
+            });
+        }catch (RejectedExecutionException e){
+            botMoves.offer(new BotMove(game, 0, e));
+        }
+    }
+
+    /**
+     * Save a move of the bot and search the next one while it is still its turn
+     */
+    private void answer(BotMove botMove) {
+        Game game = botMove.game;
+        MoveCommand command = answering.remove(game.getId());
+        if(Objects.nonNull(botMove.failure)){
+            LOCAL_LOGGER.warn("Bot move of game {} failed, the next move resumes it", game.getId(), botMove.failure);
+            if(command.pending){
+                command.result.completeExceptionally(BOT_TURN);
+            }else{
+                //the human move is saved, the game waits in the turn of the bot for the next move to resume it
+                command.result.complete(game);
+            }
+            return;
+        }
+        try{
+            Game moved = GameUtils.playOnCopy(game, botMove.pitId, boardEngine);
+            Game saved = storage.saveMove(moved, botMove.pitId);
+            GameUtils.indexPosition(positions, moved);
+            if(GameUtils.isBotTurn(moved)){
+                search(saved, command);
+            }else if(command.pending){
+                command.pending = false;
+                play(command);
+            }else{
+                command.result.complete(saved);
+            }
+        }catch (RuntimeException e){
+            fail(command, e);
+        }
+    }
+
+    private void fail(MoveCommand command, RuntimeException e) {
+        LOCAL_LOGGER.error("Move {} of game {} failed", command.pitId, command.gameId, e);
+        command.result.completeExceptionally(e);
+    }
+
+    private static final class MoveCommand {
+        private final String gameId;
+        private final int pitId;
+        private final long expectedVersion;
+        private final CompletableFuture<Game> result;
+        /**
+         * True once the move waited for the bot to answer a previous move, it is not resumed twice
+         */
+        private boolean resumed;
+        /**
+         * True while the move waits for the bot to answer a previous move, it is played after the answer
+         */
+        private boolean pending;
+
+        private MoveCommand(String gameId, int pitId, long expectedVersion, CompletableFuture<Game> result) {
+            this.gameId = gameId;
+            this.pitId = pitId;
+            this.expectedVersion = expectedVersion;
+            this.result = result;
+        }
+    }
+
+    private static final class BotMove {
+        private final Game game;
+        private final int pitId;
+        private final RuntimeException failure;
+
+        /**
+         * @param game game searched by the bot
+         * @param pitId move chosen by the bot
+         * @param failure failure of the search, null when it chose a move
+         */
+        private BotMove(Game game, int pitId, RuntimeException failure) {
+            this.game = game;
+            this.pitId = pitId;
+            this.failure = failure;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.damaya.kalah.core.usecases.sharded;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer. Each cell has a sequence number: producers
+ * claim a position with a CAS on the tail and publish the element by advancing the cell sequence, the consumer
+ * takes published cells in order and hands them back to the producers one lap later.
+ * @param <E> element type
+ */
+class MpscArrayQueue<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail;
+    /**
+     * Only read and written by the consumer
+     */
+    private long head;
+
+    /**
+     * @param capacity maximum queued elements, rounded up to a power of two
+     */
+    MpscArrayQueue(int capacity) {
+        if(capacity > 0 && capacity <= 1 << 30){
+            int size = Integer.highestOneBit(capacity - 1) << 1;
+            size = Math.max(size, 2);
+            this.elements = new AtomicReferenceArray<>(size);
+            this.sequences = new AtomicLongArray(size);
+            for(int i = 0; i < size; i++){
+                sequences.set(i, i);
+            }
+            this.mask = size - 1;
+            this.tail = new AtomicLong();
+        }else{
+            throw new IllegalArgumentException("Capacity should be between 1 and " + (1 << 30));
+        }
+    }
+
+    /**
+     * Add an element, from any thread
+     * @param element element
+     * @return false if the queue is full
+     */
+    boolean offer(E element) {
+        while(true){
+            long position = tail.get();
+            int index = (int) position & mask;
+            long available = sequences.get(index) - position;
+            if(available == 0){
+                if(tail.compareAndSet(position, position + 1)){
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            }else if(available < 0){
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Take the oldest element, only from the consumer thread
+     * @return element or null if the queue is empty
+     */
+    E poll() {
+        int index = (int) head & mask;
+        if(sequences.get(index) != head + 1){
+            return null;
+        }
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.set(index, head + mask + 1);
+        head++;
+        return element;
+    }
+
+    /**
+     * Only from the consumer thread
+     * @return true if no element is ready to be taken
+     */
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    /**
+     * @return maximum queued elements
+     */
+    int capacity() {
+        return mask + 1;
+    }
+}
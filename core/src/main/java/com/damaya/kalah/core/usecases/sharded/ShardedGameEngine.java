@@ -0,0 +1,129 @@
+package com.damaya.kalah.core.usecases.sharded;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.interfaces.BoardEngine;
+import com.damaya.kalah.core.interfaces.GameBot;
+import com.damaya.kalah.core.interfaces.GameEngine;
+import com.damaya.kalah.core.interfaces.GameService;
+import com.damaya.kalah.core.interfaces.GameStorage;
+import com.damaya.kalah.core.interfaces.PositionIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.damaya.kalah.core.usecases.GameErrors.GAME_NOT_FOUND;
+
+/**
+ * Game engine that partitions the games by id hash across several {@link GameShard}s. Each shard thread drains a
+ * bounded queue of moves and is the only one moving its games, so moves take no lock. When a shard queue is full
+ * the move fails with {@link java.util.concurrent.RejectedExecutionException}. The bot searches on a pool with a
+ * thread per shard, so a game against the bot does not hold the other games of its shard during the search.
+ * <p>
+ * Futures are completed by the shard threads, so their dependent stages should be short.
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.engine.type", havingValue = "sharded")
+public class ShardedGameEngine implements GameEngine {
+
+    private final GameService service;
+    private final GameStorage storage;
+    private final GameShard[] shards;
+    private final ExecutorService botExecutor;
+
+    /**
+     * @param service service that creates the games
+     * @param storage storage of the games
+     * @param boardEngine rules engine that plays the moves
+     * @param bot bot that answers the moves of games against it
+     * @param shardCount number of shards, zero for one per available processor
+     * @param queueCapacity maximum queued moves per shard
+     */
+    @Autowired
+    public ShardedGameEngine(GameService service, GameStorage storage, BoardEngine boardEngine, GameBot bot,
+                             @Value("${kalah.engine.shards:0}") int shardCount,
+                             @Value("${kalah.engine.queue-capacity:1024}") int queueCapacity) {
+        if(shardCount >= 0 && queueCapacity > 0){
+            this.service = service;
+            this.storage = storage;
+            this.shards = new GameShard[shardCount == 0 ? Runtime.getRuntime().availableProcessors() : shardCount];
+            AtomicInteger botThreads = new AtomicInteger();
+            this.botExecutor = Executors.newFixedThreadPool(shards.length, runnable -> {
+                Thread thread = new Thread(runnable, "kalah-shard-bot-" + botThreads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            for(int i = 0; i < shards.length; i++){
+                shards[i] = new GameShard(i, storage, boardEngine, bot, botExecutor, queueCapacity);
+            }
+        }else{
+            throw new IllegalArgumentException("Shard count should not be negative and queue capacity should be "
+                    + "greater than 0");
+        }
+    }
+
+    /**
+     * @param positions index of the positions reached by the games, every move adds its position
+     */
+    @Autowired(required = false)
+    public void setPositionIndex(PositionIndex positions) {
+        for(GameShard shard : shards){
+            shard.setPositionIndex(positions);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Game> create(GameVariant variant, int botLevel) {
+        //nobody else knows the id of a new game yet, so it is safely saved by the calling thread
+        return CompletableFuture.completedFuture(service.create(variant, botLevel));
+    }
+
+    @Override
+    public CompletableFuture<Game> find(String gameId) {
+        //moves never modify a stored snapshot, so reads skip the shard queue
+        CompletableFuture<Game> result = new CompletableFuture<>();
+        Optional<Game> game = storage.findById(gameId);
+        if(game.isPresent()){
+            result.complete(game.get());
+        }else{
+            result.completeExceptionally(GAME_NOT_FOUND);
+        }
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Game> makeMove(String gameId, int pitId, long expectedVersion) {
+        return shardOf(gameId).submit(gameId, pitId, expectedVersion);
+    }
+
+    /**
+     * @return number of shards
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Play the queued moves, wait for the bot moves being searched and stop the shard and bot threads
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        for(GameShard shard : shards){
+            shard.stop();
+        }
+        botExecutor.shutdown();
+    }
+
+    private GameShard shardOf(String gameId) {
+        int hash = gameId.hashCode();
+        return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+    }
+}
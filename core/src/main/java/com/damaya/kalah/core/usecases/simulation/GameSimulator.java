@@ -0,0 +1,144 @@
+package com.damaya.kalah.core.usecases.simulation;
+
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.interfaces.GameRules;
+import com.damaya.kalah.core.interfaces.PlayStrategy;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays games between two strategies directly on the rules, without games, storage nor engines, and aggregates
+ * their statistics. The games are split in ranges across a {@link ForkJoinPool}, every range counts in its own
+ * {@link SimulationResult} and plays on the board buffer of its thread. Each range draws its random numbers from a
+ * generator seeded with the range start, so a seed gives the same result with any number of threads.
+ */
+public final class GameSimulator implements AutoCloseable {
+
+    /**
+     * Moves after which a game is stopped and scored by the stones of each side, oware positions can repeat forever
+     */
+    public static final int MAX_MOVES = 1024;
+
+    /**
+     * Games played by one task
+     */
+    private static final int RANGE = 512;
+    private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+
+    private final GameRules rules;
+    private final PlayStrategy playerOne;
+    private final PlayStrategy playerTwo;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<int[]> boards;
+
+    /**
+     * @param variant variant of the games
+     * @param playerOne strategy of player one
+     * @param playerTwo strategy of player two
+     * @param threads simulation threads, zero for one per available processor
+     */
+    public GameSimulator(GameVariant variant, PlayStrategy playerOne, PlayStrategy playerTwo, int threads) {
+        if(threads < 0){
+            throw new IllegalArgumentException("Threads should not be negative");
+        }
+        this.rules = GameVariants.rules(variant);
+        this.playerOne = playerOne;
+        this.playerTwo = playerTwo;
+        this.pool = new ForkJoinPool(threads == 0 ? Runtime.getRuntime().availableProcessors() : threads);
+        this.boards = ThreadLocal.withInitial(() -> new int[variant.getTotalPits()]);
+    }
+
+    /**
+     * @param games games to play
+     * @param seed seed of the random numbers of the strategies
+     * @return statistics of the games
+     */
+    public SimulationResult simulate(long games, long seed) {
+        if(games < 0){
+            throw new IllegalArgumentException("Games should not be negative");
+        }
+        return pool.invoke(new SimulationTask(0, games, seed));
+    }
+
+    public int getThreads() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Stop the simulation threads
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private SimulationResult play(long from, long to, long seed) {
+        SplittableRandom random = new SplittableRandom(seed + from * SEED_STEP);
+        SimulationResult result = new SimulationResult(rules.getVariant().getPitsPerSide());
+        int[] dealt = rules.deal();
+        int[] board = boards.get();
+        int pitsPerSide = rules.getVariant().getPitsPerSide();
+        int[] houses = {pitsPerSide, board.length - 1};
+        for(long game = from; game < to; game++){
+            System.arraycopy(dealt, 0, board, 0, board.length);
+            GameTurn turn = GameTurn.PLAYER_ONE;
+            GameTurn winner = null;
+            int firstMove = -1;
+            int moves = 0;
+            while(winner == null && moves < MAX_MOVES){
+                int pit = (turn == GameTurn.PLAYER_ONE ? playerOne : playerTwo).choosePit(rules, board, turn, random);
+                if(firstMove < 0){
+                    firstMove = pit;
+                }
+                int last = rules.sow(board, pit, turn);
+                boolean extraTurn = last == houses[turn.ordinal()];
+                //captures always empty the pit where the last stone fell, which is never empty otherwise
+                result.addMove(extraTurn, board[last] == 0);
+                moves++;
+                winner = rules.getWinner(board);
+                if(!extraTurn){
+                    turn = turn == GameTurn.PLAYER_ONE ? GameTurn.PLAYER_TWO : GameTurn.PLAYER_ONE;
+                }
+            }
+            int difference = 0;
+            for(int pit = 0; pit <= pitsPerSide; pit++){
+                difference += board[pit] - board[pitsPerSide + 1 + pit];
+            }
+            result.addGame(firstMove, difference > 0 ? GameTurn.PLAYER_ONE : GameTurn.PLAYER_TWO, difference == 0,
+                    winner != null);
+        }
+        return result;
+    }
+
+    /**
+     * Plays a range of games, splitting it in halves down to {@link #RANGE} games
+     */
+    private final class SimulationTask extends RecursiveTask<SimulationResult> {
+        private final long from;
+        private final long to;
+        private final long seed;
+
+        private SimulationTask(long from, long to, long seed) {
+            this.from = from;
+            this.to = to;
+            this.seed = seed;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            if(to - from <= RANGE){
+                return play(from, to, seed);
+            }
+            //split on multiples of the range, so the ranges and their seeds do not depend on the threads
+            long middle = from + Math.max(1, (to - from) / RANGE / 2) * RANGE;
+            SimulationTask right = new SimulationTask(middle, to, seed);
+            right.fork();
+            SimulationResult left = new SimulationTask(from, middle, seed).compute();
+            return left.merge(right.join());
+        }
+    }
+}
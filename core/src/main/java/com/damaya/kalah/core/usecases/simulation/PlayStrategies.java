@@ -0,0 +1,100 @@
+package com.damaya.kalah.core.usecases.simulation;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.interfaces.GameBot;
+import com.damaya.kalah.core.interfaces.GameRules;
+import com.damaya.kalah.core.interfaces.PlayStrategy;
+
+import java.util.Date;
+
+/**
+ * Strategies of the simulated players
+ */
+public final class PlayStrategies {
+
+    private static final ThreadLocal<int[]> SCRATCH = ThreadLocal.withInitial(() -> new int[0]);
+
+    private PlayStrategies() {}
+
+    /**
+     * @return strategy that plays any non-empty pit with the same probability
+     */
+    public static PlayStrategy random() {
+        return (rules, pits, turn, random) -> {
+            int first = firstPit(rules, turn);
+            int pitsPerSide = rules.getVariant().getPitsPerSide();
+            int count = 0;
+            for(int pit = first; pit < first + pitsPerSide; pit++){
+                count += pits[pit] > 0 ? 1 : 0;
+            }
+            int chosen = random.nextInt(count);
+            for(int pit = first; ; pit++){
+                if(pits[pit] > 0 && chosen-- == 0){
+                    return pit;
+                }
+            }
+        };
+    }
+
+    /**
+     * @return strategy that plays the move that puts the most stones in its house, an extra turn first, sowing on
+     * a scratch board of the calling thread
+     */
+    public static PlayStrategy greedy() {
+        return (rules, pits, turn, random) -> {
+            int first = firstPit(rules, turn);
+            int pitsPerSide = rules.getVariant().getPitsPerSide();
+            int house = turn == GameTurn.PLAYER_ONE ? pitsPerSide : pits.length - 1;
+            int[] scratch = scratch(pits.length);
+            int bestPit = -1;
+            int bestGain = Integer.MIN_VALUE;
+            for(int pit = first; pit < first + pitsPerSide; pit++){
+                if(pits[pit] > 0){
+                    System.arraycopy(pits, 0, scratch, 0, pits.length);
+                    int last = rules.sow(scratch, pit, turn);
+                    //an extra turn is worth more than any capture
+                    int gain = (scratch[house] - pits[house]) + (last == house ? pits.length * 128 : 0);
+                    if(gain > bestGain){
+                        bestGain = gain;
+                        bestPit = pit;
+                    }
+                }
+            }
+            return bestPit;
+        };
+    }
+
+    /**
+     * @param bot game bot
+     * @param level bot level
+     * @return strategy that asks the bot for every move
+     */
+    public static PlayStrategy bot(GameBot bot, int level) {
+        if(level < GameBot.MIN_LEVEL || level > GameBot.MAX_LEVEL){
+            throw new IllegalArgumentException("Bot level should be between " + GameBot.MIN_LEVEL + " and "
+                    + GameBot.MAX_LEVEL);
+        }
+        return (rules, pits, turn, random) -> bot.chooseMove(Game.builder()
+                .id("simulation")
+                .startedAt(new Date(0))
+                .turn(turn)
+                .board(Board.builder().pits(pits.clone()).build())
+                .variant(rules.getVariant())
+                .build(), level) - 1;
+    }
+
+    private static int firstPit(GameRules rules, GameTurn turn) {
+        return turn == GameTurn.PLAYER_ONE ? 0 : rules.getVariant().getPitsPerSide() + 1;
+    }
+
+    private static int[] scratch(int totalPits) {
+        int[] scratch = SCRATCH.get();
+        if(scratch.length != totalPits){
+            scratch = new int[totalPits];
+            SCRATCH.set(scratch);
+        }
+        return scratch;
+    }
+}
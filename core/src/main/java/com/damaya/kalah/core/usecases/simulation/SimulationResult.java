@@ -0,0 +1,163 @@
+package com.damaya.kalah.core.usecases.simulation;
+
+import com.damaya.kalah.core.entities.enums.GameTurn;
+
+/**
+ * Statistics of simulated games. Every simulation task counts its games in its own result and the results are
+ * merged when the tasks join, so counting takes no synchronization
+ */
+public final class SimulationResult {
+
+    private final long[] gamesByFirstMove;
+    private final long[] playerOneWinsByFirstMove;
+    private long games;
+    private long moves;
+    private long extraTurns;
+    private long captures;
+    private long playerOneWins;
+    private long draws;
+    private long unfinished;
+
+    /**
+     * @param pitsPerSide pits of each row, houses excluded
+     */
+    public SimulationResult(int pitsPerSide) {
+        this.gamesByFirstMove = new long[pitsPerSide];
+        this.playerOneWinsByFirstMove = new long[pitsPerSide];
+    }
+
+    /**
+     * Count a played game
+     * @param firstMove pit of the first move of player one, from 0
+     * @param winner winner of the game
+     * @param draw true when both sides finished with the same stones
+     * @param finished false when the game was stopped by the move limit and scored by the stones of each side
+     */
+    void addGame(int firstMove, GameTurn winner, boolean draw, boolean finished) {
+        games++;
+        gamesByFirstMove[firstMove]++;
+        if(draw){
+            draws++;
+        }else if(winner == GameTurn.PLAYER_ONE){
+            playerOneWins++;
+            playerOneWinsByFirstMove[firstMove]++;
+        }
+        if(!finished){
+            unfinished++;
+        }
+    }
+
+    /**
+     * Count a played move
+     * @param extraTurn true when the move ended in the house of the player
+     * @param capture true when the move captured stones
+     */
+    void addMove(boolean extraTurn, boolean capture) {
+        moves++;
+        if(extraTurn){
+            extraTurns++;
+        }
+        if(capture){
+            captures++;
+        }
+    }
+
+    /**
+     * Add the counts of another result
+     * @param other result of other games
+     * @return this result
+     */
+    SimulationResult merge(SimulationResult other) {
+        games += other.games;
+        moves += other.moves;
+        extraTurns += other.extraTurns;
+        captures += other.captures;
+        playerOneWins += other.playerOneWins;
+        draws += other.draws;
+        unfinished += other.unfinished;
+        for(int pit = 0; pit < gamesByFirstMove.length; pit++){
+            gamesByFirstMove[pit] += other.gamesByFirstMove[pit];
+            playerOneWinsByFirstMove[pit] += other.playerOneWinsByFirstMove[pit];
+        }
+        return this;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getExtraTurns() {
+        return extraTurns;
+    }
+
+    public long getCaptures() {
+        return captures;
+    }
+
+    public long getPlayerOneWins() {
+        return playerOneWins;
+    }
+
+    /**
+     * @return games won by player two, draws excluded
+     */
+    public long getPlayerTwoWins() {
+        return games - playerOneWins - draws;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    /**
+     * @return games stopped by the move limit
+     */
+    public long getUnfinished() {
+        return unfinished;
+    }
+
+    /**
+     * @param pit pit of the first move of player one, from 0
+     * @return games opened with the pit
+     */
+    public long getGames(int pit) {
+        return gamesByFirstMove[pit];
+    }
+
+    /**
+     * @param pit pit of the first move of player one, from 0
+     * @return share of the games opened with the pit won by player one, NaN when none was opened with it
+     */
+    public double getPlayerOneWinRate(int pit) {
+        return (double) playerOneWinsByFirstMove[pit] / gamesByFirstMove[pit];
+    }
+
+    public double getPlayerOneWinRate() {
+        return (double) playerOneWins / games;
+    }
+
+    /**
+     * @return moves per game
+     */
+    public double getAverageLength() {
+        return (double) moves / games;
+    }
+
+    /**
+     * @return share of the moves that gave an extra turn
+     */
+    public double getExtraTurnFrequency() {
+        return (double) extraTurns / moves;
+    }
+
+    /**
+     * @return share of the moves that captured stones
+     */
+    public double getCaptureFrequency() {
+        return (double) captures / moves;
+    }
+}
@@ -0,0 +1,175 @@
+package com.damaya.kalah.core.usecases.tablebase;
+
+import com.damaya.kalah.core.entities.domain.EndgameSolution;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.interfaces.EndgameTablebase;
+import com.damaya.kalah.core.interfaces.GameRules;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Endgame tablebase read from a file mapped in memory. The file holds, for every position of a
+ * {@link TablebaseIndex}, the stones that the player in turn takes from the pits minus the stones the adversary
+ * takes when both play perfectly. Solving a position reads its value and the values of its moves, so it takes a few
+ * page reads and no search. The file is written by the tablebase generator of the tools module.
+ * <pre>
+ * offset  size  field
+ *  0      4     magic, "KTB1"
+ *  4      4     variant ordinal
+ *  8      4     most stones in the pits
+ * 12      4     unused, zero
+ * 16      8     number of positions
+ * 24      n     one signed byte per position, by index
+ * </pre>
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.tablebase.file")
+public class MappedTablebase implements EndgameTablebase {
+
+    public static final int MAGIC = 0x4B544231;
+    public static final int HEADER_SIZE = 24;
+
+    private final GameVariant variant;
+    private final GameRules rules;
+    private final TablebaseIndex index;
+    private final MappedByteBuffer values;
+
+    /**
+     * @param file tablebase file
+     */
+    @Autowired
+    public MappedTablebase(@Value("${kalah.tablebase.file}") String file) {
+        this(Paths.get(file));
+    }
+
+    /**
+     * @param file tablebase file
+     */
+    public MappedTablebase(Path file) {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while(header.hasRemaining() && channel.read(header) >= 0){
+                //read the whole header
+            }
+            header.flip();
+            if(header.remaining() < HEADER_SIZE || header.getInt(0) != MAGIC){
+                throw new IllegalArgumentException("File " + file + " is not an endgame tablebase");
+            }
+            this.variant = GameVariant.values()[header.getInt(4)];
+            this.rules = GameVariants.rules(variant);
+            this.index = new TablebaseIndex(variant.getPitsPerSide(), header.getInt(8));
+            long positions = header.getLong(16);
+            if(positions != index.size() || channel.size() != HEADER_SIZE + positions){
+                throw new IllegalArgumentException("Endgame tablebase " + file + " is truncated");
+            }
+            //the mapping stays valid after the channel is closed
+            this.values = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, positions);
+        }catch (IOException e){
+            throw new UncheckedIOException("Endgame tablebase could not be mapped", e);
+        }
+    }
+
+    /**
+     * @param variant variant of the positions
+     * @param maxStones most stones in the pits
+     * @param positions number of positions
+     * @return header of a tablebase file
+     */
+    public static ByteBuffer header(GameVariant variant, int maxStones, long positions) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(variant.ordinal()).putInt(maxStones).putInt(0).putLong(positions);
+        header.flip();
+        return header;
+    }
+
+    public GameVariant getVariant() {
+        return variant;
+    }
+
+    public int getMaxStones() {
+        return index.getMaxStones();
+    }
+
+    @Override
+    public Optional<EndgameSolution> solve(Game game) {
+        GameVariant gameVariant = Objects.isNull(game.getVariant()) ? GameVariant.KALAH : game.getVariant();
+        int[] board = game.getBoard().getPits();
+        if(gameVariant != variant || Objects.nonNull(game.getFinishedAt()) || Objects.nonNull(rules.getWinner(board))
+                || index.stonesInPlay(board) > index.getMaxStones()){
+            return Optional.empty();
+        }
+        GameTurn turn = game.getTurn();
+        int pitsPerSide = variant.getPitsPerSide();
+        int first = turn == GameTurn.PLAYER_ONE ? 0 : pitsPerSide + 1;
+        int bestPit = -1;
+        int bestScore = Integer.MIN_VALUE;
+        for(int pit = first; pit < first + pitsPerSide; pit++){
+            if(board[pit] > 0){
+                int score = moveScore(board, pit, turn);
+                if(score > bestScore){
+                    bestScore = score;
+                    bestPit = pit;
+                }
+            }
+        }
+        int stonesInPlay = index.stonesInPlay(board);
+        int moverHouse = turn == GameTurn.PLAYER_ONE ? board[pitsPerSide] : board[board.length - 1];
+        int adversaryHouse = turn == GameTurn.PLAYER_ONE ? board[board.length - 1] : board[pitsPerSide];
+        //the mover takes x of the stones in play and the adversary the rest, with x - (stones - x) = value
+        int moverStones = moverHouse + (bestScore + stonesInPlay) / 2;
+        int adversaryStones = adversaryHouse + (stonesInPlay - bestScore) / 2;
+        int stonesPlayerOne = turn == GameTurn.PLAYER_ONE ? moverStones : adversaryStones;
+        int stonesPlayerTwo = turn == GameTurn.PLAYER_ONE ? adversaryStones : moverStones;
+        return Optional.of(EndgameSolution.builder()
+                .winner(stonesPlayerOne > stonesPlayerTwo ? GameTurn.PLAYER_ONE : GameTurn.PLAYER_TWO)
+                .bestPitId(bestPit + 1)
+                .stonesPlayerOne(stonesPlayerOne)
+                .stonesPlayerTwo(stonesPlayerTwo)
+                .build());
+    }
+
+    /**
+     * @param board pits array with up to the most stones of the tablebase in play
+     * @param turn player in turn
+     * @return stones the player in turn takes from the pits minus the stones the adversary takes
+     */
+    public int valueOf(int[] board, GameTurn turn) {
+        return values.get((int) index.indexOf(board, turn));
+    }
+
+    private int moveScore(int[] board, int pit, GameTurn turn) {
+        int pitsPerSide = variant.getPitsPerSide();
+        int moverHouse = turn == GameTurn.PLAYER_ONE ? pitsPerSide : board.length - 1;
+        int adversaryHouse = turn == GameTurn.PLAYER_ONE ? board.length - 1 : pitsPerSide;
+        int[] child = board.clone();
+        int last = rules.sow(child, pit, turn);
+        int score = child[moverHouse] - board[moverHouse] - (child[adversaryHouse] - board[adversaryHouse]);
+        if(Objects.nonNull(rules.getWinner(child))){
+            int moverFirst = turn == GameTurn.PLAYER_ONE ? 0 : pitsPerSide + 1;
+            int adversaryFirst = turn == GameTurn.PLAYER_ONE ? pitsPerSide + 1 : 0;
+            for(int i = 0; i < pitsPerSide; i++){
+                score += child[moverFirst + i] - child[adversaryFirst + i];
+            }
+            return score;
+        }
+        return last == moverHouse
+                ? score + valueOf(child, turn)
+                : score - valueOf(child, turn == GameTurn.PLAYER_ONE ? GameTurn.PLAYER_TWO : GameTurn.PLAYER_ONE);
+    }
+}
@@ -0,0 +1,85 @@
+package com.damaya.kalah.core.usecases.tablebase;
+
+import com.damaya.kalah.core.entities.enums.GameTurn;
+
+/**
+ * Dense index of the positions with up to a number of stones in the pits of both rows. The rows of the player in
+ * turn go first, so one table serves both players, and the houses are left out because the stones in them do not
+ * change the best moves. Positions are numbered in lexicographic order of their pits with the combinatorial number
+ * system: the index of a position is the number of positions that come before it.
+ */
+public final class TablebaseIndex {
+
+    private final int pitsPerSide;
+    private final int maxStones;
+    //positions of up to s stones in p pits, C(s + p, p), by p and s
+    private final long[][] positions;
+
+    /**
+     * @param pitsPerSide pits of each row, houses excluded
+     * @param maxStones most stones in the pits
+     */
+    public TablebaseIndex(int pitsPerSide, int maxStones) {
+        if(pitsPerSide > 0 && maxStones >= 0){
+            this.pitsPerSide = pitsPerSide;
+            this.maxStones = maxStones;
+            this.positions = new long[2 * pitsPerSide + 1][maxStones + 1];
+            for(int pits = 0; pits <= 2 * pitsPerSide; pits++){
+                for(int stones = 0; stones <= maxStones; stones++){
+                    positions[pits][stones] = pits == 0 || stones == 0 ? 1
+                            : positions[pits][stones - 1] + positions[pits - 1][stones];
+                }
+            }
+        }else{
+            throw new IllegalArgumentException("Pits per side should be greater than 0 and stones should not be "
+                    + "negative");
+        }
+    }
+
+    /**
+     * @return number of positions
+     */
+    public long size() {
+        return positions[2 * pitsPerSide][maxStones];
+    }
+
+    public int getPitsPerSide() {
+        return pitsPerSide;
+    }
+
+    public int getMaxStones() {
+        return maxStones;
+    }
+
+    /**
+     * @param board pits array, houses included
+     * @return stones in the pits of both rows
+     */
+    public int stonesInPlay(int[] board) {
+        int stones = 0;
+        for(int pit = 0; pit < pitsPerSide; pit++){
+            stones += board[pit] + board[pitsPerSide + 1 + pit];
+        }
+        return stones;
+    }
+
+    /**
+     * @param board pits array, houses included, with up to {@link #getMaxStones()} stones in play
+     * @param turn player in turn
+     * @return index of the position
+     */
+    public long indexOf(int[] board, GameTurn turn) {
+        int moverFirst = turn == GameTurn.PLAYER_ONE ? 0 : pitsPerSide + 1;
+        int adversaryFirst = turn == GameTurn.PLAYER_ONE ? pitsPerSide + 1 : 0;
+        int remaining = maxStones;
+        long index = 0;
+        for(int i = 0; i < 2 * pitsPerSide; i++){
+            int stones = i < pitsPerSide ? board[moverFirst + i] : board[adversaryFirst + i - pitsPerSide];
+            //positions with the same previous pits and fewer stones in this one
+            int pitsAfter = 2 * pitsPerSide - 1 - i;
+            index += positions[pitsAfter + 1][remaining] - positions[pitsAfter + 1][remaining - stones];
+            remaining -= stones;
+        }
+        return index;
+    }
+}
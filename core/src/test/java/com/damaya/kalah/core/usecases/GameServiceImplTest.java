@@ -6,26 +6,39 @@ import com.damaya.kalah.core.entities.domain.Game;
 import com.damaya.kalah.core.entities.enums.GameTurn;
 import com.damaya.kalah.core.entities.exceptions.GameAlreadyFinishedException;
 import com.damaya.kalah.core.entities.exceptions.GameNotFoundException;
+import com.damaya.kalah.core.entities.exceptions.GameVersionMismatchException;
 import com.damaya.kalah.core.entities.exceptions.InvalidMoveException;
 import com.damaya.kalah.core.interfaces.GameStorage;
+import com.damaya.kalah.core.usecases.bot.AlphaBetaBot;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
@@ -44,6 +57,9 @@ public class GameServiceImplTest {
     @MockBean
     private GameStorage storage;
 
+    @SpyBean
+    private AlphaBetaBot bot;
+
     @Captor
     private ArgumentCaptor<Game> gameCaptor;
 
@@ -55,6 +71,27 @@ public class GameServiceImplTest {
             return new GameServiceImpl();
         }
 
+        @Bean
+        public TimeOrderedGameIdGenerator idGenerator() {
+            return new TimeOrderedGameIdGenerator();
+        }
+
+        @Bean
+        public ArrayBoardEngine boardEngine() {
+            return new ArrayBoardEngine();
+        }
+
+        @Bean
+        public AlphaBetaBot bot() {
+            return new AlphaBetaBot(1024, 10);
+        }
+
+    }
+
+    @Before
+    public void setUp(){
+        when(storage.getLock(any())).thenReturn(new ReentrantLock());
+        when(storage.saveIfVersion(any(), anyInt(), anyLong())).thenReturn(true);
     }
 
     @Test
@@ -71,7 +108,7 @@ public class GameServiceImplTest {
         Game createdGame = gameCaptor.getValue();
 
         assertThat(createdGame).isNotNull().satisfies(game -> {
-            assertThat(game.getId()).isNotEmpty();
+            assertThat(CompactGameIds.isValid(game.getId())).isTrue();
             assertThat(game.getStartedAt()).isCloseTo(new Date(), 500L);
             assertThat(game.getFinishedAt()).isNull();
             assertThat(game.getTurn()).isEqualTo(GameTurn.PLAYER_ONE);
@@ -99,6 +136,19 @@ public class GameServiceImplTest {
 
     }
 
+    @Test
+    public void testMakeMoveShouldNotTakeTheGameLock(){
+        //Given
+        String gameId = UUID.randomUUID().toString();
+        when(storage.findById(gameId)).thenReturn(Optional.empty());
+
+        //When and Then
+        assertThatExceptionOfType(GameNotFoundException.class)
+                .isThrownBy(() -> service.makeMove(gameId, 5));
+
+        verify(storage, never()).getLock(gameId);
+    }
+
 
     @Test
     public void testMakeMoveShouldSuccessAndSwitchPlayer() throws GameAlreadyFinishedException, GameNotFoundException, InvalidMoveException {
@@ -111,7 +161,7 @@ public class GameServiceImplTest {
         service.makeMove(game.getId(), pitId);
 
         verify(storage, times(1)).findById(game.getId());
-        verify(storage, times(1)).save(gameCaptor.capture());
+        verify(storage, times(1)).saveIfVersion(gameCaptor.capture(), eq(pitId), eq(0L));
 
         Game gameAfterMove = gameCaptor.getValue();
 
@@ -151,7 +201,7 @@ public class GameServiceImplTest {
         service.makeMove(game.getId(), pitId);
 
         verify(storage, times(1)).findById(game.getId());
-        verify(storage, times(1)).save(gameCaptor.capture());
+        verify(storage, times(1)).saveIfVersion(gameCaptor.capture(), eq(pitId), eq(0L));
 
         Game gameAfterMove = gameCaptor.getValue();
 
@@ -189,7 +239,7 @@ public class GameServiceImplTest {
         service.makeMove(game.getId(), pitId);
 
         verify(storage, times(1)).findById(game.getId());
-        verify(storage, times(1)).save(gameCaptor.capture());
+        verify(storage, times(1)).saveIfVersion(gameCaptor.capture(), eq(pitId), eq(0L));
 
         Game gameAfterMove = gameCaptor.getValue();
 
@@ -227,7 +277,7 @@ public class GameServiceImplTest {
         service.makeMove(game.getId(), pitId);
 
         verify(storage, times(1)).findById(game.getId());
-        verify(storage, times(1)).save(gameCaptor.capture());
+        verify(storage, times(1)).saveIfVersion(gameCaptor.capture(), eq(pitId), eq(0L));
 
         Game gameAfterMove = gameCaptor.getValue();
 
@@ -253,6 +303,148 @@ public class GameServiceImplTest {
         assertThat(pits[13]).isEqualTo(1);
     }
 
+    @Test
+    public void testMakeMoveShouldLetTheBotAnswer() throws GameAlreadyFinishedException, GameNotFoundException, InvalidMoveException {
+        //Given
+        Game game = createGame().withBotLevel(2);
+        int pitId = 2;
+        when(storage.findById(game.getId())).thenReturn(Optional.of(game));
+
+        //When
+        service.makeMove(game.getId(), pitId);
+
+        //Then
+        verify(storage, times(1)).saveIfVersion(any(), eq(pitId), eq(0L));
+        verify(storage, atLeast(2)).saveIfVersion(gameCaptor.capture(), anyInt(), anyLong());
+        Game lastSaved = gameCaptor.getValue();
+        assertThat(lastSaved.getTurn()).isEqualTo(GameTurn.PLAYER_ONE);
+        assertThat(lastSaved.getFinishedAt()).isNull();
+        assertThat(Arrays.stream(lastSaved.getBoard().getPits()).sum()).isEqualTo(72);
+    }
+
+    @Test
+    public void testMakeMoveShouldNotModifyTheStoredSnapshot() throws GameAlreadyFinishedException, GameNotFoundException, InvalidMoveException {
+        //Given
+        Game game = createGame().withBotLevel(2);
+        when(storage.findById(game.getId())).thenReturn(Optional.of(game));
+
+        //When
+        service.makeMove(game.getId(), 2);
+
+        //Then every save publishes its own snapshot and the one read is untouched
+        verify(storage, atLeast(2)).saveIfVersion(gameCaptor.capture(), anyInt(), anyLong());
+        assertThat(gameCaptor.getAllValues()).doesNotContain(game).doesNotHaveDuplicates();
+        assertThat(game.getBoard().getPits()).containsExactly(GameUtils.dealGame(6));
+        assertThat(game.getTurn()).isEqualTo(GameTurn.PLAYER_ONE);
+        assertThat(service.find(game.getId())).isSameAs(game);
+    }
+
+    @Test
+    public void testMakeMoveShouldSaveTheNextVersion() throws GameAlreadyFinishedException, GameNotFoundException,
+            InvalidMoveException, GameVersionMismatchException {
+        //Given
+        Game game = createGame().withVersion(4);
+        when(storage.findById(game.getId())).thenReturn(Optional.of(game));
+
+        //When
+        Game moved = service.makeMove(game.getId(), 2, 4);
+
+        //Then
+        verify(storage, times(1)).saveIfVersion(gameCaptor.capture(), eq(2), eq(4L));
+        assertThat(gameCaptor.getValue().getVersion()).isEqualTo(5);
+        assertThat(moved.getVersion()).isEqualTo(5);
+    }
+
+    @Test
+    public void testMakeMoveShouldThrowVersionMismatch() {
+        //Given
+        Game game = createGame().withVersion(4);
+        when(storage.findById(game.getId())).thenReturn(Optional.of(game));
+
+        //When
+        assertThatExceptionOfType(GameVersionMismatchException.class)
+                .isThrownBy(() -> service.makeMove(game.getId(), 2, 3));
+
+        //Then
+        verify(storage, never()).saveIfVersion(any(), anyInt(), anyLong());
+    }
+
+    @Test
+    public void testMakeMoveShouldRetryOnTheNewVersion() throws GameAlreadyFinishedException, GameNotFoundException,
+            InvalidMoveException {
+        //Given another move is saved between the read and the save of the first attempt
+        Game game = createGame();
+        Game other = createGame().withId(game.getId()).withVersion(1);
+        when(storage.findById(game.getId())).thenReturn(Optional.of(game)).thenReturn(Optional.of(other));
+        when(storage.saveIfVersion(any(), anyInt(), eq(0L))).thenReturn(false);
+
+        //When
+        Game moved = service.makeMove(game.getId(), 2);
+
+        //Then
+        verify(storage, times(1)).saveIfVersion(gameCaptor.capture(), eq(2), eq(1L));
+        assertThat(moved.getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    public void testMakeMoveShouldNotRetryAnExpectedVersion() {
+        //Given
+        Game game = createGame();
+        when(storage.findById(game.getId())).thenReturn(Optional.of(game));
+        when(storage.saveIfVersion(any(), anyInt(), anyLong())).thenReturn(false);
+
+        //When
+        assertThatExceptionOfType(GameVersionMismatchException.class)
+                .isThrownBy(() -> service.makeMove(game.getId(), 2, 0));
+
+        //Then
+        verify(storage, times(1)).saveIfVersion(any(), anyInt(), anyLong());
+    }
+
+    @Test
+    public void testMakeMoveShouldRejectMovesDuringTheBotTurn() {
+        //Given
+        Game game = createGame().withBotLevel(2).withTurn(GameTurn.PLAYER_TWO);
+        when(storage.findById(game.getId())).thenReturn(Optional.of(game));
+
+        //When
+        assertThatExceptionOfType(InvalidMoveException.class)
+                .isThrownBy(() -> service.makeMove(game.getId(), 9))
+                .withMessage("Bot is playing its turn");
+    }
+
+    @Test
+    public void testMakeMoveShouldResumeTheBotAfterItFailed() throws GameAlreadyFinishedException,
+            GameNotFoundException, InvalidMoveException {
+        //Given a storage that keeps the last saved game and a bot that fails once, plays pit 8 and then searches
+        Game game = createGame().withBotLevel(2);
+        AtomicReference<Game> stored = new AtomicReference<>(game);
+        when(storage.findById(game.getId())).thenAnswer(invocation -> Optional.of(stored.get()));
+        when(storage.saveIfVersion(any(), anyInt(), anyLong())).thenAnswer(invocation -> {
+            Game saved = invocation.getArgument(0);
+            stored.set(saved);
+            return true;
+        });
+        doThrow(new IllegalStateException("Bot search failed")).doReturn(8).doCallRealMethod()
+                .when(bot).chooseMove(any(), anyInt());
+
+        //When the bot fails, the saved human move is returned in the turn of the bot
+        Game stuck = service.makeMove(game.getId(), 2);
+
+        //Then
+        assertThat(stuck.getTurn()).isEqualTo(GameTurn.PLAYER_TWO);
+        assertThat(stored.get()).isSameAs(stuck);
+
+        //When the next move resumes the bot before playing
+        Game moved = service.makeMove(game.getId(), 1);
+
+        //Then
+        verify(storage, times(1)).saveIfVersion(any(), eq(8), eq(1L));
+        verify(storage, times(1)).saveIfVersion(any(), eq(1), eq(2L));
+        assertThat(moved.getVersion()).isGreaterThan(3);
+        assertThat(GameUtils.isBotTurn(moved)).isFalse();
+        assertThat(stored.get()).isSameAs(moved);
+    }
 
     private Game createGame(){
         return Game.builder()
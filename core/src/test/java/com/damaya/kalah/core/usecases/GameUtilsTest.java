@@ -10,6 +10,7 @@ import org.junit.runner.RunWith;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.Date;
+import java.util.Random;
 import java.util.UUID;
 import java.util.stream.IntStream;
 
@@ -577,6 +578,32 @@ public class GameUtilsTest {
         assertThat(pits[13]).isEqualTo(11);
     }
 
+    @Test
+    public void testDistributeStonesByLapsShouldMatchOneByOne(){
+        //Given boards with up to 500 stones piled in one pit, sown from every pit by both players
+        Random random = new Random(29012020);
+        for(int stones = 0; stones <= 500; stones++){
+            for(int index = 0; index < 14; index++){
+                for(GameTurn turn : GameTurn.values()){
+                    int[] pits = new int[14];
+                    for(int i = 0; i < 14; i++){
+                        pits[i] = random.nextInt(3);
+                    }
+                    pits[index] = stones;
+                    int[] expected = pits.clone();
+
+                    //When
+                    int expectedLastPitIndex = GameUtils.distributeStonesOneByOne(expected, index, turn);
+                    int lastPitIndex = GameUtils.distributeStones(pits, index, turn);
+
+                    //Then
+                    assertThat(lastPitIndex).isEqualTo(expectedLastPitIndex);
+                    assertThat(pits).isEqualTo(expected);
+                }
+            }
+        }
+    }
+
     @Test
     public void testDistributeStonesGame9(){
         //Given
@@ -648,6 +675,69 @@ public class GameUtilsTest {
     }
 
 
+    @Test
+    public void testPlayMoveShouldFinishGameAtGivenDate(){
+        //Given
+        Game game = createGame();
+        int[] pits = game.getBoard().getPits();
+        pits[0] = pits[1] = pits[2] = pits[3] = pits[4] = 0;
+        pits[5] = 1;
+        Date playedAt = new Date(0);
+
+        //When
+        int lastPitIndex = GameUtils.playMove(game, 6, playedAt);
+
+        //Then
+        assertThat(lastPitIndex).isEqualTo(6);
+        assertThat(game.getFinishedAt()).isEqualTo(playedAt);
+        assertThat(game.getWinner()).isEqualTo(GameTurn.PLAYER_TWO);
+        assertThat(game.getTurn()).isEqualTo(GameTurn.PLAYER_ONE);
+    }
+
+    @Test
+    public void testPlayMoveShouldSwitchTurn(){
+        //Given
+        Game game = createGame();
+
+        //When
+        GameUtils.playMove(game, 2, new Date());
+
+        //Then
+        assertThat(game.getFinishedAt()).isNull();
+        assertThat(game.getTurn()).isEqualTo(GameTurn.PLAYER_TWO);
+        assertThat(game.getBoard().getPits()[1]).isZero();
+    }
+
+    @Test
+    public void testCopyOfShouldNotShareTheBoard(){
+        //Given
+        Game game = createGame();
+
+        //When
+        Game copy = GameUtils.copyOf(game);
+        GameUtils.playMove(copy, 2, new Date());
+
+        //Then
+        assertThat(copy.getId()).isEqualTo(game.getId());
+        assertThat(game.getBoard().getPits()).isEqualTo(GameUtils.dealGame(6));
+        assertThat(copy.getBoard().getPits()[1]).isZero();
+    }
+
+    @Test
+    public void testPlayOnCopyShouldPlayTheNextVersion(){
+        //Given
+        Game game = createGame().withVersion(3);
+
+        //When
+        Game moved = GameUtils.playOnCopy(game, 1, new ArrayBoardEngine());
+
+        //Then
+        assertThat(moved.getVersion()).isEqualTo(4);
+        assertThat(moved.getBoard().getPits()[0]).isZero();
+        assertThat(game.getVersion()).isEqualTo(3);
+        assertThat(game.getBoard().getPits()).isEqualTo(GameUtils.dealGame(6));
+    }
+
     private Game createGame(){
         return Game.builder()
                 .id(UUID.randomUUID().toString())
@@ -0,0 +1,79 @@
+package com.damaya.kalah.core.usecases;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test of class {@link TimeOrderedGameIdGenerator}
+ */
+public class TimeOrderedGameIdGeneratorTest {
+
+    private final TimeOrderedGameIdGenerator generator = new TimeOrderedGameIdGenerator();
+
+    @Test
+    public void testIdsAreCompactAndRoundTrip(){
+        for(int i = 0; i < 1_000; i++){
+            String id = generator.nextId();
+            assertThat(id).hasSize(CompactGameIds.ID_LENGTH).matches("[-0-9A-Za-z_]+");
+            assertThat(CompactGameIds.isValid(id)).isTrue();
+            assertThat(CompactGameIds.encode(CompactGameIds.high(id), CompactGameIds.low(id))).isEqualTo(id);
+        }
+    }
+
+    @Test
+    public void testIdsOfAThreadAreOrdered(){
+        String previous = generator.nextId();
+        for(int i = 0; i < 100_000; i++){
+            String id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            assertThat(Long.compareUnsigned(CompactGameIds.high(id), CompactGameIds.high(previous))).isPositive();
+            previous = id;
+        }
+    }
+
+    @Test
+    public void testIdsAreUniqueAcrossThreads() throws InterruptedException {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for(int t = 0; t < 4; t++){
+            Thread thread = new Thread(() -> {
+                try{
+                    start.await();
+                }catch (InterruptedException e){
+                    Thread.currentThread().interrupt();
+                }
+                for(int i = 0; i < 50_000; i++){
+                    ids.add(generator.nextId());
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for(Thread thread : threads){
+            thread.join();
+        }
+        assertThat(ids).hasSize(200_000);
+    }
+
+    @Test
+    public void testUuidsAndMalformedIdsAreNotCompact(){
+        assertThat(CompactGameIds.isValid(UUID.randomUUID().toString())).isFalse();
+        assertThat(CompactGameIds.isValid(null)).isFalse();
+        assertThat(CompactGameIds.isValid("abc")).isFalse();
+        String id = generator.nextId();
+        assertThat(CompactGameIds.isValid(id.substring(0, 21) + "z")).isFalse();
+        assertThat(CompactGameIds.isValid(id.substring(0, 10) + "+" + id.substring(11))).isFalse();
+        //clear variant bits
+        assertThat(CompactGameIds.isValid(CompactGameIds.encode(1L, 1L))).isFalse();
+    }
+}
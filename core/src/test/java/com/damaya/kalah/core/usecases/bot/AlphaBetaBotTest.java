@@ -0,0 +1,201 @@
+package com.damaya.kalah.core.usecases.bot;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.EndgameSolution;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.entities.enums.MoveCheck;
+import com.damaya.kalah.core.interfaces.GameBot;
+import com.damaya.kalah.core.interfaces.GameRules;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Test of class {@link AlphaBetaBot}
+ */
+public class AlphaBetaBotTest {
+
+    private final AlphaBetaBot bot = new AlphaBetaBot(1 << 16, 20);
+    private final Random random = new Random(29012020);
+
+    @Test
+    public void testChooseMoveShouldTakeTheExtraTurn() {
+        //pit 6 ends in the house and pit 5 can still be played after it
+        Game game = createGame(GameVariant.KALAH, new int[]{0, 0, 0, 0, 4, 1, 0, 4, 4, 4, 4, 4, 4, 0});
+
+        assertThat(bot.chooseMove(game, 1)).isEqualTo(6);
+    }
+
+    @Test
+    public void testChooseMoveShouldCapture() {
+        //pit 1 sows into the empty pit 2, capturing the 9 stones in front of it
+        int[] pits = {1, 0, 0, 0, 0, 3, 0, 1, 1, 1, 1, 9, 1, 0};
+        Game game = createGame(GameVariant.KALAH, pits);
+
+        assertThat(bot.chooseMove(game, 2)).isEqualTo(1);
+    }
+
+    @Test
+    public void testChooseMoveShouldPlayLegalMovesUntilTheEnd() {
+        Date playedAt = new Date();
+        for(GameVariant variant : GameVariant.values()){
+            GameRules rules = GameVariants.rules(variant);
+            for(int i = 0; i < 5; i++){
+                Game game = createGame(variant, rules.deal());
+                while(game.getFinishedAt() == null){
+                    int pitId = game.getTurn() == GameTurn.PLAYER_TWO
+                            ? bot.chooseMove(game, 1 + random.nextInt(3)) : randomValidPit(rules, game);
+                    assertThat(rules.checkMove(game, pitId)).isEqualTo(MoveCheck.VALID);
+                    rules.playMove(game, pitId, playedAt);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testChooseMoveShouldBeatARandomPlayer() {
+        GameRules rules = GameVariants.rules(GameVariant.KALAH);
+        int wins = 0;
+        for(int i = 0; i < 10; i++){
+            Game game = createGame(GameVariant.KALAH, rules.deal());
+            while(game.getFinishedAt() == null){
+                int pitId = game.getTurn() == GameTurn.PLAYER_TWO
+                        ? bot.chooseMove(game, 3) : randomValidPit(rules, game);
+                rules.playMove(game, pitId, new Date());
+            }
+            wins += game.getWinner() == GameTurn.PLAYER_TWO ? 1 : 0;
+        }
+
+        assertThat(wins).isGreaterThanOrEqualTo(8);
+    }
+
+    @Test
+    public void testChooseMoveShouldRespectTheTimeBudget() {
+        Game game = createGame(GameVariant.KALAH, GameVariants.rules(GameVariant.KALAH).deal());
+
+        long start = System.nanoTime();
+        int pitId = bot.chooseMove(game, GameBot.MAX_LEVEL);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(pitId).isBetween(1, 6);
+        assertThat(elapsedMillis).isLessThan(1_000L);
+    }
+
+    @Test
+    public void testParallelSearchShouldPlayLegalMovesUntilTheEnd() {
+        AlphaBetaBot parallelBot = new AlphaBetaBot(1 << 16, 20, 4);
+        try{
+            Date playedAt = new Date();
+            for(GameVariant variant : GameVariant.values()){
+                GameRules rules = GameVariants.rules(variant);
+                Game game = createGame(variant, rules.deal());
+                while(game.getFinishedAt() == null){
+                    int pitId = game.getTurn() == GameTurn.PLAYER_TWO
+                            ? parallelBot.chooseMove(game, 3) : randomValidPit(rules, game);
+                    assertThat(rules.checkMove(game, pitId)).isEqualTo(MoveCheck.VALID);
+                    rules.playMove(game, pitId, playedAt);
+                }
+            }
+            assertThat(parallelBot.getThreads()).isEqualTo(4);
+            assertThat(parallelBot.getSearchedNodes()).isPositive();
+        }finally {
+            parallelBot.close();
+        }
+    }
+
+    @Test
+    public void testParallelSearchShouldCapture() {
+        AlphaBetaBot parallelBot = new AlphaBetaBot(1 << 16, 1_000, 4);
+        try{
+            Game game = createGame(GameVariant.KALAH, new int[]{1, 0, 0, 0, 0, 3, 0, 1, 1, 1, 1, 9, 1, 0});
+
+            assertThat(parallelBot.chooseMove(game, 3)).isEqualTo(1);
+        }finally {
+            parallelBot.close();
+        }
+    }
+
+    @Test
+    public void testWinScoresShouldBeStoredAsDistancesFromThePosition() {
+        //a win 7 plies from the root found at ply 3 is stored as a win in 4, and read back at ply 5 as a win in 9
+        int stored = AlphaBetaBot.toTableScore(AlphaBetaBot.WIN - 7, 3);
+        assertThat(stored).isEqualTo(AlphaBetaBot.WIN - 4);
+        assertThat(AlphaBetaBot.fromTableScore(stored, 5)).isEqualTo(AlphaBetaBot.WIN - 9);
+        assertThat(AlphaBetaBot.fromTableScore(AlphaBetaBot.toTableScore(7 - AlphaBetaBot.WIN, 3), 5))
+                .isEqualTo(9 - AlphaBetaBot.WIN);
+        assertThat(AlphaBetaBot.toTableScore(25, 3)).isEqualTo(25);
+        assertThat(AlphaBetaBot.fromTableScore(-25, 5)).isEqualTo(-25);
+    }
+
+    @Test
+    public void testChooseMoveShouldRejectUnknownLevels() {
+        Game game = createGame(GameVariant.KALAH, GameVariants.rules(GameVariant.KALAH).deal());
+
+        assertThatIllegalArgumentException().isThrownBy(() -> bot.chooseMove(game, 0))
+                .withMessage("Bot level should be between 1 and 10");
+    }
+
+    @Test
+    public void testChooseMoveShouldPlayTheMoveOfTheTablebase() {
+        AlphaBetaBot tablebaseBot = new AlphaBetaBot(1 << 16, 20);
+        tablebaseBot.setTablebase(position -> Optional.of(EndgameSolution.builder().bestPitId(5).build()));
+        Game game = createGame(GameVariant.KALAH, new int[]{0, 0, 0, 0, 4, 1, 0, 4, 4, 4, 4, 4, 4, 0});
+
+        assertThat(tablebaseBot.chooseMove(game, 1)).isEqualTo(5);
+        assertThat(tablebaseBot.getSearchedNodes()).isZero();
+    }
+
+    @Test
+    public void testChooseMoveShouldPlayTheMoveOfTheOpeningBook() {
+        AlphaBetaBot bookBot = new AlphaBetaBot(1 << 16, 20);
+        bookBot.setOpeningBook(position -> OptionalInt.of(2));
+        Game game = createGame(GameVariant.KALAH, GameVariants.rules(GameVariant.KALAH).deal());
+
+        assertThat(bookBot.chooseMove(game, 5)).isEqualTo(2);
+        assertThat(bookBot.getSearchedNodes()).isZero();
+    }
+
+    @Test
+    public void testAnalyseShouldReturnTheMoveAndTheScore() {
+        //pit 6 ends in the house and pit 5 then sows the last stone of the row, so player one keeps 4 stones more
+        Game game = createGame(GameVariant.KALAH, new int[]{0, 0, 0, 0, 4, 1, 0, 4, 4, 4, 4, 4, 4, 0});
+
+        long analysis = bot.analyse(game, 1);
+
+        assertThat(TranspositionTable.move(analysis)).isEqualTo(5);
+        assertThat(TranspositionTable.depth(analysis)).isEqualTo(2);
+        assertThat(TranspositionTable.bound(analysis)).isEqualTo(TranspositionTable.EXACT);
+    }
+
+    private int randomValidPit(GameRules rules, Game game) {
+        int pitsPerSide = rules.getVariant().getPitsPerSide();
+        int first = game.getTurn() == GameTurn.PLAYER_ONE ? 0 : pitsPerSide + 1;
+        int start = random.nextInt(pitsPerSide);
+        for(int i = 0; i < pitsPerSide; i++){
+            int index = first + (start + i) % pitsPerSide;
+            if(game.getBoard().getPits()[index] > 0){
+                return index + 1;
+            }
+        }
+        throw new IllegalStateException("Player has no stones but the game is not finished");
+    }
+
+    private static Game createGame(GameVariant variant, int[] pits) {
+        return Game.builder()
+                .id("game")
+                .startedAt(new Date())
+                .turn(GameTurn.PLAYER_ONE)
+                .board(Board.builder().pits(pits).build())
+                .variant(variant)
+                .build();
+    }
+}
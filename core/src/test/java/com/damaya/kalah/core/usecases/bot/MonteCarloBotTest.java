@@ -0,0 +1,124 @@
+package com.damaya.kalah.core.usecases.bot;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.entities.enums.MoveCheck;
+import com.damaya.kalah.core.interfaces.GameRules;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test of class {@link MonteCarloBot}
+ */
+public class MonteCarloBotTest {
+
+    private final MonteCarloBot bot = new MonteCarloBot(5, 1);
+    private final MonteCarloBot parallelBot = new MonteCarloBot(5, 4);
+    private final Random random = new Random(29012020);
+
+    @After
+    public void tearDown() {
+        bot.close();
+        parallelBot.close();
+    }
+
+    @Test
+    public void testChooseMoveShouldPlayLegalMovesUntilTheEnd() {
+        Date playedAt = new Date();
+        for(MonteCarloBot player : new MonteCarloBot[]{bot, parallelBot}){
+            for(GameVariant variant : GameVariant.values()){
+                GameRules rules = GameVariants.rules(variant);
+                Game game = createGame(variant, rules.deal());
+                while(game.getFinishedAt() == null){
+                    int pitId = game.getTurn() == GameTurn.PLAYER_TWO
+                            ? player.chooseMove(game, 1) : randomValidPit(rules, game);
+                    assertThat(rules.checkMove(game, pitId)).isEqualTo(MoveCheck.VALID);
+                    rules.playMove(game, pitId, playedAt);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testChooseMoveShouldCapture() {
+        //pit 1 sows into the empty pit 2, capturing the 9 stones in front of it
+        Game game = createGame(GameVariant.KALAH, new int[]{1, 0, 0, 0, 0, 3, 0, 1, 1, 1, 1, 9, 1, 0});
+
+        assertThat(bot.chooseMove(game, 10)).isEqualTo(1);
+        assertThat(parallelBot.chooseMove(game, 10)).isEqualTo(1);
+    }
+
+    @Test
+    public void testChooseMoveShouldBeatARandomPlayer() {
+        GameRules rules = GameVariants.rules(GameVariant.KALAH);
+        int wins = 0;
+        for(int i = 0; i < 10; i++){
+            Game game = createGame(GameVariant.KALAH, rules.deal());
+            while(game.getFinishedAt() == null){
+                int pitId = game.getTurn() == GameTurn.PLAYER_TWO
+                        ? bot.chooseMove(game, 2) : randomValidPit(rules, game);
+                rules.playMove(game, pitId, new Date());
+            }
+            wins += game.getWinner() == GameTurn.PLAYER_TWO ? 1 : 0;
+        }
+
+        assertThat(wins).isGreaterThanOrEqualTo(8);
+    }
+
+    @Test
+    public void testChooseMoveShouldTakeTheBudgetOfTheLevel() {
+        Game game = createGame(GameVariant.KALAH, GameVariants.rules(GameVariant.KALAH).deal());
+
+        long start = System.nanoTime();
+        parallelBot.chooseMove(game, 4);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMillis).isBetween(20L, 500L);
+    }
+
+    @Test
+    public void testPlayoutsShouldBeExposedAsMetrics() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        bot.bindTo(registry);
+        Game game = createGame(GameVariant.KALAH, GameVariants.rules(GameVariant.KALAH).deal());
+
+        bot.chooseMove(game, 2);
+
+        assertThat(bot.getPlayouts()).isPositive();
+        assertThat(registry.get("kalah.bot.playouts").functionCounter().count()).isEqualTo(bot.getPlayouts());
+        assertThat(registry.get("kalah.bot.playouts.rate").gauge().value()).isPositive();
+    }
+
+    private int randomValidPit(GameRules rules, Game game) {
+        int pitsPerSide = rules.getVariant().getPitsPerSide();
+        int first = game.getTurn() == GameTurn.PLAYER_ONE ? 0 : pitsPerSide + 1;
+        int start = random.nextInt(pitsPerSide);
+        for(int i = 0; i < pitsPerSide; i++){
+            int index = first + (start + i) % pitsPerSide;
+            if(game.getBoard().getPits()[index] > 0){
+                return index + 1;
+            }
+        }
+        throw new IllegalStateException("Player has no stones but the game is not finished");
+    }
+
+    private static Game createGame(GameVariant variant, int[] pits) {
+        return Game.builder()
+                .id("game")
+                .startedAt(new Date())
+                .turn(GameTurn.PLAYER_ONE)
+                .board(Board.builder().pits(pits).build())
+                .variant(variant)
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.damaya.kalah.core.usecases.bot;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Test of class {@link TranspositionTable}
+ */
+public class TranspositionTableTest {
+
+    @Test
+    public void testProbeShouldReturnTheStoredEntry() {
+        TranspositionTable table = new TranspositionTable(16);
+        table.store(0x1234_5678_9ABCL, -4321, 7, TranspositionTable.LOWER_BOUND, 3);
+
+        long entry = table.probe(0x1234_5678_9ABCL);
+
+        assertThat(TranspositionTable.score(entry)).isEqualTo(-4321);
+        assertThat(TranspositionTable.depth(entry)).isEqualTo(7);
+        assertThat(TranspositionTable.bound(entry)).isEqualTo(TranspositionTable.LOWER_BOUND);
+        assertThat(TranspositionTable.move(entry)).isEqualTo(3);
+    }
+
+    @Test
+    public void testProbeShouldMissOtherPositionsOfTheSameSlot() {
+        TranspositionTable table = new TranspositionTable(16);
+        table.store(0x10L, 1, 1, TranspositionTable.EXACT, 0);
+
+        assertThat(table.probe(0x20L)).isZero();
+        assertThat(table.probe(0x11L)).isZero();
+    }
+
+    @Test
+    public void testStoreShouldKeepDeeperSearchesOfTheSamePosition() {
+        TranspositionTable table = new TranspositionTable(16);
+        table.store(0x10L, 5, 6, TranspositionTable.EXACT, 1);
+        table.store(0x10L, 9, 2, TranspositionTable.EXACT, 2);
+
+        assertThat(TranspositionTable.score(table.probe(0x10L))).isEqualTo(5);
+
+        table.store(0x20L, 9, 1, TranspositionTable.UPPER_BOUND, 2);
+
+        assertThat(table.probe(0x10L)).isZero();
+        assertThat(TranspositionTable.score(table.probe(0x20L))).isEqualTo(9);
+    }
+
+    @Test
+    public void testSizeShouldBeAPowerOfTwo() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new TranspositionTable(100))
+                .withMessage("Transposition table size should be a power of two");
+    }
+}
@@ -0,0 +1,151 @@
+package com.damaya.kalah.core.usecases.history;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.domain.MoveLog;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.interfaces.GameRules;
+import com.damaya.kalah.core.usecases.GameUtils;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Test of class {@link GameHistory}
+ */
+public class GameHistoryTest {
+
+    @Test
+    public void testGameAtShouldRebuildEveryPly() {
+        for(GameVariant variant : GameVariant.values()){
+            List<Game> positions = new ArrayList<>();
+            Game game = playRandomGame(variant, new SplittableRandom(variant.ordinal()), positions);
+
+            assertThat(game.getMoves().size()).isEqualTo(positions.size() - 1);
+            for(int ply = 0; ply < positions.size(); ply++){
+                Game replayed = GameHistory.gameAt(game, ply);
+                assertThat(replayed.getBoard().getPits()).isEqualTo(positions.get(ply).getBoard().getPits());
+                assertThat(replayed.getTurn()).isEqualTo(positions.get(ply).getTurn());
+                assertThat(replayed.getMoves()).isNull();
+            }
+        }
+    }
+
+    @Test
+    public void testMovesShouldReturnThePitIds() {
+        Game game = newGame(GameVariant.KALAH);
+        play(game, 6);
+        play(game, 8);
+        play(game, 1);
+
+        assertThat(GameHistory.moves(game)).containsExactly(6, 8, 1);
+        assertThat(GameHistory.gameAt(game, 1).getBoard().getPits())
+                .containsExactly(6, 6, 6, 6, 6, 0, 1, 7, 7, 7, 7, 7, 6, 0);
+        assertThatIllegalArgumentException().isThrownBy(() -> GameHistory.gameAt(game, 4));
+    }
+
+    @Test
+    public void testMoveLogShouldTakeAboutAByteAMove() {
+        Game game = playRandomGame(GameVariant.KALAH, new SplittableRandom(3), new ArrayList<>());
+        MoveLog log = game.getMoves();
+        byte[] bytes = log.toBytes();
+
+        assertThat(log.size()).isGreaterThan(MoveLog.CHECKPOINT_INTERVAL);
+        assertThat(bytes.length).isLessThan(Integer.BYTES + 1 + 14 + log.size());
+        assertThat(MoveLog.fromBytes(bytes)).isEqualTo(log);
+        assertThat(GameHistory.moves(game.withMoves(MoveLog.fromBytes(bytes)))).isEqualTo(GameHistory.moves(game));
+    }
+
+    @Test
+    public void testCopiesShouldRecordTheirOwnMoves() {
+        Game game = newGame(GameVariant.KALAH);
+        play(game, 1);
+        Game copy = GameUtils.copyOf(game);
+        play(copy, 8);
+
+        assertThat(game.getMoves().size()).isEqualTo(1);
+        assertThat(copy.getMoves().size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testCopiesOfTheSameGameShouldRecordDifferentMoves() {
+        Game game = newGame(GameVariant.KALAH);
+        play(game, 3);
+        Game first = GameUtils.copyOf(game);
+        Game second = GameUtils.copyOf(game);
+        play(first, 8);
+        play(second, 9);
+        Game last = GameUtils.copyOf(first);
+        play(game, 10);
+        play(last, 1);
+
+        assertThat(GameHistory.moves(game)).containsExactly(3, 10);
+        assertThat(GameHistory.moves(first)).containsExactly(3, 8);
+        assertThat(GameHistory.moves(second)).containsExactly(3, 9);
+        assertThat(GameHistory.moves(last)).containsExactly(3, 8, 1);
+        assertThat(MoveLog.fromBytes(first.getMoves().toBytes())).isEqualTo(first.getMoves());
+    }
+
+    @Test
+    public void testGamesCopiedOnEveryMoveShouldKeepTheirCheckpoints() {
+        Game game = newGame(GameVariant.KALAH);
+        List<Game> positions = new ArrayList<>();
+        Game played = playRandomGame(GameVariant.KALAH, new SplittableRandom(5), positions);
+        GameRules rules = GameVariants.rules(GameVariant.KALAH);
+        for(int ply = 0; ply < played.getMoves().size(); ply++){
+            //every move on a copy, as the game service plays them
+            game = GameUtils.copyOf(game);
+            int pitId = GameHistory.moves(played)[ply];
+            rules.playMove(game, pitId, new Date());
+            GameUtils.recordMove(game, pitId);
+        }
+
+        assertThat(game.getMoves()).isEqualTo(played.getMoves());
+        for(int ply = 0; ply < positions.size(); ply++){
+            assertThat(GameHistory.gameAt(game, ply).getBoard().getPits())
+                    .containsExactly(positions.get(ply).getBoard().getPits());
+        }
+    }
+
+    private static Game playRandomGame(GameVariant variant, SplittableRandom random, List<Game> positions) {
+        Game game = newGame(variant);
+        GameRules rules = GameVariants.rules(variant);
+        positions.add(GameUtils.copyOf(game));
+        while(game.getFinishedAt() == null && positions.size() < 300){
+            int first = game.getTurn() == GameTurn.PLAYER_ONE ? 1 : variant.getPitsPerSide() + 2;
+            int pitId;
+            do{
+                pitId = first + random.nextInt(variant.getPitsPerSide());
+            }while(game.getBoard().getPits()[pitId - 1] == 0);
+            rules.playMove(game, pitId, new Date());
+            GameUtils.recordMove(game, pitId);
+            positions.add(GameUtils.copyOf(game));
+        }
+        return game;
+    }
+
+    private static void play(Game game, int pitId) {
+        GameVariants.rules(game.getVariant()).playMove(game, pitId, new Date());
+        GameUtils.recordMove(game, pitId);
+    }
+
+    private static Game newGame(GameVariant variant) {
+        int[] pits = GameVariants.rules(variant).deal();
+        return Game.builder()
+                .id("history")
+                .startedAt(new Date())
+                .turn(GameTurn.PLAYER_ONE)
+                .board(Board.builder().pits(pits).build())
+                .variant(variant)
+                .moves(MoveLog.startingAt(pits.clone()))
+                .build();
+    }
+}
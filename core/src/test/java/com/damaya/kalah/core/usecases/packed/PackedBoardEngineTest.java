@@ -0,0 +1,104 @@
+package com.damaya.kalah.core.usecases.packed;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.usecases.GameUtils;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Differential test of class {@link PackedBoardEngine} against {@link GameUtils}
+ */
+public class PackedBoardEngineTest {
+
+    private final PackedBoardEngine engine = new PackedBoardEngine();
+    private final Random random = new Random(20200129);
+
+    @Test
+    public void testRandomGamesAreEquivalent() {
+        for(int i = 0; i < 20_000; i++){
+            playBoth(createGame(GameUtils.dealGame(1 + random.nextInt(6))));
+        }
+    }
+
+    @Test
+    public void testRandomBoardsAreEquivalent() {
+        //uneven boards with big piles, so sowing goes several laps around the board
+        for(int i = 0; i < 20_000; i++){
+            int[] pits = new int[PackedBoard.TOTAL_PITS];
+            int stones = 1 + random.nextInt(PackedBoard.MAX_STONES);
+            for(int s = 0; s < stones; s++){
+                pits[random.nextBoolean() ? random.nextInt(3) : random.nextInt(PackedBoard.TOTAL_PITS)]++;
+            }
+            Game game = createGame(pits);
+            game.setTurn(random.nextBoolean() ? GameTurn.PLAYER_ONE : GameTurn.PLAYER_TWO);
+            if(!GameUtils.isFinished(game.getBoard())){
+                playBoth(game);
+            }
+        }
+    }
+
+    @Test
+    public void testPackedBoardRoundTripsAndTracksSums() {
+        PackedBoard board = new PackedBoard();
+        int[] pits = {0, 0, 0, 0, 0, 0, 30, 1, 2, 3, 4, 5, 6, 20};
+        board.load(pits);
+
+        int[] stored = new int[PackedBoard.TOTAL_PITS];
+        board.store(stored);
+
+        assertThat(stored).isEqualTo(pits);
+        assertThat(board.isFinished()).isTrue();
+        assertThat(board.getWinner()).isEqualTo(GameTurn.PLAYER_TWO);
+    }
+
+    @Test
+    public void testLoadShouldRejectTooManyStones() {
+        int[] pits = GameUtils.dealGame(11);
+        assertThatIllegalArgumentException().isThrownBy(() -> new PackedBoard().load(pits));
+    }
+
+    /**
+     * Plays the same random valid moves with both engines until the game finishes, comparing every step
+     */
+    private void playBoth(Game game) {
+        Game expected = GameUtils.copyOf(game);
+        Date playedAt = new Date();
+        while(game.getFinishedAt() == null){
+            int pitId = randomValidPit(game);
+            int expectedLast = GameUtils.playMove(expected, pitId, playedAt);
+
+            int last = engine.playMove(game, pitId, playedAt);
+
+            assertThat(last).isEqualTo(expectedLast);
+            assertThat(game).isEqualTo(expected);
+        }
+    }
+
+    private int randomValidPit(Game game) {
+        int first = game.getTurn().equals(GameTurn.PLAYER_ONE) ? 0 : 7;
+        int start = random.nextInt(6);
+        for(int i = 0; i < 6; i++){
+            int index = first + (start + i) % 6;
+            if(game.getBoard().getPits()[index] > 0){
+                return index + 1;
+            }
+        }
+        throw new IllegalStateException("Player has no stones but the game is not finished");
+    }
+
+    private static Game createGame(int[] pits) {
+        return Game.builder()
+                .id("game")
+                .startedAt(new Date())
+                .turn(GameTurn.PLAYER_ONE)
+                .board(Board.builder().pits(pits).build())
+                .build();
+    }
+}
@@ -0,0 +1,188 @@
+package com.damaya.kalah.core.usecases.rules;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.entities.enums.MoveCheck;
+import com.damaya.kalah.core.entities.exceptions.GameAlreadyFinishedException;
+import com.damaya.kalah.core.entities.exceptions.InvalidMoveException;
+import com.damaya.kalah.core.interfaces.GameRules;
+import com.damaya.kalah.core.usecases.GameUtils;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * Test of class {@link TableGameRules}
+ */
+public class TableGameRulesTest {
+
+    private final Random random = new Random(29012020);
+
+    @Test
+    public void testKalahShouldPlayLikeGameUtils() {
+        GameRules rules = GameVariants.rules(GameVariant.KALAH);
+        Date playedAt = new Date();
+        for(int i = 0; i < 5_000; i++){
+            Game game = createGame(GameVariant.KALAH, GameUtils.dealGame(1 + random.nextInt(12)));
+            Game expected = GameUtils.copyOf(game);
+            while(game.getFinishedAt() == null){
+                int pitId = randomValidPit(rules, game);
+                int expectedLast = GameUtils.playMove(expected, pitId, playedAt);
+
+                assertThat(rules.playMove(game, pitId, playedAt)).isEqualTo(expectedLast);
+                assertThat(game).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    public void testEveryVariantPlaysToTheEndKeepingTheStones() {
+        Date playedAt = new Date();
+        for(GameVariant variant : GameVariant.values()){
+            GameRules rules = GameVariants.rules(variant);
+            int stones = variant.getPitsPerSide() * variant.getStonesPerPit() * 2;
+            for(int i = 0; i < 1_000; i++){
+                Game game = createGame(variant, rules.deal());
+                while(game.getFinishedAt() == null){
+                    rules.playMove(game, randomValidPit(rules, game), playedAt);
+                    assertThat(Arrays.stream(game.getBoard().getPits()).sum()).isEqualTo(stones);
+                }
+                assertThat(game.getWinner()).isNotNull();
+            }
+        }
+    }
+
+    @Test
+    public void testDealShouldLeaveTheHousesEmpty() {
+        assertThat(GameVariants.rules(GameVariant.KALAH).deal()).isEqualTo(GameUtils.dealGame(6));
+        assertThat(GameVariants.rules(GameVariant.KALAH_4_3).deal()).containsExactly(3, 3, 3, 3, 0, 3, 3, 3, 3, 0);
+        assertThat(GameVariants.rules(null).getVariant()).isEqualTo(GameVariant.KALAH);
+    }
+
+    @Test
+    public void testValidateMoveShouldUseTheVariantBoard() {
+        Game game = createGame(GameVariant.KALAH_4_3, GameVariants.rules(GameVariant.KALAH_4_3).deal());
+        GameRules rules = GameVariants.rules(GameVariant.KALAH_4_3);
+
+        assertThatExceptionOfType(InvalidMoveException.class).isThrownBy(() -> rules.validateMove(game, 11))
+                .matches(e -> e.getMessage().equals("PitId should be between 1 and 10"));
+        assertThatExceptionOfType(InvalidMoveException.class).isThrownBy(() -> rules.validateMove(game, 5))
+                .matches(e -> e.getMessage().equals("Stones from the house cannot be moved"));
+        assertThatExceptionOfType(InvalidMoveException.class).isThrownBy(() -> rules.validateMove(game, 6))
+                .matches(e -> e.getMessage().equals("Player is trying to move stone from adversary pit"));
+    }
+
+    @Test
+    public void testCheckMoveShouldReportWithoutExceptions() {
+        GameRules rules = GameVariants.rules(GameVariant.KALAH);
+        Game game = createGame(GameVariant.KALAH, rules.deal());
+
+        assertThat(rules.checkMove(game, 1)).isEqualTo(MoveCheck.VALID);
+        assertThat(rules.checkMove(game, 15)).isEqualTo(MoveCheck.PIT_OUT_OF_RANGE);
+        assertThat(rules.checkMove(game, 8)).isEqualTo(MoveCheck.ADVERSARY_PIT);
+        assertThat(rules.checkMove(game, 7)).isEqualTo(MoveCheck.HOUSE_PIT);
+        game.getBoard().getPits()[0] = 0;
+        assertThat(rules.checkMove(game, 1)).isEqualTo(MoveCheck.EMPTY_PIT);
+        assertThat(rules.checkMove(game.withFinishedAt(new Date()), 2)).isEqualTo(MoveCheck.GAME_FINISHED);
+    }
+
+    @Test
+    public void testValidateMoveShouldThrowPreallocatedExceptionsWithoutStackTrace() {
+        GameRules rules = GameVariants.rules(GameVariant.KALAH);
+        Game game = createGame(GameVariant.KALAH, rules.deal());
+
+        InvalidMoveException first = catchThrowableOfType(() -> rules.validateMove(game, 8), InvalidMoveException.class);
+        InvalidMoveException second = catchThrowableOfType(() -> rules.validateMove(game, 9), InvalidMoveException.class);
+
+        assertThat(first).isSameAs(second).hasMessage("Player is trying to move stone from adversary pit");
+        assertThat(first.getStackTrace()).isEmpty();
+        assertThatExceptionOfType(GameAlreadyFinishedException.class)
+                .isThrownBy(() -> rules.validateMove(game.withFinishedAt(new Date()), 1))
+                .withMessage("Game is already finished");
+    }
+
+    @Test
+    public void testKalahLastStoneInTheHouseShouldRepeatTurn() {
+        Game game = createGame(GameVariant.KALAH_4_3, GameVariants.rules(GameVariant.KALAH_4_3).deal());
+
+        int last = GameVariants.rules(GameVariant.KALAH_4_3).playMove(game, 2, new Date());
+
+        assertThat(last).isEqualTo(4);
+        assertThat(game.getTurn()).isEqualTo(GameTurn.PLAYER_ONE);
+        assertThat(game.getBoard().getPits()).containsExactly(3, 0, 4, 4, 1, 3, 3, 3, 3, 0);
+    }
+
+    @Test
+    public void testNoCaptureVariantShouldNotCapture() {
+        int[] pits = {1, 0, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        Game game = createGame(GameVariant.KALAH_NO_CAPTURE, pits);
+
+        GameVariants.rules(GameVariant.KALAH_NO_CAPTURE).playMove(game, 1, new Date());
+
+        assertThat(game.getBoard().getPits()).containsExactly(0, 1, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0);
+    }
+
+    @Test
+    public void testOwareShouldCaptureTwosAndThreesBackwards() {
+        int[] pits = {1, 0, 0, 0, 0, 3, 0, 1, 2, 1, 4, 4, 4, 0};
+        Game game = createGame(GameVariant.OWARE, pits);
+
+        int last = GameVariants.rules(GameVariant.OWARE).playMove(game, 6, new Date());
+
+        assertThat(last).isEqualTo(9);
+        assertThat(game.getBoard().getPits()).containsExactly(1, 0, 0, 0, 0, 0, 7, 0, 0, 0, 4, 4, 4, 0);
+        assertThat(game.getTurn()).isEqualTo(GameTurn.PLAYER_TWO);
+    }
+
+    @Test
+    public void testOwareShouldNotCaptureEveryAdversaryStone() {
+        int[] pits = {0, 0, 0, 0, 0, 2, 0, 1, 2, 0, 0, 0, 0, 0};
+        Game game = createGame(GameVariant.OWARE, pits);
+
+        GameVariants.rules(GameVariant.OWARE).playMove(game, 6, new Date());
+
+        assertThat(game.getBoard().getPits()).containsExactly(0, 0, 0, 0, 0, 0, 0, 2, 3, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    public void testOwareShouldSkipTheStartingPitAndTheHouses() {
+        int[] pits = {0, 0, 0, 0, 0, 11, 0, 1, 1, 1, 1, 1, 1, 0};
+        Game game = createGame(GameVariant.OWARE, pits);
+
+        int last = GameVariants.rules(GameVariant.OWARE).playMove(game, 6, new Date());
+
+        assertThat(last).isEqualTo(4);
+        assertThat(game.getBoard().getPits()).containsExactly(1, 1, 1, 1, 1, 0, 0, 2, 2, 2, 2, 2, 2, 0);
+    }
+
+    private int randomValidPit(GameRules rules, Game game) {
+        int pitsPerSide = rules.getVariant().getPitsPerSide();
+        int first = game.getTurn() == GameTurn.PLAYER_ONE ? 0 : pitsPerSide + 1;
+        int start = random.nextInt(pitsPerSide);
+        for(int i = 0; i < pitsPerSide; i++){
+            int index = first + (start + i) % pitsPerSide;
+            if(game.getBoard().getPits()[index] > 0){
+                return index + 1;
+            }
+        }
+        throw new IllegalStateException("Player has no stones but the game is not finished");
+    }
+
+    private static Game createGame(GameVariant variant, int[] pits) {
+        return Game.builder()
+                .id("game")
+                .startedAt(new Date())
+                .turn(GameTurn.PLAYER_ONE)
+                .board(Board.builder().pits(pits).build())
+                .variant(variant)
+                .build();
+    }
+}
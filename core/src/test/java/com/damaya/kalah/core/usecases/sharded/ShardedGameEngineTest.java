@@ -0,0 +1,253 @@
+package com.damaya.kalah.core.usecases.sharded;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.entities.exceptions.GameNotFoundException;
+import com.damaya.kalah.core.entities.exceptions.GameVersionMismatchException;
+import com.damaya.kalah.core.entities.exceptions.InvalidMoveException;
+import com.damaya.kalah.core.interfaces.GameBot;
+import com.damaya.kalah.core.interfaces.GameService;
+import com.damaya.kalah.core.interfaces.GameStorage;
+import com.damaya.kalah.core.usecases.ArrayBoardEngine;
+import com.damaya.kalah.core.usecases.bot.AlphaBetaBot;
+import com.damaya.kalah.core.usecases.GameUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test of class {@link ShardedGameEngine}
+ */
+public class ShardedGameEngineTest {
+
+    /**
+     * Map storage whose locks must never be used by the engine
+     */
+    private final Map<String, Game> games = new ConcurrentHashMap<>();
+    private final GameStorage storage = new GameStorage() {
+        @Override
+        public Game save(Game game) {
+            games.put(game.getId(), game);
+            return game;
+        }
+
+        @Override
+        public Optional<Game> findById(String gameId) {
+            return Optional.ofNullable(games.get(gameId));
+        }
+
+        @Override
+        public Lock getLock(String gameId) {
+            throw new UnsupportedOperationException("Sharded engine should not lock games");
+        }
+    };
+
+    private final List<ShardedGameEngine> engines = new ArrayList<>();
+
+    @After
+    public void tearDown() throws InterruptedException {
+        for(ShardedGameEngine engine : engines){
+            engine.close();
+        }
+    }
+
+    @Test
+    public void testMakeMoveShouldPlayTheMove() throws Exception {
+        ShardedGameEngine engine = open(4, 16);
+        Game game = engine.create().get();
+
+        Game moved = engine.makeMove(game.getId(), 2).get();
+
+        assertThat(moved.getTurn()).isEqualTo(GameTurn.PLAYER_TWO);
+        assertThat(moved.getBoard().getPits()[1]).isZero();
+        assertThat(games.get(game.getId())).isEqualTo(moved);
+    }
+
+    @Test
+    public void testFindShouldReadASnapshotOfTheGame() throws Exception {
+        ShardedGameEngine engine = open(2, 16);
+        Game game = engine.create().get();
+
+        Game found = engine.find(game.getId()).get();
+        engine.makeMove(game.getId(), 2).get();
+
+        assertThat(found.getBoard().getPits()).containsExactly(GameUtils.dealGame(6));
+        assertThatThrownBy(() -> engine.find(UUID.randomUUID().toString()).get())
+                .isInstanceOf(ExecutionException.class).hasCauseInstanceOf(GameNotFoundException.class);
+    }
+
+    @Test
+    public void testMakeMoveShouldFailTheFuture() {
+        ShardedGameEngine engine = open(2, 16);
+        Game game = storage.save(createGame());
+
+        assertThatThrownBy(() -> engine.makeMove(UUID.randomUUID().toString(), 1).get())
+                .isInstanceOf(ExecutionException.class).hasCauseInstanceOf(GameNotFoundException.class);
+        assertThatThrownBy(() -> engine.makeMove(game.getId(), 13).get())
+                .isInstanceOf(ExecutionException.class).hasCauseInstanceOf(InvalidMoveException.class);
+    }
+
+    @Test
+    public void testMakeMoveShouldCheckTheVersion() throws Exception {
+        ShardedGameEngine engine = open(2, 16);
+        Game game = storage.save(createGame());
+
+        assertThat(engine.makeMove(game.getId(), 2, 0).get().getVersion()).isEqualTo(1);
+        assertThatThrownBy(() -> engine.makeMove(game.getId(), 9, 0).get())
+                .isInstanceOf(ExecutionException.class).hasCauseInstanceOf(GameVersionMismatchException.class);
+        assertThat(engine.makeMove(game.getId(), 9, 1).get().getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    public void testConcurrentMovesOnTheSameGamesKeepBoardsConsistent() throws Exception {
+        ShardedGameEngine engine = open(3, 64);
+        List<Game> created = new ArrayList<>();
+        for(int i = 0; i < 20; i++){
+            created.add(storage.save(createGame()));
+        }
+        List<Thread> threads = new ArrayList<>();
+        for(int t = 0; t < 4; t++){
+            Thread thread = new Thread(() -> {
+                for(int i = 0; i < 2_000; i++){
+                    Game game = created.get(i % created.size());
+                    //moves may be invalid because other threads play the same games, only consistency matters
+                    engine.makeMove(game.getId(), 1 + i % 14).exceptionally(e -> null).join();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for(Thread thread : threads){
+            thread.join();
+        }
+
+        created.forEach(game -> assertThat(Arrays.stream(games.get(game.getId()).getBoard().getPits()).sum())
+                .isEqualTo(72));
+    }
+
+    @Test
+    public void testMakeMoveIsRejectedWhenTheQueueIsFull() throws Exception {
+        ShardedGameEngine engine = open(1, 2);
+        Game game = storage.save(createGame());
+        List<CompletableFuture<Game>> results = new ArrayList<>();
+        //the shard may drain moves while they are queued, so queue enough to surely fill it
+        for(int i = 0; i < 100_000; i++){
+            results.add(engine.makeMove(game.getId(), 1));
+        }
+
+        assertThat(results).anySatisfy(result -> assertThatThrownBy(result::join)
+                .hasCauseInstanceOf(RejectedExecutionException.class));
+    }
+
+    @Test
+    public void testBotSearchShouldNotHoldTheShard() throws Exception {
+        CountDownLatch searching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AlphaBetaBot alphaBeta = new AlphaBetaBot(1024, 10);
+        ShardedGameEngine engine = open(1, 16, (game, level) -> {
+            searching.countDown();
+            try{
+                release.await();
+            }catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+            return alphaBeta.chooseMove(game, level);
+        });
+        Game botGame = storage.save(createGame().withBotLevel(2));
+        Game humanGame = storage.save(createGame());
+
+        CompletableFuture<Game> answered = engine.makeMove(botGame.getId(), 2);
+        assertThat(searching.await(5, TimeUnit.SECONDS)).isTrue();
+
+        //the other games of the shard are played while the bot searches, and the bot game waits for its answer
+        assertThat(engine.makeMove(humanGame.getId(), 2).get(5, TimeUnit.SECONDS).getVersion()).isEqualTo(1);
+        assertThatThrownBy(() -> engine.makeMove(botGame.getId(), 1).get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class).hasCauseInstanceOf(InvalidMoveException.class)
+                .hasMessageContaining("Bot is playing its turn");
+        assertThat(answered).isNotDone();
+
+        release.countDown();
+        assertThat(GameUtils.isBotTurn(answered.get(5, TimeUnit.SECONDS))).isFalse();
+    }
+
+    @Test
+    public void testMakeMoveShouldResumeTheBotAfterItFailed() throws Exception {
+        //the bot fails once, plays pit 8 and then searches
+        AtomicInteger calls = new AtomicInteger();
+        AlphaBetaBot alphaBeta = new AlphaBetaBot(1024, 10);
+        ShardedGameEngine engine = open(1, 16, (game, level) -> {
+            int call = calls.incrementAndGet();
+            if(call == 1){
+                throw new IllegalStateException("Bot search failed");
+            }
+            return call == 2 ? 8 : alphaBeta.chooseMove(game, level);
+        });
+        Game game = storage.save(createGame().withBotLevel(2));
+
+        Game stuck = engine.makeMove(game.getId(), 2).get();
+        //a human move is never played on the pits of the bot
+        Game moved = engine.makeMove(game.getId(), 1).get();
+
+        assertThat(stuck.getTurn()).isEqualTo(GameTurn.PLAYER_TWO);
+        assertThat(stuck.getVersion()).isEqualTo(1);
+        assertThat(moved.getVersion()).isGreaterThan(3);
+        assertThat(GameUtils.isBotTurn(moved)).isFalse();
+        assertThat(games.get(game.getId())).isEqualTo(moved);
+    }
+
+    private ShardedGameEngine open(int shards, int queueCapacity) {
+        return open(shards, queueCapacity, new AlphaBetaBot(1024, 10));
+    }
+
+    private ShardedGameEngine open(int shards, int queueCapacity, GameBot bot) {
+        GameService service = new GameService() {
+            @Override
+            public Game create(GameVariant variant, int botLevel) {
+                return storage.save(createGame());
+            }
+
+            @Override
+            public Game find(String gameId) {
+                throw new UnsupportedOperationException("Games are read by the shards");
+            }
+
+            @Override
+            public Game makeMove(String gameId, int pitId, long expectedVersion) {
+                throw new UnsupportedOperationException("Moves are played by the shards");
+            }
+        };
+        ShardedGameEngine engine = new ShardedGameEngine(service, storage, new ArrayBoardEngine(), bot, shards,
+                queueCapacity);
+        engines.add(engine);
+        return engine;
+    }
+
+    private static Game createGame() {
+        return Game.builder()
+                .id(UUID.randomUUID().toString())
+                .startedAt(new Date())
+                .turn(GameTurn.PLAYER_ONE)
+                .board(Board.builder().pits(GameUtils.dealGame(6)).build())
+                .build();
+    }
+}
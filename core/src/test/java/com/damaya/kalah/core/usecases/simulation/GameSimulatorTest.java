@@ -0,0 +1,127 @@
+package com.damaya.kalah.core.usecases.simulation;
+
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.interfaces.PlayStrategy;
+import com.damaya.kalah.core.usecases.bot.AlphaBetaBot;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Test of class {@link GameSimulator}
+ */
+public class GameSimulatorTest {
+
+    @Test
+    public void testSimulateShouldCountEveryGame() {
+        try(GameSimulator simulator = new GameSimulator(GameVariant.KALAH, PlayStrategies.random(),
+                PlayStrategies.random(), 2)){
+            SimulationResult result = simulator.simulate(3000, 11);
+
+            assertThat(result.getGames()).isEqualTo(3000);
+            assertThat(result.getPlayerOneWins() + result.getPlayerTwoWins() + result.getDraws()).isEqualTo(3000);
+            assertThat(IntStream.range(0, 6).mapToLong(result::getGames).sum()).isEqualTo(3000);
+            assertThat(result.getUnfinished()).isZero();
+            assertThat(result.getAverageLength()).isGreaterThan(10);
+            assertThat(result.getExtraTurnFrequency()).isBetween(0.01, 0.5);
+            assertThat(result.getCaptureFrequency()).isBetween(0.01, 0.5);
+        }
+    }
+
+    @Test
+    public void testSimulateShouldNotDependOnTheThreads() {
+        SimulationResult single;
+        SimulationResult parallel;
+        try(GameSimulator simulator = new GameSimulator(GameVariant.KALAH, PlayStrategies.random(),
+                PlayStrategies.greedy(), 1)){
+            single = simulator.simulate(2500, 7);
+        }
+        try(GameSimulator simulator = new GameSimulator(GameVariant.KALAH, PlayStrategies.random(),
+                PlayStrategies.greedy(), 4)){
+            parallel = simulator.simulate(2500, 7);
+        }
+
+        assertThat(parallel.getMoves()).isEqualTo(single.getMoves());
+        assertThat(parallel.getPlayerOneWins()).isEqualTo(single.getPlayerOneWins());
+        assertThat(parallel.getCaptures()).isEqualTo(single.getCaptures());
+        assertThat(parallel.getExtraTurns()).isEqualTo(single.getExtraTurns());
+    }
+
+    @Test
+    public void testGreedyShouldBeatRandom() {
+        try(GameSimulator simulator = new GameSimulator(GameVariant.KALAH, PlayStrategies.greedy(),
+                PlayStrategies.random(), 1)){
+            assertThat(simulator.simulate(2000, 3).getPlayerOneWinRate()).isGreaterThan(0.7);
+        }
+    }
+
+    @Test
+    public void testSimulateShouldCountTheFirstMoves() {
+        //player one always opens with pit 3, which ends in its house, and then plays the first non-empty pit
+        PlayStrategy opening = (rules, pits, turn, random) -> {
+            int first = turn == GameTurn.PLAYER_ONE ? 0 : 7;
+            if(pits[2] == 6 && turn == GameTurn.PLAYER_ONE){
+                return 2;
+            }
+            int pit = first;
+            while(pits[pit] == 0){
+                pit++;
+            }
+            return pit;
+        };
+        try(GameSimulator simulator = new GameSimulator(GameVariant.KALAH, opening, PlayStrategies.random(), 1)){
+            SimulationResult result = simulator.simulate(100, 5);
+
+            assertThat(result.getGames(2)).isEqualTo(100);
+            assertThat(result.getPlayerOneWinRate(2)).isEqualTo(result.getPlayerOneWinRate());
+            assertThat(result.getExtraTurns()).isGreaterThanOrEqualTo(100);
+        }
+    }
+
+    @Test
+    public void testSimulateShouldStopOwareGamesThatRepeat() {
+        try(GameSimulator simulator = new GameSimulator(GameVariant.OWARE, PlayStrategies.random(),
+                PlayStrategies.random(), 1)){
+            SimulationResult result = simulator.simulate(200, 13);
+
+            assertThat(result.getGames()).isEqualTo(200);
+            assertThat(result.getMoves()).isLessThanOrEqualTo(200L * GameSimulator.MAX_MOVES);
+        }
+    }
+
+    @Test
+    public void testBotStrategyShouldPlayLegalMoves() {
+        AlphaBetaBot bot = new AlphaBetaBot(1 << 16, 10);
+        PlayStrategy strategy = PlayStrategies.bot(bot, 1);
+        PlayStrategy checked = (rules, pits, turn, random) -> {
+            int pit = strategy.choosePit(rules, pits, turn, random);
+            assertThat(pit).isBetween(0, 5);
+            assertThat(pits[pit]).isPositive();
+            return pit;
+        };
+        try(GameSimulator simulator = new GameSimulator(GameVariant.KALAH, checked, PlayStrategies.random(), 1)){
+            assertThat(simulator.simulate(20, 17).getGames()).isEqualTo(20);
+        }
+        assertThatIllegalArgumentException().isThrownBy(() -> PlayStrategies.bot(bot, 0));
+    }
+
+    @Test
+    public void testRandomShouldPlayNonEmptyPits() {
+        SplittableRandom random = new SplittableRandom(1);
+        int[] pits = {0, 0, 5, 0, 0, 0, 10, 1, 0, 0, 0, 0, 2, 20};
+        PlayStrategy strategy = PlayStrategies.random();
+
+        for(int i = 0; i < 20; i++){
+            assertThat(strategy.choosePit(GameVariants.rules(GameVariant.KALAH), pits, GameTurn.PLAYER_ONE, random))
+                    .isEqualTo(2);
+            assertThat(strategy.choosePit(GameVariants.rules(GameVariant.KALAH), pits, GameTurn.PLAYER_TWO, random))
+                    .isIn(7, 12);
+        }
+    }
+}
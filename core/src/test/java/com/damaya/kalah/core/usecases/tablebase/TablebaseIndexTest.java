@@ -0,0 +1,60 @@
+package com.damaya.kalah.core.usecases.tablebase;
+
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Test of class {@link TablebaseIndex}
+ */
+public class TablebaseIndexTest {
+
+    @Test
+    public void testIndexOfShouldNumberThePositionsInLexicographicOrder() {
+        TablebaseIndex index = new TablebaseIndex(2, 3);
+        int[] board = new int[6];
+        long expected = 0;
+
+        for(int a = 0; a <= 3; a++){
+            for(int b = 0; b <= 3 - a; b++){
+                for(int c = 0; c <= 3 - a - b; c++){
+                    for(int d = 0; d <= 3 - a - b - c; d++){
+                        board[0] = a;
+                        board[1] = b;
+                        board[3] = c;
+                        board[4] = d;
+                        assertThat(index.indexOf(board, GameTurn.PLAYER_ONE)).isEqualTo(expected);
+                        expected++;
+                    }
+                }
+            }
+        }
+        assertThat(index.size()).isEqualTo(expected).isEqualTo(35);
+    }
+
+    @Test
+    public void testIndexOfShouldPutTheRowOfThePlayerInTurnFirst() {
+        TablebaseIndex index = new TablebaseIndex(6, 10);
+
+        long playerTwo = index.indexOf(new int[]{1, 0, 2, 0, 0, 0, 30, 0, 3, 0, 0, 1, 0, 11}, GameTurn.PLAYER_TWO);
+        long playerOne = index.indexOf(new int[]{0, 3, 0, 0, 1, 0, 0, 1, 0, 2, 0, 0, 0, 0}, GameTurn.PLAYER_ONE);
+
+        assertThat(playerTwo).isEqualTo(playerOne);
+    }
+
+    @Test
+    public void testIndexOfShouldNotDependOnTheHouses() {
+        TablebaseIndex index = new TablebaseIndex(6, 10);
+
+        assertThat(index.indexOf(new int[]{1, 0, 2, 0, 0, 0, 30, 0, 3, 0, 0, 1, 0, 11}, GameTurn.PLAYER_ONE))
+                .isEqualTo(index.indexOf(new int[]{1, 0, 2, 0, 0, 0, 0, 0, 3, 0, 0, 1, 0, 0}, GameTurn.PLAYER_ONE));
+        assertThat(index.stonesInPlay(new int[]{1, 0, 2, 0, 0, 0, 30, 0, 3, 0, 0, 1, 0, 11})).isEqualTo(7);
+    }
+
+    @Test
+    public void testConstructorShouldRejectNegativeStones() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new TablebaseIndex(6, -1));
+    }
+}
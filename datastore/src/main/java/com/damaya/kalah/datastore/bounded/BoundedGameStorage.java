@@ -0,0 +1,312 @@
+package com.damaya.kalah.datastore.bounded;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.interfaces.GameStorage;
+import com.damaya.kalah.datastore.concurrent.StripedLock;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In memory storage holding a bounded number of games. When it is full, finished games are evicted first, in the
+ * order they finished; otherwise a {@link WindowTinyLfuPolicy} picks the idle game to evict. Games are stored
+ * holding their own lock and the policy is updated from buffers drained by whichever thread gets it, so saves of
+ * different games never wait for each other. A game whose lock is held, by a move being saved, is evicted by a later
+ * save once it is released, unless it is saved first. Hits, misses, evictions and size are published as metrics.
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.storage.type", havingValue = "bounded")
+public class BoundedGameStorage implements GameStorage, MeterBinder {
+
+    /**
+     * Approximate heap used by one game: entities, 14 pits, move log, dates, id and the map and policy nodes
+     */
+    public static final int ESTIMATED_GAME_BYTES = 640;
+
+    private static final int READ_BUFFER_SIZE = 1024;
+    private static final String FINISHED_CAUSE = "finished";
+    private static final String POLICY_CAUSE = "policy";
+
+    private final int maximumSize;
+    private final Map<String, Game> gameMap;
+    private final StripedLock locks;
+
+    private final Lock policyLock;
+    private final WindowTinyLfuPolicy policy;
+    private final LinkedHashSet<String> finishedGames;
+    /**
+     * Games picked for eviction while their lock was held, with the counter of their eviction cause
+     */
+    private final Map<String, LongAdder> pendingEvictions;
+    private final Queue<String> readBuffer;
+    private final AtomicInteger readBufferSize;
+    /**
+     * Saves not yet recorded by the policy, they are never dropped
+     */
+    private final Queue<WriteEvent> writeBuffer;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder finishedEvictions;
+    private final LongAdder policyEvictions;
+
+    /**
+     * @param maximumEntries maximum number of games
+     * @param maximumBytes approximate maximum heap for the games, zero or less to bound only by entries
+     */
+    public BoundedGameStorage(@Value("${kalah.storage.bounded.max-entries:100000}") int maximumEntries,
+                              @Value("${kalah.storage.bounded.max-bytes:0}") long maximumBytes) {
+        if(maximumEntries < 2){
+            throw new IllegalArgumentException("kalah.storage.bounded.max-entries should be greater than 1");
+        }
+        if(maximumBytes > 0 && maximumBytes < 2L * ESTIMATED_GAME_BYTES){
+            throw new IllegalArgumentException("kalah.storage.bounded.max-bytes should be zero or at least "
+                    + 2 * ESTIMATED_GAME_BYTES + " bytes, two games of " + ESTIMATED_GAME_BYTES + " bytes");
+        }
+        this.maximumSize = maximumBytes > 0
+                ? (int) Math.min(maximumEntries, maximumBytes / ESTIMATED_GAME_BYTES) : maximumEntries;
+        this.policy = new WindowTinyLfuPolicy(maximumSize);
+        this.gameMap = new ConcurrentHashMap<>();
+        this.locks = StripedLock.forAvailableProcessors();
+        this.policyLock = new ReentrantLock();
+        this.finishedGames = new LinkedHashSet<>();
+        this.pendingEvictions = new LinkedHashMap<>();
+        this.readBuffer = new ConcurrentLinkedQueue<>();
+        this.readBufferSize = new AtomicInteger();
+        this.writeBuffer = new ConcurrentLinkedQueue<>();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.finishedEvictions = new LongAdder();
+        this.policyEvictions = new LongAdder();
+    }
+
+    @Override
+    public Game save(Game game) {
+        //the game is stored holding its lock, so an eviction, which only tries it, never drops a save in flight
+        Lock lock = locks.get(game.getId());
+        lock.lock();
+        try{
+            boolean inserted = Objects.isNull(gameMap.put(game.getId(), game));
+            writeBuffer.offer(new WriteEvent(game.getId(), inserted, Objects.nonNull(game.getFinishedAt())));
+        }finally {
+            lock.unlock();
+        }
+        //a save buffered while another thread released the policy is drained by the next attempt
+        while(!writeBuffer.isEmpty() && policyLock.tryLock()){
+            try{
+                drainReadBuffer();
+                drainWriteBuffer();
+                evictPendingGames();
+            }finally {
+                policyLock.unlock();
+            }
+        }
+        return game;
+    }
+
+    /**
+     * Compare and replace the game holding its lock, without counting a lookup nor a policy access: the save records
+     * the access of the move
+     */
+    @Override
+    public boolean saveIfVersion(Game game, int pitId, long expectedVersion) {
+        Lock lock = getLock(game.getId());
+        lock.lock();
+        try{
+            Game stored = gameMap.get(game.getId());
+            if(Objects.isNull(stored) || stored.getVersion() != expectedVersion){
+                return false;
+            }
+            save(game);
+            return true;
+        }finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Game> findById(String gameId) {
+        Game game = gameMap.get(gameId);
+        if(Objects.isNull(game)){
+            misses.increment();
+        }else{
+            hits.increment();
+            recordRead(gameId);
+        }
+        return Optional.ofNullable(game);
+    }
+
+    @Override
+    public Lock getLock(String gameId) {
+        return locks.get(gameId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("kalah.storage.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Game lookups that found the game")
+                .register(registry);
+        FunctionCounter.builder("kalah.storage.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Game lookups that did not find the game")
+                .register(registry);
+        FunctionCounter.builder("kalah.storage.evictions", finishedEvictions, LongAdder::sum)
+                .tag("cause", FINISHED_CAUSE)
+                .description("Finished games evicted to make room")
+                .register(registry);
+        FunctionCounter.builder("kalah.storage.evictions", policyEvictions, LongAdder::sum)
+                .tag("cause", POLICY_CAUSE)
+                .description("Idle games evicted by the W-TinyLFU policy")
+                .register(registry);
+        Gauge.builder("kalah.storage.size", gameMap, Map::size)
+                .description("Games currently stored")
+                .register(registry);
+    }
+
+    /**
+     * @return number of stored games
+     */
+    public int size() {
+        return gameMap.size();
+    }
+
+    /**
+     * @return maximum number of games
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return finishedEvictions.sum() + policyEvictions.sum();
+    }
+
+    private void recordRead(String gameId) {
+        //Reads never wait for the policy: when it is busy the access is buffered, or dropped if the buffer is full
+        if(policyLock.tryLock()){
+            try{
+                drainReadBuffer();
+                policy.recordAccess(gameId);
+            }finally {
+                policyLock.unlock();
+            }
+        }else if(readBufferSize.get() < READ_BUFFER_SIZE){
+            readBufferSize.incrementAndGet();
+            readBuffer.offer(gameId);
+        }
+    }
+
+    private void drainReadBuffer() {
+        String gameId;
+        while((gameId = readBuffer.poll()) != null){
+            readBufferSize.decrementAndGet();
+            policy.recordAccess(gameId);
+        }
+    }
+
+    private void drainWriteBuffer() {
+        WriteEvent event;
+        while((event = writeBuffer.poll()) != null){
+            //a game saved while its eviction was pending is used again, the policy tracks it as a new one
+            boolean inserted = event.inserted || Objects.nonNull(pendingEvictions.remove(event.gameId));
+            if(inserted){
+                if(policy.size() >= maximumSize){
+                    evictFinishedGame();
+                }
+                String victim = policy.recordInsert(event.gameId);
+                if(Objects.nonNull(victim)){
+                    evict(victim, policyEvictions);
+                }
+            }else{
+                policy.recordAccess(event.gameId);
+            }
+            if(event.finished && gameMap.containsKey(event.gameId)){
+                finishedGames.add(event.gameId);
+            }
+        }
+    }
+
+    private void evictFinishedGame() {
+        Iterator<String> iterator = finishedGames.iterator();
+        if(iterator.hasNext()){
+            String gameId = iterator.next();
+            policy.remove(gameId);
+            evict(gameId, finishedEvictions);
+        }
+    }
+
+    /**
+     * Remove a game the policy no longer tracks, or leave it for a later save while a move of it holds its lock
+     */
+    private void evict(String gameId, LongAdder counter) {
+        Lock lock = locks.get(gameId);
+        if(lock.tryLock()){
+            try{
+                finishedGames.remove(gameId);
+                gameMap.remove(gameId);
+                counter.increment();
+            }finally {
+                lock.unlock();
+            }
+        }else{
+            pendingEvictions.put(gameId, counter);
+        }
+    }
+
+    private void evictPendingGames() {
+        Iterator<Map.Entry<String, LongAdder>> iterator = pendingEvictions.entrySet().iterator();
+        while(iterator.hasNext()){
+            Map.Entry<String, LongAdder> eviction = iterator.next();
+            Lock lock = locks.get(eviction.getKey());
+            if(lock.tryLock()){
+                try{
+                    iterator.remove();
+                    finishedGames.remove(eviction.getKey());
+                    gameMap.remove(eviction.getKey());
+                    eviction.getValue().increment();
+                }finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private static final class WriteEvent {
+        private final String gameId;
+        private final boolean inserted;
+        private final boolean finished;
+
+        private WriteEvent(String gameId, boolean inserted, boolean finished) {
+            this.gameId = gameId;
+            this.inserted = inserted;
+            this.finished = finished;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.damaya.kalah.datastore.bounded;
+
+/**
+ * Count-min sketch with four 4-bit counters per key, used to estimate how often a game was used. Once the
+ * number of increments reaches ten times the capacity every counter is halved, so old popularity fades out.
+ * It is not thread-safe, callers must guard it.
+ */
+class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int capacity) {
+        int size = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+        this.table = new long[size];
+        this.mask = size - 1;
+        this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * Math.max(1, capacity));
+    }
+
+    /**
+     * @return estimated number of uses, between 0 and 15
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for(int i = 0; i < SEEDS.length; i++){
+            frequency = Math.min(frequency, counter(hash, i));
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for(int i = 0; i < SEEDS.length; i++){
+            if(counter(hash, i) < MAX_COUNT){
+                table[indexOf(hash, i)] += 1L << shiftOf(hash, i);
+                added = true;
+            }
+        }
+        if(added && ++additions == sampleSize){
+            reset();
+        }
+    }
+
+    private int counter(int hash, int depth) {
+        return (int) ((table[indexOf(hash, depth)] >>> shiftOf(hash, depth)) & MAX_COUNT);
+    }
+
+    private void reset() {
+        for(int i = 0; i < table.length; i++){
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(int hash, int depth) {
+        long h = (hash + SEEDS[depth]) * SEEDS[depth];
+        h += h >>> 32;
+        return (int) h & mask;
+    }
+
+    private static int shiftOf(int hash, int depth) {
+        //each long holds sixteen counters, every depth uses a different one
+        return (((hash >>> (depth << 3)) & 3) + (depth << 2)) << 2;
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
@@ -0,0 +1,122 @@
+package com.damaya.kalah.datastore.bounded;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+
+/**
+ * W-TinyLFU eviction policy. New keys enter a small LRU window; keys leaving the window compete with the
+ * least recently used key of the main segmented LRU and only the one used more often, according to a
+ * {@link FrequencySketch}, is kept. It is not thread-safe, callers must guard it.
+ */
+class WindowTinyLfuPolicy {
+
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final int maximumSize;
+    private final int maximumWindow;
+    private final int maximumProtected;
+    private final FrequencySketch sketch;
+
+    private final LinkedHashSet<String> window;
+    private final LinkedHashSet<String> probation;
+    private final LinkedHashSet<String> protectedSegment;
+
+    /**
+     * @param maximumSize maximum number of keys
+     */
+    WindowTinyLfuPolicy(int maximumSize) {
+        if(maximumSize > 1){
+            this.maximumSize = maximumSize;
+            this.maximumWindow = Math.max(1, (int) (maximumSize * WINDOW_RATIO));
+            this.maximumProtected = (int) ((maximumSize - maximumWindow) * PROTECTED_RATIO);
+            this.sketch = new FrequencySketch(maximumSize);
+            this.window = new LinkedHashSet<>();
+            this.probation = new LinkedHashSet<>();
+            this.protectedSegment = new LinkedHashSet<>();
+        }else{
+            throw new IllegalArgumentException("Maximum size should be greater than 1");
+        }
+    }
+
+    /**
+     * Record a new key
+     * @param key key
+     * @return key that must be evicted or null if there is still room
+     */
+    String recordInsert(String key) {
+        sketch.increment(key);
+        window.add(key);
+        String evicted = null;
+        if(window.size() > maximumWindow){
+            String candidate = removeFirst(window);
+            if(size() < maximumSize){
+                probation.add(candidate);
+            }else{
+                evicted = admit(candidate);
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Record a use of a key already known by the policy. Unknown keys are ignored
+     * @param key key
+     */
+    void recordAccess(String key) {
+        if(window.remove(key)){
+            sketch.increment(key);
+            window.add(key);
+        }else if(probation.remove(key)){
+            sketch.increment(key);
+            protectedSegment.add(key);
+            if(protectedSegment.size() > maximumProtected){
+                probation.add(removeFirst(protectedSegment));
+            }
+        }else if(protectedSegment.remove(key)){
+            sketch.increment(key);
+            protectedSegment.add(key);
+        }
+    }
+
+    /**
+     * Forget a key evicted by other means
+     * @param key key
+     */
+    void remove(String key) {
+        if(!window.remove(key) && !probation.remove(key)){
+            protectedSegment.remove(key);
+        }
+    }
+
+    /**
+     * @return number of keys tracked by the policy
+     */
+    int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    private String admit(String candidate) {
+        String victim = probation.isEmpty() ? first(protectedSegment) : first(probation);
+        if(Objects.isNull(victim) || sketch.frequency(candidate) <= sketch.frequency(victim)){
+            return candidate;
+        }else{
+            remove(victim);
+            probation.add(candidate);
+            return victim;
+        }
+    }
+
+    private static String first(LinkedHashSet<String> segment) {
+        Iterator<String> iterator = segment.iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private static String removeFirst(LinkedHashSet<String> segment) {
+        Iterator<String> iterator = segment.iterator();
+        String first = iterator.next();
+        iterator.remove();
+        return first;
+    }
+}
@@ -0,0 +1,67 @@
+package com.damaya.kalah.datastore.concurrent;
+
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared by all the games. Each game id is always mapped to the same stripe, so moves
+ * on one game are serialized while moves on games of different stripes run in parallel.
+ */
+public class StripedLock {
+
+    private final Lock[] locks;
+    private final int mask;
+
+    /**
+     * @param minimumStripes minimum number of stripes, it is rounded up to the next power of two
+     */
+    public StripedLock(int minimumStripes) {
+        if(minimumStripes > 0 && minimumStripes <= (1 << 30)){
+            int stripes = Integer.highestOneBit(minimumStripes);
+            if(stripes < minimumStripes){
+                stripes <<= 1;
+            }
+            this.locks = new Lock[stripes];
+            for(int i = 0; i < stripes; i++){
+                locks[i] = new ReentrantLock();
+            }
+            this.mask = stripes - 1;
+        }else{
+            throw new IllegalArgumentException("Stripes should be between 1 and 2^30");
+        }
+    }
+
+    /**
+     * Creates as many stripes as needed to keep collisions low with one thread per available core
+     * @return striped lock
+     */
+    public static StripedLock forAvailableProcessors() {
+        return new StripedLock(Runtime.getRuntime().availableProcessors() * 16);
+    }
+
+    /**
+     * Get the lock guarding the given key
+     * @param key key, usually a game id
+     * @return lock of the key stripe
+     */
+    public Lock get(Object key) {
+        return locks[stripeOf(Objects.requireNonNull(key, "Key must not be null"))];
+    }
+
+    /**
+     * @return number of stripes
+     */
+    public int size() {
+        return locks.length;
+    }
+
+    private int stripeOf(Object key) {
+        //spread the hash so keys that only differ in the high bits do not collide
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        hash *= 0x85ebca6b;
+        hash ^= (hash >>> 13);
+        return hash & mask;
+    }
+}
@@ -0,0 +1,110 @@
+package com.damaya.kalah.datastore.concurrent;
+
+import java.util.Objects;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed set of sequence locks shared by all the games. Writers, which already hold the game lock, stamp the stripe
+ * of the game around a write; readers copy the record without locking and retry when a write stamped the stripe
+ * meanwhile, so reads never wait for a writer to release a lock.
+ */
+public class StripedSeqLock {
+
+    private final StampedLock[] locks;
+    private final int mask;
+
+    /**
+     * @param minimumStripes minimum number of stripes, it is rounded up to the next power of two
+     */
+    public StripedSeqLock(int minimumStripes) {
+        if(minimumStripes > 0 && minimumStripes <= (1 << 30)){
+            int stripes = Integer.highestOneBit(minimumStripes);
+            if(stripes < minimumStripes){
+                stripes <<= 1;
+            }
+            this.locks = new StampedLock[stripes];
+            for(int i = 0; i < stripes; i++){
+                locks[i] = new StampedLock();
+            }
+            this.mask = stripes - 1;
+        }else{
+            throw new IllegalArgumentException("Stripes should be between 1 and 2^30");
+        }
+    }
+
+    /**
+     * Creates as many stripes as needed to keep collisions low with one thread per available core
+     * @return striped sequence lock
+     */
+    public static StripedSeqLock forAvailableProcessors() {
+        return new StripedSeqLock(Runtime.getRuntime().availableProcessors() * 16);
+    }
+
+    /**
+     * Stamp the stripe of a key as being written
+     * @param key key, usually a game id
+     * @return stamp to pass to {@link #endWrite(Object, long)}
+     */
+    public long beginWrite(Object key) {
+        return stripeOf(key).writeLock();
+    }
+
+    /**
+     * Stamp the stripe of a key as written
+     * @param key key, usually a game id
+     * @param stamp stamp returned by {@link #beginWrite(Object)}
+     */
+    public void endWrite(Object key, long stamp) {
+        stripeOf(key).unlockWrite(stamp);
+    }
+
+    /**
+     * Read without locking, retrying until no write of the stripe overlapped the read
+     * @param key key, usually a game id
+     * @param reader copies what is guarded by the stripe, it may see a torn record and throw while a write overlaps
+     * @param <T> type of the copy
+     * @return copy that no write overlapped
+     */
+    public <T> T read(Object key, Supplier<T> reader) {
+        return read(stripeOf(key), reader);
+    }
+
+    /**
+     * Read without locking, retrying until no write locked the given lock meanwhile
+     * @param lock lock taken in write mode by the writers
+     * @param reader copies what is guarded by the lock, it may see a torn state and throw while a write overlaps
+     * @param <T> type of the copy
+     * @return copy that no write overlapped
+     */
+    public static <T> T read(StampedLock lock, Supplier<T> reader) {
+        while(true){
+            long stamp = lock.tryOptimisticRead();
+            if(stamp != 0){
+                T copy;
+                try{
+                    copy = reader.get();
+                }catch (RuntimeException e){
+                    if(lock.validate(stamp)){
+                        throw e;
+                    }
+                    continue;
+                }
+                if(lock.validate(stamp)){
+                    return copy;
+                }
+            }else{
+                Thread.yield();
+            }
+        }
+    }
+
+    private StampedLock stripeOf(Object key) {
+        //spread the hash so keys that only differ in the high bits do not collide
+        int hash = Objects.requireNonNull(key, "Key must not be null").hashCode();
+        hash ^= (hash >>> 16);
+        hash *= 0x85ebca6b;
+        hash ^= (hash >>> 13);
+        return locks[hash & mask];
+    }
+}
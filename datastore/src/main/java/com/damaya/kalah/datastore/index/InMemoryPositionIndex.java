@@ -0,0 +1,117 @@
+package com.damaya.kalah.datastore.index;
+
+import com.damaya.kalah.core.interfaces.PositionIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent multimap from position hash to the ids of the games that reached it, kept in memory next to the game
+ * storage. Most positions past the opening are reached by a single game, so a position keeps the bare id until a
+ * second game reaches it and only then a set, which later games join without locking the map.
+ * <p>
+ * The index starts empty: it holds the positions reached since the process started, whatever storage keeps the
+ * games afterwards. It is bounded: a position keeps the first {@code kalah.positions.max-games-per-position} games
+ * that reached it, a few more under concurrent moves, and once {@code kalah.positions.max-positions} positions are
+ * indexed new positions are not added.
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.positions.enabled", havingValue = "true")
+public class InMemoryPositionIndex implements PositionIndex {
+
+    private final int maxPositions;
+    private final int maxGamesPerPosition;
+    /**
+     * Id of a single game or set of ids
+     */
+    private final Map<Long, Object> positions;
+
+    /**
+     * @param maxPositions maximum number of positions indexed
+     * @param maxGamesPerPosition maximum number of games kept by each position
+     */
+    public InMemoryPositionIndex(@Value("${kalah.positions.max-positions:1000000}") int maxPositions,
+                                 @Value("${kalah.positions.max-games-per-position:1000}") int maxGamesPerPosition) {
+        if(maxPositions > 0 && maxGamesPerPosition > 0){
+            this.maxPositions = maxPositions;
+            this.maxGamesPerPosition = maxGamesPerPosition;
+            this.positions = new ConcurrentHashMap<>();
+        }else{
+            throw new IllegalArgumentException("Maximum positions and games per position should be greater than 0");
+        }
+    }
+
+    @Override
+    public void add(long hash, String gameId) {
+        Object games = positions.get(hash);
+        if(games instanceof Set){
+            //the opening positions are reached by most games, they are joined without locking their map bin
+            join(gameIds(games), gameId);
+        }else if(Objects.nonNull(games) || positions.size() < maxPositions){
+            positions.compute(hash, (key, current) -> {
+                if(Objects.isNull(current) || current.equals(gameId)){
+                    return gameId;
+                }else if(current instanceof String){
+                    if(maxGamesPerPosition == 1){
+                        return current;
+                    }
+                    Set<String> ids = ConcurrentHashMap.newKeySet();
+                    ids.add((String) current);
+                    ids.add(gameId);
+                    return ids;
+                }
+                join(gameIds(current), gameId);
+                return current;
+            });
+        }
+    }
+
+    @Override
+    public List<String> find(long hash, String after, int limit) {
+        Object games = positions.get(hash);
+        if(Objects.isNull(games) || limit <= 0){
+            return Collections.emptyList();
+        }else if(games instanceof String){
+            return isAfter((String) games, after)
+                    ? Collections.singletonList((String) games) : Collections.emptyList();
+        }
+        List<String> page = new ArrayList<>();
+        for(String gameId : gameIds(games)){
+            if(isAfter(gameId, after)){
+                page.add(gameId);
+            }
+        }
+        Collections.sort(page);
+        return page.size() > limit ? new ArrayList<>(page.subList(0, limit)) : page;
+    }
+
+    /**
+     * @return positions indexed
+     */
+    public int size() {
+        return positions.size();
+    }
+
+    private void join(Set<String> ids, String gameId) {
+        if(ids.size() < maxGamesPerPosition){
+            ids.add(gameId);
+        }
+    }
+
+    private static boolean isAfter(String gameId, String after) {
+        return Objects.isNull(after) || gameId.compareTo(after) > 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> gameIds(Object games) {
+        return (Set<String>) games;
+    }
+}
@@ -0,0 +1,496 @@
+package com.damaya.kalah.datastore.jdbc;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.domain.MoveLog;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.interfaces.GameStorage;
+import com.damaya.kalah.core.usecases.GameUtils;
+import com.damaya.kalah.datastore.concurrent.StripedLock;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.regex.Pattern;
+
+/**
+ * Storage backed by a database through a pooled JDBC connection. The table is created and upgraded with standard
+ * statements once the database metadata shows it or its columns are missing, and the move history column uses a
+ * configurable binary type, {@code BLOB} by default, so any database with a JDBC driver in the classpath works.
+ * Saves are written behind: each game
+ * keeps only its latest unwritten state, so the saves of several moves of the same game become a single row
+ * write, and a background thread writes them in batches. Games are read through a near cache, so playing a game
+ * does not query the database. The near cache is a concurrent map that drops the games in the order they entered
+ * it, so reads and saves of different games never share a lock.
+ * <p>
+ * Unwritten saves of the last flush interval are lost when the process dies without being closed.
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.storage.type", havingValue = "jdbc")
+public class JdbcGameStorage implements GameStorage, Closeable {
+
+    private static final Logger LOCAL_LOGGER = LoggerFactory.getLogger(JdbcGameStorage.class);
+    /**
+     * Column types a binary type may be made of, e.g. {@code BLOB}, {@code VARBINARY(4096)} or {@code bytea}
+     */
+    private static final Pattern BINARY_TYPE = Pattern.compile("[A-Za-z][A-Za-z0-9 ]*(\\(\\d+\\))?");
+    private static final String TABLE = "kalah_game";
+    private static final String MOVES_COLUMN = "moves";
+    private static final String VERSION_COLUMN = "version";
+
+    private static final String CREATE_TABLE = "CREATE TABLE " + TABLE + " ("
+            + "id VARCHAR(36) PRIMARY KEY, pits VARCHAR(128), turn VARCHAR(16), "
+            + "started_at BIGINT, finished_at BIGINT, winner VARCHAR(16), variant VARCHAR(32), "
+            + "bot_level INT, " + MOVES_COLUMN + " %s, " + VERSION_COLUMN + " BIGINT DEFAULT 0 NOT NULL)";
+    /**
+     * Tables created before the move history existed
+     */
+    private static final String ADD_MOVES = "ALTER TABLE " + TABLE + " ADD " + MOVES_COLUMN + " %s";
+    /**
+     * Tables created before the games had versions
+     */
+    private static final String ADD_VERSION = "ALTER TABLE " + TABLE + " ADD " + VERSION_COLUMN
+            + " BIGINT DEFAULT 0 NOT NULL";
+    private static final String SELECT = "SELECT pits, turn, started_at, finished_at, winner, variant, bot_level, "
+            + "moves, version FROM kalah_game WHERE id = ?";
+    private static final String UPDATE = "UPDATE kalah_game SET pits = ?, turn = ?, started_at = ?, finished_at = ?, "
+            + "winner = ?, variant = ?, bot_level = ?, moves = ?, version = ? WHERE id = ?";
+    private static final String INSERT = "INSERT INTO kalah_game (pits, turn, started_at, finished_at, winner, variant, "
+            + "bot_level, moves, version, id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    /**
+     * Pending saves allowed per batch before saving games waits for the writer
+     */
+    private static final int PENDING_BATCHES = 16;
+    /**
+     * Save counters, games share a counter by id hash, a power of two
+     */
+    private static final int SAVE_STRIPES = 1024;
+
+    private final HikariDataSource dataSource;
+    private final StripedLock locks;
+    private final Map<String, Game> pending;
+    private final Map<String, Game> nearCache;
+    /**
+     * Games in the near cache, in the order they entered it
+     */
+    private final Queue<String> nearCacheOrder;
+    private final int nearCacheSize;
+    /**
+     * Saves of the games of each stripe, counted with their near cache entry
+     */
+    private final AtomicLongArray saves;
+    private final int batchSize;
+    private final ScheduledExecutorService writer;
+    private final AtomicBoolean flushRequested;
+    private final AtomicLong writtenRows;
+
+    /**
+     * @param url JDBC url of the database, its driver must be in the classpath
+     * @param username database user
+     * @param password database password
+     * @param poolSize maximum connections of the pool
+     * @param batchSize maximum games written in each batch
+     * @param flushIntervalMillis interval between writes of the pending saves
+     * @param nearCacheSize maximum games kept in the near cache
+     * @param binaryType column type of the move history, e.g. {@code bytea} for PostgreSQL
+     */
+    public JdbcGameStorage(@Value("${kalah.storage.jdbc.url:jdbc:h2:${java.io.tmpdir}/kalah-games}") String url,
+                           @Value("${kalah.storage.jdbc.username:sa}") String username,
+                           @Value("${kalah.storage.jdbc.password:}") String password,
+                           @Value("${kalah.storage.jdbc.pool-size:4}") int poolSize,
+                           @Value("${kalah.storage.jdbc.batch-size:500}") int batchSize,
+                           @Value("${kalah.storage.jdbc.flush-interval-ms:50}") long flushIntervalMillis,
+                           @Value("${kalah.storage.jdbc.near-cache-size:100000}") int nearCacheSize,
+                           @Value("${kalah.storage.jdbc.binary-type:BLOB}") String binaryType) {
+        if(!BINARY_TYPE.matcher(binaryType).matches()){
+            throw new IllegalArgumentException("kalah.storage.jdbc.binary-type should be a column type such as BLOB "
+                    + "or VARBINARY(4096)");
+        }
+        if(poolSize > 0 && batchSize > 0 && flushIntervalMillis > 0 && nearCacheSize >= 0){
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("kalah-jdbc");
+            config.setJdbcUrl(url);
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setMaximumPoolSize(poolSize);
+            this.dataSource = new HikariDataSource(config);
+            this.locks = StripedLock.forAvailableProcessors();
+            this.pending = new ConcurrentHashMap<>();
+            this.nearCache = new ConcurrentHashMap<>();
+            this.nearCacheOrder = new ConcurrentLinkedQueue<>();
+            this.nearCacheSize = nearCacheSize;
+            this.saves = new AtomicLongArray(SAVE_STRIPES);
+            this.batchSize = batchSize;
+            this.flushRequested = new AtomicBoolean();
+            this.writtenRows = new AtomicLong();
+            this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "kalah-jdbc-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            createTable(binaryType);
+            writer.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }else{
+            throw new IllegalArgumentException("Pool size, batch size and flush interval should be greater than 0 "
+                    + "and near cache size should not be negative");
+        }
+    }
+
+    @Override
+    public Game save(Game game) {
+        //stored games are never shared, so the writer never sees a half played move
+        Game copy = GameUtils.copyOf(game);
+        pending.put(game.getId(), copy);
+        boolean[] entered = {false};
+        nearCache.compute(game.getId(), (gameId, cached) -> {
+            //counted while the entry is updated, so a read that loaded the row meanwhile does not cache it
+            entered[0] = Objects.isNull(cached);
+            saves.incrementAndGet(stripe(gameId));
+            return copy;
+        });
+        if(entered[0]){
+            entered(game.getId());
+        }
+        int size = pending.size();
+        if(size >= batchSize * PENDING_BATCHES){
+            flush();
+        }else if(size >= batchSize && flushRequested.compareAndSet(false, true)){
+            writer.execute(this::flushQuietly);
+        }
+        return game;
+    }
+
+    @Override
+    public Optional<Game> findById(String gameId) {
+        if(Objects.isNull(gameId)){
+            return Optional.empty();
+        }
+        while(true){
+            //a save counted before this read is already pending, cached or written, so the lookup below sees it
+            long savesBefore = saves.get(stripe(gameId));
+            Game game = pending.get(gameId);
+            if(Objects.isNull(game)){
+                game = nearCache.get(gameId);
+            }
+            if(Objects.nonNull(game)){
+                return Optional.of(GameUtils.copyOf(game));
+            }
+            Game loaded = load(gameId);
+            boolean[] current = {false};
+            boolean[] entered = {false};
+            Game cached = nearCache.compute(gameId, (id, saved) -> {
+                if(Objects.nonNull(saved)){
+                    //cached by a save or another read meanwhile, it is at least as new as the loaded row
+                    current[0] = true;
+                    return saved;
+                }
+                //a save while loading may be written and evicted already, so the loaded row may be older: retry
+                current[0] = saves.get(stripe(id)) == savesBefore;
+                entered[0] = current[0] && Objects.nonNull(loaded);
+                return current[0] ? loaded : null;
+            });
+            if(entered[0]){
+                entered(gameId);
+            }
+            if(current[0]){
+                return Optional.ofNullable(cached).map(GameUtils::copyOf);
+            }
+        }
+    }
+
+    @Override
+    public Lock getLock(String gameId) {
+        return locks.get(gameId);
+    }
+
+    /**
+     * Write every pending save to the database now
+     */
+    public synchronized void flush() {
+        flushRequested.set(false);
+        List<Game> batch = new ArrayList<>(batchSize);
+        for(Game game : pending.values()){
+            batch.add(game);
+            if(batch.size() == batchSize){
+                write(batch);
+                batch.clear();
+            }
+        }
+        if(!batch.isEmpty()){
+            write(batch);
+        }
+    }
+
+    /**
+     * @return saves not written to the database yet
+     */
+    public int pendingGames() {
+        return pending.size();
+    }
+
+    /**
+     * @return games kept in the near cache
+     */
+    public int cachedGames() {
+        return nearCache.size();
+    }
+
+    /**
+     * @return rows written to the database since the storage was opened
+     */
+    public long getWrittenRows() {
+        return writtenRows.get();
+    }
+
+    /**
+     * Write the pending saves and close the connection pool
+     */
+    @Override
+    @PreDestroy
+    public void close() {
+        writer.shutdown();
+        try{
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+            flush();
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }finally {
+            dataSource.close();
+        }
+    }
+
+    private void flushQuietly() {
+        try{
+            flush();
+        }catch (RuntimeException e){
+            LOCAL_LOGGER.error("Pending games could not be written, they will be retried", e);
+        }
+    }
+
+    /**
+     * Update the rows of the batch and insert the ones that did not exist, in a single transaction
+     */
+    private void write(List<Game> batch) {
+        try(Connection connection = dataSource.getConnection()){
+            connection.setAutoCommit(false);
+            try(PreparedStatement update = connection.prepareStatement(UPDATE);
+                PreparedStatement insert = connection.prepareStatement(INSERT)){
+                for(Game game : batch){
+                    bind(update, game);
+                    update.addBatch();
+                }
+                int[] updated = update.executeBatch();
+                boolean inserts = false;
+                for(int i = 0; i < updated.length; i++){
+                    if(updated[i] == 0){
+                        bind(insert, batch.get(i));
+                        insert.addBatch();
+                        inserts = true;
+                    }
+                }
+                if(inserts){
+                    insert.executeBatch();
+                }
+                connection.commit();
+            }catch (SQLException e){
+                connection.rollback();
+                throw e;
+            }
+        }catch (SQLException e){
+            throw new IllegalStateException("Games could not be written", e);
+        }
+        for(Game game : batch){
+            //keeps the save when a newer one arrived while writing
+            pending.remove(game.getId(), game);
+        }
+        writtenRows.addAndGet(batch.size());
+    }
+
+    /**
+     * Drop the games that entered the near cache first while it holds too many
+     */
+    private void entered(String gameId) {
+        nearCacheOrder.offer(gameId);
+        while(nearCache.size() > nearCacheSize){
+            String oldest = nearCacheOrder.poll();
+            if(Objects.isNull(oldest)){
+                break;
+            }
+            nearCache.remove(oldest);
+        }
+    }
+
+    private static int stripe(String gameId) {
+        int hash = gameId.hashCode();
+        return (hash ^ (hash >>> 16)) & (SAVE_STRIPES - 1);
+    }
+
+    /**
+     * @return row of the game, null when it is not in the table
+     */
+    Game load(String gameId) {
+        try(Connection connection = dataSource.getConnection();
+            PreparedStatement select = connection.prepareStatement(SELECT)){
+            select.setString(1, gameId);
+            try(ResultSet row = select.executeQuery()){
+                return row.next() ? read(gameId, row) : null;
+            }
+        }catch (SQLException e){
+            throw new IllegalStateException("Game " + gameId + " could not be read", e);
+        }
+    }
+
+    private void createTable(String binaryType) {
+        try(Connection connection = dataSource.getConnection();
+            Statement statement = connection.createStatement()){
+            DatabaseMetaData metadata = connection.getMetaData();
+            if(!tableExists(connection, metadata)){
+                statement.execute(String.format(CREATE_TABLE, binaryType));
+            }else{
+                if(!columnExists(connection, metadata, MOVES_COLUMN)){
+                    statement.execute(String.format(ADD_MOVES, binaryType));
+                }
+                if(!columnExists(connection, metadata, VERSION_COLUMN)){
+                    statement.execute(ADD_VERSION);
+                }
+            }
+        }catch (SQLException e){
+            dataSource.close();
+            throw new IllegalStateException("Games table could not be created", e);
+        }
+    }
+
+    private static boolean tableExists(Connection connection, DatabaseMetaData metadata) throws SQLException {
+        try(ResultSet tables = metadata.getTables(connection.getCatalog(), connection.getSchema(),
+                identifier(metadata, TABLE), new String[]{"TABLE"})){
+            return tables.next();
+        }
+    }
+
+    private static boolean columnExists(Connection connection, DatabaseMetaData metadata, String column)
+            throws SQLException {
+        try(ResultSet columns = metadata.getColumns(connection.getCatalog(), connection.getSchema(),
+                identifier(metadata, TABLE), identifier(metadata, column))){
+            return columns.next();
+        }
+    }
+
+    /**
+     * @return unquoted identifier in the case the database stores it, as the metadata patterns are case sensitive
+     */
+    private static String identifier(DatabaseMetaData metadata, String name) throws SQLException {
+        if(metadata.storesUpperCaseIdentifiers()){
+            return name.toUpperCase(Locale.ROOT);
+        }else if(metadata.storesLowerCaseIdentifiers()){
+            return name.toLowerCase(Locale.ROOT);
+        }
+        return name;
+    }
+
+    private static void bind(PreparedStatement statement, Game game) throws SQLException {
+        Board board = game.getBoard();
+        statement.setString(1, Objects.isNull(board) ? null : encodePits(board.getPits()));
+        statement.setString(2, Objects.isNull(game.getTurn()) ? null : game.getTurn().name());
+        setTime(statement, 3, game.getStartedAt());
+        setTime(statement, 4, game.getFinishedAt());
+        statement.setString(5, Objects.isNull(game.getWinner()) ? null : game.getWinner().name());
+        statement.setString(6, Objects.isNull(game.getVariant()) ? null : game.getVariant().name());
+        if(Objects.isNull(game.getBotLevel())){
+            statement.setNull(7, Types.INTEGER);
+        }else{
+            statement.setInt(7, game.getBotLevel());
+        }
+        statement.setBytes(8, Objects.isNull(game.getMoves()) ? null : game.getMoves().toBytes());
+        statement.setLong(9, game.getVersion());
+        statement.setString(10, game.getId());
+    }
+
+    private static Game read(String gameId, ResultSet row) throws SQLException {
+        String pits = row.getString(1);
+        String turn = row.getString(2);
+        String winner = row.getString(5);
+        String variant = row.getString(6);
+        int botLevel = row.getInt(7);
+        boolean noBot = row.wasNull();
+        byte[] moves = row.getBytes(8);
+        long version = row.getLong(9);
+        return Game.builder()
+                .id(gameId)
+                .board(Objects.isNull(pits) ? null : Board.builder().pits(decodePits(pits)).build())
+                .turn(Objects.isNull(turn) ? null : GameTurn.valueOf(turn))
+                .startedAt(getTime(row, 3))
+                .finishedAt(getTime(row, 4))
+                .winner(Objects.isNull(winner) ? null : GameTurn.valueOf(winner))
+                .variant(Objects.isNull(variant) ? null : GameVariant.valueOf(variant))
+                .botLevel(noBot ? null : botLevel)
+                .moves(Objects.isNull(moves) ? null : MoveLog.fromBytes(moves))
+                .version(version)
+                .build();
+    }
+
+    private static void setTime(PreparedStatement statement, int index, Date date) throws SQLException {
+        if(Objects.isNull(date)){
+            statement.setNull(index, Types.BIGINT);
+        }else{
+            statement.setLong(index, date.getTime());
+        }
+    }
+
+    private static Date getTime(ResultSet row, int index) throws SQLException {
+        long time = row.getLong(index);
+        return row.wasNull() ? null : new Date(time);
+    }
+
+    private static String encodePits(int[] pits) {
+        if(Objects.isNull(pits)){
+            return null;
+        }
+        StringJoiner joiner = new StringJoiner(",");
+        for(int pit : pits){
+            joiner.add(Integer.toString(pit));
+        }
+        return joiner.toString();
+    }
+
+    private static int[] decodePits(String pits) {
+        String[] values = pits.split(",");
+        int[] result = new int[values.length];
+        for(int i = 0; i < values.length; i++){
+            result[i] = Integer.parseInt(values[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,20 @@
+package com.damaya.kalah.datastore.journal;
+
+/**
+ * When the journal forces its writes to the disk. Every append waits at least until its event is written to
+ * the operating system, the policy only decides how much can be lost if the machine crashes.
+ */
+public enum FsyncPolicy {
+    /**
+     * Each append waits for an fsync. Appends queued together share the same fsync (group commit)
+     */
+    ALWAYS,
+    /**
+     * The journal is fsynced periodically, a crash loses at most one interval of moves
+     */
+    INTERVAL,
+    /**
+     * The operating system decides when to flush
+     */
+    NEVER
+}
@@ -0,0 +1,110 @@
+package com.damaya.kalah.datastore.journal;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.domain.MoveLog;
+import com.damaya.kalah.datastore.packed.GameKeys;
+import com.damaya.kalah.datastore.packed.GameRecordLayout;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Binary format of the journal events. Every event starts with its type and sequence number and ends with the
+ * CRC32 of the previous bytes, so a torn write is detected when the journal is read back.
+ * <pre>
+ * STATE: type(1) sequence(8) game record(48) crc(4)
+ * MOVE:  type(1) sequence(8) id(16) pitId(1) playedAt(8) crc(4)
+ * </pre>
+ * A state whose game keeps an empty move log, as new games do, is written with the {@code STARTED} type, so the
+ * game read back starts its log again and the replayed moves record its history.
+ */
+final class JournalEvents {
+
+    static final byte STATE = 1;
+    static final byte MOVE = 2;
+    static final byte STARTED = 3;
+
+    static final int STATE_SIZE = 1 + 8 + GameRecordLayout.RECORD_SIZE + 4;
+    static final int MOVE_SIZE = 1 + 8 + 16 + 1 + 8 + 4;
+    static final int MAX_SIZE = Math.max(STATE_SIZE, MOVE_SIZE);
+
+    /**
+     * Receives the events read from the journal
+     */
+    interface Handler {
+        void onState(long sequence, Game game);
+
+        void onMove(long sequence, String gameId, int pitId, long playedAt);
+    }
+
+    private JournalEvents(){
+
+    }
+
+    static byte[] state(long sequence, Game game) {
+        ByteBuffer buffer = ByteBuffer.allocate(STATE_SIZE);
+        boolean started = Objects.nonNull(game.getMoves()) && game.getMoves().size() == 0;
+        buffer.put(started ? STARTED : STATE).putLong(sequence);
+        GameRecordLayout.write(buffer, buffer.position(), game);
+        buffer.position(buffer.position() + GameRecordLayout.RECORD_SIZE);
+        return seal(buffer);
+    }
+
+    static byte[] move(long sequence, String gameId, int pitId, long playedAt) {
+        ByteBuffer buffer = ByteBuffer.allocate(MOVE_SIZE);
+        buffer.put(MOVE).putLong(sequence)
+                .putLong(GameKeys.high(gameId)).putLong(GameKeys.low(gameId))
+                .put((byte) pitId)
+                .putLong(playedAt);
+        return seal(buffer);
+    }
+
+    /**
+     * Read the event starting at the buffer position and move the position after it
+     * @param buffer source buffer
+     * @param handler event receiver
+     * @return false, leaving the position untouched, when there is no complete and valid event
+     */
+    static boolean read(ByteBuffer buffer, Handler handler) {
+        int start = buffer.position();
+        if(!buffer.hasRemaining()){
+            return false;
+        }
+        byte type = buffer.get(start);
+        int size = type == STATE || type == STARTED ? STATE_SIZE : type == MOVE ? MOVE_SIZE : -1;
+        if(size < 0 || buffer.remaining() < size || crc(buffer, start, size - 4) != buffer.getInt(start + size - 4)){
+            return false;
+        }
+        long sequence = buffer.getLong(start + 1);
+        int payload = start + 9;
+        if(type == MOVE){
+            handler.onMove(sequence,
+                    GameKeys.toId(buffer.getLong(payload), buffer.getLong(payload + 8)),
+                    buffer.get(payload + 16),
+                    buffer.getLong(payload + 17));
+        }else{
+            Game game = GameRecordLayout.read(buffer, payload);
+            if(type == STARTED && Objects.nonNull(game.getBoard())){
+                game.setMoves(MoveLog.startingAt(game.getBoard().getPits()));
+            }
+            handler.onState(sequence, game);
+        }
+        buffer.position(start + size);
+        return true;
+    }
+
+    private static byte[] seal(ByteBuffer buffer) {
+        int end = buffer.position();
+        buffer.putInt(crc(buffer, 0, end));
+        return buffer.array();
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(offset + length).position(offset);
+        crc.update(slice);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,225 @@
+package com.damaya.kalah.datastore.journal;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.interfaces.GameStorage;
+import com.damaya.kalah.core.usecases.GameUtils;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import com.damaya.kalah.datastore.concurrent.StripedLock;
+import com.damaya.kalah.datastore.packed.GameRecordLayout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Durable event-sourced storage. Games live in memory and every change is appended to a {@link MoveJournal}:
+ * moves as compact move events and any other save as a full game state. Every few events a snapshot of all the
+ * games is written, so a restart loads the latest snapshot and only replays the journal tail.
+ * <p>
+ * Snapshots keep the version and the move log of every game, and each replayed move adds one to the version and
+ * records the move. State events are game records without a version, so a game recovered from a state event counts
+ * its version again from zero; it keeps a move log only when it was saved with an empty one, as new games are.
+ * <p>
+ * A change is only published once its event is written, by the journal writer in the order of the journal, so
+ * readers never see a change that a failed write loses, and a snapshot taken at the last published sequence holds
+ * exactly the changes up to it.
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.storage.type", havingValue = "journal")
+public class JournalGameStorage implements GameStorage, Closeable {
+
+    private static final Logger LOCAL_LOGGER = LoggerFactory.getLogger(JournalGameStorage.class);
+
+    private final Map<String, Game> gameMap;
+    private final StripedLock locks;
+    private final MoveJournal journal;
+    private final JournalSnapshots snapshots;
+    private final long snapshotEvery;
+    private final AtomicLong eventsSinceSnapshot;
+    private final ExecutorService snapshotExecutor;
+    /**
+     * Held while a written change is published and while a snapshot captures the games, so a snapshot sees
+     * exactly the changes up to {@link #publishedSequence}
+     */
+    private final Lock snapshotBarrier;
+    private volatile long publishedSequence;
+
+    /**
+     * @param directory directory of the journal segments and snapshots
+     * @param fsyncPolicy when to force the journal to disk
+     * @param fsyncIntervalMillis interval between fsyncs for {@link FsyncPolicy#INTERVAL}
+     * @param segmentBytes size of each journal segment
+     * @param snapshotEvery number of events between snapshots
+     */
+    public JournalGameStorage(@Value("${kalah.storage.journal.directory:${java.io.tmpdir}/kalah-journal}") String directory,
+                              @Value("${kalah.storage.journal.fsync:ALWAYS}") FsyncPolicy fsyncPolicy,
+                              @Value("${kalah.storage.journal.fsync-interval-ms:10}") long fsyncIntervalMillis,
+                              @Value("${kalah.storage.journal.segment-bytes:67108864}") long segmentBytes,
+                              @Value("${kalah.storage.journal.snapshot-every:100000}") long snapshotEvery) {
+        if(snapshotEvery > 0 && segmentBytes > 0){
+            Path path = Paths.get(directory);
+            this.gameMap = new ConcurrentHashMap<>();
+            this.locks = StripedLock.forAvailableProcessors();
+            this.journal = new MoveJournal(path, fsyncPolicy, fsyncIntervalMillis, segmentBytes);
+            this.snapshots = new JournalSnapshots(path);
+            this.snapshotEvery = snapshotEvery;
+            this.eventsSinceSnapshot = new AtomicLong();
+            this.snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "kalah-journal-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.snapshotBarrier = new ReentrantLock();
+            recover();
+        }else{
+            throw new IllegalArgumentException("Snapshot interval and segment size should be greater than 0");
+        }
+    }
+
+    @Override
+    public Game save(Game game) {
+        GameRecordLayout.checkPackable(game);
+        //stored games are never shared nor changed, so the copy is written and published as it is
+        Game copy = GameUtils.copyOf(game);
+        awaitWritten(journal.appendState(copy, sequence -> publish(copy, sequence)));
+        return game;
+    }
+
+    @Override
+    public Game saveMove(Game game, int pitId) {
+        long playedAt = Objects.isNull(game.getFinishedAt())
+                ? System.currentTimeMillis() : game.getFinishedAt().getTime();
+        Game copy = GameUtils.copyOf(game);
+        awaitWritten(journal.appendMove(game.getId(), pitId, playedAt, sequence -> publish(copy, sequence)));
+        return game;
+    }
+
+    @Override
+    public Optional<Game> findById(String gameId) {
+        return Optional.ofNullable(gameMap.get(gameId)).map(GameUtils::copyOf);
+    }
+
+    @Override
+    public Lock getLock(String gameId) {
+        return locks.get(gameId);
+    }
+
+    /**
+     * Write a snapshot of every game and delete the journal segments it covers
+     */
+    public void snapshot() {
+        long sequence;
+        List<Game> games;
+        snapshotBarrier.lock();
+        try{
+            sequence = publishedSequence;
+            games = new ArrayList<>(gameMap.values());
+            journal.requestRotation();
+        }finally {
+            snapshotBarrier.unlock();
+        }
+        ByteBuffer content = JournalSnapshots.encode(sequence, games);
+        snapshots.write(sequence, content);
+        journal.deleteSegmentsUpTo(sequence);
+        LOCAL_LOGGER.debug("Snapshot of {} games written at sequence {}", games.size(), sequence);
+    }
+
+    @Override
+    @PreDestroy
+    public void close() throws IOException {
+        snapshotExecutor.shutdown();
+        try{
+            snapshotExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+
+    /**
+     * Publish a change, called by the journal writer in the order of the journal once its event is written
+     */
+    private void publish(Game copy, long sequence) {
+        snapshotBarrier.lock();
+        try{
+            gameMap.put(copy.getId(), copy);
+            publishedSequence = sequence;
+        }finally {
+            snapshotBarrier.unlock();
+        }
+    }
+
+    /**
+     * Wait for the event of a save to be written and published, a failed write publishes nothing
+     */
+    private void awaitWritten(CompletableFuture<Void> written) {
+        if(eventsSinceSnapshot.incrementAndGet() % snapshotEvery == 0){
+            snapshotExecutor.execute(this::snapshot);
+        }
+        try{
+            written.join();
+        }catch (CompletionException e){
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException
+                    ? new UncheckedIOException("Journal write failed", (IOException) cause)
+                    : new IllegalStateException("Journal write failed", cause);
+        }
+    }
+
+    private void recover() {
+        long snapshotSequence = snapshots.loadLatest(game -> gameMap.put(game.getId(), game));
+        long[] replayed = {0};
+        long lastSequence = journal.replay(new JournalEvents.Handler() {
+            @Override
+            public void onState(long sequence, Game game) {
+                if(sequence > snapshotSequence){
+                    gameMap.put(game.getId(), game);
+                    replayed[0]++;
+                }
+            }
+
+            @Override
+            public void onMove(long sequence, String gameId, int pitId, long playedAt) {
+                if(sequence > snapshotSequence){
+                    Game game = gameMap.get(gameId);
+                    if(Objects.isNull(game)){
+                        LOCAL_LOGGER.warn("Move {} of unknown game {} is skipped", sequence, gameId);
+                    }else{
+                        GameVariants.rules(game.getVariant()).playMove(game, pitId, new Date(playedAt));
+                        GameUtils.recordMove(game, pitId);
+                        game.setVersion(game.getVersion() + 1);
+                        replayed[0]++;
+                    }
+                }
+            }
+        });
+        publishedSequence = Math.max(snapshotSequence, lastSequence);
+        journal.start(publishedSequence);
+        LOCAL_LOGGER.info("Journal recovered {} games, snapshot at sequence {} and {} replayed events",
+                gameMap.size(), snapshotSequence, replayed[0]);
+    }
+}
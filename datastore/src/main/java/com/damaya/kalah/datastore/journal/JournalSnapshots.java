@@ -0,0 +1,207 @@
+package com.damaya.kalah.datastore.journal;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.domain.MoveLog;
+import com.damaya.kalah.datastore.packed.GameRecordLayout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshots of every game, written next to the journal so a restart only replays the events appended after the
+ * latest one.
+ * <pre>
+ * magic(4) sequence(8) count(4) count * (game record(48) version(8) log length(4) move log(length)) crc(4)
+ * </pre>
+ * The log length is -1 for games without a move log. Snapshots written before the move logs have no log after each
+ * version, and those written before the games had versions have neither: their games are read without history and
+ * at version zero.
+ */
+class JournalSnapshots {
+
+    private static final Logger LOCAL_LOGGER = LoggerFactory.getLogger(JournalSnapshots.class);
+
+    private static final int MAGIC = 0x4B534E4C;
+    private static final int VERSIONED_MAGIC = 0x4B534E56;
+    private static final int UNVERSIONED_MAGIC = 0x4B534E50;
+    private static final int VERSIONED_ENTRY_SIZE = GameRecordLayout.RECORD_SIZE + 8;
+    private static final int NO_LOG = -1;
+    private static final int HEADER_SIZE = 4 + 8 + 4;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    private final Path directory;
+
+    JournalSnapshots(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Encode the games in memory, it must be done while no game changes
+     * @param sequence last journal sequence reflected by the games
+     * @param games games
+     * @return snapshot content
+     */
+    static ByteBuffer encode(long sequence, Collection<Game> games) {
+        List<byte[]> logs = new ArrayList<>(games.size());
+        long size = HEADER_SIZE + 4;
+        for(Game game : games){
+            byte[] log = Objects.isNull(game.getMoves()) ? null : game.getMoves().toBytes();
+            logs.add(log);
+            size += VERSIONED_ENTRY_SIZE + 4 + (Objects.isNull(log) ? 0 : log.length);
+        }
+        if(size > Integer.MAX_VALUE){
+            throw new IllegalStateException("Snapshot of " + games.size() + " games does not fit in a buffer");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        buffer.putInt(MAGIC).putLong(sequence).putInt(games.size());
+        Iterator<byte[]> gameLogs = logs.iterator();
+        for(Game game : games){
+            GameRecordLayout.write(buffer, buffer.position(), game);
+            buffer.position(buffer.position() + GameRecordLayout.RECORD_SIZE);
+            buffer.putLong(game.getVersion());
+            byte[] log = gameLogs.next();
+            if(Objects.isNull(log)){
+                buffer.putInt(NO_LOG);
+            }else{
+                buffer.putInt(log.length).put(log);
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Write the snapshot atomically and delete the older ones
+     * @param sequence last journal sequence reflected by the snapshot
+     * @param content encoded snapshot
+     */
+    void write(long sequence, ByteBuffer content) {
+        Path target = snapshotPath(sequence);
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        try{
+            try(FileChannel file = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)){
+                while(content.hasRemaining()){
+                    file.write(content);
+                }
+                file.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            for(Path snapshot : listSnapshots()){
+                if(sequenceOf(snapshot) < sequence){
+                    Files.deleteIfExists(snapshot);
+                }
+            }
+        }catch (IOException e){
+            throw new UncheckedIOException("Snapshot could not be written", e);
+        }
+    }
+
+    /**
+     * Load the most recent valid snapshot
+     * @param consumer receives every game of the snapshot
+     * @return sequence of the loaded snapshot, zero when there is none
+     */
+    long loadLatest(Consumer<Game> consumer) {
+        List<Path> snapshots = listSnapshots();
+        for(int i = snapshots.size() - 1; i >= 0; i--){
+            Path snapshot = snapshots.get(i);
+            try{
+                ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+                if(isValid(buffer)){
+                    int magic = buffer.getInt(0);
+                    long sequence = buffer.getLong(4);
+                    int count = buffer.getInt(12);
+                    int offset = HEADER_SIZE;
+                    for(int j = 0; j < count; j++){
+                        Game game = GameRecordLayout.read(buffer, offset);
+                        offset += GameRecordLayout.RECORD_SIZE;
+                        if(magic != UNVERSIONED_MAGIC){
+                            game.setVersion(buffer.getLong(offset));
+                            offset += 8;
+                        }
+                        if(magic == MAGIC){
+                            int length = buffer.getInt(offset);
+                            offset += 4;
+                            if(length != NO_LOG){
+                                game.setMoves(MoveLog.fromBytes(Arrays.copyOfRange(buffer.array(), offset,
+                                        offset + length)));
+                                offset += length;
+                            }
+                        }
+                        consumer.accept(game);
+                    }
+                    return sequence;
+                }
+                LOCAL_LOGGER.warn("Snapshot {} is corrupted, trying an older one", snapshot);
+            }catch (IOException e){
+                throw new UncheckedIOException("Snapshot could not be read", e);
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isValid(ByteBuffer buffer) {
+        if(buffer.capacity() < HEADER_SIZE + 4){
+            return false;
+        }
+        int magic = buffer.getInt(0);
+        int size = buffer.capacity() - 4;
+        if(magic == VERSIONED_MAGIC || magic == UNVERSIONED_MAGIC){
+            int entrySize = magic == VERSIONED_MAGIC ? VERSIONED_ENTRY_SIZE : GameRecordLayout.RECORD_SIZE;
+            if(HEADER_SIZE + (long) buffer.getInt(12) * entrySize != size){
+                return false;
+            }
+        }else if(magic != MAGIC){
+            return false;
+        }
+        //entries with a move log have their own length, the checksum covers them
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, size);
+        return (int) crc.getValue() == buffer.getInt(size);
+    }
+
+    private List<Path> listSnapshots() {
+        List<Path> snapshots = new ArrayList<>();
+        if(Files.isDirectory(directory)){
+            try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                    SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)){
+                stream.forEach(snapshots::add);
+            }catch (IOException e){
+                throw new UncheckedIOException("Snapshot directory could not be listed", e);
+            }
+        }
+        snapshots.sort((a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)));
+        return snapshots;
+    }
+
+    private Path snapshotPath(long sequence) {
+        return directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+    }
+
+    private static long sequenceOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+}
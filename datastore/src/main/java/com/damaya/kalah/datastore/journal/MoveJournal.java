@@ -0,0 +1,327 @@
+package com.damaya.kalah.datastore.journal;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+
+/**
+ * Append-only journal of events split in segment files. A single writer thread drains the queued events, writes
+ * them with one call and, depending on the {@link FsyncPolicy}, forces them to disk with a single fsync for the
+ * whole batch (group commit). The writer numbers the events in the order it writes them and, once a batch is
+ * written, calls back every event in that order before completing it.
+ */
+class MoveJournal implements Closeable {
+
+    private static final Logger LOCAL_LOGGER = LoggerFactory.getLogger(MoveJournal.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int MAX_BATCH = 4096;
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+    private final long segmentBytes;
+
+    private final AtomicLong lastSequence;
+    private final BlockingQueue<PendingEvent> queue;
+    private final Map<Long, Long> closedSegments;
+    private final ByteBuffer batchBuffer;
+
+    private Thread writer;
+    private volatile boolean running;
+    private volatile boolean rotationRequested;
+
+    private FileChannel channel;
+    private long segmentIndex;
+    private long segmentSize;
+    private long segmentMaxSequence;
+    private long lastForce;
+    private boolean dirty;
+
+    private static final class PendingEvent {
+        private final LongFunction<byte[]> encoder;
+        private final LongConsumer onWritten;
+        private final CompletableFuture<Void> written;
+        private long sequence;
+
+        private PendingEvent(LongFunction<byte[]> encoder, LongConsumer onWritten) {
+            this.encoder = encoder;
+            this.onWritten = onWritten;
+            this.written = new CompletableFuture<>();
+        }
+    }
+
+    /**
+     * @param directory directory of the segment files
+     * @param fsyncPolicy when to force the writes to disk
+     * @param fsyncIntervalMillis interval between fsyncs for {@link FsyncPolicy#INTERVAL}
+     * @param segmentBytes size that makes the journal roll to a new segment
+     */
+    MoveJournal(Path directory, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis, long segmentBytes) {
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.segmentBytes = segmentBytes;
+        this.lastSequence = new AtomicLong();
+        this.queue = new LinkedBlockingQueue<>();
+        this.closedSegments = new ConcurrentSkipListMap<>();
+        this.batchBuffer = ByteBuffer.allocateDirect(MAX_BATCH * JournalEvents.MAX_SIZE);
+    }
+
+    /**
+     * Read every segment in order. A torn event at the end of the last segment is cut off
+     * @param handler event receiver
+     * @return sequence of the last valid event, or zero for an empty journal
+     */
+    long replay(JournalEvents.Handler handler) {
+        List<Path> segments = listSegments();
+        long maxSequence = 0;
+        for(int i = 0; i < segments.size(); i++){
+            Path segment = segments.get(i);
+            long[] segmentMax = {0};
+            JournalEvents.Handler tracking = new JournalEvents.Handler() {
+                @Override
+                public void onState(long sequence, Game game) {
+                    segmentMax[0] = Math.max(segmentMax[0], sequence);
+                    handler.onState(sequence, game);
+                }
+
+                @Override
+                public void onMove(long sequence, String gameId, int pitId, long playedAt) {
+                    segmentMax[0] = Math.max(segmentMax[0], sequence);
+                    handler.onMove(sequence, gameId, pitId, playedAt);
+                }
+            };
+            readSegment(segment, tracking, i == segments.size() - 1);
+            closedSegments.put(indexOf(segment), segmentMax[0]);
+            segmentIndex = Math.max(segmentIndex, indexOf(segment));
+            maxSequence = Math.max(maxSequence, segmentMax[0]);
+        }
+        return maxSequence;
+    }
+
+    /**
+     * Open a new segment and start the writer thread
+     * @param sequence sequence of the last event already in the journal or in a snapshot
+     */
+    void start(long sequence) {
+        lastSequence.set(sequence);
+        openNextSegment();
+        running = true;
+        writer = new Thread(this::writeLoop, "kalah-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * @param game game to write, it must not change until the event is written
+     * @param onWritten called by the writer with the sequence of the event once it is written
+     * @return completed once the event is written and called back
+     */
+    CompletableFuture<Void> appendState(Game game, LongConsumer onWritten) {
+        return enqueue(new PendingEvent(sequence -> JournalEvents.state(sequence, game), onWritten));
+    }
+
+    /**
+     * @param onWritten called by the writer with the sequence of the event once it is written
+     * @return completed once the event is written and called back
+     */
+    CompletableFuture<Void> appendMove(String gameId, int pitId, long playedAt, LongConsumer onWritten) {
+        return enqueue(new PendingEvent(sequence -> JournalEvents.move(sequence, gameId, pitId, playedAt),
+                onWritten));
+    }
+
+    /**
+     * Ask the writer to move to a new segment, so the current one can be deleted after the next snapshot
+     */
+    void requestRotation() {
+        rotationRequested = true;
+    }
+
+    /**
+     * Delete the closed segments whose events are all covered by a snapshot
+     * @param sequence last sequence included in the snapshot
+     */
+    void deleteSegmentsUpTo(long sequence) {
+        for(Map.Entry<Long, Long> segment : closedSegments.entrySet()){
+            if(segment.getValue() <= sequence){
+                try{
+                    Files.deleteIfExists(segmentPath(segment.getKey()));
+                    closedSegments.remove(segment.getKey());
+                }catch (IOException e){
+                    LOCAL_LOGGER.warn("Journal segment {} could not be deleted", segment.getKey(), e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        //the writer is not interrupted, an interrupt during a write would close the channel
+        running = false;
+        if(writer != null){
+            try{
+                writer.join();
+            }catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+        if(channel != null && channel.isOpen()){
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(PendingEvent event) {
+        if(!running){
+            throw new IllegalStateException("Journal is not running");
+        }
+        queue.add(event);
+        return event.written;
+    }
+
+    private void writeLoop() {
+        List<PendingEvent> batch = new ArrayList<>(MAX_BATCH);
+        while(running || !queue.isEmpty()){
+            try{
+                PendingEvent first = queue.poll(fsyncPolicy == FsyncPolicy.INTERVAL
+                        ? fsyncIntervalMillis : IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if(first != null){
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    writeBatch(batch);
+                }
+                if(fsyncPolicy == FsyncPolicy.INTERVAL && dirty
+                        && System.currentTimeMillis() - lastForce >= fsyncIntervalMillis){
+                    force();
+                }
+                if(segmentSize >= segmentBytes || (rotationRequested && segmentSize > 0)){
+                    rotationRequested = false;
+                    closedSegments.put(segmentIndex, segmentMaxSequence);
+                    channel.force(false);
+                    channel.close();
+                    openNextSegment();
+                }
+            }catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                running = false;
+            }catch (IOException | RuntimeException e){
+                LOCAL_LOGGER.error("Journal write failed", e);
+                batch.forEach(event -> event.written.completeExceptionally(e));
+            }finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingEvent> batch) throws IOException {
+        batchBuffer.clear();
+        for(PendingEvent event : batch){
+            event.sequence = lastSequence.incrementAndGet();
+            batchBuffer.put(event.encoder.apply(event.sequence));
+            segmentMaxSequence = Math.max(segmentMaxSequence, event.sequence);
+        }
+        batchBuffer.flip();
+        while(batchBuffer.hasRemaining()){
+            segmentSize += channel.write(batchBuffer);
+        }
+        dirty = true;
+        if(fsyncPolicy == FsyncPolicy.ALWAYS){
+            force();
+        }
+        for(PendingEvent event : batch){
+            event.onWritten.accept(event.sequence);
+            event.written.complete(null);
+        }
+    }
+
+    private void force() throws IOException {
+        channel.force(false);
+        dirty = false;
+        lastForce = System.currentTimeMillis();
+    }
+
+    private void openNextSegment() {
+        try{
+            Files.createDirectories(directory);
+            segmentIndex++;
+            channel = FileChannel.open(segmentPath(segmentIndex),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            segmentSize = 0;
+            segmentMaxSequence = 0;
+            lastForce = System.currentTimeMillis();
+        }catch (IOException e){
+            throw new UncheckedIOException("Journal segment could not be created", e);
+        }
+    }
+
+    private void readSegment(Path segment, JournalEvents.Handler handler, boolean isLast) {
+        try(FileChannel file = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)){
+            ByteBuffer buffer = ByteBuffer.allocate((int) file.size());
+            while(buffer.hasRemaining() && file.read(buffer) >= 0){
+                //segments are small enough to be read at once
+            }
+            buffer.flip();
+            while(JournalEvents.read(buffer, handler)){
+                //handler already received the event
+            }
+            if(buffer.hasRemaining()){
+                if(isLast){
+                    LOCAL_LOGGER.warn("Torn event at the end of {}, {} bytes are discarded", segment, buffer.remaining());
+                    file.truncate(buffer.position());
+                }else{
+                    LOCAL_LOGGER.error("Corrupted event in {} at {}, the rest of the segment is skipped",
+                            segment, buffer.position());
+                }
+            }
+        }catch (IOException e){
+            throw new UncheckedIOException("Journal segment could not be read", e);
+        }
+    }
+
+    private List<Path> listSegments() {
+        List<Path> segments = new ArrayList<>();
+        if(Files.isDirectory(directory)){
+            try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                    SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)){
+                stream.forEach(segments::add);
+            }catch (IOException e){
+                throw new UncheckedIOException("Journal directory could not be listed", e);
+            }
+        }
+        segments.sort((a, b) -> Long.compare(indexOf(a), indexOf(b)));
+        return segments;
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private static long indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,338 @@
+package com.damaya.kalah.datastore.mapped;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.interfaces.GameStorage;
+import com.damaya.kalah.datastore.concurrent.StripedLock;
+import com.damaya.kalah.datastore.concurrent.StripedSeqLock;
+import com.damaya.kalah.datastore.packed.GameKeys;
+import com.damaya.kalah.datastore.packed.GameRecordLayout;
+import com.damaya.kalah.datastore.packed.GameSlotIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent storage whose games live in fixed-size slots of a memory-mapped file. Saving a game writes its
+ * {@link GameRecordLayout} record straight into the mapping and the operating system page cache persists it.
+ * <p>
+ * Each slot has two copies of the record, stamped with a sequence number and a CRC32. A save always writes the
+ * older copy, so a write torn by a crash never damages the last complete record. On startup every slot is
+ * checked and the newest valid copy wins; slots without any valid copy are reported as torn and reused.
+ * Reads take no lock: a {@link StripedSeqLock} detects the saves that overlap a read, which is then retried.
+ * <pre>
+ * file:  header(64) slot*
+ * slot:  copy copy
+ * copy:  game record(48) version(8) sequence(4) crc(4)
+ * </pre>
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.storage.type", havingValue = "mapped")
+public class MappedGameStorage implements GameStorage, Closeable {
+
+    private static final Logger LOCAL_LOGGER = LoggerFactory.getLogger(MappedGameStorage.class);
+
+    private static final int MAGIC = 0x4B4D4150;
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int VERSION_OFFSET = GameRecordLayout.RECORD_SIZE;
+    private static final int SEQUENCE_OFFSET = VERSION_OFFSET + 8;
+    private static final int CRC_OFFSET = SEQUENCE_OFFSET + 4;
+    private static final int COPY_SIZE = CRC_OFFSET + 4;
+    private static final int SLOT_SIZE = 2 * COPY_SIZE;
+
+    private final FileChannel channel;
+    private final int slotsPerRegion;
+    private final List<MappedByteBuffer> regions;
+    private final GameSlotIndex index;
+    private final StampedLock indexLock;
+    private final StripedLock locks;
+    private final StripedSeqLock sequences;
+    private final Deque<Integer> freeSlots;
+    private int nextSlot;
+    private int tornRecords;
+
+    /**
+     * @param file path of the games file, it is created when it does not exist
+     * @param slotsPerRegion slots in each mapped region of the file
+     */
+    public MappedGameStorage(@Value("${kalah.storage.mapped.file:${java.io.tmpdir}/kalah-games.dat}") String file,
+                             @Value("${kalah.storage.mapped.slots-per-region:1048576}") int slotsPerRegion) {
+        if(slotsPerRegion > 0 && slotsPerRegion <= Integer.MAX_VALUE / SLOT_SIZE){
+            this.slotsPerRegion = slotsPerRegion;
+            this.regions = new CopyOnWriteArrayList<>();
+            this.indexLock = new StampedLock();
+            this.locks = StripedLock.forAvailableProcessors();
+            this.sequences = StripedSeqLock.forAvailableProcessors();
+            this.freeSlots = new ArrayDeque<>();
+            this.index = new GameSlotIndex(new GameSlotIndex.SlotKeys() {
+                @Override
+                public long high(int slot) {
+                    return GameRecordLayout.high(regionOf(slot), activeCopy(slot));
+                }
+
+                @Override
+                public long low(int slot) {
+                    return GameRecordLayout.low(regionOf(slot), activeCopy(slot));
+                }
+            }, slotsPerRegion);
+            this.channel = open(Paths.get(file));
+            recover();
+        }else{
+            throw new IllegalArgumentException("Slots per region should be between 1 and " + Integer.MAX_VALUE / SLOT_SIZE);
+        }
+    }
+
+    @Override
+    public Game save(Game game) {
+        GameRecordLayout.checkPackable(game);
+        long high = GameKeys.high(game.getId());
+        long low = GameKeys.low(game.getId());
+        Lock lock = getLock(game.getId());
+        lock.lock();
+        long stamp = sequences.beginWrite(game.getId());
+        try{
+            int slot = findSlot(high, low);
+            if(slot < 0){
+                allocateSlot(game);
+            }else{
+                write(slot, game);
+            }
+            return game;
+        }finally {
+            sequences.endWrite(game.getId(), stamp);
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Game> findById(String gameId) {
+        Optional<Game> result = Optional.empty();
+        if(GameKeys.isValid(gameId)){
+            int slot = findSlot(GameKeys.high(gameId), GameKeys.low(gameId));
+            if(slot >= 0){
+                //the active copy is read without the game lock and read again if a save overlapped the read
+                result = Optional.of(sequences.read(gameId, () -> {
+                    int copy = activeCopy(slot);
+                    Game game = GameRecordLayout.read(regionOf(slot), copy);
+                    game.setVersion(regionOf(slot).getLong(copy + VERSION_OFFSET));
+                    return game;
+                }));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Lock getLock(String gameId) {
+        return locks.get(gameId);
+    }
+
+    /**
+     * @return number of stored games
+     */
+    public int size() {
+        long stamp = indexLock.readLock();
+        try{
+            return index.size();
+        }finally {
+            indexLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return slots found without any valid copy when the file was opened
+     */
+    public int getTornRecords() {
+        return tornRecords;
+    }
+
+    /**
+     * Force the mapped regions to disk and close the file
+     */
+    @Override
+    @PreDestroy
+    public void close() throws IOException {
+        long stamp = indexLock.writeLock();
+        try{
+            regions.forEach(MappedByteBuffer::force);
+            channel.close();
+        }finally {
+            indexLock.unlockWrite(stamp);
+        }
+    }
+
+    private int findSlot(long high, long low) {
+        return StripedSeqLock.read(indexLock, () -> index.find(high, low));
+    }
+
+    private void allocateSlot(Game game) {
+        long stamp = indexLock.writeLock();
+        try{
+            int slot = freeSlots.isEmpty() ? nextSlot++ : freeSlots.pop();
+            ensureMapped(slot);
+            write(slot, game);
+            index.add(GameKeys.high(game.getId()), GameKeys.low(game.getId()), slot);
+        }finally {
+            indexLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Write the game over the older copy of the slot, then stamp it so it becomes the active one
+     */
+    private void write(int slot, Game game) {
+        MappedByteBuffer region = regionOf(slot);
+        int active = activeCopy(slot);
+        int target = active == slotOffset(slot) ? active + COPY_SIZE : slotOffset(slot);
+        GameRecordLayout.write(region, target, game);
+        region.putLong(target + VERSION_OFFSET, game.getVersion());
+        region.putInt(target + SEQUENCE_OFFSET, region.getInt(active + SEQUENCE_OFFSET) + 1);
+        region.putInt(target + CRC_OFFSET, crc(region, target));
+    }
+
+    /**
+     * @return offset in the region of the copy with the newest sequence
+     */
+    private int activeCopy(int slot) {
+        MappedByteBuffer region = regionOf(slot);
+        int first = slotOffset(slot);
+        int second = first + COPY_SIZE;
+        //wrap-around aware comparison
+        return region.getInt(second + SEQUENCE_OFFSET) - region.getInt(first + SEQUENCE_OFFSET) > 0 ? second : first;
+    }
+
+    private void recover() {
+        try{
+            long slots = (channel.size() - HEADER_SIZE) / SLOT_SIZE;
+            int recovered = 0;
+            for(int slot = 0; slot < slots; slot++){
+                ensureMapped(slot);
+                MappedByteBuffer region = regionOf(slot);
+                int first = slotOffset(slot);
+                int second = first + COPY_SIZE;
+                boolean firstValid = isValid(region, first);
+                boolean secondValid = isValid(region, second);
+                if(firstValid || secondValid){
+                    int valid = !secondValid || (firstValid
+                            && region.getInt(first + SEQUENCE_OFFSET) - region.getInt(second + SEQUENCE_OFFSET) > 0)
+                            ? first : second;
+                    int invalid = valid == first ? second : first;
+                    //the other copy must never look newer than the valid one
+                    region.putInt(invalid + SEQUENCE_OFFSET, region.getInt(valid + SEQUENCE_OFFSET) - 1);
+                    index.add(GameRecordLayout.high(region, valid), GameRecordLayout.low(region, valid), slot);
+                    recovered++;
+                    nextSlot = slot + 1;
+                }else if(!isEmpty(region, first)){
+                    tornRecords++;
+                    clear(region, first);
+                    nextSlot = slot + 1;
+                }
+            }
+            for(int slot = 0; slot < nextSlot; slot++){
+                if(isEmpty(regionOf(slot), slotOffset(slot))){
+                    freeSlots.push(slot);
+                }
+            }
+            if(tornRecords > 0){
+                LOCAL_LOGGER.warn("{} torn game records were found and discarded", tornRecords);
+            }
+            LOCAL_LOGGER.info("Mapped storage recovered {} games", recovered);
+        }catch (IOException e){
+            throw new UncheckedIOException("Games file could not be read", e);
+        }
+    }
+
+    private static boolean isValid(ByteBuffer region, int copy) {
+        return GameRecordLayout.isUsed(region, copy) && region.getInt(copy + CRC_OFFSET) == crc(region, copy);
+    }
+
+    private static boolean isEmpty(ByteBuffer region, int slotOffset) {
+        for(int i = 0; i < SLOT_SIZE; i += Long.BYTES){
+            if(region.getLong(slotOffset + i) != 0){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void clear(ByteBuffer region, int slotOffset) {
+        for(int i = 0; i < SLOT_SIZE; i += Long.BYTES){
+            region.putLong(slotOffset + i, 0);
+        }
+    }
+
+    private static int crc(ByteBuffer region, int copy) {
+        CRC32 crc = new CRC32();
+        ByteBuffer record = region.duplicate();
+        record.limit(copy + CRC_OFFSET).position(copy);
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+
+    private void ensureMapped(int slot) {
+        int region = slot / slotsPerRegion;
+        try{
+            while(regions.size() <= region){
+                long position = HEADER_SIZE + (long) regions.size() * slotsPerRegion * SLOT_SIZE;
+                regions.add(channel.map(FileChannel.MapMode.READ_WRITE, position, (long) slotsPerRegion * SLOT_SIZE));
+            }
+        }catch (IOException e){
+            throw new UncheckedIOException("Games file could not be mapped", e);
+        }
+    }
+
+    private MappedByteBuffer regionOf(int slot) {
+        return regions.get(slot / slotsPerRegion);
+    }
+
+    private int slotOffset(int slot) {
+        return (slot % slotsPerRegion) * SLOT_SIZE;
+    }
+
+    private static FileChannel open(Path file) {
+        try{
+            if(file.getParent() != null){
+                Files.createDirectories(file.getParent());
+            }
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if(channel.size() == 0){
+                header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(COPY_SIZE).flip();
+                channel.write(header, 0);
+                channel.force(true);
+            }else{
+                channel.read(header, 0);
+                if(header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION || header.getInt(8) != COPY_SIZE){
+                    channel.close();
+                    throw new IllegalStateException("File " + file + " is not a games file of this version");
+                }
+            }
+            return channel;
+        }catch (IOException e){
+            throw new UncheckedIOException("Games file could not be opened", e);
+        }
+    }
+}
@@ -2,19 +2,25 @@ package com.damaya.kalah.datastore.memory;
 
 import com.damaya.kalah.core.entities.domain.Game;
 import com.damaya.kalah.core.interfaces.GameStorage;
+import com.damaya.kalah.datastore.concurrent.StripedLock;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
 
 @Component
+@ConditionalOnProperty(name = "kalah.storage.type", havingValue = "memory", matchIfMissing = true)
 public class InMemoryGameStorage implements GameStorage {
 
-    private Map<String, Game> gameMap;
+    private final Map<String, Game> gameMap;
+    private final StripedLock locks;
 
     public InMemoryGameStorage() {
-        this.gameMap = new HashMap<>();
+        this.gameMap = new ConcurrentHashMap<>();
+        this.locks = StripedLock.forAvailableProcessors();
     }
 
     @Override
@@ -23,8 +29,26 @@ public class InMemoryGameStorage implements GameStorage {
         return game;
     }
 
+    /**
+     * Replaces the game in a single atomic map update, without taking the game lock
+     */
+    @Override
+    public boolean saveIfVersion(Game game, int pitId, long expectedVersion) {
+        boolean[] saved = {false};
+        gameMap.computeIfPresent(game.getId(), (gameId, stored) -> {
+            saved[0] = stored.getVersion() == expectedVersion;
+            return saved[0] ? game : stored;
+        });
+        return saved[0];
+    }
+
     @Override
     public Optional<Game> findById(String gameId) {
         return Optional.ofNullable(gameMap.get(gameId));
     }
+
+    @Override
+    public Lock getLock(String gameId) {
+        return locks.get(gameId);
+    }
 }
@@ -0,0 +1,174 @@
+package com.damaya.kalah.datastore.offheap;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.interfaces.GameStorage;
+import com.damaya.kalah.datastore.concurrent.StripedLock;
+import com.damaya.kalah.datastore.concurrent.StripedSeqLock;
+import com.damaya.kalah.datastore.packed.GameKeys;
+import com.damaya.kalah.datastore.packed.GameRecordLayout;
+import com.damaya.kalah.datastore.packed.GameSlotIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Stores every game as a fixed-size {@link GameRecordLayout} record followed by the game version inside direct
+ * buffers allocated outside the heap. The heap only keeps the primitive index, so millions of games add almost
+ * nothing to the GC work, and {@link Game} objects are only created when a game is read. Reads take no lock: a
+ * {@link StripedSeqLock} detects the saves that overlap a copy of the record, which is then copied again.
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.storage.type", havingValue = "offheap")
+public class OffHeapGameStorage implements GameStorage {
+
+    private static final int VERSION_OFFSET = GameRecordLayout.RECORD_SIZE;
+    private static final int SLOT_SIZE = VERSION_OFFSET + Long.BYTES;
+
+    private final int slotsPerSlab;
+    private final List<ByteBuffer> slabs;
+    private final GameSlotIndex index;
+    private final StampedLock indexLock;
+    private final StripedLock locks;
+    private final StripedSeqLock sequences;
+    private int usedSlots;
+
+    /**
+     * @param slotsPerSlab games stored in each direct buffer
+     * @param expectedGames expected number of live games, used to size the index
+     */
+    public OffHeapGameStorage(@Value("${kalah.storage.offheap.slots-per-slab:1048576}") int slotsPerSlab,
+                              @Value("${kalah.storage.offheap.expected-games:1048576}") int expectedGames) {
+        if(slotsPerSlab > 0 && slotsPerSlab <= Integer.MAX_VALUE / SLOT_SIZE){
+            this.slotsPerSlab = slotsPerSlab;
+            this.slabs = new CopyOnWriteArrayList<>();
+            this.index = new GameSlotIndex(new GameSlotIndex.SlotKeys() {
+                @Override
+                public long high(int slot) {
+                    return GameRecordLayout.high(slabOf(slot), offsetOf(slot));
+                }
+
+                @Override
+                public long low(int slot) {
+                    return GameRecordLayout.low(slabOf(slot), offsetOf(slot));
+                }
+            }, expectedGames);
+            this.indexLock = new StampedLock();
+            this.locks = StripedLock.forAvailableProcessors();
+            this.sequences = StripedSeqLock.forAvailableProcessors();
+        }else{
+            throw new IllegalArgumentException("Slots per slab should be between 1 and "
+                    + Integer.MAX_VALUE / SLOT_SIZE);
+        }
+    }
+
+    @Override
+    public Game save(Game game) {
+        GameRecordLayout.checkPackable(game);
+        long high = GameKeys.high(game.getId());
+        long low = GameKeys.low(game.getId());
+        Lock lock = getLock(game.getId());
+        lock.lock();
+        long stamp = sequences.beginWrite(game.getId());
+        try{
+            int slot = findSlot(high, low);
+            if(slot < 0){
+                slot = allocateSlot(game);
+            }else{
+                write(slot, game);
+            }
+            return game;
+        }finally {
+            sequences.endWrite(game.getId(), stamp);
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Game> findById(String gameId) {
+        Optional<Game> result = Optional.empty();
+        if(GameKeys.isValid(gameId)){
+            int slot = findSlot(GameKeys.high(gameId), GameKeys.low(gameId));
+            if(slot >= 0){
+                //the record is copied without the game lock and copied again if a save overlapped the copy
+                result = Optional.of(sequences.read(gameId, () -> {
+                    Game game = GameRecordLayout.read(slabOf(slot), offsetOf(slot));
+                    game.setVersion(slabOf(slot).getLong(offsetOf(slot) + VERSION_OFFSET));
+                    return game;
+                }));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Lock getLock(String gameId) {
+        return locks.get(gameId);
+    }
+
+    /**
+     * @return number of stored games
+     */
+    public int size() {
+        long stamp = indexLock.readLock();
+        try{
+            return usedSlots;
+        }finally {
+            indexLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return bytes reserved outside the heap for the records
+     */
+    public long offHeapBytes() {
+        long stamp = indexLock.readLock();
+        try{
+            return (long) slabs.size() * slotsPerSlab * SLOT_SIZE;
+        }finally {
+            indexLock.unlockRead(stamp);
+        }
+    }
+
+    private int findSlot(long high, long low) {
+        return StripedSeqLock.read(indexLock, () -> index.find(high, low));
+    }
+
+    private int allocateSlot(Game game) {
+        long stamp = indexLock.writeLock();
+        try{
+            int slot = usedSlots;
+            if(slot == Integer.MAX_VALUE){
+                throw new IllegalStateException("Off-heap storage is full");
+            }
+            if(slot / slotsPerSlab == slabs.size()){
+                slabs.add(ByteBuffer.allocateDirect(slotsPerSlab * SLOT_SIZE));
+            }
+            write(slot, game);
+            index.add(GameKeys.high(game.getId()), GameKeys.low(game.getId()), slot);
+            usedSlots++;
+            return slot;
+        }finally {
+            indexLock.unlockWrite(stamp);
+        }
+    }
+
+    private void write(int slot, Game game) {
+        GameRecordLayout.write(slabOf(slot), offsetOf(slot), game);
+        slabOf(slot).putLong(offsetOf(slot) + VERSION_OFFSET, game.getVersion());
+    }
+
+    private ByteBuffer slabOf(int slot) {
+        return slabs.get(slot / slotsPerSlab);
+    }
+
+    private int offsetOf(int slot) {
+        return (slot % slotsPerSlab) * SLOT_SIZE;
+    }
+}
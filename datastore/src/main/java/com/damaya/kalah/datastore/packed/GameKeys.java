@@ -0,0 +1,93 @@
+package com.damaya.kalah.datastore.packed;
+
+import com.damaya.kalah.core.usecases.CompactGameIds;
+
+import java.util.UUID;
+
+/**
+ * Converts game ids from and to their primitive 128-bit representation. Ids must be {@link CompactGameIds} or
+ * canonical lowercase UUIDs, which is what {@link UUID#toString()} produces, so the conversion round trips: the
+ * variant bits of the value tell which form the id had.
+ */
+public final class GameKeys {
+
+    private static final int ID_LENGTH = 36;
+
+    private GameKeys(){
+
+    }
+
+    /**
+     * Check if the id can be keyed by its primitive value
+     * @param gameId game id
+     * @return true if the id is a compact id or a canonical lowercase UUID
+     */
+    public static boolean isValid(String gameId) {
+        if(CompactGameIds.isValid(gameId)){
+            return true;
+        }
+        if(gameId == null || gameId.length() != ID_LENGTH){
+            return false;
+        }
+        for(int i = 0; i < ID_LENGTH; i++){
+            char c = gameId.charAt(i);
+            boolean valid = isDash(i) ? c == '-' : hexValue(c) >= 0;
+            if(!valid){
+                return false;
+            }
+        }
+        //UUIDs with the compact variant would be rebuilt as compact ids
+        return !CompactGameIds.hasVariant(low(gameId));
+    }
+
+    /**
+     * @param gameId valid game id
+     * @return most significant 64 bits of the id
+     */
+    public static long high(String gameId) {
+        return gameId.length() == CompactGameIds.ID_LENGTH ? CompactGameIds.high(gameId) : parseHex(gameId, 0, 18);
+    }
+
+    /**
+     * @param gameId valid game id
+     * @return least significant 64 bits of the id
+     */
+    public static long low(String gameId) {
+        return gameId.length() == CompactGameIds.ID_LENGTH
+                ? CompactGameIds.low(gameId) : parseHex(gameId, 19, ID_LENGTH);
+    }
+
+    /**
+     * Rebuild the game id from its primitive value
+     * @param high most significant bits
+     * @param low least significant bits
+     * @return game id
+     */
+    public static String toId(long high, long low) {
+        return CompactGameIds.hasVariant(low) ? CompactGameIds.encode(high, low) : new UUID(high, low).toString();
+    }
+
+    private static long parseHex(String gameId, int from, int to) {
+        long value = 0;
+        for(int i = from; i < to; i++){
+            if(!isDash(i)){
+                value = (value << 4) | hexValue(gameId.charAt(i));
+            }
+        }
+        return value;
+    }
+
+    private static boolean isDash(int index) {
+        return index == 8 || index == 13 || index == 18 || index == 23;
+    }
+
+    private static int hexValue(char c) {
+        if(c >= '0' && c <= '9'){
+            return c - '0';
+        }else if(c >= 'a' && c <= 'f'){
+            return c - 'a' + 10;
+        }else{
+            return -1;
+        }
+    }
+}
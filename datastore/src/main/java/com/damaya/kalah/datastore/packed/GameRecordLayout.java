@@ -0,0 +1,191 @@
+package com.damaya.kalah.datastore.packed;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Fixed-size binary record of a game. All the accesses are absolute, so several threads can work on different
+ * records of the same buffer.
+ * <pre>
+ * offset  size  field
+ *  0      8     id, most significant bits
+ *  8      8     id, least significant bits
+ * 16      8     startedAt epoch millis, {@link Long#MIN_VALUE} when null
+ * 24      8     finishedAt epoch millis, {@link Long#MIN_VALUE} when null
+ * 32      14    pits, one unsigned byte per pit, unused bytes are zero in variants with fewer pits
+ * 46      1     flags: used, board present, turn (2 bits), winner (2 bits)
+ * 47      1     variant ordinal plus one in the low nibble, zero when the game has no variant, and bot level in
+ *               the high nibble, zero when there is no bot
+ * </pre>
+ * The move log does not fit in a fixed-size record, so games read from records have no history.
+ */
+public final class GameRecordLayout {
+
+    public static final int RECORD_SIZE = 48;
+    public static final int PITS = 14;
+    public static final int MAX_STONES_PER_PIT = 0xFF;
+    public static final int MAX_BOT_LEVEL = 0xF;
+
+    private static final int HIGH_OFFSET = 0;
+    private static final int LOW_OFFSET = 8;
+    private static final int STARTED_AT_OFFSET = 16;
+    private static final int FINISHED_AT_OFFSET = 24;
+    private static final int PITS_OFFSET = 32;
+    private static final int FLAGS_OFFSET = 46;
+    private static final int VARIANT_OFFSET = 47;
+    private static final int VARIANT_MASK = 0xF;
+    private static final int BOT_LEVEL_SHIFT = 4;
+
+    private static final int USED_FLAG = 1;
+    private static final int BOARD_FLAG = 1 << 1;
+    private static final int TURN_SHIFT = 2;
+    private static final int WINNER_SHIFT = 4;
+    private static final int PLAYER_MASK = 0b11;
+
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    private GameRecordLayout(){
+
+    }
+
+    /**
+     * Check if the game can be packed in a record
+     * @param game game
+     * @throws IllegalArgumentException when the id is not a valid key or the board does not fit the record
+     */
+    public static void checkPackable(Game game) {
+        if(!GameKeys.isValid(game.getId())){
+            throw new IllegalArgumentException("Game id should be a compact id or a lowercase UUID");
+        }
+        if(Objects.nonNull(game.getBotLevel()) && (game.getBotLevel() < 1 || game.getBotLevel() > MAX_BOT_LEVEL)){
+            throw new IllegalArgumentException("Bot level should be between 1 and " + MAX_BOT_LEVEL);
+        }
+        Board board = game.getBoard();
+        if(Objects.nonNull(board) && Objects.nonNull(board.getPits())){
+            int[] pits = board.getPits();
+            int expectedPits = pitsOf(game.getVariant());
+            if(pits.length != expectedPits){
+                throw new IllegalArgumentException("Board should have " + expectedPits + " pits");
+            }
+            for(int stones : pits){
+                if(stones < 0 || stones > MAX_STONES_PER_PIT){
+                    throw new IllegalArgumentException("Pits should have between 0 and 255 stones");
+                }
+            }
+        }
+    }
+
+    /**
+     * Write a game in the record starting at offset. The game must be packable
+     * @param buffer target buffer
+     * @param offset record offset
+     * @param game game
+     */
+    public static void write(ByteBuffer buffer, int offset, Game game) {
+        buffer.putLong(offset + HIGH_OFFSET, GameKeys.high(game.getId()));
+        buffer.putLong(offset + LOW_OFFSET, GameKeys.low(game.getId()));
+        buffer.putLong(offset + STARTED_AT_OFFSET, toEpoch(game.getStartedAt()));
+        buffer.putLong(offset + FINISHED_AT_OFFSET, toEpoch(game.getFinishedAt()));
+
+        int flags = USED_FLAG
+                | toBits(game.getTurn()) << TURN_SHIFT
+                | toBits(game.getWinner()) << WINNER_SHIFT;
+        Board board = game.getBoard();
+        if(Objects.nonNull(board) && Objects.nonNull(board.getPits())){
+            flags |= BOARD_FLAG;
+            writePits(buffer, offset, board.getPits());
+        }else{
+            writePits(buffer, offset, new int[0]);
+        }
+        buffer.put(offset + FLAGS_OFFSET, (byte) flags);
+        int variantCode = Objects.isNull(game.getVariant()) ? 0 : game.getVariant().ordinal() + 1;
+        int botLevel = Objects.isNull(game.getBotLevel()) ? 0 : game.getBotLevel();
+        buffer.put(offset + VARIANT_OFFSET, (byte) (botLevel << BOT_LEVEL_SHIFT | variantCode));
+    }
+
+    /**
+     * Materialize the game stored in the record starting at offset
+     * @param buffer source buffer
+     * @param offset record offset
+     * @return game
+     */
+    public static Game read(ByteBuffer buffer, int offset) {
+        int flags = buffer.get(offset + FLAGS_OFFSET);
+        int variantByte = Byte.toUnsignedInt(buffer.get(offset + VARIANT_OFFSET));
+        int variantCode = variantByte & VARIANT_MASK;
+        int botLevel = variantByte >>> BOT_LEVEL_SHIFT;
+        GameVariant variant = variantCode == 0 ? null : GameVariant.values()[variantCode - 1];
+        Board board = null;
+        if((flags & BOARD_FLAG) != 0){
+            int[] pits = new int[pitsOf(variant)];
+            for(int i = 0; i < pits.length; i++){
+                pits[i] = Byte.toUnsignedInt(buffer.get(offset + PITS_OFFSET + i));
+            }
+            board = Board.builder().pits(pits).build();
+        }
+        return Game.builder()
+                .id(GameKeys.toId(high(buffer, offset), low(buffer, offset)))
+                .board(board)
+                .turn(toPlayer(flags >> TURN_SHIFT))
+                .startedAt(toDate(buffer.getLong(offset + STARTED_AT_OFFSET)))
+                .finishedAt(toDate(buffer.getLong(offset + FINISHED_AT_OFFSET)))
+                .winner(toPlayer(flags >> WINNER_SHIFT))
+                .variant(variant)
+                .botLevel(botLevel == 0 ? null : botLevel)
+                .build();
+    }
+
+    /**
+     * @return true if the record holds a game
+     */
+    public static boolean isUsed(ByteBuffer buffer, int offset) {
+        return (buffer.get(offset + FLAGS_OFFSET) & USED_FLAG) != 0;
+    }
+
+    /**
+     * @return most significant bits of the id stored in the record
+     */
+    public static long high(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + HIGH_OFFSET);
+    }
+
+    /**
+     * @return least significant bits of the id stored in the record
+     */
+    public static long low(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + LOW_OFFSET);
+    }
+
+    private static void writePits(ByteBuffer buffer, int offset, int[] pits) {
+        for(int i = 0; i < PITS; i++){
+            buffer.put(offset + PITS_OFFSET + i, (byte) (i < pits.length ? pits[i] : 0));
+        }
+    }
+
+    private static int pitsOf(GameVariant variant) {
+        return Objects.isNull(variant) ? PITS : variant.getTotalPits();
+    }
+
+    private static long toEpoch(Date date) {
+        return Objects.isNull(date) ? NULL_DATE : date.getTime();
+    }
+
+    private static Date toDate(long epoch) {
+        return epoch == NULL_DATE ? null : new Date(epoch);
+    }
+
+    private static int toBits(GameTurn player) {
+        return Objects.isNull(player) ? 0 : player.ordinal() + 1;
+    }
+
+    private static GameTurn toPlayer(int bits) {
+        int value = bits & PLAYER_MASK;
+        return value == 0 ? null : GameTurn.values()[value - 1];
+    }
+}
@@ -0,0 +1,120 @@
+package com.damaya.kalah.datastore.packed;
+
+/**
+ * Open-addressing hash index from the primitive value of a game id to the slot of its record. The table only
+ * keeps slot numbers, the keys are read back from the records, so each entry costs four bytes.
+ * It is not thread-safe, callers must guard it.
+ */
+public class GameSlotIndex {
+
+    private static final int EMPTY = 0;
+    private static final double MAX_LOAD = 0.75;
+
+    /**
+     * Reads the key stored in a slot
+     */
+    public interface SlotKeys {
+        long high(int slot);
+
+        long low(int slot);
+    }
+
+    private final SlotKeys keys;
+    private int[] table;
+    private int mask;
+    private int size;
+    private int threshold;
+
+    /**
+     * @param keys reader of the keys of each slot
+     * @param expectedSize expected number of entries
+     */
+    public GameSlotIndex(SlotKeys keys, int expectedSize) {
+        this.keys = keys;
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / MAX_LOAD)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Find the slot of a key
+     * @param high most significant bits of the key
+     * @param low least significant bits of the key
+     * @return slot or -1 when the key is not indexed
+     */
+    public int find(long high, long low) {
+        for(int i = hash(high, low) & mask; ; i = (i + 1) & mask){
+            int entry = table[i];
+            if(entry == EMPTY){
+                return -1;
+            }
+            int slot = entry - 1;
+            if(keys.high(slot) == high && keys.low(slot) == low){
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Index a key that is not indexed yet. The key must already be readable from the slot
+     * @param high most significant bits of the key
+     * @param low least significant bits of the key
+     * @param slot slot holding the key
+     */
+    public void add(long high, long low, int slot) {
+        if(size >= threshold){
+            resize();
+        }
+        insert(hash(high, low), slot);
+        size++;
+    }
+
+    /**
+     * @return number of indexed keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return bytes used by the index table
+     */
+    public long footprint() {
+        return (long) table.length * Integer.BYTES;
+    }
+
+    private void resize() {
+        int[] old = table;
+        allocate(old.length << 1);
+        for(int entry : old){
+            if(entry != EMPTY){
+                int slot = entry - 1;
+                insert(hash(keys.high(slot), keys.low(slot)), slot);
+            }
+        }
+    }
+
+    private void insert(int hash, int slot) {
+        int i = hash & mask;
+        while(table[i] != EMPTY){
+            i = (i + 1) & mask;
+        }
+        table[i] = slot + 1;
+    }
+
+    private void allocate(int capacity) {
+        if(capacity <= 0){
+            throw new IllegalStateException("Index cannot grow anymore");
+        }
+        this.table = new int[capacity];
+        this.mask = capacity - 1;
+        this.threshold = (int) (capacity * MAX_LOAD);
+    }
+
+    private static int hash(long high, long low) {
+        long h = high ^ Long.rotateLeft(low, 32);
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        return (int) h;
+    }
+}
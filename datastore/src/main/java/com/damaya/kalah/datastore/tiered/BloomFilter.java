@@ -0,0 +1,58 @@
+package com.damaya.kalah.datastore.tiered;
+
+/**
+ * Bloom filter of 128-bit game keys, 10 bits and 7 probes per key, about 1% false positives. It lets a lookup skip
+ * the cold segments that surely do not hold the game.
+ */
+class BloomFilter {
+
+    private static final int BITS_PER_KEY = 10;
+    private static final int PROBES = 7;
+
+    private final long[] bits;
+
+    BloomFilter(int expectedKeys) {
+        this(new long[Math.max(1, (expectedKeys * BITS_PER_KEY + 63) / 64)]);
+    }
+
+    BloomFilter(long[] bits) {
+        this.bits = bits;
+    }
+
+    void add(long high, long low) {
+        long hash1 = mix(high ^ mix(low));
+        long hash2 = mix(hash1 ^ low);
+        long size = bits.length * 64L;
+        for(int i = 0; i < PROBES; i++){
+            long bit = Long.remainderUnsigned(hash1 + i * hash2, size);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(long high, long low) {
+        long hash1 = mix(high ^ mix(low));
+        long hash2 = mix(hash1 ^ low);
+        long size = bits.length * 64L;
+        for(int i = 0; i < PROBES; i++){
+            long bit = Long.remainderUnsigned(hash1 + i * hash2, size);
+            if((bits[(int) (bit >>> 6)] & 1L << bit) == 0){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long[] bits() {
+        return bits;
+    }
+
+    /**
+     * Finalizer of SplitMix64, spreads every input bit over the whole hash
+     */
+    private static long mix(long value) {
+        long z = value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,286 @@
+package com.damaya.kalah.datastore.tiered;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.datastore.packed.GameKeys;
+import com.damaya.kalah.datastore.packed.GameRecordLayout;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Immutable file of finished games sorted by key, in Deflate compressed blocks of {@link GameRecordLayout} records.
+ * Only the first key of each block and a {@link BloomFilter} are kept in memory, so a lookup checks the filter,
+ * binary searches the block index and decompresses a single block.
+ * <pre>
+ * file:   magic(4) block* index indexOffset(8) magic(4)
+ * block:  compressedLength(4) records(4) crc(4) deflated records
+ * index:  games(4) blocks(4) blocks * (offset(8) firstHigh(8) firstLow(8)) bloomLongs(4) bloomLongs * long(8)
+ * </pre>
+ */
+class ColdSegment implements Closeable {
+
+    static final Comparator<Game> KEY_ORDER = (a, b) -> compareKeys(GameKeys.high(a.getId()), GameKeys.low(a.getId()),
+            GameKeys.high(b.getId()), GameKeys.low(b.getId()));
+
+    private static final int MAGIC = 0x4B434F4C;
+    private static final int BLOCK_HEADER_SIZE = 12;
+    private static final int INDEX_ENTRY_SIZE = 24;
+    private static final int TRAILER_SIZE = 12;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int games;
+    private final long[] blockOffsets;
+    private final long[] firstHighs;
+    private final long[] firstLows;
+    private final BloomFilter bloomFilter;
+
+    private ColdSegment(Path file, FileChannel channel, int games, long[] blockOffsets, long[] firstHighs,
+                        long[] firstLows, BloomFilter bloomFilter) {
+        this.file = file;
+        this.channel = channel;
+        this.games = games;
+        this.blockOffsets = blockOffsets;
+        this.firstHighs = firstHighs;
+        this.firstLows = firstLows;
+        this.bloomFilter = bloomFilter;
+    }
+
+    /**
+     * Write the games to a new segment, atomically
+     * @param file segment file
+     * @param sortedGames finished games in {@link #KEY_ORDER}, without repeated ids
+     * @param gamesPerBlock games compressed together
+     * @return open segment
+     */
+    static ColdSegment write(Path file, List<Game> sortedGames, int gamesPerBlock) throws IOException {
+        int blocks = (sortedGames.size() + gamesPerBlock - 1) / gamesPerBlock;
+        long[] blockOffsets = new long[blocks];
+        long[] firstHighs = new long[blocks];
+        long[] firstLows = new long[blocks];
+        BloomFilter bloomFilter = new BloomFilter(sortedGames.size());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Deflater deflater = new Deflater();
+        try(FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)){
+            writeFully(out, (ByteBuffer) ByteBuffer.allocate(4).putInt(MAGIC).flip());
+            long position = 4;
+            ByteBuffer raw = ByteBuffer.allocate(gamesPerBlock * GameRecordLayout.RECORD_SIZE);
+            byte[] compressed = new byte[raw.capacity() + raw.capacity() / 2 + 64];
+            for(int block = 0; block < blocks; block++){
+                int from = block * gamesPerBlock;
+                int to = Math.min(from + gamesPerBlock, sortedGames.size());
+                raw.clear();
+                for(int i = from; i < to; i++){
+                    Game game = sortedGames.get(i);
+                    GameRecordLayout.write(raw, (i - from) * GameRecordLayout.RECORD_SIZE, game);
+                    bloomFilter.add(GameKeys.high(game.getId()), GameKeys.low(game.getId()));
+                }
+                int rawLength = (to - from) * GameRecordLayout.RECORD_SIZE;
+                CRC32 crc = new CRC32();
+                crc.update(raw.array(), 0, rawLength);
+                deflater.reset();
+                deflater.setInput(raw.array(), 0, rawLength);
+                deflater.finish();
+                int length = deflater.deflate(compressed);
+                if(!deflater.finished()){
+                    throw new IOException("Block " + block + " did not fit its compression buffer");
+                }
+                blockOffsets[block] = position;
+                firstHighs[block] = GameRecordLayout.high(raw, 0);
+                firstLows[block] = GameRecordLayout.low(raw, 0);
+                ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+                header.putInt(length).putInt(to - from).putInt((int) crc.getValue()).flip();
+                writeFully(out, header);
+                writeFully(out, ByteBuffer.wrap(compressed, 0, length));
+                position += BLOCK_HEADER_SIZE + length;
+            }
+            long[] bloomBits = bloomFilter.bits();
+            ByteBuffer index = ByteBuffer.allocate(8 + blocks * INDEX_ENTRY_SIZE + 4 + bloomBits.length * 8
+                    + TRAILER_SIZE);
+            index.putInt(sortedGames.size()).putInt(blocks);
+            for(int block = 0; block < blocks; block++){
+                index.putLong(blockOffsets[block]).putLong(firstHighs[block]).putLong(firstLows[block]);
+            }
+            index.putInt(bloomBits.length);
+            for(long bits : bloomBits){
+                index.putLong(bits);
+            }
+            index.putLong(position).putInt(MAGIC).flip();
+            writeFully(out, index);
+            out.force(true);
+        }finally {
+            deflater.end();
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+        return new ColdSegment(file, FileChannel.open(file, StandardOpenOption.READ), sortedGames.size(),
+                blockOffsets, firstHighs, firstLows, bloomFilter);
+    }
+
+    /**
+     * Open an existing segment, reading only its index
+     * @param file segment file
+     * @return open segment
+     * @throws IOException if the file cannot be read or is not a complete segment
+     */
+    static ColdSegment open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try{
+            long size = channel.size();
+            if(size < 4 + TRAILER_SIZE){
+                throw new IOException("Segment " + file + " is truncated");
+            }
+            ByteBuffer trailer = readFully(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+            long indexOffset = trailer.getLong(0);
+            if(trailer.getInt(8) != MAGIC || indexOffset < 4 || indexOffset > size - TRAILER_SIZE){
+                throw new IOException("Segment " + file + " is not complete");
+            }
+            ByteBuffer index = readFully(channel, indexOffset, (int) (size - TRAILER_SIZE - indexOffset));
+            int games = index.getInt();
+            int blocks = index.getInt();
+            long[] blockOffsets = new long[blocks];
+            long[] firstHighs = new long[blocks];
+            long[] firstLows = new long[blocks];
+            for(int block = 0; block < blocks; block++){
+                blockOffsets[block] = index.getLong();
+                firstHighs[block] = index.getLong();
+                firstLows[block] = index.getLong();
+            }
+            long[] bloomBits = new long[index.getInt()];
+            for(int i = 0; i < bloomBits.length; i++){
+                bloomBits[i] = index.getLong();
+            }
+            return new ColdSegment(file, channel, games, blockOffsets, firstHighs, firstLows,
+                    new BloomFilter(bloomBits));
+        }catch (IOException | RuntimeException e){
+            channel.close();
+            throw e instanceof IOException ? (IOException) e : new IOException("Segment " + file + " is corrupted", e);
+        }
+    }
+
+    /**
+     * Find a game, it can be called by several threads at once
+     * @param high most significant bits of the game key
+     * @param low least significant bits of the game key
+     * @return game if the segment has it
+     */
+    Optional<Game> find(long high, long low) throws IOException {
+        if(firstHighs.length == 0 || !bloomFilter.mightContain(high, low)){
+            return Optional.empty();
+        }
+        int block = findBlock(high, low);
+        if(block < 0){
+            return Optional.empty();
+        }
+        ByteBuffer records = readBlock(block);
+        int from = 0;
+        int to = records.limit() / GameRecordLayout.RECORD_SIZE - 1;
+        while(from <= to){
+            int middle = (from + to) >>> 1;
+            int offset = middle * GameRecordLayout.RECORD_SIZE;
+            int comparison = compareKeys(GameRecordLayout.high(records, offset), GameRecordLayout.low(records, offset),
+                    high, low);
+            if(comparison < 0){
+                from = middle + 1;
+            }else if(comparison > 0){
+                to = middle - 1;
+            }else{
+                return Optional.of(GameRecordLayout.read(records, offset));
+            }
+        }
+        return Optional.empty();
+    }
+
+    int size() {
+        return games;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @return last block whose first key is not greater than the key, -1 when the key is before the first block
+     */
+    private int findBlock(long high, long low) {
+        int from = 0;
+        int to = firstHighs.length - 1;
+        int result = -1;
+        while(from <= to){
+            int middle = (from + to) >>> 1;
+            if(compareKeys(firstHighs[middle], firstLows[middle], high, low) <= 0){
+                result = middle;
+                from = middle + 1;
+            }else{
+                to = middle - 1;
+            }
+        }
+        return result;
+    }
+
+    private ByteBuffer readBlock(int block) throws IOException {
+        ByteBuffer header = readFully(channel, blockOffsets[block], BLOCK_HEADER_SIZE);
+        int length = header.getInt(0);
+        int records = header.getInt(4);
+        ByteBuffer compressed = readFully(channel, blockOffsets[block] + BLOCK_HEADER_SIZE, length);
+        byte[] raw = new byte[records * GameRecordLayout.RECORD_SIZE];
+        Inflater inflater = new Inflater();
+        try{
+            inflater.setInput(compressed.array(), 0, length);
+            if(inflater.inflate(raw) != raw.length){
+                throw new IOException("Block " + block + " of segment " + file + " is truncated");
+            }
+        }catch (DataFormatException e){
+            throw new IOException("Block " + block + " of segment " + file + " is corrupted", e);
+        }finally {
+            inflater.end();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(raw);
+        if((int) crc.getValue() != header.getInt(8)){
+            throw new IOException("Block " + block + " of segment " + file + " failed its checksum");
+        }
+        return ByteBuffer.wrap(raw);
+    }
+
+    static int compareKeys(long high, long low, long otherHigh, long otherLow) {
+        int comparison = Long.compareUnsigned(high, otherHigh);
+        return comparison != 0 ? comparison : Long.compareUnsigned(low, otherLow);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while(buffer.hasRemaining()){
+            if(channel.read(buffer, position + buffer.position()) < 0){
+                throw new EOFException("Unexpected end of file at " + (position + buffer.position()));
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+    }
+}
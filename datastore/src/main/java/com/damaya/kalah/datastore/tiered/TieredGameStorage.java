@@ -0,0 +1,240 @@
+package com.damaya.kalah.datastore.tiered;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.interfaces.GameStorage;
+import com.damaya.kalah.datastore.concurrent.StripedLock;
+import com.damaya.kalah.datastore.packed.GameKeys;
+import com.damaya.kalah.datastore.packed.GameRecordLayout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Two tier storage: active games live in memory and finished games are spilled to disk. Finished games are
+ * collected in memory until there are enough of them, then they are sorted and written to a new compressed
+ * {@link ColdSegment}. {@link #findById(String)} looks in memory first and then in the segments, newest first.
+ * Heap grows with the active games; each cold game costs about two bytes of index and bloom filter.
+ * <p>
+ * Active games are only in memory, like in the memory storage; finished games collected in memory are written
+ * when the storage is closed. Cold segments keep game records without a version, finished games read from them
+ * are at version zero.
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.storage.type", havingValue = "tiered")
+public class TieredGameStorage implements GameStorage, Closeable {
+
+    private static final Logger LOCAL_LOGGER = LoggerFactory.getLogger(TieredGameStorage.class);
+
+    private static final String SEGMENT_PREFIX = "cold-";
+    private static final String SEGMENT_SUFFIX = ".segment";
+
+    private final Path directory;
+    private final int segmentGames;
+    private final int blockGames;
+    private final Map<String, Game> hotGames;
+    private final Map<String, Game> finishedGames;
+    /**
+     * Newest segment first
+     */
+    private final List<ColdSegment> segments;
+    private final StripedLock locks;
+    private final ExecutorService spillExecutor;
+    private final AtomicBoolean spillRequested;
+    private long nextSegment;
+
+    /**
+     * @param directory directory of the cold segments
+     * @param segmentGames finished games collected in memory before they are written to a segment
+     * @param blockGames games compressed together in each segment block
+     */
+    public TieredGameStorage(@Value("${kalah.storage.tiered.directory:${java.io.tmpdir}/kalah-cold}") String directory,
+                             @Value("${kalah.storage.tiered.segment-games:4096}") int segmentGames,
+                             @Value("${kalah.storage.tiered.block-games:64}") int blockGames) {
+        if(segmentGames > 0 && blockGames > 0){
+            this.directory = Paths.get(directory);
+            this.segmentGames = segmentGames;
+            this.blockGames = blockGames;
+            this.hotGames = new ConcurrentHashMap<>();
+            this.finishedGames = new ConcurrentHashMap<>();
+            this.segments = new CopyOnWriteArrayList<>();
+            this.locks = StripedLock.forAvailableProcessors();
+            this.spillRequested = new AtomicBoolean();
+            this.spillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "kalah-tiered-spill");
+                thread.setDaemon(true);
+                return thread;
+            });
+            openSegments();
+        }else{
+            throw new IllegalArgumentException("Segment and block games should be greater than 0");
+        }
+    }
+
+    @Override
+    public Game save(Game game) {
+        GameRecordLayout.checkPackable(game);
+        if(Objects.isNull(game.getFinishedAt())){
+            hotGames.put(game.getId(), game);
+        }else{
+            //added before it leaves the hot tier, so it is always found
+            finishedGames.put(game.getId(), game);
+            hotGames.remove(game.getId());
+            if(finishedGames.size() >= segmentGames && spillRequested.compareAndSet(false, true)){
+                spillExecutor.execute(this::spillQuietly);
+            }
+        }
+        return game;
+    }
+
+    @Override
+    public Optional<Game> findById(String gameId) {
+        Game game = hotGames.get(gameId);
+        if(Objects.isNull(game) && Objects.nonNull(gameId)){
+            game = finishedGames.get(gameId);
+        }
+        if(Objects.isNull(game) && GameKeys.isValid(gameId)){
+            return findCold(GameKeys.high(gameId), GameKeys.low(gameId));
+        }
+        return Optional.ofNullable(game);
+    }
+
+    @Override
+    public Lock getLock(String gameId) {
+        return locks.get(gameId);
+    }
+
+    /**
+     * Write the finished games collected in memory to a new segment
+     */
+    public synchronized void spill() {
+        spillRequested.set(false);
+        List<Game> games = new ArrayList<>(finishedGames.values());
+        if(games.isEmpty()){
+            return;
+        }
+        games.sort(ColdSegment.KEY_ORDER);
+        Path file = directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, nextSegment++, SEGMENT_SUFFIX));
+        try{
+            segments.add(0, ColdSegment.write(file, games, blockGames));
+        }catch (IOException e){
+            throw new UncheckedIOException("Segment " + file + " could not be written", e);
+        }
+        //the segment is searchable before the games leave memory
+        games.forEach(game -> finishedGames.remove(game.getId(), game));
+        LOCAL_LOGGER.debug("{} finished games spilled to {}", games.size(), file);
+    }
+
+    /**
+     * @return active games in memory
+     */
+    public int hotSize() {
+        return hotGames.size();
+    }
+
+    /**
+     * @return finished games in memory and on disk
+     */
+    public long finishedSize() {
+        return finishedGames.size() + segments.stream().mapToLong(ColdSegment::size).sum();
+    }
+
+    /**
+     * @return number of cold segments
+     */
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Write the finished games in memory and close the segments
+     */
+    @Override
+    @PreDestroy
+    public void close() throws IOException {
+        spillExecutor.shutdown();
+        try{
+            spillExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        spill();
+        for(ColdSegment segment : segments){
+            segment.close();
+        }
+    }
+
+    private Optional<Game> findCold(long high, long low) {
+        for(ColdSegment segment : segments){
+            try{
+                Optional<Game> game = segment.find(high, low);
+                if(game.isPresent()){
+                    return game;
+                }
+            }catch (IOException e){
+                throw new UncheckedIOException("Segment " + segment.file() + " could not be read", e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void spillQuietly() {
+        try{
+            spill();
+        }catch (UncheckedIOException e){
+            LOCAL_LOGGER.error("Finished games could not be spilled, they stay in memory", e);
+        }
+    }
+
+    private void openSegments() {
+        List<Path> files = new ArrayList<>();
+        try{
+            Files.createDirectories(directory);
+            try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")){
+                stream.forEach(files::add);
+            }
+            files.sort(null);
+            for(Path file : files){
+                String name = file.getFileName().toString();
+                if(!name.endsWith(SEGMENT_SUFFIX)){
+                    //interrupted write
+                    Files.delete(file);
+                    continue;
+                }
+                nextSegment = Math.max(nextSegment, Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - SEGMENT_SUFFIX.length())) + 1);
+                try{
+                    segments.add(0, ColdSegment.open(file));
+                }catch (IOException e){
+                    LOCAL_LOGGER.warn("Segment {} is skipped: {}", file, e.getMessage());
+                }
+            }
+        }catch (IOException e){
+            throw new UncheckedIOException("Segment directory could not be read", e);
+        }
+        LOCAL_LOGGER.info("Tiered storage opened {} cold segments with {} finished games", segments.size(),
+                finishedSize());
+    }
+}
@@ -0,0 +1,205 @@
+package com.damaya.kalah.datastore.bounded;
+
+import com.damaya.kalah.core.entities.domain.Game;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.Lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test of class {@link BoundedGameStorage}
+ */
+public class BoundedGameStorageTest {
+
+    @Test
+    public void testFindByIdWhenGameIsFound() {
+        BoundedGameStorage storage = new BoundedGameStorage(100, 0);
+        Game game = createGame();
+        storage.save(game);
+        assertThat(storage.findById(game.getId())).isPresent().get().isEqualTo(game);
+        assertThat(storage.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFindByIdWhenGameIsNotFound() {
+        BoundedGameStorage storage = new BoundedGameStorage(100, 0);
+        assertThat(storage.findById(UUID.randomUUID().toString())).isNotPresent();
+        assertThat(storage.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testSizeNeverExceedsMaximumEntries() {
+        BoundedGameStorage storage = new BoundedGameStorage(100, 0);
+        for(int i = 0; i < 1_000; i++){
+            storage.save(createGame());
+        }
+        assertThat(storage.size()).isEqualTo(100);
+        assertThat(storage.getEvictionCount()).isEqualTo(900);
+    }
+
+    @Test
+    public void testMaximumBytesLimitsEntries() {
+        BoundedGameStorage storage = new BoundedGameStorage(100, 10L * BoundedGameStorage.ESTIMATED_GAME_BYTES);
+        assertThat(storage.getMaximumSize()).isEqualTo(10);
+    }
+
+    @Test
+    public void testFinishedGamesAreEvictedFirst() {
+        BoundedGameStorage storage = new BoundedGameStorage(100, 0);
+        List<Game> active = new ArrayList<>();
+        Game finished = null;
+        for(int i = 0; i < 100; i++){
+            Game game = createGame();
+            if(i == 50){
+                finished = game;
+            }
+            active.add(storage.save(game));
+        }
+        active.remove(finished);
+        storage.save(finished.withFinishedAt(new Date()));
+
+        storage.save(createGame());
+
+        assertThat(storage.findById(finished.getId())).isNotPresent();
+        active.forEach(game -> assertThat(storage.findById(game.getId())).isPresent());
+    }
+
+    @Test
+    public void testFrequentlyUsedGamesSurviveAScanOfNewGames() {
+        BoundedGameStorage storage = new BoundedGameStorage(100, 0);
+        List<Game> hot = new ArrayList<>();
+        for(int i = 0; i < 50; i++){
+            hot.add(storage.save(createGame()));
+        }
+        //push the last hot game out of the window, so the first accesses promote every hot game
+        storage.save(createGame());
+
+        for(int i = 0; i < 10_000; i++){
+            if(i % 100 == 0){
+                hot.forEach(game -> storage.findById(game.getId()));
+            }
+            storage.save(createGame());
+        }
+
+        hot.forEach(game -> assertThat(storage.findById(game.getId())).isPresent());
+    }
+
+    @Test
+    public void testMetricsAreBound() {
+        BoundedGameStorage storage = new BoundedGameStorage(10, 0);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        storage.bindTo(registry);
+        Game game = storage.save(createGame());
+        storage.findById(game.getId());
+        storage.findById(UUID.randomUUID().toString());
+        for(int i = 0; i < 20; i++){
+            storage.save(createGame());
+        }
+
+        assertThat(registry.get("kalah.storage.requests").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("kalah.storage.requests").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("kalah.storage.evictions").tag("cause", "policy").functionCounter().count())
+                .isEqualTo(11);
+        assertThat(registry.get("kalah.storage.size").gauge().value()).isEqualTo(10);
+    }
+
+    @Test
+    public void testSaveIfVersionDoesNotCountALookup() {
+        BoundedGameStorage storage = new BoundedGameStorage(10, 0);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        storage.bindTo(registry);
+        Game game = storage.save(createGame());
+
+        assertThat(storage.saveIfVersion(game.withVersion(1), 1, 1)).isFalse();
+        assertThat(storage.saveIfVersion(game.withVersion(1), 1, 0)).isTrue();
+        assertThat(storage.saveIfVersion(createGame(), 1, 0)).isFalse();
+
+        assertThat(registry.get("kalah.storage.requests").tag("result", "hit").functionCounter().count())
+                .isEqualTo(0);
+        assertThat(registry.get("kalah.storage.requests").tag("result", "miss").functionCounter().count())
+                .isEqualTo(0);
+        assertThat(storage.findById(game.getId())).hasValueSatisfying(
+                stored -> assertThat(stored.getVersion()).isEqualTo(1));
+    }
+
+    @Test
+    public void testLockedGameIsNotEvicted() throws InterruptedException {
+        BoundedGameStorage storage = new BoundedGameStorage(10, 0);
+        Game finished = storage.save(createGame().withFinishedAt(new Date()));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread mover = new Thread(() -> {
+            Lock lock = storage.getLock(finished.getId());
+            lock.lock();
+            try{
+                locked.countDown();
+                release.await();
+            }catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+            }finally {
+                lock.unlock();
+            }
+        });
+        mover.start();
+        locked.await();
+
+        //saves of games sharing the held lock would wait for the mover
+        Lock held = storage.getLock(finished.getId());
+        int saved = 0;
+        while(saved < 10){
+            Game game = createGame();
+            if(storage.getLock(game.getId()) != held){
+                storage.save(game);
+                saved++;
+            }
+        }
+        assertThat(storage.findById(finished.getId())).isPresent();
+
+        release.countDown();
+        mover.join();
+        storage.save(createGame());
+        assertThat(storage.findById(finished.getId())).isNotPresent();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaximumBytesBelowTwoGamesIsRejected() {
+        new BoundedGameStorage(100, 2L * BoundedGameStorage.ESTIMATED_GAME_BYTES - 1);
+    }
+
+    @Test
+    public void testConcurrentSavesNeverExceedMaximumEntries() throws InterruptedException {
+        BoundedGameStorage storage = new BoundedGameStorage(100, 0);
+        List<Thread> threads = new ArrayList<>();
+        for(int i = 0; i < 4; i++){
+            threads.add(new Thread(() -> {
+                for(int j = 0; j < 10_000; j++){
+                    storage.save(createGame());
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for(Thread thread : threads){
+            thread.join();
+        }
+        storage.save(createGame());
+
+        assertThat(storage.size()).isEqualTo(100);
+    }
+
+    private Game createGame() {
+        return Game.builder()
+                .id(UUID.randomUUID().toString())
+                .startedAt(new Date())
+                .build();
+    }
+}
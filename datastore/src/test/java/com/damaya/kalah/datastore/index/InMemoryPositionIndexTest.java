@@ -0,0 +1,77 @@
+package com.damaya.kalah.datastore.index;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test of class {@link InMemoryPositionIndex}
+ */
+public class InMemoryPositionIndexTest {
+
+    @Test
+    public void testFindShouldReturnTheGamesOfThePosition() {
+        InMemoryPositionIndex index = new InMemoryPositionIndex(100, 1000);
+        index.add(1L, "a");
+        index.add(1L, "a");
+        index.add(2L, "a");
+        index.add(2L, "b");
+        index.add(2L, "c");
+
+        assertThat(index.find(1L, null, 10)).containsExactly("a");
+        assertThat(index.find(2L, null, 10)).containsExactly("a", "b", "c");
+        assertThat(index.find(3L, null, 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testConcurrentAddsShouldKeepEveryGame() throws InterruptedException {
+        InMemoryPositionIndex index = new InMemoryPositionIndex(100, 1000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for(int thread = 0; thread < 4; thread++){
+            String prefix = "game-" + thread + "-";
+            executor.execute(() -> {
+                for(int game = 0; game < 1000; game++){
+                    index.add(game % 10, prefix + game);
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        for(long hash = 0; hash < 10; hash++){
+            assertThat(index.find(hash, null, 1000)).hasSize(400).doesNotHaveDuplicates();
+        }
+    }
+
+    @Test
+    public void testFindShouldReturnPagesInIdOrder() {
+        InMemoryPositionIndex index = new InMemoryPositionIndex(100, 1000);
+        index.add(1L, "c");
+        index.add(1L, "a");
+        index.add(1L, "d");
+        index.add(1L, "b");
+
+        assertThat(index.find(1L, null, 2)).containsExactly("a", "b");
+        assertThat(index.find(1L, "b", 2)).containsExactly("c", "d");
+        assertThat(index.find(1L, "d", 2)).isEmpty();
+    }
+
+    @Test
+    public void testIndexShouldBeBounded() {
+        InMemoryPositionIndex index = new InMemoryPositionIndex(2, 3);
+        for(int game = 0; game < 10; game++){
+            index.add(1L, "game-" + game);
+        }
+        index.add(2L, "game-0");
+        index.add(3L, "game-0");
+
+        assertThat(index.find(1L, null, 100)).containsExactly("game-0", "game-1", "game-2");
+        assertThat(index.find(3L, null, 100)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+}
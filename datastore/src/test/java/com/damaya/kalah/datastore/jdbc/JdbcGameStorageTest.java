@@ -0,0 +1,214 @@
+package com.damaya.kalah.datastore.jdbc;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.domain.MoveLog;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.usecases.GameUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Test of class {@link JdbcGameStorage}
+ */
+public class JdbcGameStorageTest {
+
+    private final String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    private final List<JdbcGameStorage> opened = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        opened.forEach(JdbcGameStorage::close);
+    }
+
+    @Test
+    public void testFindByIdWhenGameIsFound() {
+        JdbcGameStorage storage = open(0);
+        Game game = storage.save(createGame());
+        assertThat(storage.findById(game.getId())).isPresent().get().isEqualTo(game);
+    }
+
+    @Test
+    public void testFindByIdWhenGameIsNotFound() {
+        JdbcGameStorage storage = open(0);
+        assertThat(storage.findById(UUID.randomUUID().toString())).isNotPresent();
+    }
+
+    @Test
+    public void testSavesOfTheSameGameAreCoalesced() {
+        JdbcGameStorage storage = open(100);
+        Game game = playFirstValidMoves(storage, storage.save(createGame()));
+        assertThat(storage.pendingGames()).isEqualTo(1);
+
+        storage.flush();
+
+        assertThat(storage.pendingGames()).isZero();
+        assertThat(storage.getWrittenRows()).isEqualTo(1);
+        assertThat(open(0).findById(game.getId())).isPresent().get().isEqualTo(game);
+    }
+
+    @Test
+    public void testPendingGamesAreWrittenInBatchesWhenClosed() {
+        JdbcGameStorage storage = open(100);
+        List<Game> games = new ArrayList<>();
+        for(int i = 0; i < 25; i++){
+            games.add(storage.save(createGame()));
+        }
+        storage.close();
+
+        assertThat(storage.getWrittenRows()).isEqualTo(25);
+        JdbcGameStorage reopened = open(0);
+        games.forEach(game -> assertThat(reopened.findById(game.getId())).isPresent().get().isEqualTo(game));
+    }
+
+    @Test
+    public void testFoundGamesAreNotShared() {
+        JdbcGameStorage storage = open(100);
+        Game game = storage.save(createGame());
+
+        GameUtils.playMove(storage.findById(game.getId()).get(), 2, new Date());
+
+        assertThat(storage.findById(game.getId())).isPresent().get().isEqualTo(game);
+    }
+
+    @Test
+    public void testMoveLogIsWritten() {
+        JdbcGameStorage storage = open(0);
+        Game game = createGame();
+        game.setMoves(MoveLog.startingAt(game.getBoard().getPits()));
+        game = playFirstValidMoves(storage, storage.save(game));
+        storage.flush();
+
+        Game found = open(0).findById(game.getId()).get();
+
+        assertThat(found.getMoves().size()).isPositive();
+        assertThat(found.getVersion()).isEqualTo(found.getMoves().size());
+        assertThat(found).isEqualTo(game);
+    }
+
+    @Test
+    public void testFindByIdDoesNotCacheARowOlderThanASaveWhileLoading() {
+        Game game = createGame();
+        AtomicBoolean saveWhileLoading = new AtomicBoolean(true);
+        //a near cache of one game, so the save is evicted by the next one before the loaded row is cached
+        JdbcGameStorage storage = new JdbcGameStorage(url, "sa", "", 2, 10, 60_000, 1, "BLOB") {
+            @Override
+            Game load(String gameId) {
+                Game row = super.load(gameId);
+                if(saveWhileLoading.getAndSet(false)){
+                    game.setVersion(1);
+                    save(game);
+                    flush();
+                    save(createGame());
+                }
+                return row;
+            }
+        };
+        opened.add(storage);
+        storage.save(game);
+        storage.flush();
+        storage.save(createGame());
+
+        assertThat(storage.findById(game.getId())).isPresent().get().extracting(Game::getVersion).isEqualTo(1L);
+        assertThat(storage.findById(game.getId())).isPresent().get().extracting(Game::getVersion).isEqualTo(1L);
+    }
+
+    @Test
+    public void testConcurrentSavesKeepTheNearCacheBounded() throws Exception {
+        JdbcGameStorage storage = open(10);
+        List<Game> games = new ArrayList<>();
+        for(int i = 0; i < 400; i++){
+            games.add(createGame());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try{
+            List<Future<?>> saves = new ArrayList<>();
+            for(Game game : games){
+                saves.add(executor.submit(() -> storage.save(game)));
+            }
+            for(Future<?> save : saves){
+                save.get();
+            }
+        }finally {
+            executor.shutdown();
+        }
+        storage.flush();
+
+        assertThat(storage.cachedGames()).isLessThanOrEqualTo(10);
+        games.forEach(game -> assertThat(storage.findById(game.getId())).isPresent().get().isEqualTo(game));
+        assertThat(storage.cachedGames()).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    public void testTablesWithoutHistoryAndVersionAreUpgraded() throws SQLException {
+        try(Connection connection = DriverManager.getConnection(url, "sa", "");
+            Statement statement = connection.createStatement()){
+            statement.execute("CREATE TABLE kalah_game (id VARCHAR(36) PRIMARY KEY, pits VARCHAR(128), "
+                    + "turn VARCHAR(16), started_at BIGINT, finished_at BIGINT, winner VARCHAR(16), "
+                    + "variant VARCHAR(32), bot_level INT)");
+        }
+        JdbcGameStorage storage = open(0);
+        Game game = createGame();
+        game.setMoves(MoveLog.startingAt(game.getBoard().getPits()));
+        game = playFirstValidMoves(storage, storage.save(game));
+        storage.flush();
+
+        assertThat(open(0).findById(game.getId())).isPresent().get().isEqualTo(game);
+    }
+
+    @Test
+    public void testBinaryTypeShouldBeAColumnType() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new JdbcGameStorage(url, "sa", "", 2, 10, 60_000, 0, "BLOB); DROP TABLE kalah_game"))
+                .withMessageContaining("kalah.storage.jdbc.binary-type");
+    }
+
+    private JdbcGameStorage open(int nearCacheSize) {
+        //long flush interval, so the tests decide when the pending saves are written
+        JdbcGameStorage storage = new JdbcGameStorage(url, "sa", "", 2, 10, 60_000, nearCacheSize, "BLOB");
+        opened.add(storage);
+        return storage;
+    }
+
+    /**
+     * Plays the first valid pit of the player in turn until the game finishes, the same way the game service does
+     */
+    private static Game playFirstValidMoves(JdbcGameStorage storage, Game game) {
+        while(game.getFinishedAt() == null){
+            int pitId = game.getTurn().equals(GameTurn.PLAYER_ONE) ? 1 : 8;
+            while(game.getBoard().getPits()[pitId - 1] == 0){
+                pitId++;
+            }
+            GameUtils.playMove(game, pitId, new Date());
+            GameUtils.recordMove(game, pitId);
+            game.setVersion(game.getVersion() + 1);
+            storage.saveMove(game, pitId);
+        }
+        return game;
+    }
+
+    private static Game createGame() {
+        return Game.builder()
+                .id(UUID.randomUUID().toString())
+                .startedAt(new Date())
+                .turn(GameTurn.PLAYER_ONE)
+                .board(Board.builder().pits(GameUtils.dealGame(6)).build())
+                .build();
+    }
+}
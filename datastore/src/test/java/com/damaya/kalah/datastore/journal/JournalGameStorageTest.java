@@ -0,0 +1,220 @@
+package com.damaya.kalah.datastore.journal;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.domain.MoveLog;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.usecases.GameUtils;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Test of class {@link JournalGameStorage}
+ */
+public class JournalGameStorageTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<JournalGameStorage> opened = new ArrayList<>();
+
+    @After
+    public void tearDown() throws IOException {
+        for(JournalGameStorage storage : opened){
+            storage.close();
+        }
+    }
+
+    @Test
+    public void testFindByIdWhenGameIsFound() {
+        JournalGameStorage storage = open(FsyncPolicy.ALWAYS, 1_000);
+        Game game = storage.save(createGame());
+        assertThat(storage.findById(game.getId())).isPresent().get().isEqualTo(game);
+    }
+
+    @Test
+    public void testFindByIdWhenGameIsNotFound() {
+        JournalGameStorage storage = open(FsyncPolicy.ALWAYS, 1_000);
+        assertThat(storage.findById(UUID.randomUUID().toString())).isNotPresent();
+    }
+
+    @Test
+    public void testRestartReplaysMovesWithEveryFsyncPolicy() throws IOException {
+        for(FsyncPolicy policy : FsyncPolicy.values()){
+            JournalGameStorage storage = open(policy, 1_000);
+            Game game = playFirstValidMoves(storage, storage.save(createGame()), Integer.MAX_VALUE);
+            storage.close();
+
+            assertThat(open(policy, 1_000).findById(game.getId())).isPresent().get().isEqualTo(game);
+        }
+    }
+
+    @Test
+    public void testRestartLoadsSnapshotAndReplaysTail() throws IOException {
+        JournalGameStorage storage = open(FsyncPolicy.INTERVAL, 1_000);
+        List<Game> games = new ArrayList<>();
+        for(int i = 0; i < 20; i++){
+            games.add(playFirstValidMoves(storage, storage.save(createGame()), 10));
+        }
+        storage.snapshot();
+        for(int i = 0; i < games.size(); i++){
+            games.set(i, playFirstValidMoves(storage, storage.findById(games.get(i).getId()).get(), Integer.MAX_VALUE));
+        }
+        storage.close();
+
+        JournalGameStorage restarted = open(FsyncPolicy.INTERVAL, 1_000);
+        games.forEach(game -> assertThat(restarted.findById(game.getId())).isPresent().get().isEqualTo(game));
+        assertThat(files("snapshot-")).hasSize(1);
+    }
+
+    @Test
+    public void testRestartKeepsTheHistoryOfSnapshotsAndReplayedMoves() throws IOException {
+        JournalGameStorage storage = open(FsyncPolicy.ALWAYS, 1_000);
+        Game game = playFirstValidMoves(storage, storage.save(createGameWithHistory()), 10);
+        storage.snapshot();
+        game = playFirstValidMoves(storage, game, Integer.MAX_VALUE);
+        //only in the journal tail
+        Game replayed = playFirstValidMoves(storage, storage.save(createGameWithHistory()), Integer.MAX_VALUE);
+        storage.close();
+
+        JournalGameStorage restarted = open(FsyncPolicy.ALWAYS, 1_000);
+        Game found = restarted.findById(game.getId()).get();
+        assertThat(found).isEqualTo(game);
+        assertThat(found.getMoves().size()).isEqualTo(found.getVersion()).isGreaterThan(10);
+        assertThat(restarted.findById(replayed.getId())).isPresent().get().isEqualTo(replayed);
+    }
+
+    @Test
+    public void testSnapshotsAreTakenPeriodicallyAndOldSegmentsDeleted() throws IOException {
+        JournalGameStorage storage = open(FsyncPolicy.NEVER, 50);
+        List<Game> games = new ArrayList<>();
+        for(int i = 0; i < 30; i++){
+            games.add(playFirstValidMoves(storage, storage.save(createGame()), Integer.MAX_VALUE));
+        }
+        storage.close();
+
+        assertThat(files("snapshot-")).hasSize(1);
+        assertThat(files("segment-").size()).isLessThan(5);
+        JournalGameStorage restarted = open(FsyncPolicy.NEVER, 50);
+        games.forEach(game -> assertThat(restarted.findById(game.getId())).isPresent().get().isEqualTo(game));
+    }
+
+    @Test
+    public void testTornEventAtTheEndIsDiscarded() throws IOException {
+        JournalGameStorage storage = open(FsyncPolicy.ALWAYS, 1_000);
+        Game game = playFirstValidMoves(storage, storage.save(createGame()), 5);
+        storage.close();
+        List<Path> segments = files("segment-");
+        Path last = segments.get(segments.size() - 1);
+        Files.write(last, new byte[]{JournalEvents.MOVE, 0, 0, 0, 1}, StandardOpenOption.APPEND);
+
+        JournalGameStorage restarted = open(FsyncPolicy.ALWAYS, 1_000);
+
+        assertThat(restarted.findById(game.getId())).isPresent().get().isEqualTo(game);
+        Game next = playFirstValidMoves(restarted, restarted.findById(game.getId()).get(), 1);
+        restarted.close();
+        assertThat(open(FsyncPolicy.ALWAYS, 1_000).findById(game.getId())).isPresent().get().isEqualTo(next);
+    }
+
+    @Test
+    public void testFailedAppendDoesNotPublishTheGame() throws IOException {
+        JournalGameStorage storage = open(FsyncPolicy.ALWAYS, 1_000);
+        Game game = playFirstValidMoves(storage, storage.save(createGame()), 2);
+        storage.close();
+
+        Game moved = GameUtils.copyOf(game);
+        assertThatIllegalStateException().isThrownBy(() -> playFirstValidMoves(storage, moved, 1));
+        assertThatIllegalStateException().isThrownBy(() -> storage.save(createGame()));
+
+        assertThat(storage.findById(game.getId())).isPresent().get().isEqualTo(game);
+        assertThat(open(FsyncPolicy.ALWAYS, 1_000).findById(game.getId())).isPresent().get().isEqualTo(game);
+    }
+
+    @Test
+    public void testSnapshotsTakenWhileSavingLoseNoChange() throws Exception {
+        JournalGameStorage storage = open(FsyncPolicy.NEVER, 1_000_000);
+        List<Game> games = new ArrayList<>();
+        for(int i = 0; i < 8; i++){
+            games.add(storage.save(createGame()));
+        }
+        List<Thread> players = new ArrayList<>();
+        for(Game game : games){
+            players.add(new Thread(() -> playFirstValidMoves(storage, game, Integer.MAX_VALUE)));
+        }
+        players.forEach(Thread::start);
+        while(players.stream().anyMatch(Thread::isAlive)){
+            storage.snapshot();
+        }
+        for(Thread player : players){
+            player.join();
+        }
+        storage.close();
+
+        JournalGameStorage restarted = open(FsyncPolicy.NEVER, 1_000_000);
+        games.forEach(game -> assertThat(restarted.findById(game.getId())).isPresent().get().isEqualTo(game));
+    }
+
+    private JournalGameStorage open(FsyncPolicy policy, long snapshotEvery) {
+        JournalGameStorage storage = new JournalGameStorage(folder.getRoot().getAbsolutePath(), policy, 5,
+                4096, snapshotEvery);
+        opened.add(storage);
+        return storage;
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try(Stream<Path> stream = Files.list(folder.getRoot().toPath())){
+            return stream.filter(path -> path.getFileName().toString().startsWith(prefix))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Plays the first valid pit of the player in turn, the same way the game service does
+     */
+    private static Game playFirstValidMoves(JournalGameStorage storage, Game game, int maxMoves) {
+        for(int move = 0; move < maxMoves && game.getFinishedAt() == null; move++){
+            int first = game.getTurn().equals(GameTurn.PLAYER_ONE) ? 1 : 8;
+            int pitId = first;
+            while(game.getBoard().getPits()[pitId - 1] == 0){
+                pitId++;
+            }
+            GameUtils.playMove(game, pitId, new Date());
+            GameUtils.recordMove(game, pitId);
+            game.setVersion(game.getVersion() + 1);
+            storage.saveMove(game, pitId);
+        }
+        return game;
+    }
+
+    private static Game createGameWithHistory() {
+        Game game = createGame();
+        game.setMoves(MoveLog.startingAt(game.getBoard().getPits()));
+        return game;
+    }
+
+    private static Game createGame() {
+        return Game.builder()
+                .id(UUID.randomUUID().toString())
+                .startedAt(new Date())
+                .turn(GameTurn.PLAYER_ONE)
+                .board(Board.builder().pits(GameUtils.dealGame(6)).build())
+                .build();
+    }
+}
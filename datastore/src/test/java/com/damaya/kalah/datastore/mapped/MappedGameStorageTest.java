@@ -0,0 +1,215 @@
+package com.damaya.kalah.datastore.mapped;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.usecases.GameUtils;
+import com.damaya.kalah.core.usecases.TimeOrderedGameIdGenerator;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.Lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Test of class {@link MappedGameStorage}
+ */
+public class MappedGameStorageTest {
+
+    private static final int HEADER_SIZE = 64;
+    private static final int COPY_SIZE = 64;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<MappedGameStorage> opened = new ArrayList<>();
+
+    @After
+    public void tearDown() throws IOException {
+        for(MappedGameStorage storage : opened){
+            storage.close();
+        }
+    }
+
+    @Test
+    public void testFindByIdWhenGameIsFound() {
+        MappedGameStorage storage = open();
+        Game game = storage.save(createGame());
+        assertThat(storage.findById(game.getId())).isPresent().get().isEqualTo(game);
+    }
+
+    @Test
+    public void testFindByIdWhenGameIsNotFound() {
+        MappedGameStorage storage = open();
+        assertThat(storage.findById(UUID.randomUUID().toString())).isNotPresent();
+        assertThat(storage.findById("not-a-uuid")).isNotPresent();
+    }
+
+    @Test
+    public void testGamesSurviveRestart() throws IOException {
+        MappedGameStorage storage = open();
+        List<Game> games = new ArrayList<>();
+        for(int i = 0; i < 100; i++){
+            Game game = storage.save(createGame());
+            for(int move = 0; move < i % 7; move++){
+                playFirstValidMove(storage, game);
+            }
+            games.add(game);
+        }
+        storage.close();
+
+        MappedGameStorage restarted = open();
+        assertThat(restarted.size()).isEqualTo(100);
+        assertThat(restarted.getTornRecords()).isZero();
+        games.forEach(game -> assertThat(restarted.findById(game.getId())).isPresent().get().isEqualTo(game));
+    }
+
+    @Test
+    public void testCompactAndUuidIdsSurviveRestart() throws IOException {
+        MappedGameStorage storage = open();
+        Game compact = storage.save(createGame().withId(new TimeOrderedGameIdGenerator().nextId()));
+        Game uuid = storage.save(createGame());
+        storage.close();
+
+        MappedGameStorage restarted = open();
+        assertThat(restarted.findById(compact.getId())).isPresent().get().isEqualTo(compact);
+        assertThat(restarted.findById(uuid.getId())).isPresent().get().isEqualTo(uuid);
+    }
+
+    @Test
+    public void testTornCopyFallsBackToPreviousRecord() throws IOException {
+        MappedGameStorage storage = open();
+        Game game = storage.save(createGame());
+        Game before = storage.findById(game.getId()).get();
+        playFirstValidMove(storage, game);
+        storage.close();
+
+        //the move was written in the first copy of slot 0, a crash tore it
+        corrupt(HEADER_SIZE + 40);
+
+        MappedGameStorage restarted = open();
+        assertThat(restarted.getTornRecords()).isZero();
+        assertThat(restarted.findById(game.getId())).isPresent().get().isEqualTo(before);
+
+        playFirstValidMove(restarted, before);
+        restarted.close();
+        assertThat(open().findById(game.getId())).isPresent().get().isEqualTo(before);
+    }
+
+    @Test
+    public void testTornRecordIsDetectedAndSlotReused() throws IOException {
+        MappedGameStorage storage = open();
+        Game torn = storage.save(createGame());
+        Game intact = storage.save(createGame());
+        storage.close();
+
+        //a new game is first written in the second copy of its slot
+        corrupt(HEADER_SIZE + COPY_SIZE + 40);
+
+        MappedGameStorage restarted = open();
+        assertThat(restarted.getTornRecords()).isEqualTo(1);
+        assertThat(restarted.findById(torn.getId())).isNotPresent();
+        assertThat(restarted.findById(intact.getId())).isPresent().get().isEqualTo(intact);
+
+        Game reused = restarted.save(createGame());
+        restarted.close();
+        MappedGameStorage reopened = open();
+        assertThat(reopened.size()).isEqualTo(2);
+        assertThat(reopened.findById(reused.getId())).isPresent().get().isEqualTo(reused);
+    }
+
+    @Test
+    public void testSaveManyGamesMapsNewRegions() {
+        MappedGameStorage storage = open();
+        List<Game> games = new ArrayList<>();
+        for(int i = 0; i < 500; i++){
+            games.add(storage.save(createGame()));
+        }
+        assertThat(storage.size()).isEqualTo(500);
+        games.forEach(game -> assertThat(storage.findById(game.getId())).isPresent().get().isEqualTo(game));
+    }
+
+    @Test
+    public void testOpenShouldRejectForeignFile() throws IOException {
+        RandomAccessFile file = new RandomAccessFile(folder.newFile("foreign.dat"), "rw");
+        file.writeLong(42);
+        file.close();
+        assertThatIllegalStateException().isThrownBy(() ->
+                new MappedGameStorage(folder.getRoot().toPath().resolve("foreign.dat").toString(), 16));
+    }
+
+    @Test(timeout = 10_000)
+    public void testFindByIdDoesNotWaitForTheGameLock() throws InterruptedException {
+        MappedGameStorage storage = open();
+        Game game = storage.save(createGame());
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread mover = new Thread(() -> {
+            Lock lock = storage.getLock(game.getId());
+            lock.lock();
+            try{
+                locked.countDown();
+                release.await();
+            }catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+            }finally {
+                lock.unlock();
+            }
+        });
+        mover.start();
+        locked.await();
+
+        assertThat(storage.findById(game.getId())).isPresent().get().isEqualTo(game);
+        release.countDown();
+        mover.join();
+    }
+
+    private MappedGameStorage open() {
+        MappedGameStorage storage = new MappedGameStorage(gamesFile(), 16);
+        opened.add(storage);
+        return storage;
+    }
+
+    private String gamesFile() {
+        return folder.getRoot().toPath().resolve("games.dat").toString();
+    }
+
+    private void corrupt(long position) throws IOException {
+        try(RandomAccessFile file = new RandomAccessFile(gamesFile(), "rw")){
+            file.seek(position);
+            int value = file.read();
+            file.seek(position);
+            file.write(value ^ 0xFF);
+        }
+    }
+
+    private static void playFirstValidMove(MappedGameStorage storage, Game game) {
+        int pitId = game.getTurn().equals(GameTurn.PLAYER_ONE) ? 1 : 8;
+        while(game.getBoard().getPits()[pitId - 1] == 0){
+            pitId++;
+        }
+        GameUtils.playMove(game, pitId, new Date());
+        game.setVersion(game.getVersion() + 1);
+        storage.saveMove(game, pitId);
+    }
+
+    private static Game createGame() {
+        return Game.builder()
+                .id(UUID.randomUUID().toString())
+                .startedAt(new Date())
+                .turn(GameTurn.PLAYER_ONE)
+                .board(Board.builder().pits(GameUtils.dealGame(6)).build())
+                .build();
+    }
+}
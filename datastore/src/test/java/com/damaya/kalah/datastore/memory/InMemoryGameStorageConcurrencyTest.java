@@ -0,0 +1,209 @@
+package com.damaya.kalah.datastore.memory;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.exceptions.GameAlreadyFinishedException;
+import com.damaya.kalah.core.entities.exceptions.InvalidMoveException;
+import com.damaya.kalah.core.usecases.ArrayBoardEngine;
+import com.damaya.kalah.core.usecases.GameServiceImpl;
+import com.damaya.kalah.core.usecases.TimeOrderedGameIdGenerator;
+import com.damaya.kalah.core.usecases.bot.AlphaBetaBot;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Multithreaded stress test of class {@link InMemoryGameStorage}
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = {InMemoryGameStorageConcurrencyTest.Config.class})
+public class InMemoryGameStorageConcurrencyTest {
+
+    private static final Logger LOCAL_LOGGER = LoggerFactory.getLogger(InMemoryGameStorageConcurrencyTest.class);
+
+    private static final int THREADS = 8;
+    private static final int TOTAL_STONES = 72;
+
+    @Autowired
+    private InMemoryGameStorage storage;
+
+    @Autowired
+    private GameServiceImpl service;
+
+    @Configuration
+    public static class Config {
+        @Bean
+        public InMemoryGameStorage storage() {
+            return new InMemoryGameStorage();
+        }
+
+        @Bean
+        public GameServiceImpl gameService() {
+            return new GameServiceImpl();
+        }
+
+        @Bean
+        public TimeOrderedGameIdGenerator idGenerator() {
+            return new TimeOrderedGameIdGenerator();
+        }
+
+        @Bean
+        public ArrayBoardEngine boardEngine() {
+            return new ArrayBoardEngine();
+        }
+
+        @Bean
+        public AlphaBetaBot bot() {
+            return new AlphaBetaBot(1024, 10);
+        }
+    }
+
+    @Test
+    public void testNoUpdateIsLostWhenUpdatingUnderGameLock() throws Exception {
+        //Given
+        int increments = 10_000;
+        Game game = storage.save(Game.builder()
+                .id(UUID.randomUUID().toString())
+                .board(Board.builder().pits(new int[14]).build())
+                .build());
+
+        //When
+        runConcurrently(THREADS, () -> {
+            for(int i = 0; i < increments; i++){
+                Lock lock = storage.getLock(game.getId());
+                lock.lock();
+                try{
+                    Game stored = storage.findById(game.getId()).orElseThrow(IllegalStateException::new);
+                    int[] pits = stored.getBoard().getPits().clone();
+                    pits[0]++;
+                    storage.save(stored.withBoard(Board.builder().pits(pits).build()));
+                }finally {
+                    lock.unlock();
+                }
+            }
+            return null;
+        });
+
+        //Then
+        assertThat(storage.findById(game.getId())).isPresent().get()
+                .satisfies(stored -> assertThat(stored.getBoard().getPits()[0]).isEqualTo(THREADS * increments));
+    }
+
+    @Test
+    public void testConcurrentMovesOnSameGameKeepBoardConsistent() throws Exception {
+        for(int round = 0; round < 50; round++){
+            //Given
+            Game game = service.create();
+
+            //When
+            List<Integer> movesPerThread = runConcurrently(THREADS, () -> playUntilFinished(game.getId()));
+
+            //Then
+            Game finished = storage.findById(game.getId()).orElseThrow(IllegalStateException::new);
+            assertThat(finished.getFinishedAt()).isNotNull();
+            assertThat(finished.getWinner()).isNotNull();
+            assertThat(Arrays.stream(finished.getBoard().getPits()).sum()).isEqualTo(TOTAL_STONES);
+            assertThat(movesPerThread.stream().mapToInt(Integer::intValue).sum()).isPositive();
+        }
+    }
+
+    @Test
+    public void testThroughputGoesUpWithThreadsOnDifferentGames() throws Exception {
+        Assume.assumeTrue("Needs several cores", Runtime.getRuntime().availableProcessors() >= 4);
+
+        //Warm up
+        measureMovesPerSecond(THREADS);
+
+        double single = measureMovesPerSecond(1);
+        double multi = measureMovesPerSecond(4);
+
+        LOCAL_LOGGER.info("Moves per second with 1 thread: {}, with 4 threads: {}", single, multi);
+        assertThat(multi).isGreaterThan(single * 1.5);
+    }
+
+    private double measureMovesPerSecond(int threads) throws Exception {
+        int gamesPerThread = 2_000;
+        long start = System.nanoTime();
+        List<Integer> moves = runConcurrently(threads, () -> {
+            int total = 0;
+            for(int i = 0; i < gamesPerThread; i++){
+                total += playUntilFinished(service.create().getId());
+            }
+            return total;
+        });
+        long elapsed = System.nanoTime() - start;
+        return moves.stream().mapToInt(Integer::intValue).sum() / (elapsed / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Plays random moves on behalf of whoever has the turn until the game finishes
+     * @return number of accepted moves
+     */
+    private int playUntilFinished(String gameId) throws Exception {
+        int accepted = 0;
+        while(true){
+            Game game = storage.findById(gameId).orElseThrow(IllegalStateException::new);
+            if(game.getFinishedAt() != null){
+                return accepted;
+            }
+            try{
+                service.makeMove(gameId, randomPit(game.getTurn()));
+                accepted++;
+            }catch (InvalidMoveException e){
+                //Empty pit or another thread changed the turn, try again
+            }catch (GameAlreadyFinishedException e){
+                return accepted;
+            }
+        }
+    }
+
+    private static int randomPit(GameTurn turn) {
+        int pit = ThreadLocalRandom.current().nextInt(1, 7);
+        return turn.equals(GameTurn.PLAYER_ONE) ? pit : pit + 7;
+    }
+
+    private static <T> List<T> runConcurrently(int threads, Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try{
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for(int i = 0; i < threads; i++){
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for(Future<T> future : futures){
+                results.add(future.get(2, TimeUnit.MINUTES));
+            }
+            return results;
+        }finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -53,4 +53,24 @@ public class InMemoryGameStorageTest {
                 .isNotNull().isNotPresent();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testSaveIfVersionWhenVersionMatches() {
+        Game game = Game.builder().id(UUID.randomUUID().toString()).version(3).build();
+        storage.save(game);
+        Game moved = game.withVersion(4);
+
+        assertThat(storage.saveIfVersion(moved, 1, 3)).isTrue();
+        assertThat(storage.findById(game.getId())).isPresent().get().isSameAs(moved);
+    }
+
+    @Test
+    public void testSaveIfVersionWhenVersionDoesNotMatch() {
+        Game game = Game.builder().id(UUID.randomUUID().toString()).version(3).build();
+        storage.save(game);
+
+        assertThat(storage.saveIfVersion(game.withVersion(4), 1, 2)).isFalse();
+        assertThat(storage.saveIfVersion(game.withId(UUID.randomUUID().toString()), 1, 3)).isFalse();
+        assertThat(storage.findById(game.getId())).isPresent().get().isSameAs(game);
+    }
+
+}
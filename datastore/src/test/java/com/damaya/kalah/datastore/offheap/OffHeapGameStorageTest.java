@@ -0,0 +1,205 @@
+package com.damaya.kalah.datastore.offheap;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Test of class {@link OffHeapGameStorage}
+ */
+public class OffHeapGameStorageTest {
+
+    private OffHeapGameStorage storage;
+
+    @Before
+    public void setUp() {
+        storage = new OffHeapGameStorage(64, 16);
+    }
+
+    @Test
+    public void testSave() {
+        Game game = createGame();
+        assertThat(storage.save(game)).isEqualTo(game);
+        assertThat(storage.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFindByIdWhenGameIsFound() {
+        Game game = createGame();
+        storage.save(game);
+        assertThat(storage.findById(game.getId()))
+                .isNotNull().isPresent().get().isNotSameAs(game).isEqualTo(game);
+    }
+
+    @Test
+    public void testFindByIdWhenGameIsNotFound() {
+        assertThat(storage.findById(UUID.randomUUID().toString())).isNotNull().isNotPresent();
+        assertThat(storage.findById("not-a-uuid")).isNotNull().isNotPresent();
+    }
+
+    @Test
+    public void testFindByIdWhenGameHasNoBoard() {
+        Game game = Game.builder()
+                .id(UUID.randomUUID().toString())
+                .startedAt(new Date())
+                .finishedAt(new Date())
+                .turn(GameTurn.PLAYER_ONE)
+                .winner(GameTurn.PLAYER_TWO)
+                .build();
+        storage.save(game);
+        assertThat(storage.findById(game.getId())).isPresent().get().isEqualTo(game);
+    }
+
+    @Test
+    public void testSaveIfVersion() {
+        Game game = createGame().withVersion(7);
+        storage.save(game);
+
+        assertThat(storage.saveIfVersion(game.withVersion(8), 1, 6)).isFalse();
+        assertThat(storage.saveIfVersion(game.withVersion(8), 1, 7)).isTrue();
+        assertThat(storage.findById(game.getId())).isPresent().get().extracting(Game::getVersion).isEqualTo(8L);
+    }
+
+    @Test
+    public void testSaveUpdatesTheSameSlot() {
+        Game game = createGame();
+        storage.save(game);
+        game.getBoard().getPits()[0] = 0;
+        game.getBoard().getPits()[6] = 255;
+        game.setTurn(GameTurn.PLAYER_TWO);
+        storage.save(game);
+
+        assertThat(storage.size()).isEqualTo(1);
+        assertThat(storage.findById(game.getId())).isPresent().get().satisfies(stored -> {
+            assertThat(stored.getTurn()).isEqualTo(GameTurn.PLAYER_TWO);
+            assertThat(stored.getBoard().getPits()[0]).isZero();
+            assertThat(stored.getBoard().getPits()[6]).isEqualTo(255);
+        });
+    }
+
+    @Test
+    public void testSaveManyGamesGrowsSlabsAndIndex() {
+        List<Game> games = new ArrayList<>();
+        for(int i = 0; i < 1_000; i++){
+            games.add(storage.save(createGame()));
+        }
+
+        assertThat(storage.size()).isEqualTo(1_000);
+        assertThat(storage.offHeapBytes()).isEqualTo(16L * 64 * 56);
+        games.forEach(game -> assertThat(storage.findById(game.getId())).isPresent().get().isEqualTo(game));
+    }
+
+    @Test
+    public void testFindByIdKeepsTheVariantAndItsBoard() {
+        Game game = createGame().withVariant(GameVariant.KALAH_4_3)
+                .withBoard(Board.builder().pits(new int[]{3, 3, 3, 3, 0, 3, 3, 3, 3, 0}).build());
+        storage.save(game);
+
+        assertThat(storage.findById(game.getId())).isPresent().get().isEqualTo(game);
+    }
+
+    @Test
+    public void testFindByIdKeepsTheBotLevel() {
+        Game game = createGame().withVariant(GameVariant.OWARE).withBotLevel(10);
+        game.setBoard(Board.builder().pits(new int[]{4, 4, 4, 4, 4, 4, 0, 4, 4, 4, 4, 4, 4, 0}).build());
+        storage.save(game);
+
+        assertThat(storage.findById(game.getId())).isPresent().get().isEqualTo(game);
+    }
+
+    @Test
+    public void testSaveShouldRejectGamesThatDoNotFit() {
+        Game tooManyStones = createGame();
+        tooManyStones.getBoard().getPits()[0] = 256;
+        assertThatIllegalArgumentException().isThrownBy(() -> storage.save(tooManyStones));
+
+        Game wrongId = createGame().withId("game-1");
+        assertThatIllegalArgumentException().isThrownBy(() -> storage.save(wrongId));
+
+        Game wrongBoard = createGame().withBoard(Board.builder().pits(new int[10]).build());
+        assertThatIllegalArgumentException().isThrownBy(() -> storage.save(wrongBoard));
+
+        Game wrongVariantBoard = createGame().withVariant(GameVariant.KALAH_4_3);
+        assertThatIllegalArgumentException().isThrownBy(() -> storage.save(wrongVariantBoard));
+    }
+
+    @Test(timeout = 10_000)
+    public void testFindByIdDoesNotWaitForTheGameLock() throws InterruptedException {
+        Game game = storage.save(createGame());
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread mover = new Thread(() -> {
+            Lock lock = storage.getLock(game.getId());
+            lock.lock();
+            try{
+                locked.countDown();
+                release.await();
+            }catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+            }finally {
+                lock.unlock();
+            }
+        });
+        mover.start();
+        locked.await();
+
+        assertThat(storage.findById(game.getId())).isPresent().get().isEqualTo(game);
+        release.countDown();
+        mover.join();
+    }
+
+    @Test
+    public void testFindByIdNeverSeesATornRecord() throws InterruptedException {
+        //every record has all its pits holding the version modulo 256 stones
+        Game game = storage.save(withStones(createGame(), 0));
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            for(int version = 1; running.get(); version++){
+                storage.save(withStones(game.withVersion(version), version % 256));
+            }
+        });
+        writer.start();
+        try{
+            for(int i = 0; i < 100_000; i++){
+                Game stored = storage.findById(game.getId()).orElseThrow(IllegalStateException::new);
+                int stones = (int) (stored.getVersion() % 256);
+                assertThat(stored.getBoard().getPits()).containsOnly(stones);
+            }
+        }finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+
+    private static Game withStones(Game game, int stones) {
+        int[] pits = new int[14];
+        Arrays.fill(pits, stones);
+        return game.withBoard(Board.builder().pits(pits).build());
+    }
+
+    private Game createGame() {
+        return Game.builder()
+                .id(UUID.randomUUID().toString())
+                .startedAt(new Date())
+                .turn(GameTurn.PLAYER_ONE)
+                .board(Board.builder()
+                        .pits(new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0})
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.damaya.kalah.datastore.tiered;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.usecases.GameUtils;
+import com.damaya.kalah.core.usecases.TimeOrderedGameIdGenerator;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test of class {@link TieredGameStorage}
+ */
+public class TieredGameStorageTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<TieredGameStorage> opened = new ArrayList<>();
+
+    @After
+    public void tearDown() throws IOException {
+        for(TieredGameStorage storage : opened){
+            storage.close();
+        }
+    }
+
+    @Test
+    public void testFindByIdWhenGameIsActive() {
+        TieredGameStorage storage = open();
+        Game game = storage.save(createGame(UUID.randomUUID().toString()));
+        assertThat(storage.findById(game.getId())).isPresent().get().isSameAs(game);
+    }
+
+    @Test
+    public void testFindByIdWhenGameIsNotFound() {
+        TieredGameStorage storage = open();
+        for(int i = 0; i < 300; i++){
+            storage.save(finish(createGame(UUID.randomUUID().toString())));
+        }
+        storage.spill();
+
+        assertThat(storage.findById(UUID.randomUUID().toString())).isNotPresent();
+        assertThat(storage.findById("not-an-id")).isNotPresent();
+    }
+
+    @Test
+    public void testFinishedGamesAreSpilledAndFaultedBackIn() {
+        TieredGameStorage storage = open();
+        List<Game> finished = new ArrayList<>();
+        TimeOrderedGameIdGenerator ids = new TimeOrderedGameIdGenerator();
+        for(int i = 0; i < 1_000; i++){
+            Game game = storage.save(createGame(i % 2 == 0 ? ids.nextId() : UUID.randomUUID().toString()));
+            finished.add(storage.save(finish(game)));
+        }
+        storage.spill();
+
+        assertThat(storage.hotSize()).isZero();
+        assertThat(storage.finishedSize()).isEqualTo(1_000);
+        assertThat(storage.segmentCount()).isGreaterThanOrEqualTo(1);
+        finished.forEach(game -> assertThat(storage.findById(game.getId())).isPresent().get().isEqualTo(game));
+    }
+
+    @Test
+    public void testFinishedGamesSurviveRestart() throws IOException {
+        TieredGameStorage storage = open();
+        Game spilled = storage.save(finish(createGame(UUID.randomUUID().toString())));
+        storage.spill();
+        Game collected = storage.save(finish(createGame(UUID.randomUUID().toString())));
+        storage.close();
+
+        TieredGameStorage restarted = open();
+        assertThat(restarted.segmentCount()).isEqualTo(2);
+        assertThat(restarted.findById(spilled.getId())).isPresent().get().isEqualTo(spilled);
+        assertThat(restarted.findById(collected.getId())).isPresent().get().isEqualTo(collected);
+    }
+
+    @Test
+    public void testIncompleteSegmentsAreSkipped() throws IOException {
+        TieredGameStorage storage = open();
+        Game game = storage.save(finish(createGame(UUID.randomUUID().toString())));
+        storage.close();
+        Path root = folder.getRoot().toPath();
+        Files.write(root.resolve("cold-0000000007.segment"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+        Files.write(root.resolve("cold-0000000008.segment.tmp"), new byte[]{1});
+
+        TieredGameStorage restarted = open();
+
+        assertThat(restarted.segmentCount()).isEqualTo(1);
+        assertThat(restarted.findById(game.getId())).isPresent().get().isEqualTo(game);
+        assertThat(root.resolve("cold-0000000008.segment.tmp")).doesNotExist();
+    }
+
+    private TieredGameStorage open() {
+        TieredGameStorage storage = new TieredGameStorage(folder.getRoot().getAbsolutePath(), 256, 16);
+        opened.add(storage);
+        return storage;
+    }
+
+    /**
+     * Plays the first valid pit of the player in turn until the game finishes
+     */
+    private static Game finish(Game game) {
+        while(game.getFinishedAt() == null){
+            int pitId = game.getTurn().equals(GameTurn.PLAYER_ONE) ? 1 : 8;
+            while(game.getBoard().getPits()[pitId - 1] == 0){
+                pitId++;
+            }
+            GameUtils.playMove(game, pitId, new Date());
+        }
+        return game;
+    }
+
+    private static Game createGame(String id) {
+        return Game.builder()
+                .id(id)
+                .startedAt(new Date())
+                .turn(GameTurn.PLAYER_ONE)
+                .board(Board.builder().pits(GameUtils.dealGame(6)).build())
+                .build();
+    }
+}
@@ -2,37 +2,77 @@ package com.damaya.kalah.advices;
 
 import com.damaya.kalah.core.entities.exceptions.GameAlreadyFinishedException;
 import com.damaya.kalah.core.entities.exceptions.GameNotFoundException;
+import com.damaya.kalah.core.entities.exceptions.GameVersionMismatchException;
 import com.damaya.kalah.core.entities.exceptions.InvalidMoveException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
-import javax.servlet.http.HttpServletResponse;
-import java.io.IOException;
+import javax.servlet.http.HttpServletRequest;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
+/**
+ * Writes the error body in the response itself, with the same attributes as the default error page, instead of
+ * sending the error and dispatching the request again to {@code /error}
+ */
 @ControllerAdvice
 public class RestExceptionHandler extends ResponseEntityExceptionHandler {
 
     private static final Logger LOCAL_LOGGER = LoggerFactory.getLogger(RestExceptionHandler.class);
 
     @ExceptionHandler({GameNotFoundException.class})
-    public void handleGameNotFoundException(GameNotFoundException e, HttpServletResponse response) throws IOException {
+    public ResponseEntity<Map<String, Object>> handleGameNotFoundException(GameNotFoundException e, HttpServletRequest request) {
         LOCAL_LOGGER.debug(e.getMessage());
-        response.sendError(HttpStatus.NOT_FOUND.value());
+        return errorBody(HttpStatus.NOT_FOUND, e.getMessage(), request);
     }
 
     @ExceptionHandler({InvalidMoveException.class})
-    public void handleInvalidMoveException(InvalidMoveException e, HttpServletResponse response) throws IOException {
+    public ResponseEntity<Map<String, Object>> handleInvalidMoveException(InvalidMoveException e, HttpServletRequest request) {
         LOCAL_LOGGER.debug(e.getMessage());
-        response.sendError(HttpStatus.BAD_REQUEST.value());
+        return errorBody(HttpStatus.BAD_REQUEST, e.getMessage(), request);
     }
 
     @ExceptionHandler({GameAlreadyFinishedException.class})
-    public void handleInvalidMoveException(GameAlreadyFinishedException e, HttpServletResponse response) throws IOException {
+    public ResponseEntity<Map<String, Object>> handleInvalidMoveException(GameAlreadyFinishedException e, HttpServletRequest request) {
         LOCAL_LOGGER.debug(e.getMessage());
-        response.sendError(HttpStatus.CONFLICT.value());
+        return errorBody(HttpStatus.CONFLICT, e.getMessage(), request);
+    }
+
+    @ExceptionHandler({GameVersionMismatchException.class})
+    public ResponseEntity<Map<String, Object>> handleGameVersionMismatchException(GameVersionMismatchException e, HttpServletRequest request) {
+        LOCAL_LOGGER.debug(e.getMessage());
+        return errorBody(HttpStatus.PRECONDITION_FAILED, e.getMessage(), request);
+    }
+
+    @ExceptionHandler({RejectedExecutionException.class})
+    public ResponseEntity<Map<String, Object>> handleRejectedExecutionException(RejectedExecutionException e, HttpServletRequest request) {
+        LOCAL_LOGGER.warn(e.getMessage());
+        return errorBody(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), request);
+    }
+
+    @ExceptionHandler({ResponseStatusException.class})
+    public ResponseEntity<Map<String, Object>> handleResponseStatusException(ResponseStatusException e, HttpServletRequest request) {
+        LOCAL_LOGGER.debug(e.getMessage());
+        return errorBody(e.getStatus(), e.getReason(), request);
+    }
+
+    private static ResponseEntity<Map<String, Object>> errorBody(HttpStatus status, String message,
+                                                                 HttpServletRequest request) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", new Date());
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", message);
+        body.put("path", request.getRequestURI());
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
     }
 }
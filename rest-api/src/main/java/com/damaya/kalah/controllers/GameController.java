@@ -1,36 +1,207 @@
 package com.damaya.kalah.controllers;
 
-import com.damaya.kalah.core.entities.exceptions.GameAlreadyFinishedException;
-import com.damaya.kalah.core.entities.exceptions.GameNotFoundException;
-import com.damaya.kalah.core.entities.exceptions.InvalidMoveException;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.interfaces.EndgameTablebase;
+import com.damaya.kalah.core.interfaces.GameBot;
+import com.damaya.kalah.core.interfaces.GameEngine;
 import com.damaya.kalah.core.interfaces.GameService;
+import com.damaya.kalah.core.interfaces.PositionIndex;
+import com.damaya.kalah.core.usecases.bot.ZobristKeys;
+import com.damaya.kalah.core.usecases.history.GameHistory;
 import com.damaya.kalah.dtos.GameResponse;
+import com.damaya.kalah.dtos.MovesResponse;
+import com.damaya.kalah.dtos.PlyResponse;
+import com.damaya.kalah.dtos.PositionResponse;
+import com.damaya.kalah.dtos.SolutionResponse;
 import com.damaya.kalah.mappers.GameResponseMapper;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping(value = "/games", produces = "application/json")
 public class GameController {
 
-    private final GameService service;
+    /**
+     * Maximum games of a page of the position query
+     */
+    static final int MAX_POSITION_GAMES = 1000;
+
+    private final GameEngine engine;
+    private final EndgameTablebase tablebase;
+    private final PositionIndex positions;
+    private final GamesUrlResolver urls;
 
     @Autowired
-    public GameController(GameService service) {
-        this.service = service;
+    public GameController(GameEngine engine, ObjectProvider<EndgameTablebase> tablebase,
+                          ObjectProvider<PositionIndex> positions, GamesUrlResolver urls) {
+        this.engine = engine;
+        this.urls = urls;
+        this.tablebase = tablebase.getIfAvailable();
+        this.positions = positions.getIfAvailable();
     }
 
     @PostMapping
-    @ResponseStatus(value = HttpStatus.CREATED)
-    public GameResponse createGame(){
-        return GameResponseMapper.map(service.create().withBoard(null));
+    public CompletableFuture<ResponseEntity<GameResponse>> createGame(@RequestParam(defaultValue = "kalah") String variant,
+                                                      @RequestParam(defaultValue = "human") String opponent,
+                                                      @RequestParam(defaultValue = "5") int level){
+        GameVariant gameVariant = GameVariant.fromName(variant).orElseThrow(() ->
+                new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown game variant " + variant));
+        int botLevel = botLevel(opponent, level);
+        //the link is built from the current request, so it is resolved before leaving the request thread
+        String gamesUrl = urls.gamesUrl();
+        return engine.create(gameVariant, botLevel).thenApply(game -> ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(Long.toString(game.getVersion()))
+                .body(GameResponseMapper.map(game.withBoard(null), gamesUrl)));
     }
 
+    /**
+     * @param ifMatch optional version of the game the move is meant for, as returned in the {@code ETag} header
+     */
     @PutMapping("/{gameId}/pits/{pitId}")
-    public GameResponse makeMove(@PathVariable String gameId, @PathVariable int pitId) throws GameAlreadyFinishedException, GameNotFoundException
-            , InvalidMoveException {
-        return GameResponseMapper.map(service.makeMove(gameId, pitId));
+    public CompletableFuture<ResponseEntity<GameResponse>> makeMove(@PathVariable String gameId,
+            @PathVariable int pitId, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        long expectedVersion = expectedVersion(ifMatch);
+        String gamesUrl = urls.gamesUrl();
+        return engine.makeMove(gameId, pitId, expectedVersion).thenApply(game -> ResponseEntity.ok()
+                .eTag(Long.toString(game.getVersion()))
+                .body(GameResponseMapper.map(game, gamesUrl)));
+    }
+
+    @GetMapping("/{gameId}/solution")
+    public CompletableFuture<SolutionResponse> solve(@PathVariable String gameId) {
+        if(tablebase == null){
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "Endgame tablebase is not configured");
+        }
+        String gamesUrl = urls.gamesUrl();
+        return engine.find(gameId).thenApply(game -> tablebase.solve(game)
+                .map(solution -> GameResponseMapper.map(game.getId(), solution, gamesUrl))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Position is not in the endgame tablebase")));
+    }
+
+    @GetMapping("/{gameId}/moves")
+    public CompletableFuture<MovesResponse> moves(@PathVariable String gameId) {
+        String gamesUrl = urls.gamesUrl();
+        return engine.find(gameId).thenApply(game -> GameResponseMapper.mapMoves(withHistory(game), gamesUrl));
+    }
+
+    @GetMapping("/{gameId}/plies/{ply}")
+    public CompletableFuture<PlyResponse> replay(@PathVariable String gameId, @PathVariable int ply) {
+        String gamesUrl = urls.gamesUrl();
+        return engine.find(gameId).thenApply(game -> {
+            int plies = withHistory(game).getMoves().size();
+            if(ply < 0 || ply > plies){
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ply should be between 0 and " + plies);
+            }
+            return GameResponseMapper.map(GameHistory.gameAt(game, ply), ply, gamesUrl);
+        });
+    }
+
+    /**
+     * @param after id of the last game of the previous page, absent for the first page
+     * @param limit maximum number of games of the page
+     */
+    @GetMapping("/positions")
+    public PositionResponse findByPosition(@RequestParam(defaultValue = "kalah") String variant,
+                                           @RequestParam int[] pits,
+                                           @RequestParam(required = false) GameTurn turn,
+                                           @RequestParam(required = false) String after,
+                                           @RequestParam(defaultValue = "100") int limit) {
+        if(positions == null){
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "Position index is not configured");
+        }
+        if(limit < 1 || limit > MAX_POSITION_GAMES){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Limit should be between 1 and " + MAX_POSITION_GAMES);
+        }
+        GameVariant gameVariant = GameVariant.fromName(variant).orElseThrow(() ->
+                new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown game variant " + variant));
+        if(pits.length != gameVariant.getTotalPits()){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Position should have " + gameVariant.getTotalPits() + " pits");
+        }
+        for(int stones : pits){
+            if(stones < 0 || stones > ZobristKeys.MAX_STONES_PER_PIT){
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Pits should have between 0 and " + ZobristKeys.MAX_STONES_PER_PIT + " stones");
+            }
+        }
+        ZobristKeys keys = ZobristKeys.of(gameVariant);
+        //without a turn the board matches the positions of both players, their pages are merged in id order
+        TreeSet<String> gameIds = new TreeSet<>();
+        for(GameTurn player : GameTurn.values()){
+            if(Objects.isNull(turn) || turn == player){
+                gameIds.addAll(positions.find(keys.hash(pits, player), after, limit + 1));
+            }
+        }
+        List<String> page = new ArrayList<>(limit);
+        for(String gameId : gameIds){
+            if(page.size() == limit){
+                break;
+            }
+            page.add(gameId);
+        }
+        String next = gameIds.size() > limit ? page.get(limit - 1) : null;
+        String gamesUrl = urls.gamesUrl();
+        return GameResponseMapper.map(page, next, gamesUrl);
+    }
+
+    /**
+     * @param ifMatch {@code If-Match} header: a version as a strong or weak entity tag, or {@code *}
+     * @return version of the header, {@link GameService#ANY_VERSION} without header or with {@code *}
+     */
+    private static long expectedVersion(String ifMatch) {
+        if(Objects.isNull(ifMatch) || "*".equals(ifMatch.trim())){
+            return GameService.ANY_VERSION;
+        }
+        String tag = ifMatch.trim();
+        if(tag.startsWith("W/")){
+            tag = tag.substring(2);
+        }
+        if(tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")){
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try{
+            long version = Long.parseLong(tag);
+            if(version >= 0){
+                return version;
+            }
+        }catch (NumberFormatException e){
+            //not a version, so it never matches
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match should be a game version");
+    }
+
+    private static Game withHistory(Game game) {
+        if(Objects.isNull(game.getMoves())){
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Game history is not recorded");
+        }
+        return game;
+    }
+
+    private static int botLevel(String opponent, int level) {
+        if("human".equals(opponent)){
+            return 0;
+        }else if(!"bot".equals(opponent)){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Opponent should be human or bot");
+        }else if(level < GameBot.MIN_LEVEL || level > GameBot.MAX_LEVEL){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Bot level should be between " + GameBot.MIN_LEVEL + " and " + GameBot.MAX_LEVEL);
+        }
+        return level;
     }
 
 }
@@ -0,0 +1,101 @@
+package com.damaya.kalah.controllers;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+
+/**
+ * Url of the games resource for the current request. {@link org.springframework.hateoas.server.mvc.WebMvcLinkBuilder}
+ * introspects the controller mapping and parses the request url on every call, while the url only depends on the
+ * scheme, host, port, context path and servlet path of the request, so it is built once for every combination and
+ * cached. {@code X-Forwarded-*} and {@code Forwarded} headers reach the cache through the request, which the
+ * forwarded header filter rewrites before the controller runs when {@code server.forward-headers-strategy} is
+ * {@code framework}: it should only be enabled behind a proxy that sets them.
+ * <p>
+ * Lookups take no lock. Hosts come from the clients, so the cache is cleared when a new combination finds it full
+ * and the urls still in use are built again.
+ */
+@Component
+public class GamesUrlResolver {
+
+    /**
+     * Combinations kept before the cache is cleared
+     */
+    static final int MAX_ENTRIES = 256;
+
+    private final Map<Key, String> urls = new ConcurrentHashMap<>();
+
+    /**
+     * @return url of the games resource, it should be called on the request thread
+     */
+    public String gamesUrl() {
+        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes())
+                .getRequest();
+        Key key = new Key(request.getScheme(), request.getServerName(), request.getServerPort(),
+                request.getContextPath(), request.getServletPath());
+        String url = urls.get(key);
+        if(Objects.isNull(url)){
+            url = buildGamesUrl();
+            if(urls.size() >= MAX_ENTRIES){
+                urls.clear();
+            }
+            urls.put(key, url);
+        }
+        return url;
+    }
+
+    /**
+     * @return url of the games resource built from the current request
+     */
+    String buildGamesUrl() {
+        return linkTo(GameController.class).withSelfRel().getHref();
+    }
+
+    int size() {
+        return urls.size();
+    }
+
+    private static final class Key {
+        private final String scheme;
+        private final String host;
+        private final int port;
+        private final String contextPath;
+        private final String servletPath;
+        private final int hash;
+
+        private Key(String scheme, String host, int port, String contextPath, String servletPath) {
+            this.scheme = scheme;
+            this.host = host;
+            this.port = port;
+            this.contextPath = contextPath;
+            this.servletPath = servletPath;
+            int code = Objects.hashCode(scheme);
+            code = 31 * code + Objects.hashCode(host);
+            code = 31 * code + port;
+            code = 31 * code + Objects.hashCode(contextPath);
+            this.hash = 31 * code + Objects.hashCode(servletPath);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if(!(other instanceof Key)){
+                return false;
+            }
+            Key key = (Key) other;
+            return port == key.port && Objects.equals(scheme, key.scheme) && Objects.equals(host, key.host)
+                    && Objects.equals(contextPath, key.contextPath) && Objects.equals(servletPath, key.servletPath);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.damaya.kalah.converters;
+
+import com.damaya.kalah.dtos.GameResponse;
+import com.damaya.kalah.dtos.PitStatus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Encodes a {@link GameResponse} as JSON into a reusable byte buffer, with the same fields Jackson writes and
+ * without building the {@code status} map: pit keys and stone counts are copied from tables encoded once, so
+ * rendering a move response allocates nothing once the buffer has grown to fit it. Not thread-safe, each thread
+ * should use its own writer.
+ */
+public final class GameJsonWriter {
+
+    private static final byte[] ID = ascii("{\"id\":");
+    private static final byte[] URL = ascii("\"url\":");
+    private static final byte[] STATUS = ascii("\"status\":{");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+    /**
+     * {@code "<pit>":} of every pit with a shared key, by pit number
+     */
+    private static final byte[][] PIT_KEYS = new byte[PitStatus.CACHED_PITS + 1][];
+    /**
+     * {@code "<stones>"} of every stone count with a shared value
+     */
+    private static final byte[][] STONES = new byte[PitStatus.CACHED_STONES][];
+
+    static {
+        for(int pit = 1; pit <= PitStatus.CACHED_PITS; pit++){
+            PIT_KEYS[pit] = ascii("\"" + pit + "\":");
+        }
+        for(int stones = 0; stones < PitStatus.CACHED_STONES; stones++){
+            STONES[stones] = ascii("\"" + stones + "\"");
+        }
+    }
+
+    private byte[] buffer;
+    private int size;
+
+    /**
+     * @param capacity initial buffer size, it grows when a response does not fit
+     */
+    public GameJsonWriter(int capacity) {
+        if(capacity <= 0){
+            throw new IllegalArgumentException("Capacity should be greater than 0");
+        }
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * Encode a response in the buffer, replacing the previous one. Null fields are left out, like
+     * {@link com.fasterxml.jackson.annotation.JsonInclude.Include#NON_NULL} does
+     * @param response game response
+     * @return this writer
+     */
+    public GameJsonWriter encode(GameResponse response) {
+        size = 0;
+        boolean empty = true;
+        if(Objects.nonNull(response.getId())){
+            append(ID);
+            appendString(response.getId());
+            empty = false;
+        }
+        if(Objects.nonNull(response.getUrl())){
+            appendSeparator(empty);
+            append(URL);
+            appendString(response.getUrl());
+            empty = false;
+        }
+        Map<String, String> status = response.getStatus();
+        if(Objects.nonNull(status)){
+            appendSeparator(empty);
+            append(STATUS);
+            if(status instanceof PitStatus){
+                appendPits(((PitStatus) status).getPits());
+            }else{
+                appendMap(status);
+            }
+            appendByte('}');
+            empty = false;
+        }
+        if(empty){
+            appendByte('{');
+        }
+        appendByte('}');
+        return this;
+    }
+
+    /**
+     * @return bytes of the encoded response
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Write the encoded response
+     * @param out stream to write to
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    /**
+     * @return copy of the encoded response
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void appendPits(int[] pits) {
+        for(int pit = 1; pit <= pits.length; pit++){
+            if(pit > 1){
+                appendByte(',');
+            }
+            if(pit <= PitStatus.CACHED_PITS){
+                append(PIT_KEYS[pit]);
+            }else{
+                appendString(Integer.toString(pit));
+                appendByte(':');
+            }
+            int stones = pits[pit - 1];
+            if(stones >= 0 && stones < PitStatus.CACHED_STONES){
+                append(STONES[stones]);
+            }else{
+                appendString(Integer.toString(stones));
+            }
+        }
+    }
+
+    private void appendMap(Map<String, String> status) {
+        boolean first = true;
+        for(Map.Entry<String, String> entry : status.entrySet()){
+            if(!first){
+                appendByte(',');
+            }
+            appendString(entry.getKey());
+            appendByte(':');
+            if(Objects.isNull(entry.getValue())){
+                append(NULL);
+            }else{
+                appendString(entry.getValue());
+            }
+            first = false;
+        }
+    }
+
+    private void appendSeparator(boolean empty) {
+        appendByte(empty ? '{' : ',');
+    }
+
+    /**
+     * Append a quoted string, escaping quotes, backslashes and control characters and encoding it in UTF-8
+     */
+    private void appendString(String value) {
+        ensureCapacity(value.length() * 6 + 2);
+        byte[] bytes = buffer;
+        int position = size;
+        bytes[position++] = '"';
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if(c >= 0x20 && c < 0x80 && c != '"' && c != '\\'){
+                bytes[position++] = (byte) c;
+            }else if(c == '"' || c == '\\'){
+                bytes[position++] = '\\';
+                bytes[position++] = (byte) c;
+            }else if(c < 0x20){
+                bytes[position++] = '\\';
+                bytes[position++] = 'u';
+                bytes[position++] = '0';
+                bytes[position++] = '0';
+                bytes[position++] = HEX[c >> 4];
+                bytes[position++] = HEX[c & 0xF];
+            }else{
+                //rare, encode the rest of the string at once, surrogate pairs included
+                size = position;
+                appendUtf8(value.substring(i));
+                position = size;
+                break;
+            }
+        }
+        bytes = buffer;
+        bytes[position++] = '"';
+        size = position;
+    }
+
+    private void appendUtf8(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if(c == '"' || c == '\\'){
+                escaped.append('\\').append(c);
+            }else if(c < 0x20){
+                escaped.append(String.format("\\u%04x", (int) c));
+            }else{
+                escaped.append(c);
+            }
+        }
+        append(escaped.toString().getBytes(StandardCharsets.UTF_8));
+        ensureCapacity(1);
+    }
+
+    private void append(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void appendByte(char c) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) c;
+    }
+
+    private void ensureCapacity(int extra) {
+        if(size + extra > buffer.length){
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
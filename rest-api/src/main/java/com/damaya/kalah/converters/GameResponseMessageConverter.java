@@ -0,0 +1,51 @@
+package com.damaya.kalah.converters;
+
+import com.damaya.kalah.dtos.GameResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Writes the game responses with a {@link GameJsonWriter} of the request thread instead of Jackson, so move
+ * responses are rendered without reflection nor building their status map. It is only used to write: requests
+ * and clients read game responses with Jackson.
+ */
+@Component
+public class GameResponseMessageConverter extends AbstractHttpMessageConverter<GameResponse> {
+
+    private static final int INITIAL_CAPACITY = 512;
+
+    private final ThreadLocal<GameJsonWriter> writers = ThreadLocal.withInitial(() ->
+            new GameJsonWriter(INITIAL_CAPACITY));
+
+    public GameResponseMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return GameResponse.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected GameResponse readInternal(Class<? extends GameResponse> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Game responses are only written", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(GameResponse response, HttpOutputMessage outputMessage) throws IOException {
+        GameJsonWriter writer = writers.get().encode(response);
+        outputMessage.getHeaders().setContentLength(writer.size());
+        writer.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,16 @@
+package com.damaya.kalah.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class MovesResponse {
+
+    private String id;
+    private String url;
+    /**
+     * Pit ids of the moves played, in order
+     */
+    private int[] moves;
+}
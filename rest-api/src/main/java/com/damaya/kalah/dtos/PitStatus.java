@@ -0,0 +1,121 @@
+package com.damaya.kalah.dtos;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only view of the pits of a board as the {@code status} map of the responses, pit number to stones. The
+ * pits are wrapped without copying, game snapshots are never modified, and the entries are only created when the
+ * map is read, from shared tables of the pit numbers and the usual stone counts.
+ */
+public final class PitStatus extends AbstractMap<String, String> {
+
+    /**
+     * Pit numbers with a shared key, from 1
+     */
+    public static final int CACHED_PITS = 16;
+    /**
+     * Stone counts with a shared value, from 0
+     */
+    public static final int CACHED_STONES = 256;
+
+    private static final String[] KEYS = new String[CACHED_PITS + 1];
+    private static final String[] VALUES = new String[CACHED_STONES];
+
+    static {
+        for(int pit = 1; pit <= CACHED_PITS; pit++){
+            KEYS[pit] = Integer.toString(pit).intern();
+        }
+        for(int stones = 0; stones < CACHED_STONES; stones++){
+            VALUES[stones] = Integer.toString(stones).intern();
+        }
+    }
+
+    private final int[] pits;
+
+    /**
+     * @param pits stones of each pit, not copied
+     */
+    public PitStatus(int[] pits) {
+        this.pits = pits;
+    }
+
+    /**
+     * @return stones of each pit, the wrapped array that must not be modified
+     */
+    public int[] getPits() {
+        return pits;
+    }
+
+    @Override
+    public int size() {
+        return pits.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : value(pits[index]);
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<Entry<String, String>>() {
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < pits.length;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if(index >= pits.length){
+                            throw new NoSuchElementException();
+                        }
+                        int pit = index++;
+                        return new SimpleImmutableEntry<>(key(pit + 1), value(pits[pit]));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return pits.length;
+            }
+        };
+    }
+
+    private int indexOf(Object key) {
+        if(key instanceof String){
+            try{
+                int pit = Integer.parseInt((String) key);
+                if(pit >= 1 && pit <= pits.length && key(pit).equals(key)){
+                    return pit - 1;
+                }
+            }catch (NumberFormatException e){
+                //not a pit number
+            }
+        }
+        return -1;
+    }
+
+    private static String key(int pit) {
+        return pit <= CACHED_PITS ? KEYS[pit] : Integer.toString(pit);
+    }
+
+    private static String value(int stones) {
+        return stones >= 0 && stones < CACHED_STONES ? VALUES[stones] : Integer.toString(stones);
+    }
+}
@@ -0,0 +1,21 @@
+package com.damaya.kalah.dtos;
+
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@Builder
+public class PlyResponse {
+
+    private String id;
+    private String url;
+    /**
+     * Moves played before the position
+     */
+    private int ply;
+    private GameTurn turn;
+    private Map<String, String> status;
+}
@@ -0,0 +1,27 @@
+package com.damaya.kalah.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PositionResponse {
+
+    /**
+     * Games that reached the position, without their status
+     */
+    private List<GameResponse> games;
+
+    /**
+     * Id to pass as {@code after} to get the next page, absent on the last page
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String next;
+}
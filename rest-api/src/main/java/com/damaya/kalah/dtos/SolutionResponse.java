@@ -0,0 +1,17 @@
+package com.damaya.kalah.dtos;
+
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SolutionResponse {
+
+    private String id;
+    private String url;
+    private GameTurn winner;
+    private int bestPitId;
+    private int stonesPlayerOne;
+    private int stonesPlayerTwo;
+}
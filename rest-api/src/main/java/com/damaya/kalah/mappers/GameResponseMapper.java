@@ -1,36 +1,113 @@
 package com.damaya.kalah.mappers;
 
-import com.damaya.kalah.controllers.GameController;
 import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.EndgameSolution;
 import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.usecases.history.GameHistory;
 import com.damaya.kalah.dtos.GameResponse;
+import com.damaya.kalah.dtos.MovesResponse;
+import com.damaya.kalah.dtos.PitStatus;
+import com.damaya.kalah.dtos.PlyResponse;
+import com.damaya.kalah.dtos.PositionResponse;
+import com.damaya.kalah.dtos.SolutionResponse;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-
 public class GameResponseMapper {
 
     private GameResponseMapper(){}
 
-    public static GameResponse map(Game game){
+    /**
+     * Map a game outside of the request thread
+     * @param game game
+     * @param gamesUrl url of the games resource
+     * @return game response
+     */
+    public static GameResponse map(Game game, String gamesUrl){
         return GameResponse.builder()
                 .id(game.getId())
                 .status(mapPits(game.getBoard()))
-                .url(linkTo(GameController.class).slash(game.getId()).withSelfRel().getHref())
+                .url(gamesUrl + "/" + game.getId())
                 .build();
     }
 
-    private static Map<String, String> mapPits(Board board) {
-        Map<String, String> status = null;
-        if(Objects.nonNull(board) && Objects.nonNull(board.getPits())){
-            status = new HashMap<>();
-            for(int i = 1; i <= board.getPits().length; i++){
-                status.put(String.valueOf(i), String.valueOf(board.getPits()[i-1]));
-            }
+    /**
+     * Map the solution of the position of a game outside of the request thread
+     * @param gameId id of the game
+     * @param solution solution of its position
+     * @param gamesUrl url of the games resource
+     * @return solution response
+     */
+    public static SolutionResponse map(String gameId, EndgameSolution solution, String gamesUrl){
+        return SolutionResponse.builder()
+                .id(gameId)
+                .url(gamesUrl + "/" + gameId)
+                .winner(solution.getWinner())
+                .bestPitId(solution.getBestPitId())
+                .stonesPlayerOne(solution.getStonesPlayerOne())
+                .stonesPlayerTwo(solution.getStonesPlayerTwo())
+                .build();
+    }
+
+    /**
+     * Map the moves of a game outside of the request thread
+     * @param game game keeping its moves
+     * @param gamesUrl url of the games resource
+     * @return moves response
+     */
+    public static MovesResponse mapMoves(Game game, String gamesUrl){
+        return MovesResponse.builder()
+                .id(game.getId())
+                .url(gamesUrl + "/" + game.getId())
+                .moves(GameHistory.moves(game))
+                .build();
+    }
+
+    /**
+     * Map a past position of a game outside of the request thread
+     * @param game game as it was after the moves
+     * @param ply moves played before the position
+     * @param gamesUrl url of the games resource
+     * @return ply response
+     */
+    public static PlyResponse map(Game game, int ply, String gamesUrl){
+        return PlyResponse.builder()
+                .id(game.getId())
+                .url(gamesUrl + "/" + game.getId())
+                .ply(ply)
+                .turn(Objects.isNull(game.getFinishedAt()) ? game.getTurn() : null)
+                .status(mapPits(game.getBoard()))
+                .build();
+    }
+
+    /**
+     * Map a page of the games that reached a position
+     * @param gameIds ids of the games
+     * @param next id to ask the next page after, null on the last page
+     * @param gamesUrl url of the games resource
+     * @return position response
+     */
+    public static PositionResponse map(List<String> gameIds, String next, String gamesUrl){
+        List<GameResponse> games = new ArrayList<>(gameIds.size());
+        for(String gameId : gameIds){
+            games.add(GameResponse.builder()
+                    .id(gameId)
+                    .url(gamesUrl + "/" + gameId)
+                    .build());
         }
-        return status;
+        return PositionResponse.builder()
+                .games(games)
+                .next(next)
+                .build();
+    }
+
+    /**
+     * @return status of the pits, a view of the board that builds no map
+     */
+    private static Map<String, String> mapPits(Board board) {
+        return Objects.nonNull(board) && Objects.nonNull(board.getPits()) ? new PitStatus(board.getPits()) : null;
     }
 }
@@ -0,0 +1,55 @@
+package com.damaya.kalah.controllers;
+
+import com.damaya.kalah.KalahApiApplication;
+import com.damaya.kalah.dtos.GameResponse;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test of the urls of class {@link GameController} behind a proxy
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = KalahApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "server.forward-headers-strategy=framework")
+public class GameControllerForwardedTest {
+
+    private static final String URL = "/games";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void testCreateGameShouldLinkThroughTheForwardedHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Forwarded-Proto", "https");
+        headers.set("X-Forwarded-Host", "kalah.example.com");
+        headers.set("X-Forwarded-Port", "443");
+        headers.set("X-Forwarded-Prefix", "/api");
+
+        ResponseEntity<GameResponse> forwarded = restTemplate.exchange(URL, HttpMethod.POST,
+                new HttpEntity<>(headers), GameResponse.class);
+        ResponseEntity<GameResponse> direct = restTemplate.exchange(URL, HttpMethod.POST,
+                new HttpEntity<>(new HttpHeaders()), GameResponse.class);
+
+        assertThat(forwarded.getBody()).isNotNull().satisfies(game -> assertThat(game.getUrl())
+                .isEqualTo("https://kalah.example.com/api" + URL + "/" + game.getId()));
+        assertThat(direct.getBody()).isNotNull().satisfies(game -> assertThat(game.getUrl())
+                .isEqualTo("http://localhost:" + port + URL + "/" + game.getId()));
+    }
+}
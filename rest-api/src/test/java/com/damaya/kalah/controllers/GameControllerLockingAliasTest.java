@@ -0,0 +1,24 @@
+package com.damaya.kalah.controllers;
+
+import com.damaya.kalah.core.interfaces.GameEngine;
+import com.damaya.kalah.core.usecases.DirectGameEngine;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test of class {@link GameController} with the former name of the direct game engine
+ */
+@TestPropertySource(properties = "kalah.engine.type=locking")
+public class GameControllerLockingAliasTest extends GameControllerTest {
+
+    @Autowired
+    private GameEngine engine;
+
+    @Test
+    public void testLockingSelectsTheDirectEngine() {
+        assertThat(engine).isInstanceOf(DirectGameEngine.class);
+    }
+}
@@ -0,0 +1,121 @@
+package com.damaya.kalah.controllers;
+
+import com.damaya.kalah.KalahApiApplication;
+import com.damaya.kalah.dtos.GameResponse;
+import com.damaya.kalah.dtos.PositionResponse;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test of the position query of class {@link GameController}
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = KalahApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "kalah.positions.enabled=true")
+public class GameControllerPositionTest {
+
+    private static final String URL = "/games";
+    //board after player one plays pit 6 of a new kalah game
+    private static final String PITS = "6,6,6,6,6,0,1,7,7,7,7,7,6,0";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void testFindByPositionSucceed() {
+        GameResponse first = createGameAndMove(6);
+        GameResponse second = createGameAndMove(6);
+        GameResponse other = createGameAndMove(1);
+
+        ResponseEntity<PositionResponse> response = restTemplate.getForEntity(URL + "/positions?pits=" + PITS
+                + "&turn=PLAYER_TWO", PositionResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getGames()).extracting(GameResponse::getId)
+                .contains(first.getId(), second.getId()).doesNotContain(other.getId());
+        assertThat(response.getBody().getGames()).extracting(GameResponse::getUrl)
+                .contains("http://localhost:" + port + URL + "/" + first.getId());
+    }
+
+    @Test
+    public void testFindByPositionWithoutTurnSucceed() {
+        GameResponse game = createGameAndMove(6);
+
+        ResponseEntity<PositionResponse> wrongTurn = restTemplate.getForEntity(URL + "/positions?pits=" + PITS
+                + "&turn=PLAYER_ONE", PositionResponse.class);
+        ResponseEntity<PositionResponse> anyTurn = restTemplate.getForEntity(URL + "/positions?pits=" + PITS,
+                PositionResponse.class);
+
+        assertThat(wrongTurn.getBody()).isNotNull();
+        assertThat(wrongTurn.getBody().getGames()).extracting(GameResponse::getId).doesNotContain(game.getId());
+        assertThat(anyTurn.getBody()).isNotNull();
+        assertThat(anyTurn.getBody().getGames()).extracting(GameResponse::getId).contains(game.getId());
+    }
+
+    @Test
+    public void testFindByPositionFailedWhenPitsDoNotMatchTheVariant() {
+        ParameterizedTypeReference<Map<String, Object>> responseType = new ParameterizedTypeReference<Map<String, Object>>() {};
+
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(URL + "/positions?variant=kalah-4-3&pits="
+                + PITS, HttpMethod.GET, null, responseType);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isNotNull().containsValue("Position should have 10 pits");
+    }
+
+    @Test
+    public void testFindByPositionPagesTheGames() {
+        GameResponse first = createGameAndMove(6);
+        GameResponse second = createGameAndMove(6);
+        GameResponse third = createGameAndMove(6);
+
+        List<String> gameIds = new ArrayList<>();
+        String after = null;
+        do{
+            PositionResponse page = restTemplate.getForObject(URL + "/positions?pits=" + PITS
+                    + "&turn=PLAYER_TWO&limit=2" + (after == null ? "" : "&after=" + after), PositionResponse.class);
+            assertThat(page.getGames()).hasSizeLessThanOrEqualTo(2);
+            page.getGames().forEach(game -> gameIds.add(game.getId()));
+            after = page.getNext();
+        }while(after != null);
+
+        assertThat(gameIds).isSorted().doesNotHaveDuplicates()
+                .contains(first.getId(), second.getId(), third.getId());
+    }
+
+    @Test
+    public void testFindByPositionFailedWhenLimitIsTooLarge() {
+        ParameterizedTypeReference<Map<String, Object>> responseType = new ParameterizedTypeReference<Map<String, Object>>() {};
+
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(URL + "/positions?limit=1001&pits="
+                + PITS, HttpMethod.GET, null, responseType);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isNotNull().containsValue("Limit should be between 1 and 1000");
+    }
+
+    private GameResponse createGameAndMove(int pitId) {
+        GameResponse game = restTemplate.postForObject(URL, null, GameResponse.class);
+        restTemplate.exchange(URL + "/" + game.getId() + "/pits/" + pitId, HttpMethod.PUT, null, GameResponse.class);
+        return game;
+    }
+}
@@ -0,0 +1,10 @@
+package com.damaya.kalah.controllers;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Test of class {@link GameController} with the sharded game engine
+ */
+@TestPropertySource(properties = "kalah.engine.type=sharded")
+public class GameControllerShardedTest extends GameControllerTest {
+}
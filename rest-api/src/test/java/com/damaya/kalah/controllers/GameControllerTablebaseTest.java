@@ -0,0 +1,113 @@
+package com.damaya.kalah.controllers;
+
+import com.damaya.kalah.KalahApiApplication;
+import com.damaya.kalah.core.entities.domain.EndgameSolution;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.interfaces.EndgameTablebase;
+import com.damaya.kalah.core.interfaces.GameStorage;
+import com.damaya.kalah.dtos.GameResponse;
+import com.damaya.kalah.dtos.SolutionResponse;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test of the solution endpoint of class {@link GameController}
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = {KalahApiApplication.class, GameControllerTablebaseTest.TablebaseConfiguration.class},
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class GameControllerTablebaseTest {
+
+    private static final String URL = "/games";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private GameStorage storage;
+
+    @LocalServerPort
+    private int port;
+
+    @TestConfiguration
+    static class TablebaseConfiguration {
+        /**
+         * Tablebase that solves every game in progress
+         */
+        @Bean
+        public EndgameTablebase tablebase() {
+            return game -> Objects.nonNull(game.getFinishedAt()) ? Optional.empty()
+                    : Optional.of(EndgameSolution.builder()
+                            .winner(GameTurn.PLAYER_ONE)
+                            .bestPitId(3)
+                            .stonesPlayerOne(40)
+                            .stonesPlayerTwo(32)
+                            .build());
+        }
+    }
+
+    @Test
+    public void testSolveSucceed() {
+        GameResponse game = restTemplate.postForObject(URL, null, GameResponse.class);
+
+        ResponseEntity<SolutionResponse> response = restTemplate.getForEntity(URL + "/" + game.getId() + "/solution",
+                SolutionResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull().satisfies(solution -> {
+            assertThat(solution.getId()).isEqualTo(game.getId());
+            assertThat(solution.getUrl()).isEqualTo("http://localhost:" + port + URL + "/" + game.getId());
+            assertThat(solution.getWinner()).isEqualTo(GameTurn.PLAYER_ONE);
+            assertThat(solution.getBestPitId()).isEqualTo(3);
+            assertThat(solution.getStonesPlayerOne()).isEqualTo(40);
+            assertThat(solution.getStonesPlayerTwo()).isEqualTo(32);
+        });
+    }
+
+    @Test
+    public void testSolveFailedWhenPositionIsNotInTheTablebase() {
+        Game game = storage.save(Game.builder()
+                .id(UUID.randomUUID().toString())
+                .startedAt(new Date())
+                .finishedAt(new Date())
+                .turn(GameTurn.PLAYER_ONE)
+                .winner(GameTurn.PLAYER_ONE).build());
+        ParameterizedTypeReference<Map<String, Object>> responseType = new ParameterizedTypeReference<Map<String, Object>>() {};
+
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(URL + "/" + game.getId() + "/solution",
+                HttpMethod.GET, null, responseType);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(response.getBody()).isNotNull().containsValue("Position is not in the endgame tablebase");
+    }
+
+    @Test
+    public void testSolveFailedWhenGameNotFound() {
+        ParameterizedTypeReference<Map<String, Object>> responseType = new ParameterizedTypeReference<Map<String, Object>>() {};
+
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(URL + "/" + UUID.randomUUID() + "/solution",
+                HttpMethod.GET, null, responseType);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(response.getBody()).isNotNull().containsValue("Game not found");
+    }
+}
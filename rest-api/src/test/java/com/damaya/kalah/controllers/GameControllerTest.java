@@ -3,8 +3,11 @@ package com.damaya.kalah.controllers;
 import com.damaya.kalah.KalahApiApplication;
 import com.damaya.kalah.core.entities.domain.Game;
 import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
 import com.damaya.kalah.core.interfaces.GameStorage;
 import com.damaya.kalah.dtos.GameResponse;
+import com.damaya.kalah.dtos.MovesResponse;
+import com.damaya.kalah.dtos.PlyResponse;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,6 +52,63 @@ public class GameControllerTest {
         });
     }
 
+    @Test
+    public void testCreateGameOfVariantSucceed() {
+        HttpEntity<String> entity = createHttpEntity(MediaType.APPLICATION_JSON);
+        ResponseEntity<GameResponse> response = restTemplate.exchange(URL + "?variant=kalah-4-3", HttpMethod.POST,
+                entity, GameResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(storage.findById(response.getBody().getId())).isPresent().get().satisfies(game -> {
+            assertThat(game.getVariant()).isEqualTo(GameVariant.KALAH_4_3);
+            assertThat(game.getBoard().getPits()).containsExactly(3, 3, 3, 3, 0, 3, 3, 3, 3, 0);
+        });
+    }
+
+    @Test
+    public void testCreateGameFailedWhenVariantIsUnknown() {
+        HttpEntity<String> entity = createHttpEntity(MediaType.APPLICATION_JSON);
+        ParameterizedTypeReference<Map<String, Object>> responseType = new ParameterizedTypeReference<Map<String, Object>>() {};
+
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(URL + "?variant=chess", HttpMethod.POST,
+                entity, responseType);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isNotNull().containsValue("Unknown game variant chess");
+    }
+
+    @Test
+    public void testBotShouldAnswerTheMove() {
+        HttpEntity<String> entity = createHttpEntity(MediaType.APPLICATION_JSON);
+        ResponseEntity<GameResponse> created = restTemplate.exchange(URL + "?opponent=bot&level=2", HttpMethod.POST,
+                entity, GameResponse.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        String gameId = created.getBody().getId();
+
+        ResponseEntity<GameResponse> response = restTemplate.exchange(URL + "/" + gameId + "/pits/2", HttpMethod.PUT,
+                entity, GameResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(storage.findById(gameId)).isPresent().get().satisfies(game -> {
+            assertThat(game.getBotLevel()).isEqualTo(2);
+            assertThat(game.getFinishedAt() != null || game.getTurn() == GameTurn.PLAYER_ONE).isTrue();
+            assertThat(game.getBoard().getPits()).isNotEqualTo(new int[]{6, 0, 7, 7, 7, 7, 1, 7, 6, 6, 6, 6, 6, 0});
+        });
+    }
+
+    @Test
+    public void testCreateGameFailedWhenBotLevelIsOutOfRange() {
+        HttpEntity<String> entity = createHttpEntity(MediaType.APPLICATION_JSON);
+        ParameterizedTypeReference<Map<String, Object>> responseType = new ParameterizedTypeReference<Map<String, Object>>() {};
+
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(URL + "?opponent=bot&level=11",
+                HttpMethod.POST, entity, responseType);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isNotNull().containsValue("Bot level should be between 1 and 10");
+    }
+
     @Test
     public void testMakeMoveFailedWhenGameNotFound() {
         String gameId = UUID.randomUUID().toString();
@@ -60,7 +120,9 @@ public class GameControllerTest {
                 HttpMethod.PUT, entity, responseType);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
-        assertThat(response.getBody()).isNotNull().containsKeys("message").containsValue("Game not found");
+        assertThat(response.getBody()).isNotNull().containsKeys("message").containsValue("Game not found")
+                .containsEntry("status", 404).containsEntry("error", "Not Found")
+                .containsEntry("path", URL + "/" + gameId + "/pits/" + pitId).containsKey("timestamp");
         assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
     }
 
@@ -111,6 +173,43 @@ public class GameControllerTest {
         assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
     }
 
+    @Test
+    public void testMakeMoveWithIfMatchSucceed() {
+        HttpEntity<String> entity = createHttpEntity(MediaType.APPLICATION_JSON);
+        ResponseEntity<GameResponse> created = restTemplate.exchange(URL, HttpMethod.POST, entity, GameResponse.class);
+        assertThat(created.getHeaders().getETag()).isEqualTo("\"0\"");
+
+        ResponseEntity<GameResponse> response = restTemplate.exchange(URL + "/" + created.getBody().getId()
+                + "/pits/1", HttpMethod.PUT, createHttpEntity(created.getHeaders().getETag()), GameResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"1\"");
+        assertThat(storage.findById(created.getBody().getId())).isPresent().get()
+                .satisfies(game -> assertThat(game.getVersion()).isEqualTo(1));
+    }
+
+    @Test
+    public void testMakeMoveFailedWhenVersionDoesNotMatch() {
+        GameResponse game = createGameWithApi();
+        ParameterizedTypeReference<Map<String, Object>> responseType = new ParameterizedTypeReference<Map<String, Object>>() {};
+        restTemplate.exchange(URL + "/" + game.getId() + "/pits/1", HttpMethod.PUT, createHttpEntity("W/\"0\""),
+                GameResponse.class);
+
+        //the first move gave an extra turn, but the game is not at version 0 anymore
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(URL + "/" + game.getId() + "/pits/2",
+                HttpMethod.PUT, createHttpEntity("\"0\""), responseType);
+        ResponseEntity<Map<String, Object>> invalid = restTemplate.exchange(URL + "/" + game.getId() + "/pits/2",
+                HttpMethod.PUT, createHttpEntity("\"abc\""), responseType);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(response.getBody()).isNotNull().containsEntry("message", "Game version does not match")
+                .containsEntry("status", 412);
+        assertThat(invalid.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(invalid.getBody()).isNotNull().containsEntry("message", "If-Match should be a game version");
+        assertThat(storage.findById(game.getId())).isPresent().get()
+                .satisfies(stored -> assertThat(stored.getVersion()).isEqualTo(1));
+    }
+
     @Test
     public void testMakeMoveSucceed() {
         GameResponse gameResponse = createGameWithApi();
@@ -122,6 +221,8 @@ public class GameControllerTest {
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        //written in one piece by GameResponseMessageConverter, Jackson streams the body in chunks
+        assertThat(response.getHeaders().getContentLength()).isPositive();
         assertThat(response.getBody()).isNotNull().satisfies(game -> {
             assertThat(game.getId()).isNotEmpty().isEqualTo(gameResponse.getId());
             assertThat(game.getUrl()).isEqualTo("http://localhost:" + port + URL + "/" + game.getId());
@@ -146,6 +247,107 @@ public class GameControllerTest {
         });
     }
 
+    @Test
+    public void testSolveFailedWhenTablebaseIsNotConfigured() {
+        GameResponse game = createGameWithApi();
+        HttpEntity<String> entity = createHttpEntity(MediaType.APPLICATION_JSON);
+        ParameterizedTypeReference<Map<String, Object>> responseType = new ParameterizedTypeReference<Map<String, Object>>() {};
+
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(URL + "/" + game.getId() + "/solution",
+                HttpMethod.GET, entity, responseType);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_IMPLEMENTED);
+        assertThat(response.getBody()).isNotNull().containsValue("Endgame tablebase is not configured");
+    }
+
+    @Test
+    public void testMovesSucceed() {
+        GameResponse game = createGameWithApi();
+        HttpEntity<String> entity = createHttpEntity(MediaType.APPLICATION_JSON);
+        restTemplate.exchange(URL + "/" + game.getId() + "/pits/1", HttpMethod.PUT, entity, GameResponse.class);
+        restTemplate.exchange(URL + "/" + game.getId() + "/pits/2", HttpMethod.PUT, entity, GameResponse.class);
+
+        ResponseEntity<MovesResponse> response = restTemplate.exchange(URL + "/" + game.getId() + "/moves",
+                HttpMethod.GET, entity, MovesResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull().satisfies(moves -> {
+            assertThat(moves.getUrl()).isEqualTo("http://localhost:" + port + URL + "/" + game.getId());
+            assertThat(moves.getMoves()).containsExactly(1, 2);
+        });
+    }
+
+    @Test
+    public void testReplaySucceed() {
+        GameResponse game = createGameWithApi();
+        HttpEntity<String> entity = createHttpEntity(MediaType.APPLICATION_JSON);
+        restTemplate.exchange(URL + "/" + game.getId() + "/pits/6", HttpMethod.PUT, entity, GameResponse.class);
+        restTemplate.exchange(URL + "/" + game.getId() + "/pits/8", HttpMethod.PUT, entity, GameResponse.class);
+
+        ResponseEntity<PlyResponse> response = restTemplate.exchange(URL + "/" + game.getId() + "/plies/1",
+                HttpMethod.GET, entity, PlyResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull().satisfies(ply -> {
+            assertThat(ply.getPly()).isEqualTo(1);
+            assertThat(ply.getTurn()).isEqualTo(GameTurn.PLAYER_TWO);
+            assertThat(ply.getStatus()).containsEntry("6", "0").containsEntry("7", "1").containsEntry("8", "7")
+                    .containsEntry("14", "0");
+        });
+    }
+
+    @Test
+    public void testReplayFailedWhenPlyIsOutOfRange() {
+        GameResponse game = createGameWithApi();
+        HttpEntity<String> entity = createHttpEntity(MediaType.APPLICATION_JSON);
+        ParameterizedTypeReference<Map<String, Object>> responseType = new ParameterizedTypeReference<Map<String, Object>>() {};
+
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(URL + "/" + game.getId() + "/plies/1",
+                HttpMethod.GET, entity, responseType);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isNotNull().containsValue("Ply should be between 0 and 0");
+    }
+
+    @Test
+    public void testMovesFailedWhenHistoryIsNotRecorded() {
+        Game game = createFinishedGame();
+        HttpEntity<String> entity = createHttpEntity(MediaType.APPLICATION_JSON);
+        ParameterizedTypeReference<Map<String, Object>> responseType = new ParameterizedTypeReference<Map<String, Object>>() {};
+
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(URL + "/" + game.getId() + "/moves",
+                HttpMethod.GET, entity, responseType);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(response.getBody()).isNotNull().containsValue("Game history is not recorded");
+    }
+
+    @Test
+    public void testFindByPositionFailedWhenIndexIsNotConfigured() {
+        HttpEntity<String> entity = createHttpEntity(MediaType.APPLICATION_JSON);
+        ParameterizedTypeReference<Map<String, Object>> responseType = new ParameterizedTypeReference<Map<String, Object>>() {};
+
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(URL
+                + "/positions?pits=6,6,6,6,6,6,0,6,6,6,6,6,6,0", HttpMethod.GET, entity, responseType);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_IMPLEMENTED);
+        assertThat(response.getBody()).isNotNull().containsValue("Position index is not configured");
+    }
+
+    @Test
+    public void testCreateGameShouldIgnoreTheForwardedHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Forwarded-Host", "attacker.example.com");
+        headers.set("X-Forwarded-Prefix", "/api");
+
+        ResponseEntity<GameResponse> response = restTemplate.exchange(URL, HttpMethod.POST,
+                new HttpEntity<>(headers), GameResponse.class);
+
+        assertThat(response.getBody()).isNotNull().satisfies(game -> assertThat(game.getUrl())
+                .isEqualTo("http://localhost:" + port + URL + "/" + game.getId()));
+    }
+
     private GameResponse createGameWithApi(){
         HttpEntity<String> entity = createHttpEntity(MediaType.APPLICATION_JSON);
         return restTemplate.exchange(URL, HttpMethod.POST, entity, GameResponse.class).getBody();
@@ -160,6 +362,13 @@ public class GameControllerTest {
                 .winner(GameTurn.PLAYER_ONE).build());
     }
 
+    private HttpEntity<String> createHttpEntity(String ifMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setIfMatch(ifMatch);
+        return new HttpEntity<>(headers);
+    }
+
     private HttpEntity<String> createHttpEntity(MediaType mediaType) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(mediaType);
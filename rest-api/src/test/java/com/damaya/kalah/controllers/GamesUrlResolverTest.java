@@ -0,0 +1,77 @@
+package com.damaya.kalah.controllers;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test of class {@link GamesUrlResolver}
+ */
+public class GamesUrlResolverTest {
+
+    private final AtomicInteger builds = new AtomicInteger();
+    private final GamesUrlResolver resolver = new GamesUrlResolver() {
+        @Override
+        String buildGamesUrl() {
+            builds.incrementAndGet();
+            return super.buildGamesUrl();
+        }
+    };
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void testGamesUrlShouldBeCachedByHost() {
+        request("http", "localhost", 8080, "");
+        assertThat(resolver.gamesUrl()).isEqualTo("http://localhost:8080/games");
+        assertThat(resolver.gamesUrl()).isEqualTo("http://localhost:8080/games");
+
+        request("https", "kalah.example.com", 443, "/api");
+        assertThat(resolver.gamesUrl()).isEqualTo("https://kalah.example.com/api/games");
+
+        request("http", "localhost", 8080, "");
+        assertThat(resolver.gamesUrl()).isEqualTo("http://localhost:8080/games");
+        assertThat(builds).hasValue(2);
+        assertThat(resolver.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testGamesUrlShouldClearTheCacheWhenANewHostFindsItFull() {
+        request("http", "localhost", 8080, "");
+        resolver.gamesUrl();
+        for(int host = 1; host < GamesUrlResolver.MAX_ENTRIES; host++){
+            request("http", "host" + host, 80, "");
+            assertThat(resolver.gamesUrl()).isEqualTo("http://host" + host + "/games");
+        }
+        request("http", "localhost", 8080, "");
+        assertThat(resolver.gamesUrl()).isEqualTo("http://localhost:8080/games");
+        assertThat(builds).hasValue(GamesUrlResolver.MAX_ENTRIES);
+        assertThat(resolver.size()).isEqualTo(GamesUrlResolver.MAX_ENTRIES);
+
+        request("http", "host0", 80, "");
+        assertThat(resolver.gamesUrl()).isEqualTo("http://host0/games");
+        assertThat(resolver.size()).isEqualTo(1);
+        request("http", "localhost", 8080, "");
+        assertThat(resolver.gamesUrl()).isEqualTo("http://localhost:8080/games");
+        assertThat(builds).hasValue(GamesUrlResolver.MAX_ENTRIES + 2);
+        assertThat(resolver.size()).isEqualTo(2);
+    }
+
+    private static void request(String scheme, String host, int port, String contextPath) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", contextPath + "/games");
+        request.setScheme(scheme);
+        request.setServerName(host);
+        request.setServerPort(port);
+        request.setContextPath(contextPath);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
@@ -0,0 +1,79 @@
+package com.damaya.kalah.converters;
+
+import com.damaya.kalah.dtos.GameResponse;
+import com.damaya.kalah.dtos.PitStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test of class {@link GameJsonWriter}
+ */
+public class GameJsonWriterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void testEncodeShouldWriteTheSameJsonAsJackson() throws IOException {
+        int[] pits = {0, 7, 7, 7, 7, 7, 1, 6, 6, 6, 6, 6, 6, 300};
+        GameResponse response = GameResponse.builder()
+                .id("AXvK1Yg2t0e6vQ9bZx3qWA")
+                .url("http://localhost:8080/games/AXvK1Yg2t0e6vQ9bZx3qWA")
+                .status(new PitStatus(pits))
+                .build();
+
+        byte[] json = new GameJsonWriter(8).encode(response).toByteArray();
+
+        assertThat(mapper.readTree(json)).isEqualTo(mapper.readTree(mapper.writeValueAsBytes(response)));
+        assertThat(mapper.readValue(json, Map.class).get("status")).isEqualTo(new PitStatus(pits));
+    }
+
+    @Test
+    public void testEncodeShouldLeaveOutNullFields() throws IOException {
+        GameJsonWriter writer = new GameJsonWriter(64);
+
+        assertThat(new String(writer.encode(GameResponse.builder().id("game").url("url").build()).toByteArray(),
+                "UTF-8")).isEqualTo("{\"id\":\"game\",\"url\":\"url\"}");
+        assertThat(new String(writer.encode(GameResponse.builder().build()).toByteArray(), "UTF-8"))
+                .isEqualTo("{}");
+    }
+
+    @Test
+    public void testEncodeShouldEscapeStrings() throws IOException {
+        Map<String, String> status = new HashMap<>();
+        status.put("1", null);
+        status.put("ké\"y", "v\\al\n");
+        GameResponse response = GameResponse.builder()
+                .id("\u0001\"\\")
+                .url("http://höst/€/😀\"")
+                .status(status)
+                .build();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new GameJsonWriter(4).encode(response).writeTo(out);
+
+        assertThat(mapper.readTree(out.toByteArray())).isEqualTo(mapper.readTree(mapper.writeValueAsBytes(response)));
+    }
+
+    @Test
+    public void testPitStatusShouldBeAMapOfThePits() {
+        Map<String, String> expected = new HashMap<>();
+        expected.put("1", "4");
+        expected.put("2", "0");
+        expected.put("3", "12");
+
+        PitStatus status = new PitStatus(new int[]{4, 0, 12});
+
+        assertThat(status).isEqualTo(expected).hasSize(3);
+        assertThat(status.get("3")).isEqualTo("12");
+        assertThat(status.get("4")).isNull();
+        assertThat(status.get("01")).isNull();
+        assertThat(status.containsKey("x")).isFalse();
+    }
+}
@@ -0,0 +1,182 @@
+package com.damaya.kalah.tools;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.interfaces.GameBot;
+import com.damaya.kalah.core.interfaces.GameRules;
+import com.damaya.kalah.core.usecases.GameUtils;
+import com.damaya.kalah.core.usecases.book.MappedOpeningBook;
+import com.damaya.kalah.core.usecases.bot.AlphaBetaBot;
+import com.damaya.kalah.core.usecases.bot.TranspositionTable;
+import com.damaya.kalah.core.usecases.bot.ZobristKeys;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches every position reached in the first plies of a variant and writes the opening book read by
+ * {@link MappedOpeningBook}. Every position is searched by {@link AlphaBetaBot} to the full depth of a level, with
+ * no time limit, and the same position reached by different move orders is searched once.
+ * <pre>
+ * java -cp tools/target/tools.jar com.damaya.kalah.tools.OpeningBookGenerator kalah 6 8 kalah-book.bin
+ * </pre>
+ */
+public final class OpeningBookGenerator {
+
+    private static final Logger LOCAL_LOGGER = LoggerFactory.getLogger(OpeningBookGenerator.class);
+
+    private final GameVariant variant;
+    private final GameRules rules;
+    private final ZobristKeys keys;
+    private final int plies;
+    private final int level;
+    private final AlphaBetaBot bot;
+    private final Map<Long, BookEntry> analyses = new HashMap<>();
+
+    /**
+     * @param variant variant of the games
+     * @param plies moves from the start of the game, extra turns included
+     * @param level bot level of the searches
+     * @param threads search threads, zero for one per available processor
+     */
+    public OpeningBookGenerator(GameVariant variant, int plies, int level, int threads) {
+        if(plies < 0 || level < GameBot.MIN_LEVEL || level > GameBot.MAX_LEVEL){
+            throw new IllegalArgumentException("Plies should not be negative and level should be between "
+                    + GameBot.MIN_LEVEL + " and " + GameBot.MAX_LEVEL);
+        }
+        this.variant = variant;
+        this.rules = GameVariants.rules(variant);
+        this.keys = ZobristKeys.of(variant);
+        this.plies = plies;
+        this.level = level;
+        this.bot = new AlphaBetaBot(1 << 22, TimeUnit.DAYS.toMillis(1), threads);
+    }
+
+    /**
+     * Search the positions of the first plies
+     * @return this generator
+     */
+    public OpeningBookGenerator generate() {
+        List<Game> frontier = new ArrayList<>();
+        frontier.add(Game.builder()
+                .id("book")
+                .startedAt(new Date())
+                .turn(GameTurn.PLAYER_ONE)
+                .board(Board.builder().pits(rules.deal()).build())
+                .variant(variant)
+                .build());
+        Date playedAt = new Date();
+        try{
+            for(int ply = 0; ply <= plies && !frontier.isEmpty(); ply++){
+                List<Game> next = new ArrayList<>();
+                for(Game game : frontier){
+                    long key = keys.hash(game.getBoard().getPits(), game.getTurn());
+                    if(game.getFinishedAt() != null || analyses.containsKey(key)){
+                        continue;
+                    }
+                    int first = game.getTurn() == GameTurn.PLAYER_ONE ? 0 : variant.getPitsPerSide() + 1;
+                    analyses.put(key, new BookEntry(bot.analyse(game, level), first));
+                    for(int pit = first; ply < plies && pit < first + variant.getPitsPerSide(); pit++){
+                        if(game.getBoard().getPits()[pit] > 0){
+                            Game child = GameUtils.copyOf(game);
+                            rules.playMove(child, pit + 1, playedAt);
+                            next.add(child);
+                        }
+                    }
+                }
+                LOCAL_LOGGER.info("Searched {} positions up to ply {}", analyses.size(), ply);
+                frontier = next;
+            }
+        }finally {
+            bot.close();
+        }
+        return this;
+    }
+
+    /**
+     * @return number of searched positions
+     */
+    public int size() {
+        return analyses.size();
+    }
+
+    /**
+     * Write the searched positions, sorted by key
+     * @param file target file, replaced if it exists
+     */
+    public void write(Path file) throws IOException {
+        long[] sortedKeys = new long[analyses.size()];
+        int count = 0;
+        for(Long key : analyses.keySet()){
+            sortedKeys[count++] = key;
+        }
+        Arrays.sort(sortedKeys);
+        ByteBuffer entries = ByteBuffer.allocate(sortedKeys.length * MappedOpeningBook.ENTRY_SIZE);
+        for(long key : sortedKeys){
+            BookEntry entry = analyses.get(key);
+            entries.putLong(key).putInt(entry.score).putShort(entry.pitId).putShort(entry.depth);
+        }
+        entries.flip();
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)){
+            ByteBuffer header = MappedOpeningBook.header(variant, plies, level, sortedKeys.length);
+            while(header.hasRemaining()){
+                channel.write(header);
+            }
+            while(entries.hasRemaining()){
+                channel.write(entries);
+            }
+        }
+    }
+
+    /**
+     * @param args variant name, plies, bot level and opening book file, and optionally search threads
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length != 4 && args.length != 5){
+            System.err.println("Usage: java -cp tools.jar " + OpeningBookGenerator.class.getName()
+                    + " <variant> <plies> <level> <file> [threads]");
+            System.exit(1);
+        }
+        GameVariant variant = GameVariant.fromName(args[0])
+                .orElseThrow(() -> new IllegalArgumentException("Unknown game variant " + args[0]));
+        OpeningBookGenerator generator = new OpeningBookGenerator(variant, Integer.parseInt(args[1]),
+                Integer.parseInt(args[2]), args.length == 5 ? Integer.parseInt(args[4]) : 0);
+        long start = System.nanoTime();
+        generator.generate();
+        generator.write(Paths.get(args[3]));
+        LOCAL_LOGGER.info("Wrote {} positions to {} in {} ms", generator.size(), args[3],
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Search result of a position
+     */
+    private static final class BookEntry {
+        private final int score;
+        private final short pitId;
+        private final short depth;
+
+        private BookEntry(long analysis, int firstPit) {
+            this.score = TranspositionTable.score(analysis);
+            this.pitId = (short) (firstPit + TranspositionTable.move(analysis) + 1);
+            this.depth = (short) TranspositionTable.depth(analysis);
+        }
+    }
+}
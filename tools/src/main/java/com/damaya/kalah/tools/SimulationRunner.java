@@ -0,0 +1,86 @@
+package com.damaya.kalah.tools;
+
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.interfaces.PlayStrategy;
+import com.damaya.kalah.core.usecases.bot.AlphaBetaBot;
+import com.damaya.kalah.core.usecases.simulation.GameSimulator;
+import com.damaya.kalah.core.usecases.simulation.PlayStrategies;
+import com.damaya.kalah.core.usecases.simulation.SimulationResult;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * Plays games between two strategies with {@link GameSimulator} and prints their statistics. Strategies are
+ * {@code random}, {@code greedy} or {@code bot:<level>}, an {@link AlphaBetaBot} searching every move at the level.
+ * <pre>
+ * java -cp tools/target/tools.jar com.damaya.kalah.tools.SimulationRunner kalah 1000000 random greedy
+ * </pre>
+ */
+public final class SimulationRunner {
+
+    private static final long BOT_MOVE_MILLIS = 1000;
+
+    private SimulationRunner() {}
+
+    /**
+     * @param args variant name, games, strategies of player one and two, and optionally threads and seed
+     */
+    public static void main(String[] args) {
+        if(args.length < 4 || args.length > 6){
+            System.err.println("Usage: java -cp tools.jar " + SimulationRunner.class.getName()
+                    + " <variant> <games> <random|greedy|bot:level> <random|greedy|bot:level> [threads] [seed]");
+            System.exit(1);
+        }
+        GameVariant variant = GameVariant.fromName(args[0])
+                .orElseThrow(() -> new IllegalArgumentException("Unknown game variant " + args[0]));
+        long games = Long.parseLong(args[1]);
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+        AlphaBetaBot bot = new AlphaBetaBot(1 << 20, BOT_MOVE_MILLIS, 1);
+        try(GameSimulator simulator = new GameSimulator(variant, strategy(args[2], bot), strategy(args[3], bot),
+                threads)){
+            long start = System.nanoTime();
+            SimulationResult result = simulator.simulate(games, seed);
+            long elapsed = System.nanoTime() - start;
+            print(System.out, variant, args[2], args[3], result, elapsed, simulator.getThreads());
+        }finally {
+            bot.close();
+        }
+    }
+
+    /**
+     * @param name {@code random}, {@code greedy} or {@code bot:<level>}
+     * @param bot bot of the {@code bot} strategy
+     * @return strategy of the name
+     */
+    static PlayStrategy strategy(String name, AlphaBetaBot bot) {
+        if("random".equals(name)){
+            return PlayStrategies.random();
+        }else if("greedy".equals(name)){
+            return PlayStrategies.greedy();
+        }else if(name.startsWith("bot:")){
+            return PlayStrategies.bot(bot, Integer.parseInt(name.substring("bot:".length())));
+        }
+        throw new IllegalArgumentException("Unknown strategy " + name + ", it should be random, greedy or "
+                + "bot:<level>");
+    }
+
+    static void print(PrintStream out, GameVariant variant, String playerOne, String playerTwo,
+                      SimulationResult result, long elapsedNanos, int threads) {
+        out.printf(Locale.ROOT, "%d %s games, %s against %s, in %.1f s with %d threads (%.0f games/s)%n",
+                result.getGames(), variant.getVariantName(), playerOne, playerTwo, elapsedNanos / 1e9, threads,
+                result.getGames() * 1e9 / Math.max(1L, elapsedNanos));
+        out.printf(Locale.ROOT, "player one wins %.2f%%, player two wins %.2f%%, draws %.2f%%, unfinished %d%n",
+                100.0 * result.getPlayerOneWins() / result.getGames(),
+                100.0 * result.getPlayerTwoWins() / result.getGames(),
+                100.0 * result.getDraws() / result.getGames(), result.getUnfinished());
+        out.printf(Locale.ROOT, "average length %.1f moves, extra turns %.2f%% of the moves, captures %.2f%%%n",
+                result.getAverageLength(), 100 * result.getExtraTurnFrequency(), 100 * result.getCaptureFrequency());
+        out.println("first move      games  player one wins");
+        for(int pit = 0; pit < variant.getPitsPerSide(); pit++){
+            out.printf(Locale.ROOT, "%10d %10d %15.2f%%%n", pit + 1, result.getGames(pit),
+                    100 * result.getPlayerOneWinRate(pit));
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.damaya.kalah.tools;
+
+import com.damaya.kalah.core.entities.enums.CaptureRule;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.interfaces.GameRules;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import com.damaya.kalah.core.usecases.tablebase.MappedTablebase;
+import com.damaya.kalah.core.usecases.tablebase.TablebaseIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Solves every position with up to a number of stones in the pits and writes the tablebase read by
+ * {@link MappedTablebase}. In kalah stones never leave the houses, so a move reaches positions with fewer stones in
+ * play or, when it does not reach any house, with the same stones moved towards the house of the mover. Positions
+ * are solved backwards from the finished ones by stones in play, and positions with the same stones reach each
+ * other without cycles. Values are the stones the player in turn takes from the pits minus the stones the adversary
+ * takes, so they do not depend on the houses.
+ * <pre>
+ * java -jar tools/target/tools.jar kalah 12 kalah-12.tb
+ * </pre>
+ */
+public final class TablebaseGenerator {
+
+    private static final Logger LOCAL_LOGGER = LoggerFactory.getLogger(TablebaseGenerator.class);
+
+    private static final byte UNSOLVED = Byte.MIN_VALUE;
+    private static final byte SOLVING = Byte.MIN_VALUE + 1;
+
+    private final GameVariant variant;
+    private final GameRules rules;
+    private final TablebaseIndex index;
+    private final int pitsPerSide;
+    private final byte[] values;
+
+    /**
+     * @param variant variant whose houses are sown, oware positions can repeat
+     * @param maxStones most stones in the pits, up to 127
+     */
+    public TablebaseGenerator(GameVariant variant, int maxStones) {
+        if(variant.getCaptureRule() == CaptureRule.TWO_OR_THREE){
+            throw new IllegalArgumentException("Variant " + variant.getVariantName() + " positions can repeat, it "
+                    + "cannot be solved by stones in play");
+        }
+        if(maxStones < 0 || maxStones > Byte.MAX_VALUE){
+            throw new IllegalArgumentException("Stones should be between 0 and " + Byte.MAX_VALUE);
+        }
+        this.variant = variant;
+        this.rules = GameVariants.rules(variant);
+        this.index = new TablebaseIndex(variant.getPitsPerSide(), maxStones);
+        this.pitsPerSide = variant.getPitsPerSide();
+        if(index.size() > Integer.MAX_VALUE - MappedTablebase.HEADER_SIZE){
+            throw new IllegalArgumentException("Tablebase of " + maxStones + " stones is too big");
+        }
+        this.values = new byte[(int) index.size()];
+        Arrays.fill(values, UNSOLVED);
+    }
+
+    /**
+     * Solve all the positions, by stones in play
+     * @return this generator
+     */
+    public TablebaseGenerator generate() {
+        int[] board = new int[variant.getTotalPits()];
+        for(int stones = 0; stones <= index.getMaxStones(); stones++){
+            solveAll(board, 0, stones);
+            LOCAL_LOGGER.info("Solved positions with {} stones in play", stones);
+        }
+        return this;
+    }
+
+    /**
+     * @param board pits array, with the houses empty and player one in turn
+     * @return value of the position
+     */
+    public int valueOf(int[] board) {
+        long position = index.indexOf(board, GameTurn.PLAYER_ONE);
+        byte value = values[(int) position];
+        if(value == SOLVING){
+            throw new IllegalStateException("Position " + Arrays.toString(board) + " repeats");
+        }else if(value != UNSOLVED){
+            return value;
+        }
+        values[(int) position] = SOLVING;
+        int result = Integer.MIN_VALUE;
+        if(rules.getWinner(board) != null){
+            result = rowsDifference(board);
+        }else{
+            for(int pit = 0; pit < pitsPerSide; pit++){
+                if(board[pit] > 0){
+                    result = Math.max(result, moveValue(board, pit));
+                }
+            }
+        }
+        values[(int) position] = (byte) result;
+        return result;
+    }
+
+    /**
+     * Write the solved positions
+     * @param file target file, replaced if it exists
+     */
+    public void write(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)){
+            ByteBuffer header = MappedTablebase.header(variant, index.getMaxStones(), index.size());
+            while(header.hasRemaining()){
+                channel.write(header);
+            }
+            ByteBuffer body = ByteBuffer.wrap(values);
+            while(body.hasRemaining()){
+                channel.write(body);
+            }
+        }
+    }
+
+    private void solveAll(int[] board, int pit, int stones) {
+        int rowPit = pit < pitsPerSide ? pit : pit + 1;
+        if(pit == 2 * pitsPerSide - 1){
+            board[rowPit] = stones;
+            valueOf(board);
+            return;
+        }
+        for(int pitStones = 0; pitStones <= stones; pitStones++){
+            board[rowPit] = pitStones;
+            solveAll(board, pit + 1, stones - pitStones);
+        }
+    }
+
+    private int moveValue(int[] board, int pit) {
+        int[] child = board.clone();
+        int last = rules.sow(child, pit, GameTurn.PLAYER_ONE);
+        int houseOne = pitsPerSide;
+        int houseTwo = child.length - 1;
+        int value = child[houseOne] - child[houseTwo];
+        child[houseOne] = 0;
+        child[houseTwo] = 0;
+        if(rules.getWinner(child) != null){
+            return value + rowsDifference(child);
+        }else if(last == houseOne){
+            return value + valueOf(child);
+        }
+        return value - valueOf(mirror(child));
+    }
+
+    private int rowsDifference(int[] board) {
+        int difference = 0;
+        for(int pit = 0; pit < pitsPerSide; pit++){
+            difference += board[pit] - board[pitsPerSide + 1 + pit];
+        }
+        return difference;
+    }
+
+    /**
+     * @return the board seen by player two, so it can be solved as player one
+     */
+    private int[] mirror(int[] board) {
+        int[] mirrored = new int[board.length];
+        System.arraycopy(board, pitsPerSide + 1, mirrored, 0, pitsPerSide);
+        System.arraycopy(board, 0, mirrored, pitsPerSide + 1, pitsPerSide);
+        return mirrored;
+    }
+
+    /**
+     * @param args variant name, most stones in the pits and tablebase file
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length != 3){
+            System.err.println("Usage: java -jar tools.jar <variant> <max stones in play> <file>");
+            System.exit(1);
+        }
+        GameVariant variant = GameVariant.fromName(args[0])
+                .orElseThrow(() -> new IllegalArgumentException("Unknown game variant " + args[0]));
+        TablebaseGenerator generator = new TablebaseGenerator(variant, Integer.parseInt(args[1]));
+        long start = System.nanoTime();
+        generator.generate();
+        generator.write(Paths.get(args[2]));
+        LOCAL_LOGGER.info("Wrote {} positions to {} in {} ms", generator.values.length, args[2],
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
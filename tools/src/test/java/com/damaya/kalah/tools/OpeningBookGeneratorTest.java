@@ -0,0 +1,126 @@
+package com.damaya.kalah.tools;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.entities.enums.MoveCheck;
+import com.damaya.kalah.core.interfaces.GameRules;
+import com.damaya.kalah.core.usecases.GameUtils;
+import com.damaya.kalah.core.usecases.book.MappedOpeningBook;
+import com.damaya.kalah.core.usecases.bot.AlphaBetaBot;
+import com.damaya.kalah.core.usecases.bot.TranspositionTable;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Test of class {@link OpeningBookGenerator}
+ */
+public class OpeningBookGeneratorTest {
+
+    private static final int PLIES = 3;
+    private static final int LEVEL = 2;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final GameRules rules = GameVariants.rules(GameVariant.KALAH);
+
+    @Test
+    public void testBookShouldHoldTheMovesOfTheFirstPlies() throws Exception {
+        Path file = folder.newFile("kalah.book").toPath();
+        OpeningBookGenerator generator = new OpeningBookGenerator(GameVariant.KALAH, PLIES, LEVEL, 1).generate();
+        generator.write(file);
+        MappedOpeningBook book = new MappedOpeningBook(file);
+
+        assertThat(book.size()).isEqualTo(generator.size());
+        assertThat(book.getPlies()).isEqualTo(PLIES);
+        assertThat(book.getLevel()).isEqualTo(LEVEL);
+        List<Game> positions = new ArrayList<>();
+        positions.add(startingGame());
+        for(int ply = 0; ply < PLIES; ply++){
+            List<Game> next = new ArrayList<>();
+            for(Game game : positions){
+                OptionalInt move = book.bestMove(game);
+                assertThat(move).isPresent();
+                assertThat(rules.checkMove(game, move.getAsInt())).isEqualTo(MoveCheck.VALID);
+                next.addAll(children(game));
+            }
+            positions = next;
+        }
+        //positions after the last ply are in the book, the ones after them are not
+        for(Game game : positions){
+            assertThat(book.bestMove(game)).isPresent();
+            assertThat(children(game)).allSatisfy(child -> assertThat(book.bestMove(child)).isEmpty());
+        }
+    }
+
+    @Test
+    public void testBookShouldHoldTheScoreOfTheSearch() throws Exception {
+        Path file = folder.newFile("kalah.book").toPath();
+        new OpeningBookGenerator(GameVariant.KALAH, 0, LEVEL, 1).generate().write(file);
+        MappedOpeningBook book = new MappedOpeningBook(file);
+        AlphaBetaBot bot = new AlphaBetaBot(1 << 16, TimeUnit.HOURS.toMillis(1));
+
+        long analysis = bot.analyse(startingGame(), LEVEL);
+
+        assertThat(book.size()).isEqualTo(1);
+        assertThat(book.score(startingGame())).hasValue(TranspositionTable.score(analysis));
+        assertThat(book.bestMove(startingGame())).hasValue(TranspositionTable.move(analysis) + 1);
+    }
+
+    @Test
+    public void testBookShouldSkipOtherVariants() throws Exception {
+        Path file = folder.newFile("kalah.book").toPath();
+        new OpeningBookGenerator(GameVariant.KALAH, 1, LEVEL, 1).generate().write(file);
+        MappedOpeningBook book = new MappedOpeningBook(file);
+        Game oware = startingGame().withVariant(GameVariant.OWARE);
+
+        assertThat(book.bestMove(oware)).isEmpty();
+    }
+
+    @Test
+    public void testBookShouldRejectOtherFiles() throws Exception {
+        Path file = folder.newFile("other.bin").toPath();
+        Files.write(file, new byte[64]);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> new MappedOpeningBook(file))
+                .withMessageContaining("is not an opening book");
+    }
+
+    private List<Game> children(Game game) {
+        List<Game> children = new ArrayList<>();
+        int first = game.getTurn() == GameTurn.PLAYER_ONE ? 0 : 7;
+        for(int pit = first; game.getFinishedAt() == null && pit < first + 6; pit++){
+            if(game.getBoard().getPits()[pit] > 0){
+                Game child = GameUtils.copyOf(game);
+                rules.playMove(child, pit + 1, new Date());
+                children.add(child);
+            }
+        }
+        return children;
+    }
+
+    private Game startingGame() {
+        return Game.builder()
+                .id("book")
+                .startedAt(new Date())
+                .turn(GameTurn.PLAYER_ONE)
+                .board(Board.builder().pits(GameUtils.dealGame(6)).build())
+                .variant(GameVariant.KALAH)
+                .build();
+    }
+}
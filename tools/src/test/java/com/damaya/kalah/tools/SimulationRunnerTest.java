@@ -0,0 +1,45 @@
+package com.damaya.kalah.tools;
+
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.usecases.bot.AlphaBetaBot;
+import com.damaya.kalah.core.usecases.simulation.GameSimulator;
+import com.damaya.kalah.core.usecases.simulation.SimulationResult;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Test of class {@link SimulationRunner}
+ */
+public class SimulationRunnerTest {
+
+    private final AlphaBetaBot bot = new AlphaBetaBot(1024, 10);
+
+    @Test
+    public void testPrintShouldReportTheStatistics() throws Exception {
+        SimulationResult result;
+        try(GameSimulator simulator = new GameSimulator(GameVariant.KALAH, SimulationRunner.strategy("greedy", bot),
+                SimulationRunner.strategy("bot:1", bot), 1)){
+            result = simulator.simulate(10, 1);
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        SimulationRunner.print(new PrintStream(output, true, "UTF-8"), GameVariant.KALAH, "greedy", "bot:1", result,
+                1_000_000_000L, 1);
+
+        assertThat(output.toString("UTF-8"))
+                .startsWith("10 kalah games, greedy against bot:1, in 1.0 s with 1 threads (10 games/s)")
+                .contains("average length", "extra turns", "captures", "first move");
+    }
+
+    @Test
+    public void testStrategyShouldRejectUnknownNames() {
+        assertThatIllegalArgumentException().isThrownBy(() -> SimulationRunner.strategy("minimax", bot))
+                .withMessage("Unknown strategy minimax, it should be random, greedy or bot:<level>");
+        assertThatIllegalArgumentException().isThrownBy(() -> SimulationRunner.strategy("bot:11", bot));
+    }
+}
@@ -0,0 +1,162 @@
+package com.damaya.kalah.tools;
+
+import com.damaya.kalah.core.entities.domain.Board;
+import com.damaya.kalah.core.entities.domain.EndgameSolution;
+import com.damaya.kalah.core.entities.domain.Game;
+import com.damaya.kalah.core.entities.enums.GameTurn;
+import com.damaya.kalah.core.entities.enums.GameVariant;
+import com.damaya.kalah.core.interfaces.GameRules;
+import com.damaya.kalah.core.usecases.rules.GameVariants;
+import com.damaya.kalah.core.usecases.tablebase.MappedTablebase;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Test of class {@link TablebaseGenerator}
+ */
+public class TablebaseGeneratorTest {
+
+    private static final int MAX_STONES = 5;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final GameRules rules = GameVariants.rules(GameVariant.KALAH);
+
+    @Test
+    public void testGenerateShouldMatchAFullSearch() {
+        TablebaseGenerator generator = new TablebaseGenerator(GameVariant.KALAH, MAX_STONES).generate();
+        SplittableRandom random = new SplittableRandom(17);
+
+        for(int i = 0; i < 500; i++){
+            int[] board = randomBoard(random, false);
+
+            assertThat(generator.valueOf(board)).isEqualTo(search(board, GameTurn.PLAYER_ONE));
+        }
+    }
+
+    @Test
+    public void testMappedTablebaseShouldSolveTheGeneratedPositions() throws Exception {
+        Path file = folder.newFile("kalah.tb").toPath();
+        new TablebaseGenerator(GameVariant.KALAH, MAX_STONES).generate().write(file);
+        MappedTablebase tablebase = new MappedTablebase(file);
+        SplittableRandom random = new SplittableRandom(23);
+
+        for(int i = 0; i < 200; i++){
+            int[] board = randomBoard(random, true);
+            GameTurn turn = random.nextBoolean() ? GameTurn.PLAYER_ONE : GameTurn.PLAYER_TWO;
+            Game game = game(board, turn);
+
+            Optional<EndgameSolution> solution = tablebase.solve(game);
+
+            if(rules.getWinner(board) != null){
+                assertThat(solution).isEmpty();
+                continue;
+            }
+            int value = search(board, turn);
+            int moverHouse = turn == GameTurn.PLAYER_ONE ? board[6] : board[13];
+            int adversaryHouse = turn == GameTurn.PLAYER_ONE ? board[13] : board[6];
+            assertThat(solution).isPresent();
+            assertThat(solution.get().getStonesPlayerOne() + solution.get().getStonesPlayerTwo()).isEqualTo(48);
+            int moverStones = turn == GameTurn.PLAYER_ONE ? solution.get().getStonesPlayerOne()
+                    : solution.get().getStonesPlayerTwo();
+            assertThat(moverStones - (48 - moverStones)).isEqualTo(moverHouse - adversaryHouse + value);
+            //the best move should keep the value of the position
+            Game played = game(board.clone(), turn);
+            rules.playMove(played, solution.get().getBestPitId(), new Date());
+            int[] after = played.getBoard().getPits();
+            int afterMoverHouse = turn == GameTurn.PLAYER_ONE ? after[6] : after[13];
+            int afterAdversaryHouse = turn == GameTurn.PLAYER_ONE ? after[13] : after[6];
+            int afterValue = played.getTurn() == turn ? search(after, turn) : -search(after, played.getTurn());
+            assertThat(afterMoverHouse - afterAdversaryHouse + afterValue)
+                    .isEqualTo(moverHouse - adversaryHouse + value);
+        }
+    }
+
+    @Test
+    public void testMappedTablebaseShouldSkipPositionsWithMoreStones() throws Exception {
+        Path file = folder.newFile("kalah.tb").toPath();
+        new TablebaseGenerator(GameVariant.KALAH, 2).generate().write(file);
+        MappedTablebase tablebase = new MappedTablebase(file);
+
+        assertThat(tablebase.solve(game(new int[]{1, 1, 1, 0, 0, 0, 20, 1, 0, 0, 0, 0, 0, 24},
+                GameTurn.PLAYER_ONE))).isEmpty();
+        assertThat(tablebase.solve(game(new int[]{0, 0, 0, 0, 0, 1, 23, 1, 0, 0, 0, 0, 0, 23},
+                GameTurn.PLAYER_ONE))).isPresent();
+    }
+
+    @Test
+    public void testGeneratorShouldRejectOware() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new TablebaseGenerator(GameVariant.OWARE, 4));
+    }
+
+    /**
+     * @return board with up to the stones of the tablebase in the pits and the rest of the 48 stones in the houses
+     */
+    private int[] randomBoard(SplittableRandom random, boolean withHouses) {
+        int[] board = new int[14];
+        int stones = random.nextInt(MAX_STONES + 1);
+        for(int i = 0; i < stones; i++){
+            int pit = random.nextInt(12);
+            board[pit < 6 ? pit : pit + 1]++;
+        }
+        if(withHouses){
+            board[6] = random.nextInt(48 - stones + 1);
+            board[13] = 48 - stones - board[6];
+        }
+        return board;
+    }
+
+    /**
+     * @return stones the player in turn takes from the pits minus the stones the adversary takes, by minimax
+     */
+    private int search(int[] board, GameTurn turn) {
+        int moverFirst = turn == GameTurn.PLAYER_ONE ? 0 : 7;
+        int adversaryFirst = turn == GameTurn.PLAYER_ONE ? 7 : 0;
+        int moverHouse = turn == GameTurn.PLAYER_ONE ? 6 : 13;
+        int adversaryHouse = turn == GameTurn.PLAYER_ONE ? 13 : 6;
+        if(rules.getWinner(board) != null){
+            int difference = 0;
+            for(int i = 0; i < 6; i++){
+                difference += board[moverFirst + i] - board[adversaryFirst + i];
+            }
+            return difference;
+        }
+        int best = Integer.MIN_VALUE;
+        for(int pit = moverFirst; pit < moverFirst + 6; pit++){
+            if(board[pit] > 0){
+                int[] child = board.clone();
+                int last = rules.sow(child, pit, turn);
+                int value = child[moverHouse] - board[moverHouse] - (child[adversaryHouse] - board[adversaryHouse]);
+                if(rules.getWinner(child) != null){
+                    value += search(child, turn);
+                }else if(last == moverHouse){
+                    value += search(child, turn);
+                }else{
+                    value -= search(child, turn == GameTurn.PLAYER_ONE ? GameTurn.PLAYER_TWO : GameTurn.PLAYER_ONE);
+                }
+                best = Math.max(best, value);
+            }
+        }
+        return best;
+    }
+
+    private Game game(int[] board, GameTurn turn) {
+        return Game.builder()
+                .id("tablebase")
+                .startedAt(new Date())
+                .turn(turn)
+                .board(Board.builder().pits(board).build())
+                .variant(GameVariant.KALAH)
+                .build();
+    }
+}